@@ -54,6 +54,17 @@ application {
     mainClass.set("org.celestelike.desktop.DesktopLauncher")
 }
 
+tasks.register<JavaExec>("runWithFlightRecorder") {
+    group = "application"
+    description = "Launches the game under Java Flight Recorder; the recording is written to build/recordings/game.jfr on exit"
+    mainClass.set("org.celestelike.desktop.DesktopLauncher")
+    classpath = sourceSets["main"].runtimeClasspath
+    jvmArgs("-XX:StartFlightRecording=filename=build/recordings/game.jfr,settings=profile,dumponexit=true")
+    doFirst {
+        layout.buildDirectory.dir("recordings").get().asFile.mkdirs()
+    }
+}
+
 tasks.register<JavaExec>("runViewEditor") {
     group = "application"
     description = "Launches the standalone ViewEditor"
@@ -68,6 +79,95 @@ tasks.register<JavaExec>("runInspector") {
     classpath = sourceSets["main"].runtimeClasspath
 }
 
+tasks.register<JavaExec>("exportChunks") {
+    group = "tools"
+    description = "Splits the authored level into world_chunks/ for chunk paging (args: [output-dir] [repeat])"
+    mainClass.set("org.celestelike.tools.WorldChunkExporter")
+    classpath = sourceSets["main"].runtimeClasspath
+    args("world_chunks", "1")
+}
+
+tasks.register<JavaExec>("benchMaskEncoding") {
+    group = "benchmarks"
+    description = "Compares snapshot size and parse time of the solid/water mask encodings"
+    mainClass.set("org.celestelike.tools.bench.MaskEncodingBenchmark")
+    classpath = sourceSets["main"].runtimeClasspath
+    args("1000", "7")
+}
+
+tasks.register<JavaExec>("benchChunkGeneration") {
+    group = "benchmarks"
+    description = "Measures seeded chunk generation throughput against dash speed and checks determinism"
+    mainClass.set("org.celestelike.tools.bench.ChunkGenerationBenchmark")
+    classpath = sourceSets["main"].runtimeClasspath
+    args("2000")
+}
+
+tasks.register<JavaExec>("benchReplay") {
+    group = "benchmarks"
+    description = "Replays replays/last_run.replay headless and reports the tick-time histogram"
+    mainClass.set("org.celestelike.tools.bench.ReplayBenchmark")
+    classpath = sourceSets["main"].runtimeClasspath
+    args(providers.gradleProperty("replayArgs").orElse("--loops 3").get().split(" "))
+}
+
+tasks.register<JavaExec>("benchSnapshots") {
+    group = "benchmarks"
+    description = "Times world snapshot save/restore and checks rollback re-simulation is exact"
+    mainClass.set("org.celestelike.tools.bench.SnapshotBenchmark")
+    classpath = sourceSets["main"].runtimeClasspath
+    args("60", "8")
+}
+
+tasks.register<JavaExec>("benchRollback") {
+    group = "benchmarks"
+    description = "Plays two rollback peers over a lossy loopback link and checks both match a straight simulation (args: [seconds] [latencyMs] [lossPercent] [inputDelay] [jitterMs])"
+    mainClass.set("org.celestelike.tools.bench.RollbackBenchmark")
+    classpath = sourceSets["main"].runtimeClasspath
+    args("60", "60", "5", "2", "10")
+}
+
+tasks.register<JavaExec>("benchSimulationRunner") {
+    group = "benchmarks"
+    description = "Runs a batch of isolated headless worlds with 1, 2, 4... threads and reports world-ticks per second (args: [worlds] [seconds] [maxThreads])"
+    mainClass.set("org.celestelike.tools.bench.SimulationRunnerBenchmark")
+    classpath = sourceSets["main"].runtimeClasspath
+    args("16", "60")
+}
+
+tasks.register<JavaExec>("benchGym") {
+    group = "benchmarks"
+    description = "Steps the gym environment with random actions and reports steps per second and observation allocations"
+    mainClass.set("org.celestelike.tools.bench.GymBenchmark")
+    classpath = sourceSets["main"].runtimeClasspath
+    args("200000", "60")
+}
+
+tasks.register<JavaExec>("benchScenarios") {
+    group = "benchmarks"
+    description = "Plays the swarm, traversal and restart scenarios headless and fails when update times, allocations, draw calls or texture switches regress against benchmarks/scenario_baseline.json; pass -PscenarioArgs with --no-gate-timings off the reference machine"
+    mainClass.set("org.celestelike.tools.bench.ScenarioBenchmark")
+    classpath = sourceSets["main"].runtimeClasspath
+    args(providers.gradleProperty("scenarioArgs")
+        .orElse("--baseline benchmarks/scenario_baseline.json --threshold 30 --repeats 7").get().split(" "))
+}
+
+tasks.register<JavaExec>("checkDeterminism") {
+    group = "tools"
+    description = "Replays a recording twice with periodic state hashes and reports the first divergent tick"
+    mainClass.set("org.celestelike.tools.DeterminismChecker")
+    classpath = sourceSets["main"].runtimeClasspath
+    args(providers.gradleProperty("determinismArgs").orElse("").get().split(" ").filter { it.isNotBlank() })
+}
+
+tasks.register<JavaExec>("checkAllocations") {
+    group = "tools"
+    description = "Replays a recording headless and fails when steady-state ticks allocate more than a budget"
+    mainClass.set("org.celestelike.tools.AllocationChecker")
+    classpath = sourceSets["main"].runtimeClasspath
+    args(providers.gradleProperty("allocationArgs").orElse("--synthesize 300").get().split(" ").filter { it.isNotBlank() })
+}
+
 tasks.withType<JavaCompile> {
     options.encoding = "UTF-8"
 }
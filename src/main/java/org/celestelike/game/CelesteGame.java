@@ -3,48 +3,48 @@ package org.celestelike.game;
 import com.badlogic.gdx.ApplicationAdapter;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input;
-import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.GlyphLayout;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Matrix4;
 import com.badlogic.gdx.utils.ScreenUtils;
+import com.badlogic.gdx.utils.Timer;
 import com.badlogic.gdx.utils.viewport.FitViewport;
 import com.badlogic.gdx.utils.viewport.Viewport;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import com.badlogic.gdx.graphics.profiling.GLProfiler;
 import java.util.Locale;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.function.IntSupplier;
+import org.celestelike.game.FrameJobs.Affinity;
 import org.celestelike.game.config.GameConfig;
 import org.celestelike.game.entity.samurai.SamuraiCharacter;
-import org.celestelike.game.entity.samurai.input.AttackCommand;
-import org.celestelike.game.entity.samurai.input.DashCommand;
-import org.celestelike.game.entity.samurai.input.DefendCommand;
-import org.celestelike.game.entity.samurai.input.SpecialAttackCommand;
-import org.celestelike.game.entity.samurai.input.JumpCommand;
-import org.celestelike.game.entity.samurai.input.MoveDownCommand;
-import org.celestelike.game.entity.samurai.input.MoveLeftCommand;
-import org.celestelike.game.entity.samurai.input.MoveRightCommand;
-import org.celestelike.game.entity.samurai.input.MoveUpCommand;
-import org.celestelike.game.entity.samurai.input.SamuraiCommand;
+import org.celestelike.game.entity.samurai.input.KeyboardInputSampler;
 import org.celestelike.game.entity.enemy.EnemyDefinition;
 import org.celestelike.game.entity.enemy.EnemyManager;
-import org.celestelike.game.entity.enemy.EnemySpawn;
-import org.celestelike.game.entity.enemy.EnemySpawnLoader;
+import org.celestelike.game.entity.enemy.EnemyRegistry;
+import org.celestelike.game.logging.DeferredLogSink;
 import org.celestelike.game.logging.GameLogger;
+import org.celestelike.game.metrics.CountingSpriteBatch;
+import org.celestelike.game.metrics.FrameProfiler;
+import org.celestelike.game.metrics.FrameProfiler.Phase;
+import org.celestelike.game.metrics.InputLatency;
+import org.celestelike.game.metrics.MetricsServer;
+import org.celestelike.game.metrics.RenderStats;
+import org.celestelike.game.metrics.RenderStats.Counter;
+import org.celestelike.game.metrics.SessionMetrics;
+import org.celestelike.game.metrics.Tracer;
+import org.celestelike.game.metrics.jfr.StateTransitionEvent;
+import org.celestelike.game.net.NetplayMatch;
+import org.celestelike.game.replay.InputRecorder;
+import org.celestelike.game.replay.InputRecording;
 import org.celestelike.game.state.GameState;
-import org.celestelike.game.entity.samurai.powerup.SamuraiPowerUpSnapshot;
-import org.celestelike.game.entity.samurai.powerup.SamuraiPowerUpType;
-import org.celestelike.game.world.LevelCollisionMap;
-import org.celestelike.game.world.LevelData;
-import org.celestelike.game.world.LevelData.TileBlueprint;
-import org.celestelike.game.world.TilesetIO;
-import org.celestelike.game.world.TilesetIO.TilesetData;
 
 /**
  * Minimal runtime that renders the currently authored level.
@@ -52,27 +52,28 @@ import org.celestelike.game.world.TilesetIO.TilesetData;
  */
 public class CelesteGame extends ApplicationAdapter {
 
-    private static final String TILESET_BASE = "assets/newTileSetManara/";
-    private static final String TILESET_TSX = "assets/b.tsx";
-    private static final float TILE_SCALE = 4f; // 8px -> 32 px world units
-    private static final float VIEW_TILES_W = 28f;
-    private static final float VIEW_TILES_H = 16f;
-    private static final int SCORE_PER_ENEMY = 100;
+    static final int SCORE_PER_ENEMY = 100;
+    /** Caps catch-up after a long frame (window drag, GC) instead of spiralling. */
+    private static final int MAX_TICKS_PER_FRAME = 5;
+    private static final long TICK_NANOS = 1_000_000_000L / GameSimulation.TICKS_PER_SECOND;
+    private static final Path PROFILE_DIRECTORY = Path.of("profiles");
+    private static final DateTimeFormatter PROFILE_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final float PROFILER_REFRESH_SECONDS = 0.25f;
+    private static final int PROFILER_GRAPH_FRAMES = 300;
+    private static final float PROFILER_GRAPH_HEIGHT = 60f;
+    /** How often a menu or end screen is redrawn with nothing happening, for chunks that finish loading. */
+    private static final float IDLE_REFRESH_SECONDS = 0.5f;
+    private static final Color BACKGROUND = new Color(0.08f, 0.08f, 0.12f, 1f);
+    private static final Path LAST_RUN_REPLAY = Path.of("replays", "last_run" + InputRecording.FILE_EXTENSION);
 
     private OrthographicCamera camera;
     private Viewport viewport;
-    private SpriteBatch batch;
-
-    private final List<Texture> paletteTextures = new ArrayList<>();
-    private final List<TextureRegion> paletteRegions = new ArrayList<>();
-    private TileCell[][] cells;
-    private LevelCollisionMap collisionMap;
-    private float tileWorldSize;
-    private float worldWidth;
-    private float worldHeight;
+    private CountingSpriteBatch batch;
+    private GLProfiler glProfiler;
+    private RenderStats renderStats;
+    private WorldRenderer worldRenderer;
+    private GameSimulation simulation;
     private float elapsed;
-    private float viewTilesWide = VIEW_TILES_W;
-    private float viewTilesTall = VIEW_TILES_H;
     private float cameraZoom = 1f;
     private float viewWidth;
     private float viewHeight;
@@ -80,380 +81,573 @@ public class CelesteGame extends ApplicationAdapter {
     private SamuraiCharacter samurai;
     private ShapeRenderer uiShape;
     private final Matrix4 uiMatrix = new Matrix4();
-    private SamuraiCommand moveRightCommand;
-    private SamuraiCommand moveLeftCommand;
-    private SamuraiCommand moveUpCommand;
-    private SamuraiCommand moveDownCommand;
-    private SamuraiCommand jumpCommand;
-    private DashCommand dashCommand;
-    private SamuraiCommand attackCommand;
-    private SamuraiCommand defendCommand;
-    private SamuraiCommand specialAttackCommand;
-    private float spawnX;
-    private float spawnY;
+    private final KeyboardInputSampler keyboard = new KeyboardInputSampler();
+    private float tickAccumulator;
+    private InputRecorder recorder;
     private EnemyManager enemyManager;
-    private List<EnemySpawn> enemySpawns = new ArrayList<>();
-    private int blueprintRows;
     private GameState currentGameState = GameState.MENU;
     private BitmapFont hudFont;
     private float playTimer;
     private int score;
+    private NetplayMatch netplay;
+    private final IntSupplier keyboardFrames = keyboard::takeFrame;
     private final GlyphLayout hudLayout = new GlyphLayout();
-    private boolean enemiesWereSpawned = false; // Track if enemies were spawned in current run
+    private HudModel hud;
+    private final FrameProfiler profiler = new FrameProfiler();
+    private final String[] profilerLines = new String[Phase.values().length + InputLatency.Input.values().length + 8];
+    private boolean profilerVisible;
+    private float profilerRefreshAt;
+    private float profilerTextWidth;
+    private MetricsServer metricsServer;
+    /** Ticks the world when the simulation is threaded; {@code null} when it runs in render(). */
+    private SimulationThread simThread;
+    /** The simulation's log, formatted once a frame; {@code null} when it is threaded and formats its own. */
+    private DeferredLogSink simulationLog;
+    private long lastSnapshotTick;
+    private FrameJobs frameJobs;
+    private int[] criticalPath;
+    // Set by the update job for the jobs after it.
+    private float frameDelta;
+    /** The snapshot this frame draws; {@code null} when the simulation runs in render(). */
+    private RenderSnapshot frameSnapshot;
+    private float frameAlpha;
+    private boolean frameShowsWorld;
+    /** Whether this frame draws the world into {@link #idleCache}, or copies it from there. */
+    private boolean frameCapturing;
+    private boolean frameFromCache;
+    private IdleFrameCache idleCache;
+    private final Timer.Task idleRedraw = new Timer.Task() {
+        @Override
+        public void run() {
+            Gdx.graphics.requestRendering();
+        }
+    };
 
     @Override
     public void create() {
         gameConfig = GameConfig.load();
-        tileWorldSize = LevelData.TILE_SIZE * TILE_SCALE;
-        GameLogger.info("Game started");
+        GameLogger.shared().info("Game started");
 
         // Use a fixed, designer-controlled framing; no dynamic zoom changes at runtime.
-        viewTilesWide = gameConfig.cameraTilesWide();
-        viewTilesTall = gameConfig.cameraTilesTall();
         cameraZoom = 1f; // ignore config zoom so camera size stays stable
 
-        TileBlueprint[][] blueprint = LevelData.copyBlueprint();
-        blueprintRows = blueprint.length;
-        int cols = blueprint[0].length;
-        cells = new TileCell[blueprintRows][cols];
-        for (int row = 0; row < blueprintRows; row++) {
-            for (int col = 0; col < cols; col++) {
-                cells[row][col] = TileCell.fromBlueprint(blueprint[row][col]);
-            }
+        // Rollback re-simulates ticks inside the render loop; co-op keeps that loop.
+        boolean threaded = gameConfig.simulation().threaded() && !gameConfig.netplay().enabled();
+        if (threaded) {
+            simulation = new GameSimulation(gameConfig, 1);
+        } else {
+            simulationLog = new DeferredLogSink();
+            simulation = new GameSimulation(gameConfig, gameConfig.netplay().enabled() ? 2 : 1,
+                    EnemyRegistry.defaults(), new GameLogger(simulationLog));
+            simulation.deferUpkeep(true);
         }
-        collisionMap = new LevelCollisionMap(blueprint, tileWorldSize);
-
-        worldWidth = cols * tileWorldSize;
-        worldHeight = blueprintRows * tileWorldSize;
-
-        // Show the whole authored level: viewport matches world size.
-        viewTilesWide = cols;
-        viewTilesTall = blueprintRows;
-        viewWidth = worldWidth;
-        viewHeight = worldHeight;
+        samurai = simulation.samurai();
+        if (gameConfig.netplay().enabled()) {
+            openNetplay();
+        }
+        if (gameConfig.metrics().enabled()) {
+            openMetricsServer();
+        }
+        enemyManager = simulation.enemies();
+        // Chunked worlds scroll with the designer framing; the authored level is shown whole.
+        // Either way the simulation's active area matches the view.
+        viewWidth = simulation.viewWidth();
+        viewHeight = simulation.viewHeight();
 
         camera = new OrthographicCamera();
         viewport = new FitViewport(viewWidth, viewHeight, camera);
         viewport.apply(true);
         camera.zoom = cameraZoom;
 
-        batch = new SpriteBatch();
+        batch = new CountingSpriteBatch();
+        glProfiler = new GLProfiler(Gdx.graphics);
+        renderStats = new RenderStats(glProfiler, batch);
         uiShape = new ShapeRenderer();
         hudFont = new BitmapFont();
         hudFont.getData().setScale(1.1f);
-        loadTileset();
-        initSamurai();
-        enemyManager = new EnemyManager();
-        enemyManager.setEventListener(this::handleEnemyDefeated);
-        enemySpawns = EnemySpawnLoader.load();
-        if (!enemySpawns.isEmpty()) {
-            enemyManager.spawnAll(enemySpawns, blueprintRows, tileWorldSize);
-        }
-        samurai.setAttackImpactListener(damage -> {
-            if (enemyManager != null) {
-                enemyManager.applyMeleeDamage(samurai, damage);
-            }
-        });
+        hud = new HudModel(hudFont);
+        worldRenderer = new WorldRenderer(simulation);
+        idleCache = new IdleFrameCache();
+        buildFrameJobs(threaded);
+        if (threaded) {
+            enemyManager.preloadAnimations();
+            simThread = new SimulationThread(simulation, keyboard);
+        } else if (gameConfig.simulation().threaded()) {
+            Gdx.app.log("CelesteGame", "Threaded simulation is single-player only; ticking on the render thread");
+        }
+        if (netplay == null && simThread == null) {
+            // In co-op, frames may be re-simulated, so events would fire more than once.
+            samurai.setDeathListener(this::handleSamuraiDeath);
+            enemyManager.setEventListener(this::handleEnemyDefeated);
+        }
+        Gdx.app.log("CelesteGame", "Samurai initialized at (" + samurai.getPosition().x + ", " + samurai.getPosition().y + ")");
+        GameLogger.shared().entityCreated("Samurai", "player");
+        Gdx.input.setInputProcessor(keyboard);
+        InputLatency.track(samurai);
         Gdx.graphics.setVSync(true);
         updateCamera();
+        camera.update();
         transitionGameState(GameState.MENU);
+        applyRenderingMode();
+        if (simThread != null) {
+            simThread.start();
+        }
     }
 
     @Override
     public void render() {
-        float delta = Gdx.graphics.getDeltaTime();
-        elapsed += delta;
-        ScreenUtils.clear(0.08f, 0.08f, 0.12f, 1f);
+        InputLatency.frameSwapped();
+        profiler.beginFrame();
+        renderStats.beginFrame();
+        frameDelta = Gdx.graphics.getDeltaTime();
+        elapsed += frameDelta;
+        ScreenUtils.clear(BACKGROUND);
+
+        frameJobs.run();
+        if (frameShowsWorld) {
+            InputLatency.frameSubmitted(frameSnapshot == null ? System.nanoTime() : frameSnapshot.publishedNanos());
+        }
+        if (frameSnapshot != null) {
+            endFrame(frameShowsWorld ? frameSnapshot.liveEnemies() : 0);
+        } else {
+            endFrame(enemyManager == null ? 0 : enemyManager.liveCount());
+        }
+        if (isIdle() && !idleRedraw.isScheduled()) {
+            // Input events request frames themselves; this only keeps the screen from going stale.
+            Timer.schedule(idleRedraw, profilerVisible ? PROFILER_REFRESH_SECONDS : IDLE_REFRESH_SECONDS);
+        }
+    }
 
-        handleInput(delta);
+    /**
+     * Menus and end screens show a world that holds still, so they are drawn only when something
+     * asks for a frame: input, a resize, or {@link #idleRedraw} a few times per second. Co-op
+     * keeps drawing every frame, since each frame also keeps the link to the peer alive.
+     */
+    private boolean isIdle() {
+        return currentGameState != GameState.PLAYING && netplay == null;
+    }
 
-        float simulationDelta = currentGameState == GameState.PLAYING ? delta : 0f;
-        updateWorld(simulationDelta);
-        if (currentGameState == GameState.PLAYING) {
-            playTimer += delta;
+    private void applyRenderingMode() {
+        Gdx.graphics.setContinuousRendering(!isIdle());
+        if (!isIdle()) {
+            idleRedraw.cancel();
+            idleCache.invalidate();
         }
+    }
 
-        updateCamera();
-        camera.update();
-        batch.setProjectionMatrix(camera.combined);
-        batch.begin();
-        drawTiles();
-        if (enemyManager != null) {
-            enemyManager.draw(batch);
-        }
-        drawSamurai();
-        batch.end();
-        if (enemyManager != null && uiShape != null) {
-            uiShape.setProjectionMatrix(camera.combined);
-            enemyManager.drawHealthBars(uiShape);
-        }
-        drawHudOverlay();
-        drawStateOverlay();
+    /**
+     * Declares the phases of a frame as {@link FrameJobs}. Everything that draws is pinned to the
+     * render thread and chained in drawing order; laying out the HUD text needs no GL and only
+     * reads the world, which holds still once the update is done, so it overlaps with drawing the
+     * world. Text layout shares libGDX's static glyph pools, so every later job that lays out
+     * text waits for it.
+     *
+     * <p>When the simulation ticks in the frame, the work that follows its ticks is split into
+     * jobs of its own as well: ticking power-up timers, maintaining the chunk cache behind
+     * collision, rebuilding the enemies' spatial index, stepping the animations of the enemies in
+     * view and formatting the simulation's log. None needs GL; each draw job waits only for the
+     * ones whose results it draws. A threaded simulation does all of this on its own thread.
+     */
+    private void buildFrameJobs(boolean threaded) {
+        frameJobs = new FrameJobs(gameConfig.simulation().frameWorkers());
+        int input = frameJobs.add("input", Affinity.MAIN, this::runInputJob);
+        int update = frameJobs.add("update", Affinity.MAIN, this::runUpdateJob, input);
+        int tiles;
+        int enemies;
+        int players;
+        int hudText;
+        if (threaded) {
+            tiles = frameJobs.add("tiles", Affinity.MAIN, this::runTilesJob, update);
+            enemies = frameJobs.add("enemies", Affinity.MAIN, this::runEnemiesJob, tiles);
+            players = frameJobs.add("samurai", Affinity.MAIN, this::runPlayersJob, enemies);
+            hudText = frameJobs.add("hud text", Affinity.ANY, this::runHudTextJob, update);
+        } else {
+            int powerUps = frameJobs.add("power-up timers", Affinity.ANY, simulation::tickPowerUps, update);
+            int chunkCache = frameJobs.add("chunk cache", Affinity.ANY, simulation::maintainChunkCache, update);
+            int enemyIndex = frameJobs.add("enemy index", Affinity.ANY, worldRenderer::indexEnemies, update);
+            int enemyAnimation = frameJobs.add("enemy animation", Affinity.ANY, this::runEnemyAnimationJob, enemyIndex);
+            frameJobs.add("log format", Affinity.ANY, simulationLog::flush, update, powerUps);
+            tiles = frameJobs.add("tiles", Affinity.MAIN, this::runTilesJob, update, chunkCache);
+            enemies = frameJobs.add("enemies", Affinity.MAIN, this::runEnemiesJob, tiles, enemyAnimation);
+            players = frameJobs.add("samurai", Affinity.MAIN, this::runPlayersJob, enemies, powerUps);
+            hudText = frameJobs.add("hud text", Affinity.ANY, this::runHudTextJob, update, powerUps);
+        }
+        int healthBars = frameJobs.add("health bars", Affinity.MAIN, this::runHealthBarsJob, players);
+        int hudDraw = frameJobs.add("hud", Affinity.MAIN, this::runHudJob, healthBars, hudText);
+        int stateOverlay = frameJobs.add("state overlay", Affinity.MAIN, this::runStateOverlayJob, hudDraw);
+        frameJobs.add("profiler", Affinity.MAIN, this::runProfilerJob, stateOverlay);
+        criticalPath = new int[frameJobs.jobCount()];
+    }
+
+    private void runInputJob() {
+        beginPhase(Phase.INPUT);
+        handleInput();
+        endPhase(Phase.INPUT);
     }
 
-    private void updateWorld(float delta) {
-        if (samurai != null) {
-            samurai.update(delta);
+    /**
+     * Ticks the world, or takes the latest snapshot of a threaded one, and points the camera at
+     * what the frame will show.
+     */
+    private void runUpdateJob() {
+        beginPhase(Phase.UPDATE);
+        if (simThread != null) {
+            frameSnapshot = simThread.latest();
+            endPhase(Phase.UPDATE);
+            frameShowsWorld = frameSnapshot.isPublished();
+            if (frameShowsWorld) {
+                followSnapshot(frameSnapshot);
+            }
+            planWorldDraw();
+            return;
         }
-        if (enemyManager != null) {
-            if (samurai != null && !samurai.isDead()) {
-                enemyManager.update(delta, samurai.getPosition());
-                enemyManager.checkEnemyAttacks(samurai);
+        if (currentGameState == GameState.PLAYING) {
+            runTicks(frameDelta);
+        } else {
+            tickAccumulator = 0f;
+            keyboard.clearPresses();
+            if (netplay != null) {
+                // Holding would step one peer's world and not the other's; only keep the link alive.
+                netplay.poll();
             } else {
-                enemyManager.update(delta);
-            }
-            // Only check for victory if enemies were actually spawned in this run
-            if (delta > 0f && currentGameState == GameState.PLAYING && enemiesWereSpawned && enemyManager.isEmpty()) {
-                transitionGameState(GameState.VICTORY);
+                simulation.hold();
             }
         }
+        endPhase(Phase.UPDATE);
+        frameShowsWorld = true;
+        updateCamera();
+        camera.update();
+        planWorldDraw();
     }
 
-    @Override
-    public void resize(int width, int height) {
-        viewport.update(width, height, true);
-    }
-
-    @Override
-    public void dispose() {
-        if (currentGameState != GameState.GAME_OVER) {
-            transitionGameState(GameState.GAME_OVER);
+    /**
+     * On an idle screen, copies the world captured earlier if it still matches, or captures it
+     * this frame.
+     */
+    private void planWorldDraw() {
+        frameCapturing = false;
+        frameFromCache = false;
+        if (!frameShowsWorld || !isIdle()) {
+            return;
         }
-        GameLogger.info("Game terminated");
-        batch.dispose();
-        if (uiShape != null) {
-            uiShape.dispose();
+        if (idleCache.isValid(worldStamp())) {
+            frameFromCache = true;
+        } else {
+            frameCapturing = true;
         }
-        if (hudFont != null) {
-            hudFont.dispose();
+    }
+
+    /**
+     * Changes when the world behind an idle screen would draw differently: the world holds
+     * still then, but chunks may still finish loading.
+     */
+    private int worldStamp() {
+        return frameSnapshot != null ? frameSnapshot.chunkCount() : simulation.pager().residentCount();
+    }
+
+    /**
+     * Acts on the outcome a threaded simulation reports and places the camera between its last
+     * two ticks by how long ago the snapshot was published.
+     */
+    private void followSnapshot(RenderSnapshot snapshot) {
+        if (currentGameState == GameState.PLAYING) {
+            if (snapshot.isRunOver()) {
+                GameLogger.shared().entityDestroyed("Samurai", "player");
+                transitionGameState(GameState.GAME_OVER);
+            } else if (snapshot.isCleared()) {
+                transitionGameState(GameState.VICTORY);
+            }
         }
-        for (Texture texture : paletteTextures) {
-            texture.dispose();
+        profiler.addTicks((int) Math.max(0L, snapshot.tick() - lastSnapshotTick));
+        lastSnapshotTick = snapshot.tick();
+        frameAlpha = MathUtils.clamp((System.nanoTime() - snapshot.publishedNanos()) / (float) TICK_NANOS, 0f, 1f);
+        camera.position.set(snapshot.viewX(frameAlpha), snapshot.viewY(frameAlpha), 0f);
+        camera.update();
+    }
+
+    private void runTilesJob() {
+        if (!frameShowsWorld || frameFromCache) {
+            return;
         }
-        if (samurai != null) {
-            samurai.dispose();
+        if (frameCapturing && !idleCache.begin(viewport, BACKGROUND)) {
+            frameCapturing = false;
         }
-        if (enemyManager != null) {
-            enemyManager.dispose();
+        batch.setProjectionMatrix(camera.combined);
+        beginPhase(Phase.TILES);
+        batch.begin();
+        if (frameSnapshot != null) {
+            worldRenderer.drawTiles(batch, frameSnapshot, elapsed);
+        } else {
+            worldRenderer.drawTiles(batch, camera, elapsed);
         }
+        endPhase(Phase.TILES);
     }
 
-    private void drawTiles() {
-        int rows = cells.length;
-        int cols = cells[0].length;
-        for (int row = 0; row < rows; row++) {
-            for (int col = 0; col < cols; col++) {
-                TileCell cell = cells[row][col];
-                TextureRegion frame = cell.getFrame(paletteRegions, elapsed);
-                if (frame == null) {
-                    continue;
-                }
-                float x = col * tileWorldSize;
-                float y = row * tileWorldSize;
-                batch.draw(frame, x, y, tileWorldSize, tileWorldSize);
-            }
+    /**
+     * Any thread: picks the enemies the camera sees and steps their animations.
+     */
+    private void runEnemyAnimationJob() {
+        if (frameShowsWorld && !frameFromCache) {
+            worldRenderer.prepareEnemies(camera);
         }
     }
 
-    private void drawSamurai() {
-        if (samurai == null) {
+    private void runEnemiesJob() {
+        if (!frameShowsWorld || frameFromCache) {
             return;
         }
-        samurai.draw(batch);
+        beginPhase(Phase.ENEMIES);
+        if (frameSnapshot != null) {
+            worldRenderer.drawEnemies(batch, frameSnapshot, frameAlpha);
+        } else {
+            worldRenderer.drawEnemies(batch);
+        }
+        endPhase(Phase.ENEMIES);
     }
 
-    private void loadTileset() {
-        paletteTextures.clear();
-        paletteRegions.clear();
-        TilesetData data = TilesetIO.loadFromTsx(TILESET_TSX);
-        if (!data.isEmpty()) {
-            paletteTextures.addAll(data.textures());
-            paletteRegions.addAll(data.regions());
-        } else {
-            loadPaletteFromTilesDirectory();
-            if (paletteRegions.isEmpty()) {
-                loadPaletteFromAtlas();
-            }
+    private void runPlayersJob() {
+        if (!frameShowsWorld || frameFromCache) {
+            return;
         }
-        if (paletteRegions.isEmpty()) {
-            throw new IllegalStateException("Unable to load tile palette.");
+        beginPhase(Phase.SAMURAI);
+        if (frameSnapshot != null) {
+            worldRenderer.drawPlayers(batch, frameSnapshot, frameAlpha);
+        } else {
+            worldRenderer.drawPlayers(batch, samurai);
         }
+        batch.end();
+        endPhase(Phase.SAMURAI);
     }
 
-    private void loadPaletteFromTilesDirectory() {
-        FileHandle directory = Gdx.files.internal(TILESET_BASE);
-        if (directory == null || !directory.exists() || !directory.isDirectory()) {
-            Gdx.app.log("CelesteGame", "Tileset folder " + TILESET_BASE + " missing.");
+    private void runHealthBarsJob() {
+        if (!frameShowsWorld || frameFromCache) {
             return;
         }
-        FileHandle[] contents = directory.list();
-        if (contents == null || contents.length == 0) {
-            return;
+        beginPhase(Phase.HEALTH_BARS);
+        if (frameSnapshot != null) {
+            worldRenderer.drawHealthBars(uiShape, camera, frameSnapshot, frameAlpha);
+        } else {
+            worldRenderer.drawHealthBars(uiShape, camera);
         }
-        Arrays.sort(contents, (a, b) -> a.name().compareToIgnoreCase(b.name()));
-        int loaded = 0;
-        for (FileHandle file : contents) {
-            String extension = file.extension().toLowerCase(Locale.ROOT);
-            if (!"png".equals(extension)) {
-                continue;
-            }
-            Texture texture = new Texture(file);
-            paletteTextures.add(texture);
-            paletteRegions.add(new TextureRegion(texture));
-            loaded++;
+        endPhase(Phase.HEALTH_BARS);
+    }
+
+    /**
+     * Any thread: brings the HUD lines up to date. Reads the world only.
+     */
+    private void runHudTextJob() {
+        if (!frameShowsWorld || frameFromCache || hud == null) {
+            return;
         }
-        if (loaded > 0) {
-            Gdx.app.log("CelesteGame", "Loaded " + paletteRegions.size() + " textures from " + TILESET_BASE);
+        if (frameSnapshot != null) {
+            hud.update(frameSnapshot.score(), frameSnapshot.playSeconds(), null, frameSnapshot);
+        } else {
+            hud.update(score(), playTimer, netplay == null ? null : netplay.session(), samurai.getActivePowerUps());
         }
     }
 
-    private void loadPaletteFromAtlas() {
-        FileHandle file = Gdx.files.internal(TILESET_BASE + "tilemap.png");
-        if (!file.exists()) {
+    private void runHudJob() {
+        if (!frameShowsWorld) {
             return;
         }
-        Texture atlas = new Texture(file);
-        paletteTextures.add(atlas);
-        int tileSize = LevelData.TILE_SIZE;
-        int rows = atlas.getHeight() / tileSize;
-        int cols = atlas.getWidth() / tileSize;
-        for (int row = 0; row < rows; row++) {
-            for (int col = 0; col < cols; col++) {
-                TextureRegion region = new TextureRegion(atlas,
-                        col * tileSize,
-                        row * tileSize,
-                        tileSize,
-                        tileSize);
-                paletteRegions.add(region);
-            }
+        beginPhase(Phase.HUD);
+        if (frameFromCache) {
+            idleCache.draw(batch, viewport);
+        } else if (frameSnapshot != null) {
+            drawHudOverlay(frameSnapshot.health(), frameSnapshot.maxHealth());
+        } else {
+            drawHudOverlay(samurai.getCurrentHealth(), samurai.getMaxHealth());
         }
-        Gdx.app.log("CelesteGame", "Loaded " + paletteRegions.size() + " sprites from atlas fallback");
-    }
-
-    private void initSamurai() {
-        samurai = new SamuraiCharacter(gameConfig.player());
-        samurai.loadAssets();
-        spawnX = 1f * tileWorldSize ;
-        spawnY = 2f * tileWorldSize;
-        samurai.placeAt(spawnX, spawnY);
-        samurai.configurePhysics(-1800f, 0f);
-        samurai.attachCollisionMap(collisionMap);
-        samurai.ensureIdleState();
-        samurai.setDeathListener(this::handleSamuraiDeath);
-        moveRightCommand = new MoveRightCommand();
-        moveLeftCommand = new MoveLeftCommand();
-        moveUpCommand = new MoveUpCommand();
-        moveDownCommand = new MoveDownCommand();
-        jumpCommand = new JumpCommand();
-        dashCommand = new DashCommand();
-        attackCommand = new AttackCommand();
-        defendCommand = new DefendCommand();
-        specialAttackCommand = new SpecialAttackCommand();
-        Gdx.app.log("CelesteGame", "Samurai initialized at (" + spawnX + ", " + spawnY + ")");
-        GameLogger.entityCreated("Samurai", "player");
-    }
-
-    private void handleInput(float delta) {
-        switch (currentGameState) {
-            case MENU -> handleMenuInput();
-            case PLAYING -> handlePlayingInput(delta);
-            case PAUSED -> handlePauseInput();
-            case GAME_OVER -> handleGameOverInput();
-            case VICTORY -> handleVictoryInput();
+        if (frameCapturing) {
+            idleCache.end(viewport, worldStamp());
+            idleCache.draw(batch, viewport);
+        }
+        endPhase(Phase.HUD);
+    }
+
+    private void runStateOverlayJob() {
+        beginPhase(Phase.STATE_OVERLAY);
+        drawStateOverlay();
+        endPhase(Phase.STATE_OVERLAY);
+    }
+
+    private void runProfilerJob() {
+        beginPhase(Phase.PROFILER);
+        drawProfilerOverlay();
+        endPhase(Phase.PROFILER);
+    }
+
+    private void endFrame(int liveEnemies) {
+        profiler.endFrame();
+        renderStats.endFrame();
+        if (metricsServer != null) {
+            SessionMetrics.frame(profiler.intervalNanos(0), profiler.phaseNanos(Phase.UPDATE, 0),
+                    liveEnemies, Texture.getNumManagedTextures());
         }
     }
 
-    private void handlePlayingInput(float delta) {
-        if (samurai == null
-                || moveRightCommand == null
-                || moveLeftCommand == null
-                || moveUpCommand == null
-                || moveDownCommand == null
-                || jumpCommand == null
-                || dashCommand == null
-                || attackCommand == null
-                || defendCommand == null
-                || specialAttackCommand == null) {
+    private void beginPhase(Phase phase) {
+        profiler.begin(phase);
+        renderStats.begin(phase);
+    }
+
+    private void endPhase(Phase phase) {
+        renderStats.end(phase);
+        profiler.end(phase);
+    }
+
+    /**
+     * Runs as many fixed ticks as the elapsed time allows. Each tick takes one input frame, which
+     * is also what gets recorded, so a replay sees exactly the inputs the simulation saw.
+     */
+    private void runTicks(float delta) {
+        tickAccumulator = Math.min(tickAccumulator + delta, MAX_TICKS_PER_FRAME * GameSimulation.TICK_SECONDS);
+        long frameNanos = System.nanoTime();
+        if (netplay != null) {
+            runNetplayTicks(frameNanos);
             return;
         }
-        boolean leftHeld = Gdx.input.isKeyPressed(Input.Keys.A) || Gdx.input.isKeyPressed(Input.Keys.LEFT);
-        boolean rightHeld = Gdx.input.isKeyPressed(Input.Keys.D) || Gdx.input.isKeyPressed(Input.Keys.RIGHT);
-        boolean upHeld = Gdx.input.isKeyPressed(Input.Keys.W) || Gdx.input.isKeyPressed(Input.Keys.UP);
-        boolean downHeld = Gdx.input.isKeyPressed(Input.Keys.S) || Gdx.input.isKeyPressed(Input.Keys.DOWN);
-
-        if (leftHeld && !rightHeld) {
-            moveLeftCommand.execute(samurai, delta);
-            moveRightCommand.release(samurai);
-        } else if (rightHeld && !leftHeld) {
-            moveRightCommand.execute(samurai, delta);
-            moveLeftCommand.release(samurai);
-        } else {
-            moveLeftCommand.release(samurai);
-            moveRightCommand.release(samurai);
+        while (tickAccumulator >= GameSimulation.TICK_SECONDS && currentGameState == GameState.PLAYING) {
+            tickAccumulator -= GameSimulation.TICK_SECONDS;
+            keyboard.collectUntil(tickDeadline(frameNanos));
+            int frame = keyboard.takeFrame();
+            if (recorder != null) {
+                recorder.record(frame);
+            }
+            simulation.tick(frame);
+            profiler.addTicks(1);
+            playTimer += GameSimulation.TICK_SECONDS;
+            if (currentGameState == GameState.PLAYING && simulation.isCleared()) {
+                transitionGameState(GameState.VICTORY);
+            }
         }
+    }
 
-        if (upHeld && !downHeld) {
-            moveUpCommand.execute(samurai, delta);
-            moveDownCommand.release(samurai);
-        } else if (downHeld && !upHeld) {
-            moveDownCommand.execute(samurai, delta);
-            moveUpCommand.release(samurai);
-        } else {
-            moveUpCommand.release(samurai);
-            moveDownCommand.release(samurai);
+    /**
+     * Co-op ticks go through the rollback session, which may skip a tick to let the peer catch
+     * up and may re-simulate earlier ones, so the end screens wait for the outcome of frames both
+     * inputs are known for. Co-op runs are not recorded: replays are single-player.
+     */
+    private void runNetplayTicks(long frameNanos) {
+        while (tickAccumulator >= GameSimulation.TICK_SECONDS && currentGameState == GameState.PLAYING) {
+            tickAccumulator -= GameSimulation.TICK_SECONDS;
+            keyboard.collectUntil(tickDeadline(frameNanos));
+            if (netplay.tick(keyboardFrames)) {
+                profiler.addTicks(1);
+                playTimer += GameSimulation.TICK_SECONDS;
+            }
+            if (netplay.isRunOver()) {
+                GameLogger.shared().entityDestroyed("Samurai", "player");
+                transitionGameState(GameState.GAME_OVER);
+            } else if (netplay.isCleared()) {
+                transitionGameState(GameState.VICTORY);
+            }
         }
+    }
 
-        if (Gdx.input.isKeyJustPressed(Input.Keys.SPACE)) {
-            jumpCommand.execute(samurai, delta);
-        }
+    /**
+     * The latest input a tick takes: the last tick of a frame takes everything seen so far, and
+     * each earlier catch-up tick stops one tick length before the one after it.
+     */
+    private long tickDeadline(long frameNanos) {
+        int ticksLeft = (int) (tickAccumulator / GameSimulation.TICK_SECONDS);
+        return frameNanos - ticksLeft * TICK_NANOS;
+    }
 
-        if (Gdx.input.isKeyJustPressed(Input.Keys.J)
-                || Gdx.input.isKeyJustPressed(Input.Keys.Z)
-                || Gdx.input.isButtonJustPressed(Input.Buttons.LEFT)) {
-            attackCommand.execute(samurai, delta);
+    private void openNetplay() {
+        try {
+            netplay = NetplayMatch.open(gameConfig, simulation, LAST_RUN_REPLAY);
+            samurai = simulation.player(netplay.localPlayer());
+        } catch (IOException exception) {
+            // The simulation already has two samurai; the partner simply never moves.
+            Gdx.app.error("CelesteGame", "Failed to open netplay; playing offline", exception);
         }
+    }
 
-        if (Gdx.input.isKeyJustPressed(Input.Keys.E)
-                || Gdx.input.isButtonJustPressed(Input.Buttons.MIDDLE)) {
-            specialAttackCommand.execute(samurai, delta);
+    private void openMetricsServer() {
+        try {
+            metricsServer = new MetricsServer(gameConfig.metrics().port());
+            Gdx.app.log("CelesteGame", "Serving metrics at http://127.0.0.1:" + metricsServer.port() + "/metrics");
+        } catch (IOException exception) {
+            Gdx.app.error("CelesteGame", "Failed to open the metrics endpoint", exception);
         }
+    }
 
-        if (Gdx.input.isButtonPressed(Input.Buttons.RIGHT)) {
-            defendCommand.execute(samurai, delta);
-        } else {
-            defendCommand.release(samurai);
+    @Override
+    public void resize(int width, int height) {
+        viewport.update(width, height, true);
+        idleCache.invalidate();
+    }
+
+    @Override
+    public void dispose() {
+        if (currentGameState != GameState.GAME_OVER) {
+            transitionGameState(GameState.GAME_OVER);
+        }
+        GameLogger.shared().info("Game terminated");
+        if (simThread != null) {
+            simThread.dispose();
+        }
+        frameJobs.dispose();
+        idleRedraw.cancel();
+        idleCache.dispose();
+        batch.dispose();
+        if (uiShape != null) {
+            uiShape.dispose();
+        }
+        if (hudFont != null) {
+            hudFont.dispose();
+        }
+        if (worldRenderer != null) {
+            worldRenderer.dispose();
+        }
+        if (netplay != null) {
+            netplay.close();
+        }
+        if (metricsServer != null) {
+            metricsServer.close();
         }
+        if (simulation != null) {
+            simulation.dispose();
+        }
+        if (simulationLog != null) {
+            simulationLog.flush();
+        }
+    }
 
-        if (Gdx.input.isKeyJustPressed(Input.Keys.SHIFT_LEFT)
-                || Gdx.input.isKeyJustPressed(Input.Keys.SHIFT_RIGHT)) {
-            float dashX = 0f;
-            if (rightHeld) {
-                dashX += 1f;
-            }
-            if (leftHeld) {
-                dashX -= 1f;
-            }
-            float dashY = 0f;
-            if (upHeld) {
-                dashY += 1f;
-            }
-            if (downHeld) {
-                dashY -= 1f;
+    private void handleInput() {
+        if (Gdx.input.isKeyJustPressed(Input.Keys.F3)) {
+            profilerVisible = !profilerVisible;
+            profilerRefreshAt = 0f;
+            // GL counting checks glGetError after every call, so it only runs while shown.
+            if (profilerVisible) {
+                glProfiler.enable();
+            } else {
+                glProfiler.disable();
             }
-            dashCommand.setDirection(dashX, dashY);
-            dashCommand.execute(samurai, delta);
         }
-        if (Gdx.input.isKeyJustPressed(Input.Keys.ESCAPE)) {
-            transitionGameState(GameState.PAUSED);
+        if (Gdx.input.isKeyJustPressed(Input.Keys.F4)) {
+            saveFrameProfile();
         }
-        if (Gdx.input.isKeyJustPressed(Input.Keys.NUM_1)) {
-            samurai.grantPowerUp(SamuraiPowerUpType.SHIELD);
+        if (Gdx.input.isKeyJustPressed(Input.Keys.F5)) {
+            toggleTrace();
         }
-        if (Gdx.input.isKeyJustPressed(Input.Keys.NUM_2)) {
-            samurai.grantPowerUp(SamuraiPowerUpType.SPEED);
+        switch (currentGameState) {
+            case MENU -> handleMenuInput();
+            case PLAYING -> handlePlayingInput();
+            case PAUSED -> handlePauseInput();
+            case GAME_OVER -> handleGameOverInput();
+            case VICTORY -> handleVictoryInput();
         }
-        if (Gdx.input.isKeyJustPressed(Input.Keys.NUM_3)) {
-            samurai.grantPowerUp(SamuraiPowerUpType.WEAPON);
+    }
+
+    /**
+     * Gameplay controls are sampled by {@link KeyboardInputSampler} and applied per tick; only
+     * the screen-level keys are handled here.
+     */
+    private void handlePlayingInput() {
+        if (Gdx.input.isKeyJustPressed(Input.Keys.ESCAPE)) {
+            transitionGameState(GameState.PAUSED);
         }
     }
 
@@ -491,47 +685,60 @@ public class CelesteGame extends ApplicationAdapter {
         if (camera == null) {
             return;
         }
-        // Fixed camera: keep view centered on the level, no player-follow POV.
-        float centerX = worldWidth * 0.5f;
-        float centerY = worldHeight * 0.5f;
-        camera.position.set(centerX, centerY, 0f);
+        // Follows the samurai on scrolling worlds, otherwise stays centred on the level.
+        camera.position.set(simulation.viewCenterX(), simulation.viewCenterY(), 0f);
     }
 
     private void handleSamuraiDeath() {
-        GameLogger.entityDestroyed("Samurai", "player");
+        GameLogger.shared().entityDestroyed("Samurai", "player");
         transitionGameState(GameState.GAME_OVER);
     }
 
     private void handleEnemyDefeated(EnemyDefinition definition) {
         score += SCORE_PER_ENEMY;
-        GameLogger.info("Enemy defeated: " + definition.id() + " (score=" + score + ")");
+        GameLogger.shared().info("Enemy defeated: " + definition.id() + " (score=" + score + ")");
+    }
+
+    /**
+     * In co-op the score is derived from the simulation rather than counted from events, so a
+     * rollback cannot count a defeat twice.
+     */
+    private int score() {
+        return netplay == null ? score : enemyManager.defeatedSpawnCount() * SCORE_PER_ENEMY;
     }
 
     private void startNewRun() {
         score = 0;
         playTimer = 0f;
-        enemiesWereSpawned = false; // Reset flag
-        if (samurai != null) {
-            samurai.reviveAt(spawnX, spawnY);
-            GameLogger.entityCreated("Samurai", "player");
+        if (simThread != null) {
+            simThread.startRun();
+            GameLogger.shared().entityCreated("Samurai", "player");
+            transitionGameState(GameState.PLAYING);
+            return;
         }
-        if (enemyManager != null) {
-            enemyManager.respawn(enemySpawns, blueprintRows, tileWorldSize);
-            // Check if enemies were actually spawned (not empty after respawn)
-            enemiesWereSpawned = !enemyManager.isEmpty();
+        if (netplay != null) {
+            netplay.startRun();
+        } else {
+            simulation.startRun();
+            recorder = new InputRecorder(GameSimulation.TICKS_PER_SECOND, InputRecording.fingerprint(simulation.source()));
         }
+        GameLogger.shared().entityCreated("Samurai", "player");
+        keyboard.clearPresses();
+        tickAccumulator = 0f;
         transitionGameState(GameState.PLAYING);
     }
 
-    private void drawHudOverlay() {
+    /**
+     * Draws the health bar and the HUD lines {@link #runHudTextJob()} prepared.
+     */
+    private void drawHudOverlay(int currentHealth, int max) {
         if (uiShape == null || samurai == null || hudFont == null) {
             return;
         }
-        int max = samurai.getMaxHealth();
         if (max <= 0) {
             return;
         }
-        int current = Math.max(0, samurai.getCurrentHealth());
+        int current = Math.max(0, currentHealth);
         float ratio = MathUtils.clamp(current / (float) max, 0f, 1f);
         float margin = 20f;
         float barWidth = 260f;
@@ -552,16 +759,7 @@ public class CelesteGame extends ApplicationAdapter {
 
         batch.setProjectionMatrix(uiMatrix);
         batch.begin();
-        float textY = height - margin - barHeight - 10f;
-        hudFont.draw(batch, "Score: " + score, margin, textY);
-        hudFont.draw(batch, "Time : " + formatClock(playTimer), margin, textY - 20f);
-        List<SamuraiPowerUpSnapshot> buffs = samurai.getActivePowerUps();
-        float powerY = textY - 50f;
-        for (SamuraiPowerUpSnapshot buff : buffs) {
-            String label = buff.type().displayName() + " (" + String.format(Locale.US, "%.1fs", Math.max(0f, buff.remainingSeconds())) + ")";
-            hudFont.draw(batch, label, margin, powerY);
-            powerY -= 18f;
-        }
+        hud.draw(batch, margin, height - margin - barHeight - 10f);
         batch.end();
     }
 
@@ -610,54 +808,210 @@ public class CelesteGame extends ApplicationAdapter {
         batch.end();
     }
 
-    private String formatClock(float seconds) {
-        int total = Math.max(0, (int) seconds);
-        int minutes = total / 60;
-        int secs = total % 60;
-        return String.format(Locale.US, "%02d:%02d", minutes, secs);
+    /**
+     * Draws the F3 profiler panel in the top-right corner: average and p99 of the frame interval,
+     * the frame's own work and each phase over the kept history with their average allocations,
+     * render counts and the critical path through the jobs of the last frame, and a graph of
+     * recent frames against the 60 fps budget. The figures are refreshed a few times per second
+     * so reading them costs little and they stay legible.
+     */
+    private void drawProfilerOverlay() {
+        if (!profilerVisible || uiShape == null || hudFont == null) {
+            return;
+        }
+        if (elapsed >= profilerRefreshAt) {
+            refreshProfilerLines();
+            profilerRefreshAt = elapsed + PROFILER_REFRESH_SECONDS;
+        }
+        float width = Gdx.graphics.getWidth();
+        float height = Gdx.graphics.getHeight();
+        float lineHeight = 18f;
+        float panelWidth = Math.max(PROFILER_GRAPH_FRAMES, profilerTextWidth) + 20f;
+        float panelHeight = profilerLines.length * lineHeight + PROFILER_GRAPH_HEIGHT + 30f;
+        float left = width - panelWidth - 10f;
+        float top = height - 10f;
+        float graphBottom = top - panelHeight + 10f;
+        float budgetNanos = GameSimulation.TICK_SECONDS * 1e9f;
+        float nanosToPixels = PROFILER_GRAPH_HEIGHT / (2f * budgetNanos);
+
+        uiShape.setProjectionMatrix(uiMatrix.setToOrtho2D(0f, 0f, width, height));
+        uiShape.begin(ShapeRenderer.ShapeType.Filled);
+        uiShape.setColor(0f, 0f, 0f, 0.7f);
+        uiShape.rect(left, top - panelHeight, panelWidth, panelHeight);
+        int frames = Math.min(profiler.frameCount(), PROFILER_GRAPH_FRAMES);
+        float graphRight = left + panelWidth - 10f;
+        for (int age = 0; age < frames; age++) {
+            float x = graphRight - age - 1f;
+            float interval = Math.min(profiler.intervalNanos(age) * nanosToPixels, PROFILER_GRAPH_HEIGHT);
+            float work = Math.min(profiler.workNanos(age) * nanosToPixels, PROFILER_GRAPH_HEIGHT);
+            uiShape.setColor(0.35f, 0.35f, 0.4f, 1f);
+            uiShape.rect(x, graphBottom, 1f, interval);
+            if (profiler.workNanos(age) > budgetNanos) {
+                uiShape.setColor(0.9f, 0.25f, 0.2f, 1f);
+            } else {
+                uiShape.setColor(0.3f, 0.85f, 0.4f, 1f);
+            }
+            uiShape.rect(x, graphBottom, 1f, work);
+        }
+        uiShape.setColor(1f, 0.85f, 0.2f, 0.8f);
+        uiShape.rect(graphRight - PROFILER_GRAPH_FRAMES, graphBottom + budgetNanos * nanosToPixels, PROFILER_GRAPH_FRAMES, 1f);
+        uiShape.end();
+
+        batch.setProjectionMatrix(uiMatrix);
+        batch.begin();
+        float textY = top - 8f;
+        for (String line : profilerLines) {
+            hudFont.draw(batch, line, left + 10f, textY);
+            textY -= lineHeight;
+        }
+        batch.end();
     }
 
-    private void transitionGameState(GameState next) {
-        if (next == null || next == currentGameState) {
-            return;
+    private void refreshProfilerLines() {
+        profilerLines[0] = profilerLine("frame", profiler.averageIntervalNanos(), profiler.percentileIntervalNanos(99));
+        profilerLines[1] = profilerLine("work", profiler.averageWorkNanos(), profiler.percentileWorkNanos(99));
+        Phase[] phases = Phase.values();
+        for (int i = 0; i < phases.length; i++) {
+            profilerLines[i + 2] = profilerLine("  " + phases[i].label(),
+                    profiler.averageNanos(phases[i]), profiler.percentileNanos(phases[i], 99))
+                    + String.format(Locale.US, " %7.0f B %3d dc %3d sw",
+                    profiler.averageBytes(phases[i]),
+                    renderStats.count(Counter.DRAW_CALLS, phases[i]),
+                    renderStats.count(Counter.TEXTURE_SWITCHES, phases[i]));
+        }
+        profilerLines[phases.length + 2] = String.format(Locale.US, "gl     %4d draw calls %4d binds %3d shaders",
+                renderStats.frameCount(Counter.DRAW_CALLS), renderStats.frameCount(Counter.TEXTURE_BINDS),
+                renderStats.frameCount(Counter.SHADER_SWITCHES));
+        profilerLines[phases.length + 3] = String.format(Locale.US, "batch  %4d flushes %4d switches %5d max sprites",
+                renderStats.frameCount(Counter.BATCH_FLUSHES), renderStats.frameCount(Counter.TEXTURE_SWITCHES),
+                renderStats.maxSpritesInBatch());
+        profilerLines[phases.length + 4] = String.format(Locale.US, "alloc  %8.0f B/frame %7.0f B/tick",
+                profiler.averageWorkBytes(), profiler.bytesPerTick());
+        refreshJobLines(phases.length + 5);
+        profilerLines[phases.length + 7] = String.format(Locale.US, "input latency, median to each stage (%d ignored)",
+                InputLatency.dropped());
+        InputLatency.Input[] inputs = InputLatency.Input.values();
+        for (int i = 0; i < inputs.length; i++) {
+            profilerLines[phases.length + 8 + i] = InputLatency.summary(inputs[i]);
+        }
+        profilerTextWidth = 0f;
+        for (String line : profilerLines) {
+            hudLayout.setText(hudFont, line);
+            profilerTextWidth = Math.max(profilerTextWidth, hudLayout.width);
         }
-        String prev = currentGameState == null ? "NONE" : currentGameState.name();
-        GameLogger.stateTransition("Game", prev, next.name());
-        currentGameState = next;
     }
 
-    private static class TileCell {
-        static final int MAX_FRAMES = 3;
+    /**
+     * The last frame's jobs: the critical path against the wall time, the time spent off the
+     * render thread and waiting for it, then the jobs along the path.
+     */
+    private void refreshJobLines(int first) {
+        long offMain = 0L;
+        for (int job = 0; job < frameJobs.jobCount(); job++) {
+            if (!frameJobs.lastRanOnMain(job)) {
+                offMain += frameJobs.lastNanos(job);
+            }
+        }
+        profilerLines[first] = String.format(Locale.US, "jobs   %5.2f ms critical path %5.2f ms wall %5.2f off main %5.2f waited",
+                frameJobs.criticalPathNanos() / 1e6, frameJobs.lastWallNanos() / 1e6,
+                offMain / 1e6, frameJobs.lastMainWaitNanos() / 1e6);
+        StringBuilder path = new StringBuilder("  ");
+        int length = frameJobs.criticalPath(criticalPath);
+        for (int i = 0; i < length; i++) {
+            if (i > 0) {
+                path.append(" > ");
+            }
+            path.append(frameJobs.name(criticalPath[i]));
+        }
+        profilerLines[first + 1] = path.toString();
+    }
+
+    private static String profilerLine(String label, double averageNanos, long p99Nanos) {
+        return String.format(Locale.US, "%-14s avg %6.2f  p99 %6.2f ms", label, averageNanos / 1e6, p99Nanos / 1e6);
+    }
 
-        final int[] frameIndices = new int[MAX_FRAMES];
-        int frameCount;
-        float frameDuration = 0.15f;
+    /**
+     * Writes the kept frame timings to {@code profiles/} as CSV, one row per frame.
+     */
+    private void saveFrameProfile() {
+        Path target = PROFILE_DIRECTORY.resolve("frames-" + LocalDateTime.now().format(PROFILE_STAMP) + ".csv");
+        try {
+            profiler.save(target);
+            Gdx.app.log("CelesteGame", "Saved " + profiler.frameCount() + " frame timings to " + target);
+        } catch (IOException exception) {
+            Gdx.app.error("CelesteGame", "Failed to save frame timings to " + target, exception);
+        }
+    }
 
-        static TileCell fromBlueprint(TileBlueprint blueprint) {
-            TileCell cell = new TileCell();
-            cell.setFrames(blueprint.frames(), blueprint.frameDuration());
-            return cell;
+    /**
+     * Starts a {@link Tracer} recording, or stops the running one and writes it to
+     * {@code profiles/} as a Chrome trace.
+     */
+    private void toggleTrace() {
+        if (!Tracer.isRecording()) {
+            Tracer.start(Tracer.DEFAULT_CAPACITY);
+            Gdx.app.log("CelesteGame", "Trace recording started");
+            return;
+        }
+        Tracer.stop();
+        Path target = PROFILE_DIRECTORY.resolve("trace-" + LocalDateTime.now().format(PROFILE_STAMP) + ".json");
+        try {
+            Tracer.save(target);
+            Gdx.app.log("CelesteGame", "Saved " + Tracer.eventCount() + " trace events to " + target);
+        } catch (IOException exception) {
+            Gdx.app.error("CelesteGame", "Failed to save trace to " + target, exception);
         }
+    }
 
-        void setFrames(int[] frames, float duration) {
-            frameCount = Math.min(frames.length, MAX_FRAMES);
-            for (int i = 0; i < frameCount; i++) {
-                frameIndices[i] = frames[i];
+    private void transitionGameState(GameState next) {
+        if (next == null || next == currentGameState) {
+            return;
+        }
+        String prev = currentGameState == null ? "NONE" : currentGameState.name();
+        GameLogger.shared().stateTransition("Game", prev, next.name());
+        StateTransitionEvent.emit("Game", prev, next.name());
+        SessionMetrics.stateTransition("Game", next.name());
+        if (Tracer.isRecording()) {
+            Tracer.instant("state", "Game", prev + " -> " + next.name());
+        }
+        currentGameState = next;
+        if (next == GameState.PLAYING) {
+            // Idle screens draw rarely; the first playing frame should not catch up on that gap.
+            frameDelta = Math.min(frameDelta, GameSimulation.TICK_SECONDS);
+        }
+        applyRenderingMode();
+        if (simThread != null) {
+            if (next == GameState.PLAYING) {
+                simThread.resume();
+            } else {
+                simThread.pause();
             }
-            frameDuration = duration;
         }
+        if (next != GameState.PLAYING && next != GameState.PAUSED) {
+            saveRecording();
+        }
+    }
 
-        TextureRegion getFrame(List<TextureRegion> palette, float time) {
-            if (frameCount <= 0) {
-                return null;
-            }
-            float duration = Math.max(frameDuration, 0.01f);
-            int frame = (int) Math.floor((time / duration) % frameCount);
-            int index = frameIndices[frame];
-            if (index < 0 || index >= palette.size()) {
-                return null;
-            }
-            return palette.get(index);
+    /**
+     * Writes the run that just ended to {@code replays/last_run.replay} for headless playback.
+     */
+    private void saveRecording() {
+        InputRecording recording;
+        if (simThread != null) {
+            recording = simThread.finishRecording();
+        } else {
+            recording = recorder == null ? null : recorder.finish();
+            recorder = null;
+        }
+        if (recording == null || recording.tickCount() == 0L) {
+            return;
+        }
+        try {
+            recording.save(LAST_RUN_REPLAY);
+            GameLogger.shared().info(String.format(Locale.US, "Recorded %.1fs run (%d ticks, %d bytes) to %s",
+                    recording.durationSeconds(), recording.tickCount(), recording.encodedBytes(), LAST_RUN_REPLAY));
+        } catch (IOException exception) {
+            Gdx.app.error("CelesteGame", "Failed to save input recording", exception);
         }
     }
 }
@@ -0,0 +1,415 @@
+package org.celestelike.game;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import org.celestelike.game.metrics.Tracer;
+
+/**
+ * The work of a frame as a graph of jobs, each started once the jobs it depends on have finished.
+ * Jobs that touch GL or the sprite batches are pinned to the thread calling {@link #run()};
+ * the others go to a small work-stealing pool and overlap with them. With no workers every job
+ * runs on the calling thread in the order it was added, which is also a valid order since a job
+ * can only depend on jobs added before it.
+ *
+ * <p>Each run records when every job started and finished, so the {@linkplain #criticalPath
+ * critical path}, the chain of dependent jobs that bounds the frame however many threads help,
+ * can be shown next to the wall time. While the {@link Tracer} records, jobs are also traced as
+ * spans on the thread that ran them.
+ *
+ * <p>The graph is fixed by the first run, after which running it allocates nothing. Only one
+ * thread may run it.
+ */
+final class FrameJobs {
+
+    enum Affinity {
+        /** Runs on the thread calling {@link #run()}. */
+        MAIN,
+        /** Runs on whichever thread is free, usually a worker. */
+        ANY
+    }
+
+    private static final String TRACE_CATEGORY = "job";
+    private static final int INITIAL_JOBS = 16;
+    private static final int[] NO_JOBS = new int[0];
+
+    private final ForkJoinPool pool;
+    private String[] names = new String[INITIAL_JOBS];
+    private Affinity[] affinities = new Affinity[INITIAL_JOBS];
+    private Runnable[] bodies = new Runnable[INITIAL_JOBS];
+    private int[][] dependencies = new int[INITIAL_JOBS][];
+    private int[][] dependents = new int[INITIAL_JOBS][];
+    private int count;
+    private boolean sealed;
+
+    // Fixed at the first run.
+    private Job[] tasks;
+    private AtomicIntegerArray pending;
+    private long[] starts;
+    private long[] ends;
+    private boolean[] onMain;
+    private long[] lastStarts;
+    private long[] lastEnds;
+    private boolean[] lastOnMain;
+    private long[] pathNanos;
+    private int[] pathVia;
+
+    private final AtomicInteger workerNumbers = new AtomicInteger();
+    private final AtomicInteger remaining = new AtomicInteger();
+    private final Object mainLock = new Object();
+    // Guarded by mainLock.
+    private int[] mainReady;
+    private int mainHead;
+    private int mainTail;
+
+    private volatile Throwable failure;
+    private Thread runner;
+    private long lastWallNanos;
+    private long lastMainWaitNanos;
+
+    /**
+     * @param workers threads that take {@link Affinity#ANY} jobs; 0 runs everything on the
+     *                calling thread
+     */
+    FrameJobs(int workers) {
+        pool = workers <= 0 ? null : new ForkJoinPool(workers, this::newWorker, null, false);
+    }
+
+    /**
+     * Adds a job; the jobs it depends on must already have been added.
+     *
+     * @return the job's index, for later jobs to depend on
+     */
+    int add(String name, Affinity affinity, Runnable body, int... after) {
+        if (sealed) {
+            throw new IllegalStateException("Frame jobs cannot be added after the first run");
+        }
+        for (int dependency : after) {
+            if (dependency < 0 || dependency >= count) {
+                throw new IllegalArgumentException("Job " + name + " depends on unknown job " + dependency);
+            }
+        }
+        if (count == names.length) {
+            int grown = count * 2;
+            names = Arrays.copyOf(names, grown);
+            affinities = Arrays.copyOf(affinities, grown);
+            bodies = Arrays.copyOf(bodies, grown);
+            dependencies = Arrays.copyOf(dependencies, grown);
+            dependents = Arrays.copyOf(dependents, grown);
+        }
+        int job = count++;
+        names[job] = name;
+        affinities[job] = affinity;
+        bodies[job] = body;
+        dependencies[job] = after.clone();
+        dependents[job] = NO_JOBS;
+        for (int dependency : after) {
+            int[] list = Arrays.copyOf(dependents[dependency], dependents[dependency].length + 1);
+            list[list.length - 1] = job;
+            dependents[dependency] = list;
+        }
+        return job;
+    }
+
+    /**
+     * Runs every job once and returns when all have finished. A job that throws does not stop
+     * the others from being accounted for, but the jobs not yet started are skipped, and the
+     * first failure is rethrown here.
+     */
+    void run() {
+        seal();
+        runner = Thread.currentThread();
+        long start = System.nanoTime();
+        long waited = 0L;
+        if (pool == null) {
+            for (int job = 0; job < count; job++) {
+                execute(job);
+            }
+        } else {
+            waited = runOnPool();
+        }
+        lastWallNanos = System.nanoTime() - start;
+        lastMainWaitNanos = waited;
+        System.arraycopy(starts, 0, lastStarts, 0, count);
+        System.arraycopy(ends, 0, lastEnds, 0, count);
+        System.arraycopy(onMain, 0, lastOnMain, 0, count);
+        Throwable thrown = failure;
+        if (thrown != null) {
+            failure = null;
+            if (thrown instanceof RuntimeException exception) {
+                throw exception;
+            }
+            if (thrown instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Frame job failed", thrown);
+        }
+    }
+
+    int jobCount() {
+        return count;
+    }
+
+    String name(int job) {
+        return names[job];
+    }
+
+    /**
+     * @return how long {@code job} took in the last run, 0 if it was skipped
+     */
+    long lastNanos(int job) {
+        return lastEnds[job] - lastStarts[job];
+    }
+
+    /**
+     * @return whether {@code job} ran on the calling thread in the last run
+     */
+    boolean lastRanOnMain(int job) {
+        return lastOnMain[job];
+    }
+
+    /**
+     * @return how long the last run took from start to finish
+     */
+    long lastWallNanos() {
+        return lastWallNanos;
+    }
+
+    /**
+     * @return how long the calling thread waited for workers in the last run
+     */
+    long lastMainWaitNanos() {
+        return lastMainWaitNanos;
+    }
+
+    /**
+     * Finds the chain of dependent jobs with the largest total time in the last run.
+     *
+     * @param path receives the chain's jobs, first to last; needs room for {@link #jobCount()}
+     * @return how many jobs the chain has
+     */
+    int criticalPath(int[] path) {
+        if (count == 0 || !sealed) {
+            return 0;
+        }
+        int last = longestChain();
+        int length = 0;
+        for (int job = last; job >= 0; job = pathVia[job]) {
+            length++;
+        }
+        int index = length;
+        for (int job = last; job >= 0; job = pathVia[job]) {
+            path[--index] = job;
+        }
+        return length;
+    }
+
+    /**
+     * @return the total time of the chain {@link #criticalPath} returns
+     */
+    long criticalPathNanos() {
+        if (count == 0 || !sealed) {
+            return 0L;
+        }
+        return pathNanos[longestChain()];
+    }
+
+    /**
+     * Stops the workers; a run in progress must have returned.
+     */
+    void dispose() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    private void seal() {
+        if (sealed) {
+            return;
+        }
+        sealed = true;
+        tasks = new Job[count];
+        for (int job = 0; job < count; job++) {
+            if (affinities[job] == Affinity.ANY) {
+                tasks[job] = new Job(job);
+            }
+        }
+        pending = new AtomicIntegerArray(count);
+        starts = new long[count];
+        ends = new long[count];
+        onMain = new boolean[count];
+        lastStarts = new long[count];
+        lastEnds = new long[count];
+        lastOnMain = new boolean[count];
+        pathNanos = new long[count];
+        pathVia = new int[count];
+        mainReady = new int[count];
+    }
+
+    /**
+     * Sums the last run's times along every chain, in the order jobs were added, which puts each
+     * job after its dependencies.
+     *
+     * @return the job the longest chain ends with; {@link #pathVia} leads back along it
+     */
+    private int longestChain() {
+        int last = 0;
+        for (int job = 0; job < count; job++) {
+            long before = 0L;
+            int via = -1;
+            for (int dependency : dependencies[job]) {
+                if (via < 0 || pathNanos[dependency] > before) {
+                    before = pathNanos[dependency];
+                    via = dependency;
+                }
+            }
+            pathNanos[job] = before + lastNanos(job);
+            pathVia[job] = via;
+            if (pathNanos[job] > pathNanos[last]) {
+                last = job;
+            }
+        }
+        return last;
+    }
+
+    /**
+     * Releases the jobs without dependencies, then runs pinned jobs as they become ready until
+     * everything has finished.
+     *
+     * @return how long this thread waited for workers
+     */
+    private long runOnPool() {
+        for (int job = 0; job < count; job++) {
+            pending.set(job, dependencies[job].length);
+            if (tasks[job] != null) {
+                tasks[job].reinitialize();
+            }
+        }
+        synchronized (mainLock) {
+            mainHead = 0;
+            mainTail = 0;
+        }
+        remaining.set(count);
+        for (int job = 0; job < count; job++) {
+            if (dependencies[job].length == 0) {
+                release(job);
+            }
+        }
+        long waited = 0L;
+        boolean interrupted = false;
+        while (true) {
+            int job;
+            synchronized (mainLock) {
+                while (mainHead == mainTail && remaining.get() > 0) {
+                    long waitStart = System.nanoTime();
+                    try {
+                        mainLock.wait();
+                    } catch (InterruptedException exception) {
+                        // Workers still hold references into this frame; finish it first.
+                        interrupted = true;
+                    }
+                    waited += System.nanoTime() - waitStart;
+                }
+                if (mainHead == mainTail) {
+                    break;
+                }
+                job = mainReady[mainHead++];
+            }
+            execute(job);
+        }
+        // A task is marked done just after its last countdown; wait for that before the next run
+        // reinitializes it. Yielding rather than joining, which would allocate a waiter node.
+        for (Job task : tasks) {
+            while (task != null && !task.isDone()) {
+                Thread.yield();
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return waited;
+    }
+
+    private void execute(int job) {
+        long start = System.nanoTime();
+        if (failure == null) {
+            Tracer.begin(TRACE_CATEGORY, names[job]);
+            try {
+                bodies[job].run();
+            } catch (Throwable thrown) {
+                if (failure == null) {
+                    failure = thrown;
+                }
+            } finally {
+                Tracer.end(TRACE_CATEGORY, names[job]);
+            }
+        }
+        starts[job] = start;
+        ends[job] = failure == null ? System.nanoTime() : start;
+        onMain[job] = Thread.currentThread() == runner;
+        if (pool != null) {
+            complete(job);
+        }
+    }
+
+    /**
+     * Releases the dependents {@code job} was the last to hold up. They are released before the
+     * countdown of remaining jobs, so the count never reaches zero with work still to start.
+     */
+    private void complete(int job) {
+        for (int dependent : dependents[job]) {
+            if (pending.decrementAndGet(dependent) == 0) {
+                release(dependent);
+            }
+        }
+        if (remaining.decrementAndGet() == 0) {
+            synchronized (mainLock) {
+                mainLock.notifyAll();
+            }
+        }
+    }
+
+    private void release(int job) {
+        if (affinities[job] == Affinity.MAIN) {
+            synchronized (mainLock) {
+                mainReady[mainTail++] = job;
+                mainLock.notifyAll();
+            }
+        } else if (Thread.currentThread() instanceof ForkJoinWorkerThread worker && worker.getPool() == pool) {
+            // Onto this worker's own deque; idle workers steal from it.
+            tasks[job].fork();
+        } else {
+            pool.execute(tasks[job]);
+        }
+    }
+
+    private ForkJoinWorkerThread newWorker(ForkJoinPool owner) {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(owner);
+        thread.setName("frame-job-" + workerNumbers.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * Runs one {@link Affinity#ANY} job on the pool; reinitialized and reused every run.
+     */
+    private final class Job extends RecursiveAction {
+
+        // Never serialized; ForkJoinTask is Serializable only for its own sake.
+        private static final long serialVersionUID = 1L;
+
+        private final int job;
+
+        private Job(int job) {
+            this.job = job;
+        }
+
+        @Override
+        protected void compute() {
+            execute(job);
+        }
+    }
+}
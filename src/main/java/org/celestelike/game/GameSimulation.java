@@ -0,0 +1,703 @@
+package org.celestelike.game;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import org.celestelike.game.config.GameConfig;
+import org.celestelike.game.config.GameConfig.WorldConfig;
+import org.celestelike.game.entity.enemy.EnemyManager;
+import org.celestelike.game.entity.enemy.EnemyRegistry;
+import org.celestelike.game.entity.enemy.EnemySpawnLoader;
+import org.celestelike.game.entity.samurai.SamuraiCharacter;
+import org.celestelike.game.entity.samurai.input.SamuraiInputDispatcher;
+import org.celestelike.game.entity.samurai.input.SamuraiInputFrame;
+import org.celestelike.game.logging.GameLogger;
+import org.celestelike.game.replay.InputRecording;
+import org.celestelike.game.state.StateHasher;
+import org.celestelike.game.state.StateSection;
+import org.celestelike.game.state.StateWriter;
+import org.celestelike.game.world.CollisionWorld;
+import org.celestelike.game.world.LevelCollisionMap;
+import org.celestelike.game.world.LevelData;
+import org.celestelike.game.world.LevelData.TileBlueprint;
+import org.celestelike.game.world.chunk.BlueprintChunkSource;
+import org.celestelike.game.world.chunk.ChunkDirectorySource;
+import org.celestelike.game.world.chunk.ChunkPager;
+import org.celestelike.game.world.chunk.ChunkSource;
+import org.celestelike.game.world.chunk.ChunkedCollisionMap;
+import org.celestelike.game.world.chunk.ProceduralChunkSource;
+import org.celestelike.game.world.chunk.WorldChunk;
+
+/**
+ * The gameplay side of a run: the paged world, the samurai and the enemies, advanced in fixed
+ * {@value #TICKS_PER_SECOND} Hz ticks from {@link org.celestelike.game.entity.samurai.input.SamuraiInputFrame}s.
+ * Nothing here reads the keyboard or draws, so {@link CelesteGame} drives it from the render loop
+ * and {@link org.celestelike.game.headless.HeadlessRuntime} drives it from a recording.
+ *
+ * <p>Enemies spawn when their chunk enters the active area (the view plus
+ * {@value #ACTIVE_MARGIN_CHUNKS} chunk) and despawn when it leaves. The active area follows the
+ * samurai, not the loader threads, so the same input always meets the same enemies.
+ *
+ * <p>A co-op simulation runs {@value #MAX_PLAYERS} samurai, each with its own input frame per
+ * tick. The view follows the middle of the living samurai and enemies chase the one furthest
+ * along; the run is over once both are down.
+ */
+public final class GameSimulation {
+
+    public static final int TICKS_PER_SECOND = 60;
+    public static final float TICK_SECONDS = 1f / TICKS_PER_SECOND;
+    /** 8px tiles drawn at 4x: 32 world units per tile. */
+    public static final float TILE_SCALE = 4f;
+    public static final float TILE_WORLD_SIZE = LevelData.TILE_SIZE * TILE_SCALE;
+    public static final int MAX_PLAYERS = 2;
+
+    private static final String TAG = "GameSimulation";
+    private static final int SPAWN_COL = 1;
+    private static final int DEFAULT_SPAWN_ROW = 2;
+    private static final float GRAVITY = -1800f;
+    private static final int ACTIVE_MARGIN_CHUNKS = 1;
+    private static final float NO_PENDING_POWER_UPS = -1f;
+
+    private final float tileWorldSize = TILE_WORLD_SIZE;
+    private final EnemyRegistry registry;
+    private final GameLogger gameLog;
+    private final ChunkSource source;
+    private final ChunkPager pager;
+    private final CollisionWorld collisionMap;
+    private final SamuraiCharacter samurai;
+    private final SamuraiCharacter[] players;
+    private final SamuraiInputDispatcher[] dispatchers;
+    private final EnemyManager enemyManager;
+    /** What enemies chase in co-op; single-player enemies track the samurai's own position. */
+    private final Vector2 enemyTarget = new Vector2();
+    private final EnemyManager.SpawnLookup spawnLookup;
+    private final WorldSnapshot runStart = new WorldSnapshot();
+    private final long worldFingerprint;
+    // Section hashes as of the last hashState, reused for the sections nothing marked dirty since.
+    private final long[] sectionHashes = new long[StateSection.values().length];
+    // Set when the active area or the engaged moves change or the run is restored; the tick
+    // counter alone does not count.
+    private boolean runDirty = true;
+    private final int enemiesToClear;
+    private final float worldWidth;
+    private final float worldHeight;
+    private final float viewWidth;
+    private final float viewHeight;
+    /** Set when the world is generated, for throughput reporting. */
+    private ProceduralChunkSource generatedWorld;
+    private boolean followCamera;
+    private int spawnRow = DEFAULT_SPAWN_ROW;
+    private float spawnX;
+    private float spawnY;
+    private long tick;
+
+    // Active chunk rectangle; empty (max < min) until the first refresh.
+    private int activeRowMin;
+    private int activeRowMax = -1;
+    private int activeColMin;
+    private int activeColMax = -1;
+
+    // Upkeep after each tick; see deferUpkeep.
+    private boolean upkeepDeferred;
+    private float pendingPowerUpSeconds = NO_PENDING_POWER_UPS;
+    private boolean chunkCacheStale;
+    private int viewRowMin;
+    private int viewRowMax;
+    private int viewColMin;
+    private int viewColMax;
+
+    public GameSimulation(GameConfig config) {
+        this(config, 1);
+    }
+
+    /**
+     * @param playerCount 1, or {@value #MAX_PLAYERS} for co-op
+     */
+    public GameSimulation(GameConfig config, int playerCount) {
+        this(config, playerCount, EnemyRegistry.defaults(), GameLogger.shared());
+    }
+
+    /**
+     * Builds a world that shares no mutable state with any other, so several can run at once on
+     * different threads (see {@link org.celestelike.game.headless.SimulationRunner}).
+     *
+     * @param registry the enemies this world knows; not modified
+     * @param gameLog  receives this world's gameplay events
+     */
+    public GameSimulation(GameConfig config, int playerCount, EnemyRegistry registry, GameLogger gameLog) {
+        if (playerCount < 1 || playerCount > MAX_PLAYERS) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_PLAYERS + " players, not " + playerCount);
+        }
+        this.registry = registry;
+        this.gameLog = gameLog;
+        WorldConfig worldConfig = config.world();
+        source = openWorld(worldConfig);
+        pager = new ChunkPager(
+                source,
+                worldConfig.chunkBudgetBytes(),
+                worldConfig.prefetchChunks(),
+                worldConfig.loaderThreads());
+        collisionMap = new ChunkedCollisionMap(pager, tileWorldSize);
+        spawnLookup = key -> pager.require((int) (key >> 32), (int) key).spawns();
+        worldFingerprint = InputRecording.fingerprint(source);
+        enemiesToClear = source.enemySpawnCount();
+        worldWidth = source.cols() * tileWorldSize;
+        worldHeight = source.rows() * tileWorldSize;
+        if (followCamera) {
+            // Chunked worlds are too long to show at once: use the designer framing and scroll.
+            viewWidth = config.cameraTilesWide() * tileWorldSize;
+            viewHeight = config.cameraTilesTall() * tileWorldSize;
+        } else {
+            viewWidth = worldWidth;
+            viewHeight = worldHeight;
+        }
+
+        spawnX = SPAWN_COL * tileWorldSize;
+        spawnY = spawnRow * tileWorldSize;
+        enemyManager = new EnemyManager(registry, gameLog);
+        players = new SamuraiCharacter[playerCount];
+        dispatchers = new SamuraiInputDispatcher[playerCount];
+        for (int i = 0; i < playerCount; i++) {
+            SamuraiCharacter player = new SamuraiCharacter(config.player(), gameLog);
+            player.loadAssets();
+            player.placeAt(spawnX(i), spawnY);
+            player.configurePhysics(GRAVITY, 0f);
+            player.attachCollisionMap(collisionMap);
+            player.ensureIdleState();
+            player.setAttackImpactListener(damage -> enemyManager.applyMeleeDamage(player, damage));
+            players[i] = player;
+            dispatchers[i] = new SamuraiInputDispatcher();
+        }
+        samurai = players[0];
+        refreshActiveArea();
+        maintainChunkCache();
+    }
+
+    /**
+     * Starts a new run by restoring the run-start checkpoint, which takes microseconds; the first
+     * call has no checkpoint yet and goes through {@link #resetRun}.
+     */
+    public void startRun() {
+        if (runStart.isEmpty()) {
+            resetRun();
+        } else {
+            restoreState(runStart);
+        }
+    }
+
+    /**
+     * Revives every samurai at the spawn point and clears every enemy and defeat record; enemies
+     * around the spawn come back immediately, the rest as their chunks become active. Captures
+     * the result as the run-start checkpoint.
+     */
+    public void resetRun() {
+        for (int i = 0; i < players.length; i++) {
+            players[i].reviveAt(spawnX(i), spawnY);
+        }
+        enemyManager.resetChunks();
+        activeRowMin = 0;
+        activeRowMax = -1;
+        activeColMin = 0;
+        activeColMax = -1;
+        tick = 0L;
+        refreshActiveArea();
+        saveState(runStart);
+    }
+
+    /**
+     * Advances the run by one {@link #TICK_SECONDS} step with the given input; in co-op the
+     * second samurai stands still.
+     */
+    public void tick(int inputFrame) {
+        tick(inputFrame, SamuraiInputFrame.NONE);
+    }
+
+    /**
+     * Advances the run by one {@link #TICK_SECONDS} step with each player's input. The second
+     * frame is ignored in single-player.
+     */
+    public void tick(int playerOneFrame, int playerTwoFrame) {
+        settleUpkeep();
+        applyInput(0, playerOneFrame);
+        if (players.length > 1) {
+            applyInput(1, playerTwoFrame);
+        }
+        step(TICK_SECONDS);
+        tick++;
+    }
+
+    /**
+     * Keeps the world consistent while the run is not advancing (menus, pause, game over):
+     * entities see zero elapsed time and the pager keeps adopting loads for drawing.
+     */
+    public void hold() {
+        settleUpkeep();
+        step(0f);
+    }
+
+    /**
+     * Leaves the upkeep after every tick, {@link #tickPowerUps} and {@link #maintainChunkCache},
+     * to the caller, which may run the two at the same time on other threads once the ticks of a
+     * frame are done. Whatever is still pending when the run is next ticked, held, saved, hashed
+     * or restored runs first, so the run plays out exactly as it does when the simulation keeps
+     * its own upkeep, which is the default.
+     */
+    public void deferUpkeep(boolean deferred) {
+        upkeepDeferred = deferred;
+        if (!deferred) {
+            settleUpkeep();
+        }
+    }
+
+    /**
+     * Counts every samurai's power-ups down by the length of the last tick; does nothing unless a
+     * tick or {@link #hold()} is waiting for it.
+     */
+    public void tickPowerUps() {
+        float delta = pendingPowerUpSeconds;
+        if (delta == NO_PENDING_POWER_UPS) {
+            return;
+        }
+        pendingPowerUpSeconds = NO_PENDING_POWER_UPS;
+        for (SamuraiCharacter player : players) {
+            player.tickPowerUps(delta);
+        }
+    }
+
+    /**
+     * Moves the pager's focus to the view of the last tick: adopts finished loads, queues the
+     * missing chunks and evicts over budget. Gameplay never waits for this, since collision and
+     * spawning {@linkplain ChunkPager#require require} the chunks they touch; does nothing unless
+     * the view may have moved since it last ran.
+     */
+    public void maintainChunkCache() {
+        if (!chunkCacheStale) {
+            return;
+        }
+        chunkCacheStale = false;
+        pager.update(viewRowMin, viewColMin, viewRowMax, viewColMax);
+    }
+
+    /**
+     * Saves the whole run state into {@code snapshot}, reusing its buffer. Takes microseconds and
+     * allocates nothing once the snapshot has grown to fit.
+     */
+    public void saveState(WorldSnapshot snapshot) {
+        settleUpkeep();
+        while (true) {
+            try {
+                writeState(snapshot.writer());
+                snapshot.finish(tick);
+                return;
+            } catch (BufferOverflowException overflow) {
+                snapshot.grow();
+            }
+        }
+    }
+
+    /**
+     * Hashes the run state section by section without writing it anywhere. Only what changed is
+     * written again: a section whose owners did not mark it dirty since the last call reuses its
+     * hash, the samurai's part beyond its controller and each enemy are written as cached hashes
+     * of their own. Owners mark changes to position, health, the active area and what they are
+     * doing, not the tick counter or timers running on, so a hash covers those as they stood when
+     * the part holding them last changed. The result therefore depends on which ticks were hashed as well
+     * as on the state: compare hashes taken on the same ticks.
+     */
+    public void hashState(StateHasher hasher) {
+        settleUpkeep();
+        if (runDirty) {
+            hasher.beginSection(StateSection.RUN);
+            writeRun(hasher);
+            sectionHashes[StateSection.RUN.ordinal()] = hasher.endSection();
+            runDirty = false;
+        } else {
+            hasher.reuse(StateSection.RUN, sectionHashes[StateSection.RUN.ordinal()]);
+        }
+        boolean samuraiDirty = false;
+        for (SamuraiCharacter player : players) {
+            samuraiDirty |= player.isStateDirty();
+        }
+        if (samuraiDirty) {
+            hasher.beginSection(StateSection.SAMURAI);
+            for (SamuraiCharacter player : players) {
+                player.hashSnapshot(hasher);
+            }
+            sectionHashes[StateSection.SAMURAI.ordinal()] = hasher.endSection();
+        } else {
+            hasher.reuse(StateSection.SAMURAI, sectionHashes[StateSection.SAMURAI.ordinal()]);
+        }
+        if (enemyManager.isStateDirty()) {
+            hasher.beginSection(StateSection.ENEMIES);
+            enemyManager.hashSnapshot(hasher);
+            sectionHashes[StateSection.ENEMIES.ordinal()] = hasher.endSection();
+        } else {
+            hasher.reuse(StateSection.ENEMIES, sectionHashes[StateSection.ENEMIES.ordinal()]);
+        }
+    }
+
+    private void writeState(StateWriter out) {
+        out.putInt(WorldSnapshot.MAGIC);
+        out.putByte(WorldSnapshot.VERSION);
+        out.putLong(worldFingerprint);
+        out.putByte(players.length);
+        out.beginSection(StateSection.RUN);
+        writeRun(out);
+        out.beginSection(StateSection.SAMURAI);
+        for (SamuraiCharacter player : players) {
+            player.writeSnapshot(out);
+        }
+        out.beginSection(StateSection.ENEMIES);
+        enemyManager.writeSnapshot(out);
+    }
+
+    private void writeRun(StateWriter out) {
+        out.putLong(tick);
+        out.putInt(activeRowMin);
+        out.putInt(activeRowMax);
+        out.putInt(activeColMin);
+        out.putInt(activeColMax);
+        for (SamuraiInputDispatcher dispatcher : dispatchers) {
+            out.putByte(dispatcher.engagedMoves());
+        }
+    }
+
+    /**
+     * Puts the run back exactly as it was saved: the following ticks replay identically to the
+     * ones that followed the save. Cheap while the same enemies exist; see
+     * {@link EnemyManager#readSnapshot} for the cost when they do not.
+     *
+     * @throws IllegalArgumentException if the snapshot was saved in a different world or with
+     *                                  another number of players
+     */
+    public void restoreState(WorldSnapshot snapshot) {
+        settleUpkeep();
+        ByteBuffer buffer = snapshot.reader();
+        if (buffer.getInt() != WorldSnapshot.MAGIC || buffer.get() != WorldSnapshot.VERSION) {
+            throw new IllegalArgumentException("Not a world snapshot");
+        }
+        if (buffer.getLong() != worldFingerprint) {
+            throw new IllegalArgumentException("Snapshot was saved in a different world");
+        }
+        if (buffer.get() != players.length) {
+            throw new IllegalArgumentException("Snapshot was saved with another number of players");
+        }
+        tick = buffer.getLong();
+        runDirty = true;
+        activeRowMin = buffer.getInt();
+        activeRowMax = buffer.getInt();
+        activeColMin = buffer.getInt();
+        activeColMax = buffer.getInt();
+        for (SamuraiInputDispatcher dispatcher : dispatchers) {
+            dispatcher.restoreEngagedMoves(buffer.get());
+        }
+        for (SamuraiCharacter player : players) {
+            player.readSnapshot(buffer);
+        }
+        enemyManager.readSnapshot(buffer, spawnLookup, enemyTarget());
+        // The active rectangle already matches the restored view; this only refocuses the pager.
+        refreshActiveArea();
+        upkeepUnlessDeferred();
+    }
+
+    /**
+     * @return {@code true} once every enemy spawn of the world has been defeated
+     */
+    public boolean isCleared() {
+        return enemiesToClear > 0 && enemyManager.defeatedSpawnCount() >= enemiesToClear;
+    }
+
+    /**
+     * @return {@code true} once every samurai is dead
+     */
+    public boolean isRunOver() {
+        for (SamuraiCharacter player : players) {
+            if (!player.isDead()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long tickCount() {
+        return tick;
+    }
+
+    /**
+     * @return player one's samurai
+     */
+    public SamuraiCharacter samurai() {
+        return samurai;
+    }
+
+    public SamuraiCharacter player(int index) {
+        return players[index];
+    }
+
+    public int playerCount() {
+        return players.length;
+    }
+
+    public EnemyManager enemies() {
+        return enemyManager;
+    }
+
+    public ChunkPager pager() {
+        return pager;
+    }
+
+    /**
+     * @return tile collision of the paged world; the chunks around the samurai are always resident
+     */
+    public CollisionWorld collision() {
+        return collisionMap;
+    }
+
+    public ChunkSource source() {
+        return source;
+    }
+
+    public boolean followCamera() {
+        return followCamera;
+    }
+
+    public float tileWorldSize() {
+        return tileWorldSize;
+    }
+
+    public float worldWidth() {
+        return worldWidth;
+    }
+
+    public float worldHeight() {
+        return worldHeight;
+    }
+
+    public float viewWidth() {
+        return viewWidth;
+    }
+
+    public float viewHeight() {
+        return viewHeight;
+    }
+
+    /**
+     * Centre of the view in world units: the clamped samurai position (the middle of the living
+     * ones in co-op) when scrolling, the world centre otherwise. The camera uses the same numbers,
+     * so what is drawn is what is active.
+     */
+    public float viewCenterX() {
+        return followCamera ? clampToWorld(focusX(), viewWidth, worldWidth) : worldWidth * 0.5f;
+    }
+
+    public float viewCenterY() {
+        return followCamera ? clampToWorld(focusY(), viewHeight, worldHeight) : worldHeight * 0.5f;
+    }
+
+    public void dispose() {
+        for (SamuraiCharacter player : players) {
+            player.dispose();
+        }
+        enemyManager.dispose();
+        pager.dispose();
+        if (generatedWorld != null) {
+            gameLog.info(String.format("Generated %d chunks at %.0f chunks/s per loader thread",
+                    generatedWorld.generatedChunks(), generatedWorld.chunksPerSecond()));
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Internals
+    // -------------------------------------------------------------------------
+
+    private void applyInput(int player, int frame) {
+        if (!players[player].isDead()) {
+            SamuraiInputDispatcher dispatcher = dispatchers[player];
+            int engaged = dispatcher.engagedMoves();
+            dispatcher.apply(players[player], frame, TICK_SECONDS);
+            if (dispatcher.engagedMoves() != engaged) {
+                runDirty = true;
+            }
+        }
+    }
+
+    private void step(float delta) {
+        for (SamuraiCharacter player : players) {
+            player.update(delta);
+        }
+        if (!isRunOver()) {
+            enemyManager.update(delta, enemyTarget());
+            for (SamuraiCharacter player : players) {
+                if (!player.isDead()) {
+                    enemyManager.checkEnemyAttacks(player);
+                }
+            }
+        } else {
+            enemyManager.update(delta);
+        }
+        refreshActiveArea();
+        pendingPowerUpSeconds = delta;
+        upkeepUnlessDeferred();
+    }
+
+    private void upkeepUnlessDeferred() {
+        if (!upkeepDeferred) {
+            settleUpkeep();
+        }
+    }
+
+    private void settleUpkeep() {
+        tickPowerUps();
+        maintainChunkCache();
+    }
+
+    /**
+     * The position enemies chase: the samurai's own vector in single-player, so enemies keep
+     * tracking it between ticks, or a copy of the leading living samurai's in co-op.
+     */
+    private Vector2 enemyTarget() {
+        if (players.length == 1) {
+            return samurai.getPosition();
+        }
+        SamuraiCharacter leader = null;
+        for (SamuraiCharacter player : players) {
+            if (!player.isDead() && (leader == null || player.getPosition().x > leader.getPosition().x)) {
+                leader = player;
+            }
+        }
+        return enemyTarget.set((leader != null ? leader : samurai).getPosition());
+    }
+
+    private float focusX() {
+        if (players.length == 1) {
+            return samurai.getPosition().x;
+        }
+        float sum = 0f;
+        int living = 0;
+        for (SamuraiCharacter player : players) {
+            if (!player.isDead()) {
+                sum += player.getPosition().x;
+                living++;
+            }
+        }
+        return living == 0 ? samurai.getPosition().x : sum / living;
+    }
+
+    private float focusY() {
+        if (players.length == 1) {
+            return samurai.getPosition().y;
+        }
+        float sum = 0f;
+        int living = 0;
+        for (SamuraiCharacter player : players) {
+            if (!player.isDead()) {
+                sum += player.getPosition().y;
+                living++;
+            }
+        }
+        return living == 0 ? samurai.getPosition().y : sum / living;
+    }
+
+    /**
+     * Player two starts one tile to the right of player one.
+     */
+    private float spawnX(int player) {
+        return spawnX + player * tileWorldSize;
+    }
+
+    /**
+     * Moves the active chunk rectangle to the current view, spawning enemies of chunks that
+     * became active and despawning those that left, and notes the view for
+     * {@link #maintainChunkCache}.
+     */
+    private void refreshActiveArea() {
+        float centerX = viewCenterX();
+        float centerY = viewCenterY();
+        int rowMin = (int) Math.floor((centerY - viewHeight * 0.5f) / tileWorldSize);
+        int rowMax = (int) Math.floor((centerY + viewHeight * 0.5f) / tileWorldSize);
+        int colMin = (int) Math.floor((centerX - viewWidth * 0.5f) / tileWorldSize);
+        int colMax = (int) Math.floor((centerX + viewWidth * 0.5f) / tileWorldSize);
+        viewRowMin = rowMin;
+        viewRowMax = rowMax;
+        viewColMin = colMin;
+        viewColMax = colMax;
+        chunkCacheStale = true;
+
+        int lastChunkRow = pager.chunkRows() - 1;
+        int lastChunkCol = pager.chunkCols() - 1;
+        int newRowMin = Math.max(0, WorldChunk.chunkIndex(rowMin) - ACTIVE_MARGIN_CHUNKS);
+        int newRowMax = Math.min(lastChunkRow, WorldChunk.chunkIndex(rowMax) + ACTIVE_MARGIN_CHUNKS);
+        int newColMin = Math.max(0, WorldChunk.chunkIndex(colMin) - ACTIVE_MARGIN_CHUNKS);
+        int newColMax = Math.min(lastChunkCol, WorldChunk.chunkIndex(colMax) + ACTIVE_MARGIN_CHUNKS);
+        if (newRowMin == activeRowMin && newRowMax == activeRowMax
+                && newColMin == activeColMin && newColMax == activeColMax) {
+            return;
+        }
+        for (int row = activeRowMin; row <= activeRowMax; row++) {
+            for (int col = activeColMin; col <= activeColMax; col++) {
+                if (row < newRowMin || row > newRowMax || col < newColMin || col > newColMax) {
+                    enemyManager.despawnChunk(WorldChunk.key(row, col));
+                }
+            }
+        }
+        for (int row = newRowMin; row <= newRowMax; row++) {
+            for (int col = newColMin; col <= newColMax; col++) {
+                if (row < activeRowMin || row > activeRowMax || col < activeColMin || col > activeColMax) {
+                    WorldChunk chunk = pager.require(row, col);
+                    enemyManager.spawnChunk(chunk.key(), chunk.spawns(), tileWorldSize);
+                }
+            }
+        }
+        runDirty = true;
+        activeRowMin = newRowMin;
+        activeRowMax = newRowMax;
+        activeColMin = newColMin;
+        activeColMax = newColMax;
+    }
+
+    /**
+     * Opens the configured chunk directory or generated stage, falling back to the authored
+     * single-file level.
+     */
+    private ChunkSource openWorld(WorldConfig worldConfig) {
+        String directory = worldConfig.chunkDirectory();
+        if (directory != null) {
+            FileHandle handle = Gdx.files.local(directory);
+            if (!handle.child(ChunkDirectorySource.HEADER_FILE).exists()) {
+                handle = Gdx.files.internal(directory);
+            }
+            try {
+                ChunkDirectorySource chunked = new ChunkDirectorySource(handle);
+                followCamera = true;
+                gameLog.info("Paging chunked world " + directory + " (" + chunked.rows() + "x" + chunked.cols() + " tiles)");
+                return chunked;
+            } catch (Exception exception) {
+                Gdx.app.error(TAG, "Failed to open chunked world " + directory + "; using authored level", exception);
+            }
+        }
+        Long seed = worldConfig.generatorSeed();
+        if (seed != null) {
+            ProceduralChunkSource generated = new ProceduralChunkSource(
+                    seed, worldConfig.generatedRows(), worldConfig.generatedChunks(), registry.ids());
+            followCamera = true;
+            spawnRow = generated.surfaceRow(SPAWN_COL) + 1;
+            generatedWorld = generated;
+            gameLog.info("Generating world from seed " + seed + " (" + generated.rows() + "x" + generated.cols() + " tiles)");
+            return generated;
+        }
+        followCamera = false;
+        TileBlueprint[][] blueprint = LevelData.copyBlueprint();
+        LevelCollisionMap levelCollision = new LevelCollisionMap(blueprint, tileWorldSize);
+        return new BlueprintChunkSource(blueprint, levelCollision, EnemySpawnLoader.load(), registry);
+    }
+
+    static float clampToWorld(float center, float view, float world) {
+        if (view >= world) {
+            return world * 0.5f;
+        }
+        return MathUtils.clamp(center, view * 0.5f, world - view * 0.5f);
+    }
+}
@@ -0,0 +1,154 @@
+package org.celestelike.game;
+
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.BitmapFontCache;
+import java.util.Arrays;
+import org.celestelike.game.entity.samurai.powerup.SamuraiPowerUpType;
+import org.celestelike.game.entity.samurai.powerup.SamuraiPowerUpView;
+import org.celestelike.game.net.RollbackSession;
+
+/**
+ * The text lines of the in-game HUD: score, run clock, netplay counters and one line per active
+ * power-up. Each line keeps the value it shows and a {@link BitmapFontCache} of its glyphs, and is
+ * formatted into a reused builder and laid out again only when that value changes at the precision
+ * shown (whole seconds for the clock, tenths for power-up timers). Other frames only move and
+ * draw the cached vertices, which allocates nothing.
+ *
+ * <p>Not thread-safe. {@link #update} may run on a frame worker while the render thread draws
+ * the world; {@link #draw} runs on the render thread once the update has finished.
+ */
+final class HudModel {
+
+    private static final float LINE_HEIGHT = 20f;
+    private static final float POWER_UP_LINE_HEIGHT = 18f;
+
+    private final BitmapFont font;
+    private final Line score;
+    private final Line clock;
+    private final Line net;
+    private Line[] powerUps = new Line[SamuraiPowerUpType.values().length];
+    private int powerUpCount;
+    private boolean netShown;
+
+    HudModel(BitmapFont font) {
+        this.font = font;
+        score = new Line(font);
+        clock = new Line(font);
+        net = new Line(font);
+        for (int i = 0; i < powerUps.length; i++) {
+            powerUps[i] = new Line(font);
+        }
+    }
+
+    /**
+     * @param session the co-op session whose counters to show, or {@code null} offline
+     */
+    void update(int scoreValue, float playSeconds, RollbackSession session, SamuraiPowerUpView buffs) {
+        if (score.changed(scoreValue)) {
+            score.text.append("Score: ").append(scoreValue);
+            score.layOut();
+        }
+        int seconds = Math.max(0, (int) playSeconds);
+        if (clock.changed(seconds)) {
+            clock.text.append("Time : ");
+            appendTwoDigits(clock.text, seconds / 60);
+            clock.text.append(':');
+            appendTwoDigits(clock.text, seconds % 60);
+            clock.layOut();
+        }
+        netShown = session != null;
+        if (netShown) {
+            long rollbacks = session.rollbacks();
+            long stalls = session.stalls();
+            if (net.changed(rollbacks, stalls)) {
+                net.text.append("Net  : ").append(rollbacks).append(" rollbacks, ").append(stalls).append(" stalls");
+                net.layOut();
+            }
+        }
+        powerUpCount = buffs.size();
+        if (powerUpCount > powerUps.length) {
+            int old = powerUps.length;
+            powerUps = Arrays.copyOf(powerUps, powerUpCount);
+            for (int i = old; i < powerUps.length; i++) {
+                powerUps[i] = new Line(font);
+            }
+        }
+        for (int i = 0; i < powerUpCount; i++) {
+            SamuraiPowerUpType type = buffs.type(i);
+            int tenths = Math.round(Math.max(0f, buffs.remainingSeconds(i)) * 10f);
+            Line line = powerUps[i];
+            if (line.changed(tenths, type.ordinal())) {
+                line.text.append(type.displayName()).append(" (")
+                        .append(tenths / 10).append('.').append(tenths % 10).append("s)");
+                line.layOut();
+            }
+        }
+    }
+
+    /**
+     * Draws the lines from {@code top} downwards; call between {@code batch.begin()} and
+     * {@code batch.end()}.
+     */
+    void draw(Batch batch, float x, float top) {
+        score.draw(batch, x, top);
+        clock.draw(batch, x, top - LINE_HEIGHT);
+        float powerY = top - 2.5f * LINE_HEIGHT;
+        if (netShown) {
+            net.draw(batch, x, top - 2f * LINE_HEIGHT);
+            powerY -= LINE_HEIGHT;
+        }
+        for (int i = 0; i < powerUpCount; i++) {
+            powerUps[i].draw(batch, x, powerY);
+            powerY -= POWER_UP_LINE_HEIGHT;
+        }
+    }
+
+    private static void appendTwoDigits(StringBuilder text, int value) {
+        if (value < 10) {
+            text.append('0');
+        }
+        text.append(value);
+    }
+
+    /**
+     * One HUD line: the value it was last formatted for and its cached glyphs.
+     */
+    private static final class Line {
+
+        private final StringBuilder text = new StringBuilder(48);
+        private final BitmapFontCache glyphs;
+        private long value = Long.MIN_VALUE;
+        private long detail = Long.MIN_VALUE;
+
+        private Line(BitmapFont font) {
+            glyphs = font.newFontCache();
+        }
+
+        private boolean changed(long newValue) {
+            return changed(newValue, 0L);
+        }
+
+        /**
+         * @return whether the line must be rebuilt; if so its text has been cleared
+         */
+        private boolean changed(long newValue, long newDetail) {
+            if (newValue == value && newDetail == detail) {
+                return false;
+            }
+            value = newValue;
+            detail = newDetail;
+            text.setLength(0);
+            return true;
+        }
+
+        private void layOut() {
+            glyphs.setText(text, 0f, 0f);
+        }
+
+        private void draw(Batch batch, float x, float y) {
+            glyphs.setPosition(x, y);
+            glyphs.draw(batch);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package org.celestelike.game;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.ScreenUtils;
+import com.badlogic.gdx.utils.viewport.Viewport;
+
+/**
+ * The world as last drawn behind a menu or end screen, kept in a {@link FrameBuffer} the size of
+ * the window. While the world holds still, idle frames copy it to the screen instead of drawing
+ * every tile and sprite again, and only the overlays on top are drawn live.
+ *
+ * <p>The capture is tagged with a stamp of what the world showed, such as the number of chunks
+ * in view, and goes stale when the stamp changes or the window is resized. If the GL cannot make
+ * the framebuffer, {@link #begin} says so once and the game keeps drawing the world every frame.
+ *
+ * <p>Not thread-safe; the render thread owns it.
+ */
+final class IdleFrameCache implements Disposable {
+
+    private static final String TAG = "IdleFrameCache";
+
+    private final Matrix4 projection = new Matrix4();
+    private FrameBuffer buffer;
+    private boolean unavailable;
+    private boolean valid;
+    private int stamp;
+
+    /**
+     * @return whether a capture of the world with {@code worldStamp} can be drawn
+     */
+    boolean isValid(int worldStamp) {
+        return valid && stamp == worldStamp && fitsWindow();
+    }
+
+    void invalidate() {
+        valid = false;
+    }
+
+    /**
+     * Redirects drawing into the framebuffer, cleared to {@code background} and with the same GL
+     * viewport as the screen, so what is drawn until {@link #end} lands where it would on screen.
+     *
+     * @return {@code false} if there is no framebuffer; draw to the screen instead
+     */
+    boolean begin(Viewport viewport, Color background) {
+        if (!ensureBuffer()) {
+            return false;
+        }
+        buffer.begin();
+        viewport.apply();
+        ScreenUtils.clear(background);
+        return true;
+    }
+
+    /**
+     * Ends the capture begun by {@link #begin} and marks it current for {@code worldStamp}.
+     */
+    void end(Viewport viewport, int worldStamp) {
+        buffer.end();
+        viewport.apply();
+        valid = true;
+        stamp = worldStamp;
+    }
+
+    /**
+     * Copies the capture over the whole window, replacing what is there.
+     */
+    void draw(SpriteBatch batch, Viewport viewport) {
+        int width = buffer.getWidth();
+        int height = buffer.getHeight();
+        Texture texture = buffer.getColorBufferTexture();
+        Gdx.gl.glViewport(0, 0, width, height);
+        batch.setProjectionMatrix(projection.setToOrtho2D(0f, 0f, width, height));
+        // The capture already holds the blended result, alpha included; copy it as is.
+        batch.disableBlending();
+        batch.begin();
+        batch.draw(texture, 0f, 0f, width, height, 0, 0, width, height, false, true);
+        batch.end();
+        batch.enableBlending();
+        viewport.apply();
+    }
+
+    @Override
+    public void dispose() {
+        if (buffer != null) {
+            buffer.dispose();
+            buffer = null;
+        }
+        valid = false;
+    }
+
+    private boolean fitsWindow() {
+        return buffer != null
+                && buffer.getWidth() == Gdx.graphics.getBackBufferWidth()
+                && buffer.getHeight() == Gdx.graphics.getBackBufferHeight();
+    }
+
+    private boolean ensureBuffer() {
+        if (unavailable) {
+            return false;
+        }
+        if (fitsWindow()) {
+            return true;
+        }
+        dispose();
+        int width = Gdx.graphics.getBackBufferWidth();
+        int height = Gdx.graphics.getBackBufferHeight();
+        if (width <= 0 || height <= 0) {
+            return false;
+        }
+        try {
+            buffer = new FrameBuffer(Pixmap.Format.RGBA8888, width, height, false);
+            return true;
+        } catch (RuntimeException exception) {
+            unavailable = true;
+            Gdx.app.error(TAG, "Cannot cache idle frames; drawing the world every frame", exception);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package org.celestelike.game;
+
+import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import java.util.Arrays;
+import org.celestelike.game.entity.samurai.powerup.SamuraiPowerUpType;
+import org.celestelike.game.entity.samurai.powerup.SamuraiPowerUpView;
+import org.celestelike.game.world.chunk.WorldChunk;
+
+/**
+ * Everything the render thread needs to draw one simulation tick, copied out of the world by
+ * {@link RenderSnapshotWriter}: the view, the resident chunks around it, every sprite in view with
+ * its animation and time and the position it had one tick earlier, enemy health bars, and the HUD
+ * values. Frames drawn between two ticks blend the two positions.
+ *
+ * <p>Snapshots are pooled in a {@link TripleBuffer} and rewritten in place; the arrays only grow,
+ * so once the world has shown its busiest moment writing one allocates nothing. Chunks and
+ * animations are shared with the simulation, which is safe because chunks are immutable and
+ * animations are only read.
+ */
+final class RenderSnapshot implements SamuraiPowerUpView {
+
+    private static final int INITIAL_SPRITES = 16;
+    private static final int INITIAL_CHUNKS = 16;
+
+    private boolean published;
+    private long tick;
+    private long publishedNanos;
+    private float viewX;
+    private float viewY;
+    private float previousViewX;
+    private float previousViewY;
+
+    private WorldChunk[] chunks = new WorldChunk[INITIAL_CHUNKS];
+    private int chunkCount;
+
+    @SuppressWarnings("unchecked")
+    private Animation<TextureRegion>[] animations = (Animation<TextureRegion>[]) new Animation<?>[INITIAL_SPRITES];
+    private float[] times = new float[INITIAL_SPRITES];
+    private boolean[] loops = new boolean[INITIAL_SPRITES];
+    private float[] x = new float[INITIAL_SPRITES];
+    private float[] y = new float[INITIAL_SPRITES];
+    private float[] previousX = new float[INITIAL_SPRITES];
+    private float[] previousY = new float[INITIAL_SPRITES];
+    private float[] offsetX = new float[INITIAL_SPRITES];
+    private float[] offsetY = new float[INITIAL_SPRITES];
+    private boolean[] facingRight = new boolean[INITIAL_SPRITES];
+    private int spriteCount;
+    /** Sprites before this index are enemies, the rest players. */
+    private int firstPlayerSprite;
+
+    private int[] barSprites = new int[INITIAL_SPRITES];
+    private float[] barWidths = new float[INITIAL_SPRITES];
+    private float[] barAbove = new float[INITIAL_SPRITES];
+    private float[] barRatios = new float[INITIAL_SPRITES];
+    private int[] barSegments = new int[INITIAL_SPRITES];
+    private int barCount;
+
+    private int score;
+    private float playSeconds;
+    private int health;
+    private int maxHealth;
+    private int liveEnemies;
+    private SamuraiPowerUpType[] powerUpTypes = new SamuraiPowerUpType[SamuraiPowerUpType.values().length];
+    private float[] powerUpRemaining = new float[SamuraiPowerUpType.values().length];
+    private int powerUpCount;
+    private boolean runOver;
+    private boolean cleared;
+
+    /**
+     * @return whether this slot has ever been written; the reader sees an unwritten one only
+     *         before the simulation's first publish
+     */
+    boolean isPublished() {
+        return published;
+    }
+
+    long tick() {
+        return tick;
+    }
+
+    /**
+     * @return when the snapshot was handed to the render thread, on the {@link System#nanoTime()}
+     *         clock
+     */
+    long publishedNanos() {
+        return publishedNanos;
+    }
+
+    float viewX(float alpha) {
+        return previousViewX + (viewX - previousViewX) * alpha;
+    }
+
+    float viewY(float alpha) {
+        return previousViewY + (viewY - previousViewY) * alpha;
+    }
+
+    int chunkCount() {
+        return chunkCount;
+    }
+
+    WorldChunk chunk(int index) {
+        return chunks[index];
+    }
+
+    int spriteCount() {
+        return spriteCount;
+    }
+
+    int firstPlayerSprite() {
+        return firstPlayerSprite;
+    }
+
+    Animation<TextureRegion> animation(int sprite) {
+        return animations[sprite];
+    }
+
+    float time(int sprite) {
+        return times[sprite];
+    }
+
+    boolean loops(int sprite) {
+        return loops[sprite];
+    }
+
+    /**
+     * @param alpha 0 for the previous tick's position, 1 for this tick's
+     */
+    float x(int sprite, float alpha) {
+        return previousX[sprite] + (x[sprite] - previousX[sprite]) * alpha;
+    }
+
+    float y(int sprite, float alpha) {
+        return previousY[sprite] + (y[sprite] - previousY[sprite]) * alpha;
+    }
+
+    float offsetX(int sprite) {
+        return offsetX[sprite];
+    }
+
+    float offsetY(int sprite) {
+        return offsetY[sprite];
+    }
+
+    boolean facingRight(int sprite) {
+        return facingRight[sprite];
+    }
+
+    int barCount() {
+        return barCount;
+    }
+
+    /**
+     * @return the sprite bar {@code bar} hangs over
+     */
+    int barSprite(int bar) {
+        return barSprites[bar];
+    }
+
+    float barWidth(int bar) {
+        return barWidths[bar];
+    }
+
+    float barAbove(int bar) {
+        return barAbove[bar];
+    }
+
+    float barRatio(int bar) {
+        return barRatios[bar];
+    }
+
+    int barSegments(int bar) {
+        return barSegments[bar];
+    }
+
+    int score() {
+        return score;
+    }
+
+    float playSeconds() {
+        return playSeconds;
+    }
+
+    int health() {
+        return health;
+    }
+
+    int maxHealth() {
+        return maxHealth;
+    }
+
+    int liveEnemies() {
+        return liveEnemies;
+    }
+
+    @Override
+    public int size() {
+        return powerUpCount;
+    }
+
+    @Override
+    public SamuraiPowerUpType type(int index) {
+        return powerUpTypes[index];
+    }
+
+    @Override
+    public float remainingSeconds(int index) {
+        return powerUpRemaining[index];
+    }
+
+    /**
+     * @return whether every samurai is down
+     */
+    boolean isRunOver() {
+        return runOver;
+    }
+
+    boolean isCleared() {
+        return cleared;
+    }
+
+    // -------------------------------------------------------------------------
+    // Writer side
+    // -------------------------------------------------------------------------
+
+    void begin(long tick, float viewX, float viewY, float previousViewX, float previousViewY) {
+        this.tick = tick;
+        this.viewX = viewX;
+        this.viewY = viewY;
+        this.previousViewX = previousViewX;
+        this.previousViewY = previousViewY;
+        // Drop references the last use left behind so evicted chunks can be collected.
+        Arrays.fill(chunks, 0, chunkCount, null);
+        chunkCount = 0;
+        spriteCount = 0;
+        firstPlayerSprite = 0;
+        barCount = 0;
+    }
+
+    void addChunk(WorldChunk chunk) {
+        if (chunkCount == chunks.length) {
+            chunks = Arrays.copyOf(chunks, chunkCount * 2);
+        }
+        chunks[chunkCount++] = chunk;
+    }
+
+    void markFirstPlayerSprite() {
+        firstPlayerSprite = spriteCount;
+    }
+
+    void addSprite(Animation<TextureRegion> animation, float time, boolean looping,
+                   float spriteX, float spriteY, float lastX, float lastY,
+                   float spriteOffsetX, float spriteOffsetY, boolean right) {
+        if (spriteCount == animations.length) {
+            growSprites();
+        }
+        int i = spriteCount++;
+        animations[i] = animation;
+        times[i] = time;
+        loops[i] = looping;
+        x[i] = spriteX;
+        y[i] = spriteY;
+        previousX[i] = lastX;
+        previousY[i] = lastY;
+        offsetX[i] = spriteOffsetX;
+        offsetY[i] = spriteOffsetY;
+        facingRight[i] = right;
+    }
+
+    /**
+     * Hangs a bar over the last sprite added.
+     */
+    void addBar(float width, float above, float ratio, int segments) {
+        if (spriteCount == 0) {
+            return;
+        }
+        if (barCount == barSprites.length) {
+            int grown = barCount * 2;
+            barSprites = Arrays.copyOf(barSprites, grown);
+            barWidths = Arrays.copyOf(barWidths, grown);
+            barAbove = Arrays.copyOf(barAbove, grown);
+            barRatios = Arrays.copyOf(barRatios, grown);
+            barSegments = Arrays.copyOf(barSegments, grown);
+        }
+        int i = barCount++;
+        barSprites[i] = spriteCount - 1;
+        barWidths[i] = width;
+        barAbove[i] = above;
+        barRatios[i] = ratio;
+        barSegments[i] = segments;
+    }
+
+    void setHud(int score, float playSeconds, int health, int maxHealth, int liveEnemies, SamuraiPowerUpView buffs) {
+        this.score = score;
+        this.playSeconds = playSeconds;
+        this.health = health;
+        this.maxHealth = maxHealth;
+        this.liveEnemies = liveEnemies;
+        powerUpCount = buffs.size();
+        if (powerUpCount > powerUpTypes.length) {
+            powerUpTypes = Arrays.copyOf(powerUpTypes, powerUpCount);
+            powerUpRemaining = Arrays.copyOf(powerUpRemaining, powerUpCount);
+        }
+        for (int i = 0; i < powerUpCount; i++) {
+            powerUpTypes[i] = buffs.type(i);
+            powerUpRemaining[i] = buffs.remainingSeconds(i);
+        }
+    }
+
+    void finish(boolean runOver, boolean cleared, long publishedNanos) {
+        this.runOver = runOver;
+        this.cleared = cleared;
+        this.publishedNanos = publishedNanos;
+        published = true;
+    }
+
+    private void growSprites() {
+        int grown = animations.length * 2;
+        animations = Arrays.copyOf(animations, grown);
+        times = Arrays.copyOf(times, grown);
+        loops = Arrays.copyOf(loops, grown);
+        x = Arrays.copyOf(x, grown);
+        y = Arrays.copyOf(y, grown);
+        previousX = Arrays.copyOf(previousX, grown);
+        previousY = Arrays.copyOf(previousY, grown);
+        offsetX = Arrays.copyOf(offsetX, grown);
+        offsetY = Arrays.copyOf(offsetY, grown);
+        facingRight = Arrays.copyOf(facingRight, grown);
+    }
+}
@@ -0,0 +1,163 @@
+package org.celestelike.game;
+
+import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import java.util.Arrays;
+import org.celestelike.game.entity.SpriteSink;
+import org.celestelike.game.entity.enemy.EnemyManager;
+import org.celestelike.game.entity.samurai.SamuraiCharacter;
+import org.celestelike.game.world.chunk.ChunkPager;
+import org.celestelike.game.world.chunk.WorldChunk;
+
+/**
+ * Copies a {@link GameSimulation} into {@link RenderSnapshot}s on the simulation thread. Each
+ * sprite is matched with the same entity in the previous snapshot to record where it was a tick
+ * ago: entities are reported in a stable order, so a cursor that only moves forward finds every
+ * survivor, and spawned entities start where they stand.
+ *
+ * <p>Not thread-safe; the simulation thread owns it.
+ */
+final class RenderSnapshotWriter implements SpriteSink {
+
+    private static final int INITIAL_SPRITES = 16;
+
+    private final GameSimulation simulation;
+    private final ChunkPager pager;
+    private RenderSnapshot target;
+    private Object[] owners = new Object[INITIAL_SPRITES];
+    private float[] ownerX = new float[INITIAL_SPRITES];
+    private float[] ownerY = new float[INITIAL_SPRITES];
+    private int ownerCount;
+    private Object[] lastOwners = new Object[INITIAL_SPRITES];
+    private float[] lastX = new float[INITIAL_SPRITES];
+    private float[] lastY = new float[INITIAL_SPRITES];
+    private int lastCount;
+    private int cursor;
+    private boolean hasLast;
+    private float lastViewX;
+    private float lastViewY;
+
+    RenderSnapshotWriter(GameSimulation simulation) {
+        this.simulation = simulation;
+        this.pager = simulation.pager();
+    }
+
+    /**
+     * Forgets the previous snapshot, so the next one starts without motion; used when the world
+     * jumps, such as at the start of a run.
+     */
+    void reset() {
+        Arrays.fill(lastOwners, 0, lastCount, null);
+        lastCount = 0;
+        hasLast = false;
+    }
+
+    void write(RenderSnapshot snapshot, int score, float playSeconds, boolean runOver, boolean cleared) {
+        float viewX = simulation.viewCenterX();
+        float viewY = simulation.viewCenterY();
+        snapshot.begin(simulation.tickCount(), viewX, viewY, hasLast ? lastViewX : viewX, hasLast ? lastViewY : viewY);
+        addChunks(snapshot, viewX, viewY);
+
+        target = snapshot;
+        cursor = 0;
+        ownerCount = 0;
+        selectEnemies(viewX, viewY);
+        simulation.enemies().emitSprites(this);
+        snapshot.markFirstPlayerSprite();
+        for (int i = 0; i < simulation.playerCount(); i++) {
+            simulation.player(i).emitSprite(this);
+        }
+        target = null;
+
+        SamuraiCharacter samurai = simulation.samurai();
+        snapshot.setHud(score, playSeconds, Math.max(0, samurai.getCurrentHealth()), samurai.getMaxHealth(),
+                simulation.enemies().liveCount(), samurai.getActivePowerUps());
+        snapshot.finish(runOver, cleared, System.nanoTime());
+        swapOwners();
+        lastViewX = viewX;
+        lastViewY = viewY;
+        hasLast = true;
+    }
+
+    @Override
+    public void sprite(Object owner, Animation<TextureRegion> animation, float time, boolean looping,
+                       float x, float y, float offsetX, float offsetY, boolean facingRight) {
+        float previousX = x;
+        float previousY = y;
+        for (int i = cursor; i < lastCount; i++) {
+            if (lastOwners[i] == owner) {
+                previousX = lastX[i];
+                previousY = lastY[i];
+                cursor = i + 1;
+                break;
+            }
+        }
+        if (ownerCount == owners.length) {
+            int grown = ownerCount * 2;
+            owners = Arrays.copyOf(owners, grown);
+            ownerX = Arrays.copyOf(ownerX, grown);
+            ownerY = Arrays.copyOf(ownerY, grown);
+        }
+        owners[ownerCount] = owner;
+        ownerX[ownerCount] = x;
+        ownerY[ownerCount] = y;
+        ownerCount++;
+        target.addSprite(animation, time, looping, x, y, previousX, previousY, offsetX, offsetY, facingRight);
+    }
+
+    @Override
+    public void healthBar(float width, float above, float ratio, int segments) {
+        target.addBar(width, above, ratio, segments);
+    }
+
+    /**
+     * Adds the resident chunks under the view plus one tile on each side, which covers the view
+     * anywhere between this tick's position and the last one.
+     */
+    private void addChunks(RenderSnapshot snapshot, float viewX, float viewY) {
+        float tile = simulation.tileWorldSize();
+        float halfWidth = simulation.viewWidth() * 0.5f + tile;
+        float halfHeight = simulation.viewHeight() * 0.5f + tile;
+        int chunkRowMin = Math.max(0, WorldChunk.chunkIndex((int) Math.floor((viewY - halfHeight) / tile)));
+        int chunkRowMax = Math.min(pager.chunkRows() - 1, WorldChunk.chunkIndex((int) Math.floor((viewY + halfHeight) / tile)));
+        int chunkColMin = Math.max(0, WorldChunk.chunkIndex((int) Math.floor((viewX - halfWidth) / tile)));
+        int chunkColMax = Math.min(pager.chunkCols() - 1, WorldChunk.chunkIndex((int) Math.floor((viewX + halfWidth) / tile)));
+        for (int chunkRow = chunkRowMin; chunkRow <= chunkRowMax; chunkRow++) {
+            for (int chunkCol = chunkColMin; chunkCol <= chunkColMax; chunkCol++) {
+                WorldChunk chunk = pager.peek(chunkRow, chunkCol);
+                if (chunk != null) {
+                    snapshot.addChunk(chunk);
+                }
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the enemy index and picks the enemies in view, with the same tile of slack as
+     * {@link #addChunks}.
+     */
+    private void selectEnemies(float viewX, float viewY) {
+        float tile = simulation.tileWorldSize();
+        float halfWidth = simulation.viewWidth() * 0.5f + tile;
+        float halfHeight = simulation.viewHeight() * 0.5f + tile;
+        EnemyManager enemies = simulation.enemies();
+        enemies.rebuildIndex();
+        enemies.selectView(viewX - halfWidth, viewY - halfHeight, viewX + halfWidth, viewY + halfHeight);
+    }
+
+    private void swapOwners() {
+        Object[] owners = lastOwners;
+        float[] x = lastX;
+        float[] y = lastY;
+        int count = lastCount;
+        lastOwners = this.owners;
+        lastX = ownerX;
+        lastY = ownerY;
+        lastCount = ownerCount;
+        Arrays.fill(owners, 0, count, null);
+        this.owners = owners;
+        ownerX = x;
+        ownerY = y;
+        ownerCount = 0;
+    }
+}
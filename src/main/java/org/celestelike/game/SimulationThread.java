@@ -0,0 +1,224 @@
+package org.celestelike.game;
+
+import com.badlogic.gdx.Gdx;
+import java.util.concurrent.locks.LockSupport;
+import org.celestelike.game.entity.enemy.EnemyDefinition;
+import org.celestelike.game.entity.samurai.input.KeyboardInputSampler;
+import org.celestelike.game.logging.GameLogger;
+import org.celestelike.game.replay.InputRecorder;
+import org.celestelike.game.replay.InputRecording;
+
+/**
+ * Runs a single-player {@link GameSimulation} on its own thread at a fixed
+ * {@value GameSimulation#TICKS_PER_SECOND} Hz, so ticks keep their schedule however long the
+ * render thread takes to draw, and a slow tick no longer holds up a frame. After every tick the
+ * world is copied into a {@link RenderSnapshot} and published through a {@link TripleBuffer};
+ * the render thread draws {@link #latest()} and never touches the simulation.
+ *
+ * <p>The thread takes the keyboard's events itself, with the same per-tick deadlines the render
+ * loop uses, and records the run for replay. It stops ticking on its own when the run ends and
+ * reports the outcome in the snapshot. The control methods take a lock the thread holds while it
+ * ticks, so a run is never started or paused half-way through a tick; the handoff of snapshots
+ * takes no lock.
+ */
+final class SimulationThread {
+
+    private static final String TAG = "SimulationThread";
+    private static final long TICK_NANOS = 1_000_000_000L / GameSimulation.TICKS_PER_SECOND;
+    /** Caps catch-up after a stall (GC, a suspended laptop) instead of spiralling. */
+    private static final int MAX_CATCH_UP_TICKS = 5;
+    /**
+     * How often a paused world is held and republished, for chunks that finish loading; idle
+     * screens are redrawn no more often than this.
+     */
+    private static final long PAUSED_REFRESH_MILLIS = 500L;
+
+    private final GameSimulation simulation;
+    private final KeyboardInputSampler keyboard;
+    private final TripleBuffer<RenderSnapshot> snapshots = new TripleBuffer<>(RenderSnapshot::new);
+    private final RenderSnapshotWriter writer;
+    private final Object lock = new Object();
+    private final Thread thread;
+
+    // Guarded by lock.
+    private boolean playing;
+    private boolean stopped;
+    private boolean runOver;
+    private boolean cleared;
+    private int score;
+    private float playSeconds;
+    private long nextTickNanos;
+    private InputRecorder recorder;
+
+    /**
+     * Takes over {@code simulation}'s death and defeat listeners. Enemy textures must already be
+     * loaded (see {@link org.celestelike.game.entity.enemy.EnemyManager#preloadAnimations()}),
+     * since spawning runs here.
+     */
+    SimulationThread(GameSimulation simulation, KeyboardInputSampler keyboard) {
+        this.simulation = simulation;
+        this.keyboard = keyboard;
+        this.writer = new RenderSnapshotWriter(simulation);
+        simulation.samurai().setDeathListener(() -> runOver = true);
+        simulation.enemies().setEventListener(this::handleEnemyDefeated);
+        thread = new Thread(this::run, "simulation");
+        thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * Starts a fresh run and publishes it before returning, so the next {@link #latest()} shows
+     * the new run rather than the outcome of the last one. The world stays still until
+     * {@link #resume()}.
+     */
+    void startRun() {
+        synchronized (lock) {
+            playing = false;
+            runOver = false;
+            cleared = false;
+            score = 0;
+            playSeconds = 0f;
+            simulation.startRun();
+            recorder = new InputRecorder(GameSimulation.TICKS_PER_SECOND, InputRecording.fingerprint(simulation.source()));
+            keyboard.clearPresses();
+            writer.reset();
+            publish();
+        }
+    }
+
+    /**
+     * Ticks from one tick length from now; ignored once the run is over.
+     */
+    void resume() {
+        synchronized (lock) {
+            if (runOver || cleared) {
+                return;
+            }
+            playing = true;
+            nextTickNanos = System.nanoTime() + TICK_NANOS;
+            lock.notifyAll();
+        }
+    }
+
+    void pause() {
+        synchronized (lock) {
+            playing = false;
+        }
+    }
+
+    /**
+     * @return the run recorded since {@link #startRun()}, or {@code null} if it was already taken
+     */
+    InputRecording finishRecording() {
+        synchronized (lock) {
+            if (recorder == null) {
+                return null;
+            }
+            InputRecording recording = recorder.finish();
+            recorder = null;
+            return recording;
+        }
+    }
+
+    /**
+     * Render thread: the newest snapshot, which stays unchanged until the next call.
+     */
+    RenderSnapshot latest() {
+        return snapshots.latest();
+    }
+
+    /**
+     * Stops the thread and waits for it, after which the simulation may be disposed.
+     */
+    void dispose() {
+        synchronized (lock) {
+            stopped = true;
+            lock.notifyAll();
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                long wakeAt;
+                synchronized (lock) {
+                    if (stopped) {
+                        return;
+                    }
+                    if (!playing) {
+                        // Keep held controls current so nothing fires on resume, and keep
+                        // adopting chunk loads for the paused view.
+                        keyboard.clearPresses();
+                        simulation.hold();
+                        publish();
+                        lock.wait(PAUSED_REFRESH_MILLIS);
+                        continue;
+                    }
+                    runDueTicks(System.nanoTime());
+                    wakeAt = nextTickNanos;
+                }
+                long sleep = wakeAt - System.nanoTime();
+                if (sleep > 0L) {
+                    LockSupport.parkNanos(this, sleep);
+                }
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException exception) {
+            Gdx.app.error(TAG, "Simulation thread failed", exception);
+        }
+    }
+
+    /**
+     * Runs every tick whose time has come, at most {@value #MAX_CATCH_UP_TICKS}. As on the
+     * render thread, each catch-up tick takes the input seen up to one tick length before the
+     * tick after it, and the last takes everything seen so far.
+     */
+    private void runDueTicks(long now) {
+        long behind = now - nextTickNanos;
+        if (behind < 0L) {
+            return;
+        }
+        int due = (int) Math.min(MAX_CATCH_UP_TICKS, behind / TICK_NANOS + 1);
+        for (int left = due - 1; left >= 0 && playing; left--) {
+            keyboard.collectUntil(now - left * TICK_NANOS);
+            int frame = keyboard.takeFrame();
+            if (recorder != null) {
+                recorder.record(frame);
+            }
+            simulation.tick(frame);
+            playSeconds += GameSimulation.TICK_SECONDS;
+            if (!runOver && simulation.isCleared()) {
+                cleared = true;
+            }
+            if (runOver || cleared) {
+                playing = false;
+            }
+            publish();
+        }
+        nextTickNanos += due * TICK_NANOS;
+        if (nextTickNanos - now <= 0L) {
+            // Too far behind to catch up: drop the backlog rather than run it all at once.
+            nextTickNanos = now + TICK_NANOS;
+        }
+    }
+
+    private void publish() {
+        writer.write(snapshots.back(), score, playSeconds, runOver, cleared);
+        snapshots.publish();
+    }
+
+    private void handleEnemyDefeated(EnemyDefinition definition) {
+        score += CelesteGame.SCORE_PER_ENEMY;
+        GameLogger.shared().info("Enemy defeated: " + definition.id() + " (score=" + score + ")");
+    }
+}
@@ -0,0 +1,61 @@
+package org.celestelike.game;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Hands the newest of a stream of values from one writer thread to one reader thread without
+ * either waiting. Three slots rotate between the writer's back slot, a shared middle slot and the
+ * reader's front slot; publishing swaps back and middle, reading swaps middle and front if the
+ * middle is newer, each with a single atomic exchange. The writer never touches what the reader
+ * holds and vice versa, and values the reader was too slow to see are simply overwritten.
+ *
+ * <p>The slots are created once and reused, so a stream of pooled values allocates nothing.
+ */
+final class TripleBuffer<T> {
+
+    private static final int INDEX_MASK = 3;
+    /** Set in {@link #middle} while it holds a value the reader has not taken. */
+    private static final int FRESH = 4;
+
+    private final Object[] slots = new Object[3];
+    private final AtomicInteger middle = new AtomicInteger(1);
+    /** Writer-owned. */
+    private int back;
+    /** Reader-owned. */
+    private int front = 2;
+
+    TripleBuffer(Supplier<T> factory) {
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = factory.get();
+        }
+    }
+
+    /**
+     * Writer side: the slot to fill before the next {@link #publish()}. It may hold any older
+     * value.
+     */
+    @SuppressWarnings("unchecked")
+    T back() {
+        return (T) slots[back];
+    }
+
+    /**
+     * Writer side: makes the back slot the newest value and takes a free slot as the new back.
+     */
+    void publish() {
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * Reader side: the newest published value, which stays untouched until the next call. Before
+     * anything is published this is one of the slots as the factory made it.
+     */
+    @SuppressWarnings("unchecked")
+    T latest() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & INDEX_MASK;
+        }
+        return (T) slots[front];
+    }
+}
@@ -0,0 +1,297 @@
+package org.celestelike.game;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import org.celestelike.game.entity.enemy.EnemyHealthBar;
+import org.celestelike.game.entity.samurai.SamuraiCharacter;
+import org.celestelike.game.world.LevelData;
+import org.celestelike.game.world.LevelData.TileBlueprint;
+import org.celestelike.game.world.TilesetIO;
+import org.celestelike.game.world.TilesetIO.TilesetData;
+import org.celestelike.game.world.chunk.ChunkPager;
+import org.celestelike.game.world.chunk.WorldChunk;
+
+/**
+ * Draws a {@link GameSimulation}: the tiles in view, the enemies, the samurai and the enemy
+ * health bars. Shared by {@link CelesteGame} and the headless benchmarks, which draw through a
+ * stub GL to count draw calls and texture switches.
+ */
+public final class WorldRenderer {
+
+    private static final String TILESET_BASE = "assets/newTileSetManara/";
+    private static final String TILESET_TSX = "assets/b.tsx";
+    private static final int MAX_TILE_FRAMES = 3;
+
+    private final GameSimulation simulation;
+    private final ChunkPager chunkPager;
+    private final float tileWorldSize;
+    private final List<Texture> paletteTextures = new ArrayList<>();
+    private final List<TextureRegion> paletteRegions = new ArrayList<>();
+
+    /**
+     * Loads the tile palette.
+     *
+     * @throws IllegalStateException if no palette could be loaded
+     */
+    public WorldRenderer(GameSimulation simulation) {
+        this.simulation = simulation;
+        this.chunkPager = simulation.pager();
+        this.tileWorldSize = simulation.tileWorldSize();
+        loadTileset();
+    }
+
+    /**
+     * Draws the tiles of every resident chunk the camera sees; call between {@code batch.begin()}
+     * and {@code batch.end()}.
+     *
+     * @param time seconds used to pick the frame of animated tiles
+     */
+    public void drawTiles(SpriteBatch batch, OrthographicCamera camera, float time) {
+        float halfWidth = camera.viewportWidth * camera.zoom * 0.5f;
+        float halfHeight = camera.viewportHeight * camera.zoom * 0.5f;
+        int chunkRowMin = Math.max(0, WorldChunk.chunkIndex((int) Math.floor((camera.position.y - halfHeight) / tileWorldSize)));
+        int chunkRowMax = Math.min(chunkPager.chunkRows() - 1,
+                WorldChunk.chunkIndex((int) Math.floor((camera.position.y + halfHeight) / tileWorldSize)));
+        int chunkColMin = Math.max(0, WorldChunk.chunkIndex((int) Math.floor((camera.position.x - halfWidth) / tileWorldSize)));
+        int chunkColMax = Math.min(chunkPager.chunkCols() - 1,
+                WorldChunk.chunkIndex((int) Math.floor((camera.position.x + halfWidth) / tileWorldSize)));
+        for (int chunkRow = chunkRowMin; chunkRow <= chunkRowMax; chunkRow++) {
+            for (int chunkCol = chunkColMin; chunkCol <= chunkColMax; chunkCol++) {
+                WorldChunk chunk = chunkPager.peek(chunkRow, chunkCol);
+                if (chunk != null) {
+                    drawChunk(batch, chunk, time);
+                }
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the enemies' spatial index; call once the simulation has stopped moving them for
+     * the frame. Reads the enemies only, so it may overlap with drawing the tiles.
+     */
+    public void indexEnemies() {
+        simulation.enemies().rebuildIndex();
+    }
+
+    /**
+     * Picks the enemies the camera sees from the index and steps their animations to the frame
+     * they will be drawn with; call after {@link #indexEnemies()} and before drawing them. Needs
+     * no GL.
+     */
+    public void prepareEnemies(OrthographicCamera camera) {
+        float halfWidth = camera.viewportWidth * camera.zoom * 0.5f;
+        float halfHeight = camera.viewportHeight * camera.zoom * 0.5f;
+        simulation.enemies().selectView(camera.position.x - halfWidth, camera.position.y - halfHeight,
+                camera.position.x + halfWidth, camera.position.y + halfHeight);
+        simulation.enemies().stepAnimations();
+    }
+
+    /**
+     * Draws the enemies picked by {@link #prepareEnemies}.
+     */
+    public void drawEnemies(SpriteBatch batch) {
+        simulation.enemies().draw(batch);
+    }
+
+    /**
+     * Draws every samurai; in co-op the partner of {@code local} is tinted so the two can be told
+     * apart.
+     */
+    public void drawPlayers(SpriteBatch batch, SamuraiCharacter local) {
+        for (int i = 0; i < simulation.playerCount(); i++) {
+            SamuraiCharacter player = simulation.player(i);
+            if (player == local) {
+                player.draw(batch);
+            } else {
+                batch.setColor(0.7f, 0.85f, 1f, 1f);
+                player.draw(batch);
+                batch.setColor(1f, 1f, 1f, 1f);
+            }
+        }
+    }
+
+    /**
+     * Draws the health bars of the enemies picked by {@link #prepareEnemies}; begins and ends
+     * {@code shapes} itself.
+     */
+    public void drawHealthBars(ShapeRenderer shapes, OrthographicCamera camera) {
+        shapes.setProjectionMatrix(camera.combined);
+        simulation.enemies().drawHealthBars(shapes);
+    }
+
+    // -------------------------------------------------------------------------
+    // Snapshots. With the simulation on its own thread the world is drawn from the latest
+    // RenderSnapshot, never from the live simulation. alpha places the frame between the
+    // snapshot's previous tick (0) and its own (1); animation times are wound back to match.
+    // -------------------------------------------------------------------------
+
+    /**
+     * Draws the tiles of the chunks captured in {@code snapshot}; call between
+     * {@code batch.begin()} and {@code batch.end()}.
+     */
+    void drawTiles(SpriteBatch batch, RenderSnapshot snapshot, float time) {
+        for (int i = 0; i < snapshot.chunkCount(); i++) {
+            drawChunk(batch, snapshot.chunk(i), time);
+        }
+    }
+
+    void drawEnemies(SpriteBatch batch, RenderSnapshot snapshot, float alpha) {
+        drawSprites(batch, snapshot, 0, snapshot.firstPlayerSprite(), alpha);
+    }
+
+    void drawPlayers(SpriteBatch batch, RenderSnapshot snapshot, float alpha) {
+        drawSprites(batch, snapshot, snapshot.firstPlayerSprite(), snapshot.spriteCount(), alpha);
+    }
+
+    void drawHealthBars(ShapeRenderer shapes, OrthographicCamera camera, RenderSnapshot snapshot, float alpha) {
+        if (snapshot.barCount() == 0) {
+            return;
+        }
+        shapes.setProjectionMatrix(camera.combined);
+        shapes.begin(ShapeRenderer.ShapeType.Filled);
+        for (int bar = 0; bar < snapshot.barCount(); bar++) {
+            int sprite = snapshot.barSprite(bar);
+            EnemyHealthBar.drawFill(shapes, snapshot.x(sprite, alpha), snapshot.y(sprite, alpha) + snapshot.barAbove(bar),
+                    snapshot.barWidth(bar), snapshot.barRatio(bar));
+        }
+        shapes.end();
+        shapes.begin(ShapeRenderer.ShapeType.Line);
+        for (int bar = 0; bar < snapshot.barCount(); bar++) {
+            int sprite = snapshot.barSprite(bar);
+            EnemyHealthBar.drawOutline(shapes, snapshot.x(sprite, alpha), snapshot.y(sprite, alpha) + snapshot.barAbove(bar),
+                    snapshot.barWidth(bar), snapshot.barSegments(bar));
+        }
+        shapes.end();
+    }
+
+    private static void drawSprites(SpriteBatch batch, RenderSnapshot snapshot, int from, int to, float alpha) {
+        float rewind = (1f - alpha) * GameSimulation.TICK_SECONDS;
+        for (int i = from; i < to; i++) {
+            TextureRegion frame = snapshot.animation(i).getKeyFrame(Math.max(0f, snapshot.time(i) - rewind), snapshot.loops(i));
+            float width = frame.getRegionWidth();
+            float x = snapshot.x(i, alpha);
+            float drawX = snapshot.facingRight(i) ? x + snapshot.offsetX(i) : x + width - snapshot.offsetX(i);
+            float drawY = snapshot.y(i, alpha) + snapshot.offsetY(i);
+            batch.draw(frame, drawX, drawY, snapshot.facingRight(i) ? width : -width, frame.getRegionHeight());
+        }
+    }
+
+    public void dispose() {
+        for (Texture texture : paletteTextures) {
+            texture.dispose();
+        }
+        paletteTextures.clear();
+        paletteRegions.clear();
+    }
+
+    private void drawChunk(SpriteBatch batch, WorldChunk chunk, float time) {
+        float originX = chunk.col0() * tileWorldSize;
+        float originY = chunk.row0() * tileWorldSize;
+        for (int row = 0; row < WorldChunk.SIZE; row++) {
+            for (int col = 0; col < WorldChunk.SIZE; col++) {
+                TextureRegion frame = tileFrame(chunk.cell(row, col), paletteRegions, time);
+                if (frame == null) {
+                    continue;
+                }
+                batch.draw(frame, originX + col * tileWorldSize, originY + row * tileWorldSize,
+                        tileWorldSize, tileWorldSize);
+            }
+        }
+    }
+
+    private void loadTileset() {
+        TilesetData data = TilesetIO.loadFromTsx(TILESET_TSX);
+        if (!data.isEmpty()) {
+            paletteTextures.addAll(data.textures());
+            paletteRegions.addAll(data.regions());
+        } else {
+            loadPaletteFromTilesDirectory();
+            if (paletteRegions.isEmpty()) {
+                loadPaletteFromAtlas();
+            }
+        }
+        if (paletteRegions.isEmpty()) {
+            throw new IllegalStateException("Unable to load tile palette.");
+        }
+    }
+
+    private void loadPaletteFromTilesDirectory() {
+        FileHandle directory = Gdx.files.internal(TILESET_BASE);
+        if (directory == null || !directory.exists() || !directory.isDirectory()) {
+            Gdx.app.log("WorldRenderer", "Tileset folder " + TILESET_BASE + " missing.");
+            return;
+        }
+        FileHandle[] contents = directory.list();
+        if (contents == null || contents.length == 0) {
+            return;
+        }
+        Arrays.sort(contents, (a, b) -> a.name().compareToIgnoreCase(b.name()));
+        int loaded = 0;
+        for (FileHandle file : contents) {
+            String extension = file.extension().toLowerCase(Locale.ROOT);
+            if (!"png".equals(extension)) {
+                continue;
+            }
+            Texture texture = new Texture(file);
+            paletteTextures.add(texture);
+            paletteRegions.add(new TextureRegion(texture));
+            loaded++;
+        }
+        if (loaded > 0) {
+            Gdx.app.log("WorldRenderer", "Loaded " + paletteRegions.size() + " textures from " + TILESET_BASE);
+        }
+    }
+
+    private void loadPaletteFromAtlas() {
+        FileHandle file = Gdx.files.internal(TILESET_BASE + "tilemap.png");
+        if (!file.exists()) {
+            return;
+        }
+        Texture atlas = new Texture(file);
+        paletteTextures.add(atlas);
+        int tileSize = LevelData.TILE_SIZE;
+        int rows = atlas.getHeight() / tileSize;
+        int cols = atlas.getWidth() / tileSize;
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                TextureRegion region = new TextureRegion(atlas,
+                        col * tileSize,
+                        row * tileSize,
+                        tileSize,
+                        tileSize);
+                paletteRegions.add(region);
+            }
+        }
+        Gdx.app.log("WorldRenderer", "Loaded " + paletteRegions.size() + " sprites from atlas fallback");
+    }
+
+    /**
+     * Picks the animation frame of a tile; at most {@value #MAX_TILE_FRAMES} frames are cycled.
+     */
+    private static TextureRegion tileFrame(TileBlueprint cell, List<TextureRegion> palette, float time) {
+        if (cell == null) {
+            return null;
+        }
+        int[] frames = cell.frames();
+        int frameCount = Math.min(frames.length, MAX_TILE_FRAMES);
+        if (frameCount <= 0) {
+            return null;
+        }
+        float duration = Math.max(cell.frameDuration(), 0.01f);
+        int frame = (int) Math.floor((time / duration) % frameCount);
+        int index = frames[frame];
+        if (index < 0 || index >= palette.size()) {
+            return null;
+        }
+        return palette.get(index);
+    }
+}
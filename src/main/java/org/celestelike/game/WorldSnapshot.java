@@ -0,0 +1,156 @@
+package org.celestelike.game;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import org.celestelike.game.state.StateWriter;
+
+/**
+ * A saved {@link GameSimulation} state in a reusable direct buffer: the samurai (controller,
+ * state machine, timers, health, power-ups, combo), which move commands are engaged, and every
+ * active enemy with its timers and animation state. Saving into the same snapshot again
+ * overwrites it in place; the buffer only grows, so a warmed-up snapshot never allocates.
+ *
+ * <p>Snapshots are in native byte order and meant for this process: checkpoints, rollback and
+ * determinism checks, not files. They are written through the same {@link StateWriter} calls a
+ * {@link org.celestelike.game.state.StateHasher} sees.
+ */
+public final class WorldSnapshot {
+
+    static final int MAGIC = 0x434c5353; // "CLSS"
+    static final int VERSION = 2;
+    private static final int INITIAL_CAPACITY = 4 * 1024;
+
+    private ByteBuffer buffer;
+    private int size;
+    private long tick = -1L;
+    private final BufferWriter writer = new BufferWriter();
+
+    public WorldSnapshot() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public WorldSnapshot(int initialCapacity) {
+        buffer = allocate(Math.max(64, initialCapacity));
+    }
+
+    /**
+     * @return the tick the state was saved at, or -1 if nothing was saved yet
+     */
+    public long tick() {
+        return tick;
+    }
+
+    public boolean isEmpty() {
+        return tick < 0L;
+    }
+
+    /**
+     * @return encoded size of the saved state in bytes
+     */
+    public int sizeBytes() {
+        return size;
+    }
+
+    public int capacityBytes() {
+        return buffer.capacity();
+    }
+
+    /**
+     * Copies the saved state into {@code target}, growing it only if it is too small.
+     */
+    public void copyTo(WorldSnapshot target) {
+        if (target.buffer.capacity() < size) {
+            target.buffer = allocate(buffer.capacity());
+        }
+        target.buffer.put(0, buffer, 0, size);
+        target.size = size;
+        target.tick = tick;
+    }
+
+    /**
+     * @return {@code true} if both snapshots hold byte-identical state
+     */
+    public boolean sameState(WorldSnapshot other) {
+        if (size != other.size) {
+            return false;
+        }
+        int i = 0;
+        for (; i + Long.BYTES <= size; i += Long.BYTES) {
+            if (buffer.getLong(i) != other.buffer.getLong(i)) {
+                return false;
+            }
+        }
+        for (; i < size; i++) {
+            if (buffer.get(i) != other.buffer.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return a buffer positioned at the start of the state and limited to its end, sharing
+     * content with this snapshot
+     */
+    ByteBuffer reader() {
+        if (isEmpty()) {
+            throw new IllegalStateException("Nothing saved in this snapshot");
+        }
+        buffer.clear().limit(size);
+        return buffer;
+    }
+
+    StateWriter writer() {
+        buffer.clear();
+        return writer;
+    }
+
+    void finish(long savedTick) {
+        size = buffer.position();
+        tick = savedTick;
+    }
+
+    /**
+     * Doubles the capacity after a save overflowed; the partial save is discarded.
+     */
+    void grow() {
+        buffer = allocate(buffer.capacity() * 2);
+        size = 0;
+        tick = -1L;
+    }
+
+    private static ByteBuffer allocate(int capacity) {
+        return ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Writes into whichever buffer the snapshot holds, so it stays valid across {@link #grow()}.
+     */
+    private final class BufferWriter implements StateWriter {
+
+        @Override
+        public void putByte(int value) {
+            buffer.put((byte) value);
+        }
+
+        @Override
+        public void putShort(int value) {
+            buffer.putShort((short) value);
+        }
+
+        @Override
+        public void putInt(int value) {
+            buffer.putInt(value);
+        }
+
+        @Override
+        public void putLong(long value) {
+            buffer.putLong(value);
+        }
+
+        @Override
+        public void putFloat(float value) {
+            buffer.putFloat(value);
+        }
+    }
+}
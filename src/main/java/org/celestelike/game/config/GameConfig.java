@@ -2,8 +2,9 @@ package org.celestelike.game.config;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.files.FileHandle;
-import com.badlogic.gdx.utils.JsonReader;
-import com.badlogic.gdx.utils.JsonValue;
+import java.io.IOException;
+import org.celestelike.game.net.RollbackSession;
+import org.celestelike.game.world.JsonPullParser;
 
 /**
  * Minimal runtime configuration loaded from {@code assets/game_config.json}.
@@ -24,20 +25,42 @@ public final class GameConfig {
     private static final float DEFAULT_RENDER_OFFSET_X = 0f;
     private static final float DEFAULT_RENDER_OFFSET_Y = -20f;
 
+    private static final int DEFAULT_CHUNK_BUDGET_MB = 32;
+    private static final int DEFAULT_PREFETCH_CHUNKS = 1;
+    private static final int DEFAULT_LOADER_THREADS = 1;
+    private static final int DEFAULT_GENERATED_CHUNKS = 256;
+    private static final int DEFAULT_GENERATED_ROWS = 32;
+
+    private static final int DEFAULT_NET_PORT = 7777;
+    private static final int DEFAULT_INPUT_DELAY = 2;
+    private static final int DEFAULT_METRICS_PORT = 0;
+
     private final float cameraTilesWide;
     private final float cameraTilesTall;
     private final float cameraZoom;
     private final PlayerConfig player;
+    private final WorldConfig world;
+    private final NetplayConfig netplay;
+    private final MetricsConfig metrics;
+    private final SimulationConfig simulation;
 
     private GameConfig(
             float cameraTilesWide,
             float cameraTilesTall,
             float cameraZoom,
-            PlayerConfig player) {
+            PlayerConfig player,
+            WorldConfig world,
+            NetplayConfig netplay,
+            MetricsConfig metrics,
+            SimulationConfig simulation) {
         this.cameraTilesWide = cameraTilesWide <= 0f ? DEFAULT_TILES_WIDE : cameraTilesWide;
         this.cameraTilesTall = cameraTilesTall <= 0f ? DEFAULT_TILES_TALL : cameraTilesTall;
         this.cameraZoom = cameraZoom <= 0f ? DEFAULT_CAMERA_ZOOM : cameraZoom;
         this.player = player == null ? PlayerConfig.defaults() : player;
+        this.world = world == null ? WorldConfig.defaults() : world;
+        this.netplay = netplay == null ? NetplayConfig.defaults() : netplay;
+        this.metrics = metrics == null ? MetricsConfig.defaults() : metrics;
+        this.simulation = simulation == null ? SimulationConfig.defaults() : simulation;
     }
 
     public float cameraTilesWide() {
@@ -56,41 +79,98 @@ public final class GameConfig {
         return player;
     }
 
+    public WorldConfig world() {
+        return world;
+    }
+
+    public NetplayConfig netplay() {
+        return netplay;
+    }
+
+    public MetricsConfig metrics() {
+        return metrics;
+    }
+
+    public SimulationConfig simulation() {
+        return simulation;
+    }
+
     public static GameConfig load() {
         if (Gdx.files == null) {
             return defaults();
         }
-        FileHandle handle = Gdx.files.internal(CONFIG_PATH);
+        return load(Gdx.files.internal(CONFIG_PATH));
+    }
+
+    /**
+     * Loads a configuration from another file, e.g. to compare two setups headless.
+     */
+    public static GameConfig load(FileHandle handle) {
         if (!handle.exists()) {
-            log("GameConfig", "Missing " + CONFIG_PATH + "; using defaults");
+            log("GameConfig", "Missing " + handle.path() + "; using defaults");
             return defaults();
         }
-        try {
-            JsonValue root = new JsonReader().parse(handle);
-            JsonValue camera = root.get("camera");
-            float tilesWide = camera == null ? DEFAULT_TILES_WIDE : camera.getFloat("tilesWide", DEFAULT_TILES_WIDE);
-            float tilesTall = camera == null ? DEFAULT_TILES_TALL : camera.getFloat("tilesTall", DEFAULT_TILES_TALL);
-            float zoom = camera == null ? DEFAULT_CAMERA_ZOOM : camera.getFloat("zoom", DEFAULT_CAMERA_ZOOM);
-
-            PlayerConfig player = parsePlayer(root.get("player"));
+        try (JsonPullParser parser = JsonPullParser.open(handle)) {
+            float tilesWide = DEFAULT_TILES_WIDE;
+            float tilesTall = DEFAULT_TILES_TALL;
+            float zoom = DEFAULT_CAMERA_ZOOM;
+            PlayerConfig player = PlayerConfig.defaults();
+            WorldConfig world = WorldConfig.defaults();
+            NetplayConfig netplay = NetplayConfig.defaults();
+            MetricsConfig metrics = MetricsConfig.defaults();
+            SimulationConfig simulation = SimulationConfig.defaults();
+            parser.beginObject();
+            while (parser.hasNext()) {
+                switch (parser.nextName()) {
+                    case "camera" -> {
+                        parser.beginObject();
+                        while (parser.hasNext()) {
+                            switch (parser.nextName()) {
+                                case "tilesWide" -> tilesWide = parser.nextFloat();
+                                case "tilesTall" -> tilesTall = parser.nextFloat();
+                                case "zoom" -> zoom = parser.nextFloat();
+                                default -> parser.skipValue();
+                            }
+                        }
+                        parser.endObject();
+                    }
+                    case "player" -> player = parsePlayer(parser);
+                    case "world" -> world = parseWorld(parser);
+                    case "netplay" -> netplay = parseNetplay(parser);
+                    case "metrics" -> metrics = parseMetrics(parser);
+                    case "simulation" -> simulation = parseSimulation(parser);
+                    default -> parser.skipValue();
+                }
+            }
+            parser.endObject();
 
-            return new GameConfig(tilesWide, tilesTall, zoom, player);
+            return new GameConfig(tilesWide, tilesTall, zoom, player, world, netplay, metrics, simulation);
         } catch (Exception exception) {
-            logError("GameConfig", "Failed to parse " + CONFIG_PATH, exception);
+            logError("GameConfig", "Failed to parse " + handle.path(), exception);
             return defaults();
         }
     }
 
-    private static PlayerConfig parsePlayer(JsonValue node) {
-        if (node == null) {
-            return PlayerConfig.defaults();
+    private static PlayerConfig parsePlayer(JsonPullParser parser) throws IOException {
+        float colliderWidth = DEFAULT_COLLIDER_WIDTH;
+        float colliderHeight = DEFAULT_COLLIDER_HEIGHT;
+        float colliderOffsetX = DEFAULT_COLLIDER_OFFSET_X;
+        float colliderOffsetY = DEFAULT_COLLIDER_OFFSET_Y;
+        float renderOffsetX = DEFAULT_RENDER_OFFSET_X;
+        float renderOffsetY = DEFAULT_RENDER_OFFSET_Y;
+        parser.beginObject();
+        while (parser.hasNext()) {
+            switch (parser.nextName()) {
+                case "colliderWidth" -> colliderWidth = parser.nextFloat();
+                case "colliderHeight" -> colliderHeight = parser.nextFloat();
+                case "colliderOffsetX" -> colliderOffsetX = parser.nextFloat();
+                case "colliderOffsetY" -> colliderOffsetY = parser.nextFloat();
+                case "renderOffsetX" -> renderOffsetX = parser.nextFloat();
+                case "renderOffsetY" -> renderOffsetY = parser.nextFloat();
+                default -> parser.skipValue();
+            }
         }
-        float colliderWidth = node.getFloat("colliderWidth", DEFAULT_COLLIDER_WIDTH);
-        float colliderHeight = node.getFloat("colliderHeight", DEFAULT_COLLIDER_HEIGHT);
-        float colliderOffsetX = node.getFloat("colliderOffsetX", DEFAULT_COLLIDER_OFFSET_X);
-        float colliderOffsetY = node.getFloat("colliderOffsetY", DEFAULT_COLLIDER_OFFSET_Y);
-        float renderOffsetX = node.getFloat("renderOffsetX", DEFAULT_RENDER_OFFSET_X);
-        float renderOffsetY = node.getFloat("renderOffsetY", DEFAULT_RENDER_OFFSET_Y);
+        parser.endObject();
         return new PlayerConfig(
                 colliderWidth,
                 colliderHeight,
@@ -100,8 +180,100 @@ public final class GameConfig {
                 renderOffsetY);
     }
 
+    private static WorldConfig parseWorld(JsonPullParser parser) throws IOException {
+        String chunkDirectory = null;
+        int chunkBudgetMb = DEFAULT_CHUNK_BUDGET_MB;
+        int prefetchChunks = DEFAULT_PREFETCH_CHUNKS;
+        int loaderThreads = DEFAULT_LOADER_THREADS;
+        Long generatorSeed = null;
+        int generatedChunks = DEFAULT_GENERATED_CHUNKS;
+        int generatedRows = DEFAULT_GENERATED_ROWS;
+        parser.beginObject();
+        while (parser.hasNext()) {
+            switch (parser.nextName()) {
+                case "chunkDirectory" -> chunkDirectory = parser.nextString();
+                case "chunkBudgetMb" -> chunkBudgetMb = parser.nextInt();
+                case "prefetchChunks" -> prefetchChunks = parser.nextInt();
+                case "loaderThreads" -> loaderThreads = parser.nextInt();
+                case "generatorSeed" -> generatorSeed = Long.parseLong(parser.nextString());
+                case "generatedChunks" -> generatedChunks = parser.nextInt();
+                case "generatedRows" -> generatedRows = parser.nextInt();
+                default -> parser.skipValue();
+            }
+        }
+        parser.endObject();
+        return new WorldConfig(chunkDirectory, chunkBudgetMb, prefetchChunks, loaderThreads,
+                generatorSeed, generatedChunks, generatedRows);
+    }
+
+    private static NetplayConfig parseNetplay(JsonPullParser parser) throws IOException {
+        NetplayConfig.Mode mode = NetplayConfig.Mode.OFF;
+        int localPlayer = 0;
+        int localPort = DEFAULT_NET_PORT;
+        String remoteHost = "127.0.0.1";
+        int remotePort = DEFAULT_NET_PORT + 1;
+        int inputDelay = DEFAULT_INPUT_DELAY;
+        int latencyMs = 0;
+        int jitterMs = 0;
+        float lossPercent = 0f;
+        parser.beginObject();
+        while (parser.hasNext()) {
+            switch (parser.nextName()) {
+                case "mode" -> mode = NetplayConfig.Mode.parse(parser.nextString());
+                case "localPlayer" -> localPlayer = parser.nextInt();
+                case "localPort" -> localPort = parser.nextInt();
+                case "remoteHost" -> remoteHost = parser.nextString();
+                case "remotePort" -> remotePort = parser.nextInt();
+                case "inputDelay" -> inputDelay = parser.nextInt();
+                case "latencyMs" -> latencyMs = parser.nextInt();
+                case "jitterMs" -> jitterMs = parser.nextInt();
+                case "lossPercent" -> lossPercent = parser.nextFloat();
+                default -> parser.skipValue();
+            }
+        }
+        parser.endObject();
+        return new NetplayConfig(mode, localPlayer, localPort, remoteHost, remotePort, inputDelay,
+                latencyMs, jitterMs, lossPercent);
+    }
+
+    private static MetricsConfig parseMetrics(JsonPullParser parser) throws IOException {
+        int port = DEFAULT_METRICS_PORT;
+        parser.beginObject();
+        while (parser.hasNext()) {
+            switch (parser.nextName()) {
+                case "port" -> port = parser.nextInt();
+                default -> parser.skipValue();
+            }
+        }
+        parser.endObject();
+        return new MetricsConfig(port);
+    }
+
+    private static SimulationConfig parseSimulation(JsonPullParser parser) throws IOException {
+        boolean threaded = false;
+        int frameWorkers = 0;
+        parser.beginObject();
+        while (parser.hasNext()) {
+            switch (parser.nextName()) {
+                case "threaded" -> threaded = parser.nextBoolean();
+                case "frameWorkers" -> frameWorkers = parser.nextInt();
+                default -> parser.skipValue();
+            }
+        }
+        parser.endObject();
+        return new SimulationConfig(threaded, frameWorkers);
+    }
+
     private static GameConfig defaults() {
-        return new GameConfig(DEFAULT_TILES_WIDE, DEFAULT_TILES_TALL, DEFAULT_CAMERA_ZOOM, PlayerConfig.defaults());
+        return new GameConfig(
+                DEFAULT_TILES_WIDE,
+                DEFAULT_TILES_TALL,
+                DEFAULT_CAMERA_ZOOM,
+                PlayerConfig.defaults(),
+                WorldConfig.defaults(),
+                NetplayConfig.defaults(),
+                MetricsConfig.defaults(),
+                SimulationConfig.defaults());
     }
 
     private static void log(String tag, String message) {
@@ -175,6 +347,245 @@ public final class GameConfig {
                     DEFAULT_RENDER_OFFSET_Y);
         }
     }
-}
 
+    /**
+     * Chunk paging settings. A {@code chunkDirectory} wins; otherwise a {@code generatorSeed}
+     * selects a generated stage, and without either the game pages the authored
+     * {@code editor_blueprint.json} level from memory.
+     */
+    public static final class WorldConfig {
+        private final String chunkDirectory;
+        private final int chunkBudgetMb;
+        private final int prefetchChunks;
+        private final int loaderThreads;
+        private final Long generatorSeed;
+        private final int generatedChunks;
+        private final int generatedRows;
+
+        private WorldConfig(
+                String chunkDirectory,
+                int chunkBudgetMb,
+                int prefetchChunks,
+                int loaderThreads,
+                Long generatorSeed,
+                int generatedChunks,
+                int generatedRows) {
+            this.chunkDirectory = chunkDirectory == null || chunkDirectory.isBlank() ? null : chunkDirectory;
+            this.chunkBudgetMb = chunkBudgetMb <= 0 ? DEFAULT_CHUNK_BUDGET_MB : chunkBudgetMb;
+            this.prefetchChunks = Math.max(0, prefetchChunks);
+            this.loaderThreads = loaderThreads <= 0 ? DEFAULT_LOADER_THREADS : loaderThreads;
+            this.generatorSeed = generatorSeed;
+            this.generatedChunks = generatedChunks <= 0 ? DEFAULT_GENERATED_CHUNKS : generatedChunks;
+            this.generatedRows = generatedRows <= 0 ? DEFAULT_GENERATED_ROWS : generatedRows;
+        }
+
+        /**
+         * @return directory holding {@code world.json} and the chunk files, or {@code null}
+         */
+        public String chunkDirectory() {
+            return chunkDirectory;
+        }
+
+        public long chunkBudgetBytes() {
+            return chunkBudgetMb * 1024L * 1024L;
+        }
+
+        public int prefetchChunks() {
+            return prefetchChunks;
+        }
+
+        public int loaderThreads() {
+            return loaderThreads;
+        }
+
+        /**
+         * @return seed of the generated stage, or {@code null} to use authored content
+         */
+        public Long generatorSeed() {
+            return generatorSeed;
+        }
+
+        /**
+         * @return generated stage length in chunks
+         */
+        public int generatedChunks() {
+            return generatedChunks;
+        }
+
+        /**
+         * @return generated stage height in tiles
+         */
+        public int generatedRows() {
+            return generatedRows;
+        }
+
+        private static WorldConfig defaults() {
+            return new WorldConfig(null, DEFAULT_CHUNK_BUDGET_MB, DEFAULT_PREFETCH_CHUNKS, DEFAULT_LOADER_THREADS,
+                    null, DEFAULT_GENERATED_CHUNKS, DEFAULT_GENERATED_ROWS);
+        }
+    }
+
+    /**
+     * Two-player rollback co-op. {@code udp} plays against another instance at
+     * {@code remoteHost:remotePort}; {@code loopback} plays against a partner in the same process
+     * that replays the last recorded run over a simulated link with the given latency, jitter and
+     * loss, for trying the netcode without a second machine.
+     */
+    public static final class NetplayConfig {
+
+        public enum Mode {
+            OFF,
+            LOOPBACK,
+            UDP;
+
+            private static Mode parse(String value) {
+                for (Mode mode : values()) {
+                    if (mode.name().equalsIgnoreCase(value)) {
+                        return mode;
+                    }
+                }
+                log("GameConfig", "Unknown netplay mode '" + value + "'; netplay is off");
+                return OFF;
+            }
+        }
+
+        private final Mode mode;
+        private final int localPlayer;
+        private final int localPort;
+        private final String remoteHost;
+        private final int remotePort;
+        private final int inputDelay;
+        private final int latencyMs;
+        private final int jitterMs;
+        private final float lossPercent;
+
+        private NetplayConfig(
+                Mode mode,
+                int localPlayer,
+                int localPort,
+                String remoteHost,
+                int remotePort,
+                int inputDelay,
+                int latencyMs,
+                int jitterMs,
+                float lossPercent) {
+            this.mode = mode == null ? Mode.OFF : mode;
+            this.localPlayer = localPlayer == 1 ? 1 : 0;
+            this.localPort = localPort <= 0 ? DEFAULT_NET_PORT : localPort;
+            this.remoteHost = remoteHost == null || remoteHost.isBlank() ? "127.0.0.1" : remoteHost;
+            this.remotePort = remotePort <= 0 ? DEFAULT_NET_PORT + 1 : remotePort;
+            this.inputDelay = Math.max(0, Math.min(inputDelay, RollbackSession.MAX_INPUT_DELAY));
+            this.latencyMs = Math.max(0, latencyMs);
+            this.jitterMs = Math.max(0, jitterMs);
+            this.lossPercent = Math.max(0f, Math.min(lossPercent, 100f));
+        }
+
+        public Mode mode() {
+            return mode;
+        }
+
+        public boolean enabled() {
+            return mode != Mode.OFF;
+        }
+
+        /**
+         * @return which samurai this instance controls, 0 or 1; the two instances must differ
+         */
+        public int localPlayer() {
+            return localPlayer;
+        }
+
+        public int localPort() {
+            return localPort;
+        }
+
+        public String remoteHost() {
+            return remoteHost;
+        }
 
+        public int remotePort() {
+            return remotePort;
+        }
+
+        public int inputDelay() {
+            return inputDelay;
+        }
+
+        public int latencyMs() {
+            return latencyMs;
+        }
+
+        public int jitterMs() {
+            return jitterMs;
+        }
+
+        public float lossPercent() {
+            return lossPercent;
+        }
+
+        private static NetplayConfig defaults() {
+            return new NetplayConfig(Mode.OFF, 0, DEFAULT_NET_PORT, "127.0.0.1", DEFAULT_NET_PORT + 1,
+                    DEFAULT_INPUT_DELAY, 0, 0, 0f);
+        }
+    }
+
+    /**
+     * Local metrics endpoint for soak tests: when {@code port} is set, the game serves Prometheus
+     * metrics at {@code http://127.0.0.1:<port>/metrics}. Off by default.
+     */
+    public static final class MetricsConfig {
+
+        private final int port;
+
+        private MetricsConfig(int port) {
+            this.port = Math.max(0, Math.min(port, 65535));
+        }
+
+        public boolean enabled() {
+            return port > 0;
+        }
+
+        public int port() {
+            return port;
+        }
+
+        private static MetricsConfig defaults() {
+            return new MetricsConfig(DEFAULT_METRICS_PORT);
+        }
+    }
+
+    /**
+     * Where the world is updated. With {@code threaded} on, single-player runs tick on their own
+     * thread at a fixed rate and the render thread draws the latest published state, so a slow
+     * frame no longer delays the simulation or the other way round. Co-op always ticks on the
+     * render thread. Off by default.
+     *
+     * <p>{@code frameWorkers} threads help the render thread with the parts of a frame that need
+     * no GL, such as laying out HUD text or stepping enemy animations, while it draws the world.
+     * 0, the default, does all of it on the render thread.
+     */
+    public static final class SimulationConfig {
+
+        private static final int MAX_FRAME_WORKERS = 4;
+
+        private final boolean threaded;
+        private final int frameWorkers;
+
+        private SimulationConfig(boolean threaded, int frameWorkers) {
+            this.threaded = threaded;
+            this.frameWorkers = Math.max(0, Math.min(frameWorkers, MAX_FRAME_WORKERS));
+        }
+
+        public boolean threaded() {
+            return threaded;
+        }
+
+        public int frameWorkers() {
+            return frameWorkers;
+        }
+
+        private static SimulationConfig defaults() {
+            return new SimulationConfig(false, 0);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package org.celestelike.game.entity;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+
+/**
+ * Loads entity sprite sheets as unmanaged textures. libGDX tracks managed textures in a static,
+ * unsynchronized list per application, which worlds built on several threads at once would
+ * corrupt; the desktop backend never loses its GL context, so nothing needs that tracking.
+ */
+public final class SpriteSheets {
+
+    private SpriteSheets() {
+    }
+
+    public static Texture load(FileHandle file) {
+        Pixmap pixmap = new Pixmap(file);
+        try {
+            return new Texture(pixmap);
+        } finally {
+            pixmap.dispose();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package org.celestelike.game.entity;
+
+import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+
+/**
+ * Receives what an entity would draw this tick without drawing it, so the simulation thread can
+ * describe a frame that the render thread draws later. Entities report the animation and the time
+ * into it rather than a resolved frame; the renderer picks the frame itself.
+ */
+public interface SpriteSink {
+
+    /**
+     * One sprite, drawn the way {@code SpriteBatch} draws entities: anchored at
+     * ({@code x + offsetX}, {@code y + offsetY}) and mirrored about its own width when facing left.
+     *
+     * @param owner the entity, stable across ticks so positions can be matched between them
+     * @param time  seconds into {@code animation}
+     */
+    void sprite(Object owner, Animation<TextureRegion> animation, float time, boolean looping,
+                float x, float y, float offsetX, float offsetY, boolean facingRight);
+
+    /**
+     * A health bar belonging to the sprite reported just before it.
+     *
+     * @param above    distance from the sprite's position to the bottom of the bar
+     * @param ratio    remaining health in {@code [0, 1]}
+     * @param segments divisions drawn on the outline
+     */
+    void healthBar(float width, float above, float ratio, int segments);
+}
@@ -0,0 +1,91 @@
+package org.celestelike.game.entity.enemy;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Logger;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.celestelike.game.entity.SpriteSheets;
+
+/**
+ * The animations of every enemy type one world has spawned, loaded once per type and shared by
+ * all its enemies. Owns the textures; enemies only borrow them, so spawning an enemy whose type
+ * is already loaded makes no GL calls and a despawned enemy's frames stay valid for anyone still
+ * drawing them.
+ *
+ * <p>Not thread-safe; the world that owns it uses it from one thread.
+ */
+final class EnemyAnimations {
+
+    private static final Logger LOGGER = new Logger("EnemyAnimations", Logger.INFO);
+
+    private final Map<String, EnumMap<EnemyAnimationKey, Animation<TextureRegion>>> byId = new HashMap<>();
+    private final List<Texture> textures = new ArrayList<>();
+
+    /**
+     * @return the animations of {@code definition}, loading its sprite sheets on first use;
+     *         animations that failed to load are missing from the map
+     */
+    Map<EnemyAnimationKey, Animation<TextureRegion>> of(EnemyDefinition definition) {
+        EnumMap<EnemyAnimationKey, Animation<TextureRegion>> animations = byId.get(definition.id());
+        if (animations == null) {
+            animations = load(definition);
+            byId.put(definition.id(), animations);
+        }
+        return animations;
+    }
+
+    void dispose() {
+        for (Texture texture : textures) {
+            texture.dispose();
+        }
+        textures.clear();
+        byId.clear();
+    }
+
+    private EnumMap<EnemyAnimationKey, Animation<TextureRegion>> load(EnemyDefinition definition) {
+        EnumMap<EnemyAnimationKey, Animation<TextureRegion>> animations = new EnumMap<>(EnemyAnimationKey.class);
+        definition.animationSpecs().forEach((key, spec) -> {
+            Animation<TextureRegion> animation = buildAnimation(definition.assetRoot() + spec.file(), spec);
+            if (animation != null) {
+                animations.put(key, animation);
+            }
+        });
+        return animations;
+    }
+
+    private Animation<TextureRegion> buildAnimation(String path, EnemyAnimationSpec spec) {
+        try {
+            Texture texture = SpriteSheets.load(Gdx.files.internal(path));
+            textures.add(texture);
+            int frameWidth = spec.frameWidth() > 0 ? spec.frameWidth() : texture.getWidth();
+            int frameHeight = spec.frameHeight() > 0 ? spec.frameHeight() : texture.getHeight();
+            frameWidth = Math.max(1, Math.min(frameWidth, texture.getWidth()));
+            frameHeight = Math.max(1, Math.min(frameHeight, texture.getHeight()));
+            TextureRegion[][] split = TextureRegion.split(texture, frameWidth, frameHeight);
+            Array<TextureRegion> frames = new Array<>();
+            for (TextureRegion[] row : split) {
+                for (TextureRegion region : row) {
+                    if (region == null) {
+                        continue;
+                    }
+                    frames.add(region);
+                }
+            }
+            if (frames.isEmpty()) {
+                LOGGER.error("Spritesheet " + path + " produced no frames");
+                return null;
+            }
+            return new Animation<>(spec.frameDuration(), frames, spec.playMode());
+        } catch (Exception exception) {
+            LOGGER.error("Failed to load animation " + path, exception);
+            return null;
+        }
+    }
+}
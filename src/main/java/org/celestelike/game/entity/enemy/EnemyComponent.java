@@ -1,18 +1,15 @@
 package org.celestelike.game.entity.enemy;
 
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.math.Vector2;
 
 interface EnemyComponent {
 
     void update(float delta);
 
-    void draw(SpriteBatch batch);
-
-    void drawHealthFill(ShapeRenderer renderer);
-
-    void drawHealthOutline(ShapeRenderer renderer);
+    /**
+     * Adds every enemy under this component to {@code grid}, in tree order.
+     */
+    void index(EnemyGrid grid);
 
     /**
      * @return true if damage connected with any enemy.
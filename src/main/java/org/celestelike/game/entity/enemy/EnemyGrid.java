@@ -0,0 +1,104 @@
+package org.celestelike.game.entity.enemy;
+
+import java.util.Arrays;
+
+/**
+ * The enemies of an {@link EnemyManager} bucketed by the {@value #CELL_SIZE} world unit cell
+ * their position falls in, so drawing visits only the cells in view. Rebuilt whole whenever the
+ * enemies may have moved; a query reports enemies in the order they were added, which is the
+ * group tree's order and so the order they are drawn in.
+ *
+ * <p>Each entry packs cell column, cell row and insertion order into one {@code long}, so
+ * sorting the entries sorts the cells column by column and keeps each cell in tree order.
+ * Allocates nothing once it has grown to fit.
+ */
+final class EnemyGrid {
+
+    static final float CELL_SIZE = 256f;
+
+    private static final int ORDER_BITS = 24;
+    private static final int ROW_BITS = 16;
+    private static final int MAX_ROW = (1 << ROW_BITS) - 1;
+    private static final int MAX_COL = (1 << (63 - ORDER_BITS - ROW_BITS)) - 1;
+    private static final int INITIAL_ENEMIES = 64;
+
+    private EnemyInstance[] instances = new EnemyInstance[INITIAL_ENEMIES];
+    private long[] entries = new long[INITIAL_ENEMIES];
+    private int count;
+    private int[] hits = new int[INITIAL_ENEMIES];
+    private int hitCount;
+
+    void clear() {
+        Arrays.fill(instances, 0, count, null);
+        count = 0;
+        hitCount = 0;
+    }
+
+    void add(EnemyInstance instance) {
+        if (count == instances.length) {
+            int grown = count * 2;
+            instances = Arrays.copyOf(instances, grown);
+            entries = Arrays.copyOf(entries, grown);
+            hits = Arrays.copyOf(hits, grown);
+        }
+        int row = cell(instance.position().y, MAX_ROW);
+        int col = cell(instance.position().x, MAX_COL);
+        instances[count] = instance;
+        entries[count] = key(col, row) | count;
+        count++;
+    }
+
+    /**
+     * Sorts the entries; call once every enemy has been added.
+     */
+    void seal() {
+        Arrays.sort(entries, 0, count);
+    }
+
+    /**
+     * Finds the enemies whose position lies in a cell the rectangle touches, so an enemy can be
+     * up to a cell outside it.
+     *
+     * @return how many were found; {@link #hit} returns them in tree order
+     */
+    int query(float minX, float minY, float maxX, float maxY) {
+        hitCount = 0;
+        int rowMin = cell(minY, MAX_ROW);
+        int rowMax = cell(maxY, MAX_ROW);
+        int colMax = cell(maxX, MAX_COL);
+        for (int col = cell(minX, MAX_COL); col <= colMax; col++) {
+            long end = key(col, rowMax + 1);
+            for (int i = firstAtLeast(key(col, rowMin)); i < count && entries[i] < end; i++) {
+                hits[hitCount++] = (int) (entries[i] & ((1L << ORDER_BITS) - 1));
+            }
+        }
+        Arrays.sort(hits, 0, hitCount);
+        return hitCount;
+    }
+
+    EnemyInstance hit(int index) {
+        return instances[hits[index]];
+    }
+
+    private int firstAtLeast(long key) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (entries[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static long key(int col, int row) {
+        return ((long) col << (ROW_BITS + ORDER_BITS)) | ((long) row << ORDER_BITS);
+    }
+
+    private static int cell(float coordinate, int max) {
+        return Math.max(0, Math.min(max, (int) Math.floor(coordinate / CELL_SIZE)));
+    }
+}
@@ -1,11 +1,9 @@
 package org.celestelike.game.entity.enemy;
 
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.math.Vector2;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 final class EnemyGroupNode implements EnemyComponent {
 
@@ -20,6 +18,51 @@ final class EnemyGroupNode implements EnemyComponent {
         children.add(component);
     }
 
+    boolean remove(EnemyComponent component) {
+        return children.remove(component);
+    }
+
+    int size() {
+        return children.size();
+    }
+
+    EnemyComponent child(int index) {
+        return children.get(index);
+    }
+
+    /**
+     * Removes every child without disposing it, so the caller can re-add them in another order.
+     */
+    void detachAll() {
+        children.clear();
+    }
+
+    boolean contains(EnemyComponent component) {
+        return children.contains(component);
+    }
+
+    /**
+     * @return leaves directly under this group that are still alive
+     */
+    int liveLeafCount() {
+        int count = 0;
+        for (int i = 0; i < children.size(); i++) {
+            EnemyComponent child = children.get(i);
+            if (child instanceof EnemyLeafNode && !child.isEmpty()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    void forEachLiveLeaf(Consumer<EnemyLeafNode> consumer) {
+        for (EnemyComponent child : children) {
+            if (child instanceof EnemyLeafNode leaf && !leaf.isEmpty()) {
+                consumer.accept(leaf);
+            }
+        }
+    }
+
     void clear() {
         for (EnemyComponent child : children) {
             child.dispose();
@@ -29,14 +72,15 @@ final class EnemyGroupNode implements EnemyComponent {
 
     @Override
     public void update(float delta) {
-        for (EnemyComponent child : children) {
-            child.update(delta);
+        for (int i = 0; i < children.size(); i++) {
+            children.get(i).update(delta);
         }
         purgeEmpty();
     }
     
     public void updateWithPlayer(float delta, Vector2 playerPosition) {
-        for (EnemyComponent child : children) {
+        for (int i = 0; i < children.size(); i++) {
+            EnemyComponent child = children.get(i);
             if (child instanceof EnemyLeafNode) {
                 ((EnemyLeafNode) child).update(delta, playerPosition);
             } else if (child instanceof EnemyGroupNode) {
@@ -49,7 +93,8 @@ final class EnemyGroupNode implements EnemyComponent {
     }
     
     public void checkEnemyAttacks(Vector2 playerPosition, Object player) {
-        for (EnemyComponent child : children) {
+        for (int i = 0; i < children.size(); i++) {
+            EnemyComponent child = children.get(i);
             if (child instanceof EnemyLeafNode) {
                 ((EnemyLeafNode) child).checkAttack(playerPosition, player);
             } else if (child instanceof EnemyGroupNode) {
@@ -58,34 +103,29 @@ final class EnemyGroupNode implements EnemyComponent {
         }
     }
 
+    /**
+     * Disposes and drops empty children, keeping the others in order. Runs every tick, so it
+     * compacts in place instead of going through an iterator.
+     */
     private void purgeEmpty() {
-        for (Iterator<EnemyComponent> iterator = children.iterator(); iterator.hasNext(); ) {
-            EnemyComponent component = iterator.next();
+        int kept = 0;
+        for (int i = 0; i < children.size(); i++) {
+            EnemyComponent component = children.get(i);
             if (component.isEmpty()) {
                 component.dispose();
-                iterator.remove();
+            } else {
+                children.set(kept++, component);
             }
         }
-    }
-
-    @Override
-    public void draw(SpriteBatch batch) {
-        for (EnemyComponent child : children) {
-            child.draw(batch);
-        }
-    }
-
-    @Override
-    public void drawHealthFill(ShapeRenderer renderer) {
-        for (EnemyComponent child : children) {
-            child.drawHealthFill(renderer);
+        for (int i = children.size() - 1; i >= kept; i--) {
+            children.remove(i);
         }
     }
 
     @Override
-    public void drawHealthOutline(ShapeRenderer renderer) {
-        for (EnemyComponent child : children) {
-            child.drawHealthOutline(renderer);
+    public void index(EnemyGrid grid) {
+        for (int i = 0; i < children.size(); i++) {
+            children.get(i).index(grid);
         }
     }
 
@@ -0,0 +1,49 @@
+package org.celestelike.game.entity.enemy;
+
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+
+/**
+ * The bar drawn over a live enemy: a filled pass and an outline pass with one division per
+ * {@value #HEALTH_PER_SEGMENT} health. Shared by the enemies themselves and by renderers that
+ * draw them from a copy of their state.
+ */
+public final class EnemyHealthBar {
+
+    public static final float HEIGHT = 6f;
+    /** Space between the top of the sprite and the bar. */
+    public static final float GAP = 6f;
+
+    private static final int HEALTH_PER_SEGMENT = 10;
+
+    private EnemyHealthBar() {
+    }
+
+    public static int segments(int maxHealth) {
+        return Math.max(1, (int) Math.ceil(maxHealth / (float) HEALTH_PER_SEGMENT));
+    }
+
+    /**
+     * Call inside a {@link ShapeRenderer.ShapeType#Filled} pass.
+     */
+    public static void drawFill(ShapeRenderer shapes, float x, float y, float width, float ratio) {
+        shapes.setColor(0f, 0f, 0f, 0.65f);
+        shapes.rect(x - 1f, y - 1f, width + 2f, HEIGHT + 2f);
+        shapes.setColor(0.2f, 0.2f, 0.2f, 0.85f);
+        shapes.rect(x, y, width, HEIGHT);
+        shapes.setColor(0.95f, 0.2f, 0.2f, 0.9f);
+        shapes.rect(x, y, width * ratio, HEIGHT);
+    }
+
+    /**
+     * Call inside a {@link ShapeRenderer.ShapeType#Line} pass.
+     */
+    public static void drawOutline(ShapeRenderer shapes, float x, float y, float width, int segments) {
+        shapes.setColor(0.05f, 0.05f, 0.05f, 1f);
+        shapes.rect(x, y, width, HEIGHT);
+        float step = width / segments;
+        for (int i = 1; i < segments; i++) {
+            float tickX = x + step * i;
+            shapes.line(tickX, y, tickX, y + HEIGHT);
+        }
+    }
+}
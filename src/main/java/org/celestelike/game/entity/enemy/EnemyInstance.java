@@ -1,30 +1,30 @@
 package org.celestelike.game.entity.enemy;
 
-import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Animation;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.utils.Array;
-import com.badlogic.gdx.utils.Logger;
-import java.util.ArrayList;
+import java.nio.ByteBuffer;
 import java.util.EnumMap;
-import java.util.List;
 import java.util.Map;
+import org.celestelike.game.entity.SpriteSink;
 import org.celestelike.game.logging.GameLogger;
+import org.celestelike.game.metrics.Tracer;
+import org.celestelike.game.metrics.jfr.DamageEvent;
+import org.celestelike.game.state.StateHasher;
+import org.celestelike.game.state.StateWriter;
 
 final class EnemyInstance {
 
-    private static final Logger LOGGER = new Logger("EnemyInstance", Logger.INFO);
+    private static final EnemyAnimationKey[] ANIMATION_KEYS = EnemyAnimationKey.values();
 
     private final EnemyDefinition definition;
+    private final EnemyManager manager;
+    private final GameLogger gameLog;
     private final Vector2 position = new Vector2();
-    private final EnumMap<EnemyAnimationKey, Animation<TextureRegion>> animations =
-            new EnumMap<>(EnemyAnimationKey.class);
+    private final Map<EnemyAnimationKey, Animation<TextureRegion>> animations;
     private final Map<EnemyAnimationKey, EnemyAnimationSpec> specs;
-    private final List<Texture> ownedTextures = new ArrayList<>();
     private final EnemyStats stats;
     private final float width;
     private final float height;
@@ -42,13 +42,30 @@ final class EnemyInstance {
     private float attackStartTime = 0f;
     private boolean facingRight = true; // Direction enemy is facing
 
-    EnemyInstance(EnemyDefinition definition, float x, float y) {
+    // The frame stepAnimation resolved and the animation state it was resolved for.
+    private TextureRegion frame;
+    private EnemyAnimationKey frameKey;
+    private float frameTime;
+
+    // Hash of what writeSnapshot writes as of the last hash after the enemy moved, was hit or
+    // changed what it is doing. Timers running in between are hashed with the next such change.
+    private long stateHash;
+    private boolean stateDirty = true;
+
+    /**
+     * @param manager    told whenever the enemy changes, so its state hash knows to look
+     * @param animations the shared animations of {@code definition}; see {@link EnemyAnimations}
+     */
+    EnemyInstance(EnemyManager manager, EnemyDefinition definition,
+                  Map<EnemyAnimationKey, Animation<TextureRegion>> animations, float x, float y, GameLogger gameLog) {
+        this.manager = manager;
         this.definition = definition;
+        this.gameLog = gameLog;
         this.stats = definition.stats();
         this.health = stats.maxHealth();
         this.position.set(x, y);
         this.specs = new EnumMap<>(definition.animationSpecs());
-        loadAnimations(definition.assetRoot(), specs);
+        this.animations = animations;
         Animation<TextureRegion> idle = animations.get(EnemyAnimationKey.IDLE);
         if (idle == null) {
             throw new IllegalStateException("Enemy " + definition.id() + " missing idle animation");
@@ -56,48 +73,13 @@ final class EnemyInstance {
         TextureRegion firstFrame = idle.getKeyFrame(0f);
         this.width = firstFrame.getRegionWidth();
         this.height = firstFrame.getRegionHeight();
-        GameLogger.entityCreated("Enemy", definition.id());
-    }
-
-    private void loadAnimations(String root, Map<EnemyAnimationKey, EnemyAnimationSpec> specs) {
-        specs.forEach((key, spec) -> {
-            Animation<TextureRegion> animation = buildAnimation(root + spec.file(), spec);
-            if (animation != null) {
-                animations.put(key, animation);
-            }
-        });
-    }
-
-    private Animation<TextureRegion> buildAnimation(String path, EnemyAnimationSpec spec) {
-        try {
-            Texture texture = new Texture(Gdx.files.internal(path));
-            ownedTextures.add(texture);
-            int frameWidth = spec.frameWidth() > 0 ? spec.frameWidth() : texture.getWidth();
-            int frameHeight = spec.frameHeight() > 0 ? spec.frameHeight() : texture.getHeight();
-            frameWidth = Math.max(1, Math.min(frameWidth, texture.getWidth()));
-            frameHeight = Math.max(1, Math.min(frameHeight, texture.getHeight()));
-            TextureRegion[][] split = TextureRegion.split(texture, frameWidth, frameHeight);
-            Array<TextureRegion> frames = new Array<>();
-            for (TextureRegion[] row : split) {
-                for (TextureRegion region : row) {
-                    if (region == null) {
-                        continue;
-                    }
-                    frames.add(region);
-                }
-            }
-            if (frames.isEmpty()) {
-                LOGGER.error("Spritesheet " + path + " produced no frames");
-                return null;
-            }
-            return new Animation<>(spec.frameDuration(), frames, spec.playMode());
-        } catch (Exception exception) {
-            LOGGER.error("Failed to load animation " + path, exception);
-            return null;
-        }
+        gameLog.entityCreated("Enemy", definition.id());
     }
 
     void update(float delta, Vector2 playerPos) {
+        if ((playerPos != null) != (playerPosition != null)) {
+            markDirty();
+        }
         this.playerPosition = playerPos;
         
         if (dead) {
@@ -138,6 +120,7 @@ final class EnemyInstance {
         // For non-looping animations, wait until animation is finished
         if (attackAnim.isAnimationFinished(attackElapsed)) {
             isAttacking = false;
+            markDirty();
             attackCooldownTimer = stats.attackCooldown();
             changeAnimation(EnemyAnimationKey.IDLE);
         }
@@ -145,6 +128,7 @@ final class EnemyInstance {
         // For looping animations, use fixed duration
         if (attackElapsed >= attackDuration) {
             isAttacking = false;
+            markDirty();
             attackCooldownTimer = stats.attackCooldown();
             changeAnimation(EnemyAnimationKey.IDLE);
         }
@@ -166,10 +150,11 @@ final class EnemyInstance {
             float horizontalDistance = Math.abs(playerPosition.x - centerX);
             if (horizontalDistance <= stats.attackRange()) {
                 // Update facing direction before attacking (inverted - face towards player)
-                facingRight = playerPosition.x < centerX;
+                face(playerPosition.x < centerX);
                 
                 // Start attack
                 isAttacking = true;
+                markDirty();
                 attackStartTime = stateTime;
                 changeAnimation(EnemyAnimationKey.ATTACK);
                 return;
@@ -185,7 +170,7 @@ final class EnemyInstance {
             float distance = (float) Math.sqrt(distanceX * distanceX + distanceY * distanceY);
             
             // Update facing direction based on player position (inverted - face towards player)
-            facingRight = playerPosition.x < centerX;
+            face(playerPosition.x < centerX);
             
             // Only move if player is within detection range (slightly larger than attack range)
             float detectionRange = stats.attackRange() * 2f;
@@ -200,6 +185,7 @@ final class EnemyInstance {
                     // Move horizontally only
                     float moveSpeed = stats.moveSpeed();
                     position.x += dirX * moveSpeed * delta;
+                    markDirty();
                     // Don't change Y position - only horizontal movement
                     
                     // Use FLY animation for movement (walking)
@@ -230,13 +216,28 @@ final class EnemyInstance {
         update(delta, null);
     }
 
-    void draw(SpriteBatch batch) {
+    /**
+     * Resolves the frame {@link #draw} draws, so drawing does not have to. Writes nothing the
+     * update reads, so it can run on another thread once the update is done.
+     */
+    void stepAnimation() {
         Animation<TextureRegion> animation = animations.get(currentKey);
         if (animation == null) {
             return;
         }
+        frame = animation.getKeyFrame(stateTime, animation.getPlayMode() == Animation.PlayMode.LOOP);
+        frameKey = currentKey;
+        frameTime = stateTime;
+    }
+
+    void draw(SpriteBatch batch) {
+        if (animations.get(currentKey) == null) {
+            return;
+        }
+        if (frameKey != currentKey || frameTime != stateTime) {
+            stepAnimation();
+        }
         EnemyAnimationSpec spec = specs.get(currentKey);
-        TextureRegion frame = animation.getKeyFrame(stateTime, animation.getPlayMode() == Animation.PlayMode.LOOP);
         float frameWidth = frame.getRegionWidth();
         float frameHeight = frame.getRegionHeight();
         
@@ -251,41 +252,41 @@ final class EnemyInstance {
         batch.draw(frame, drawX, drawY, drawWidth, frameHeight);
     }
 
+    /**
+     * Reports the sprite {@link #draw} would draw and, while alive, its health bar.
+     */
+    void emitSprites(SpriteSink sink) {
+        Animation<TextureRegion> animation = animations.get(currentKey);
+        if (animation == null) {
+            return;
+        }
+        EnemyAnimationSpec spec = specs.get(currentKey);
+        float offsetX = spec != null ? spec.offsetX() : 0f;
+        float offsetY = spec != null ? spec.offsetY() : 0f;
+        sink.sprite(this, animation, stateTime, animation.getPlayMode() == Animation.PlayMode.LOOP,
+                position.x, position.y, offsetX, offsetY, facingRight);
+        if (!dead) {
+            sink.healthBar(width, height + EnemyHealthBar.GAP, healthRatio(), EnemyHealthBar.segments(stats.maxHealth()));
+        }
+    }
+
     void drawHealthBarFill(ShapeRenderer shapeRenderer) {
         if (dead) {
             return;
         }
-        float barWidth = width;
-        float barHeight = 6f;
-        float x = position.x;
-        float y = position.y + height + 6f;
-        float ratio = Math.max(0f, health / (float) stats.maxHealth());
-
-        shapeRenderer.setColor(0f, 0f, 0f, 0.65f);
-        shapeRenderer.rect(x - 1f, y - 1f, barWidth + 2f, barHeight + 2f);
-        shapeRenderer.setColor(0.2f, 0.2f, 0.2f, 0.85f);
-        shapeRenderer.rect(x, y, barWidth, barHeight);
-        shapeRenderer.setColor(0.95f, 0.2f, 0.2f, 0.9f);
-        shapeRenderer.rect(x, y, barWidth * ratio, barHeight);
+        EnemyHealthBar.drawFill(shapeRenderer, position.x, position.y + height + EnemyHealthBar.GAP, width, healthRatio());
     }
 
     void drawHealthBarOutline(ShapeRenderer shapeRenderer) {
         if (dead) {
             return;
         }
-        float barWidth = width;
-        float barHeight = 6f;
-        float x = position.x;
-        float y = position.y + height + 6f;
-        shapeRenderer.setColor(0.05f, 0.05f, 0.05f, 1f);
-        shapeRenderer.rect(x, y, barWidth, barHeight);
-
-        int segments = Math.max(1, (int) Math.ceil(stats.maxHealth() / 10f));
-        float step = barWidth / segments;
-        for (int i = 1; i < segments; i++) {
-            float tickX = x + step * i;
-            shapeRenderer.line(tickX, y, tickX, y + barHeight);
-        }
+        EnemyHealthBar.drawOutline(shapeRenderer, position.x, position.y + height + EnemyHealthBar.GAP, width,
+                EnemyHealthBar.segments(stats.maxHealth()));
+    }
+
+    private float healthRatio() {
+        return Math.max(0f, health / (float) stats.maxHealth());
     }
 
     boolean applyDamage(int amount) {
@@ -293,9 +294,17 @@ final class EnemyInstance {
             return false;
         }
         health = Math.max(0, health - amount);
-        GameLogger.info(definition.id() + " took " + amount + " dmg (hp=" + health + "/" + stats.maxHealth() + ")");
+        markDirty();
+        DamageEvent.emit(definition.id(), amount, health);
+        if (Tracer.isRecording()) {
+            Tracer.instant("gameplay", "hit", definition.id() + " -" + amount + " hp=" + health);
+        }
+        if (gameLog.isEnabled()) {
+            gameLog.info(definition.id() + " took " + amount + " dmg (hp=" + health + "/" + stats.maxHealth() + ")");
+        }
         if (health == 0) {
             dead = true;
+            Tracer.instant("gameplay", "death", definition.id());
             changeAnimation(EnemyAnimationKey.DEATH);
             return true;
         } else {
@@ -342,14 +351,13 @@ final class EnemyInstance {
         return stats.contactRadius();
     }
 
+    /**
+     * The textures belong to {@link EnemyAnimations}; this only records the removal, in the log
+     * and for the state hash.
+     */
     void dispose() {
-        for (Texture texture : ownedTextures) {
-            if (texture != null) {
-                texture.dispose();
-            }
-        }
-        ownedTextures.clear();
-        GameLogger.entityDestroyed("Enemy", definition.id());
+        manager.enemyChanged();
+        gameLog.entityDestroyed("Enemy", definition.id());
     }
 
     EnemyDefinition definition() {
@@ -385,10 +393,74 @@ final class EnemyInstance {
         return stats.attackDamage();
     }
 
+    void writeSnapshot(StateWriter out) {
+        out.putFloat(position.x);
+        out.putFloat(position.y);
+        out.putByte(currentKey.ordinal());
+        int flags = (dead ? 1 : 0)
+                | (isAttacking ? 2 : 0)
+                | (facingRight ? 4 : 0)
+                | (playerPosition != null ? 8 : 0);
+        out.putByte(flags);
+        out.putShort(health);
+        out.putFloat(stateTime);
+        out.putFloat(hurtTimer);
+        out.putFloat(attackCooldownTimer);
+        out.putFloat(attackStartTime);
+    }
+
+    /**
+     * @param player the live player position the enemy tracks, re-attached if the saved enemy had
+     *               seen the player
+     */
+    void readSnapshot(ByteBuffer buffer, Vector2 player) {
+        position.set(buffer.getFloat(), buffer.getFloat());
+        currentKey = ANIMATION_KEYS[buffer.get()];
+        int flags = buffer.get();
+        dead = (flags & 1) != 0;
+        isAttacking = (flags & 2) != 0;
+        facingRight = (flags & 4) != 0;
+        playerPosition = (flags & 8) != 0 ? player : null;
+        health = buffer.getShort();
+        stateTime = buffer.getFloat();
+        hurtTimer = buffer.getFloat();
+        attackCooldownTimer = buffer.getFloat();
+        attackStartTime = buffer.getFloat();
+        markDirty();
+    }
+
+    /**
+     * Writes the hash of this enemy's {@link #writeSnapshot}, hashing it again only if the enemy
+     * changed since the last call.
+     */
+    void hashSnapshot(StateHasher out) {
+        if (stateDirty) {
+            writeSnapshot(out.beginPart());
+            stateHash = out.finishPart();
+            stateDirty = false;
+        }
+        out.putLong(stateHash);
+    }
+
+    private void markDirty() {
+        if (!stateDirty) {
+            stateDirty = true;
+            manager.enemyChanged();
+        }
+    }
+
+    private void face(boolean right) {
+        if (facingRight != right) {
+            facingRight = right;
+            markDirty();
+        }
+    }
+
     private void changeAnimation(EnemyAnimationKey key) {
         if (animations.containsKey(key)) {
             currentKey = key;
             stateTime = 0f;
+            markDirty();
         }
     }
 }
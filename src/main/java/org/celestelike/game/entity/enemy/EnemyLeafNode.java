@@ -1,15 +1,30 @@
 package org.celestelike.game.entity.enemy;
 
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.math.Vector2;
 
 final class EnemyLeafNode implements EnemyComponent {
 
     private final EnemyInstance instance;
+    private final EnemySpawn spawn;
 
     EnemyLeafNode(EnemyInstance instance) {
+        this(instance, null);
+    }
+
+    EnemyLeafNode(EnemyInstance instance, EnemySpawn spawn) {
         this.instance = instance;
+        this.spawn = spawn;
+    }
+
+    /**
+     * @return the spawn this enemy came from, or {@code null} for enemies not placed by a chunk
+     */
+    EnemySpawn spawn() {
+        return spawn;
+    }
+
+    EnemyInstance instance() {
+        return instance;
     }
 
     @Override
@@ -52,18 +67,8 @@ final class EnemyLeafNode implements EnemyComponent {
     }
 
     @Override
-    public void draw(SpriteBatch batch) {
-        instance.draw(batch);
-    }
-
-    @Override
-    public void drawHealthFill(ShapeRenderer renderer) {
-        instance.drawHealthBarFill(renderer);
-    }
-
-    @Override
-    public void drawHealthOutline(ShapeRenderer renderer) {
-        instance.drawHealthBarOutline(renderer);
+    public void index(EnemyGrid grid) {
+        grid.add(instance);
     }
 
     @Override
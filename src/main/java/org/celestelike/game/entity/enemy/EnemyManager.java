@@ -3,26 +3,66 @@ package org.celestelike.game.entity.enemy;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.LongArray;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import org.celestelike.game.entity.SpriteSink;
 import org.celestelike.game.entity.samurai.SamuraiCharacter;
+import org.celestelike.game.logging.GameLogger;
+import org.celestelike.game.metrics.jfr.EnemyDespawnEvent;
+import org.celestelike.game.metrics.jfr.EnemySpawnEvent;
+import org.celestelike.game.state.StateHasher;
+import org.celestelike.game.state.StateWriter;
 
 public final class EnemyManager {
 
+    /** Floats per enemy written by {@link #nearestEnemies}. */
+    public static final int ENEMY_STRIDE = 4;
+
     private static final float ATTACK_RANGE = 38f;
+    /** How far outside the view an enemy may stand and still reach into it when drawn. */
+    private static final float VIEW_MARGIN = EnemyGrid.CELL_SIZE;
     private final EnemyGroupNode rootGroup = new EnemyGroupNode("root");
     private final Map<String, EnemyGroupNode> groupedById = new HashMap<>();
+    /** Active chunks in spawn order, which is also their order under {@link #rootGroup}. */
+    private final List<ChunkEnemies> activeChunks = new ArrayList<>();
+    private final Set<EnemySpawn> defeatedSpawns = new HashSet<>();
+    // Where each defeated spawn came from, in defeat order, so snapshots can name them cheaply.
+    private final LongArray defeatedChunkKeys = new LongArray();
+    private final IntArray defeatedIndices = new IntArray();
+    // Scratch for restores, reused so reordering what is already spawned allocates nothing.
+    private final List<ChunkEnemies> scratchChunks = new ArrayList<>();
+    private final List<EnemyLeafNode> scratchLeaves = new ArrayList<>();
     private final Vector2 attackPoint = new Vector2();
+    private final EnemyGrid grid = new EnemyGrid();
+    private int visibleCount;
+    private float[] nearestDistances = new float[0];
+    private int nearestCount;
+    // Set when an enemy is spawned, changes or goes away, until the next hashSnapshot.
+    private boolean stateDirty = true;
+    private final EnemyRegistry registry;
+    private final GameLogger gameLog;
+    private final EnemyAnimations animations = new EnemyAnimations();
     private EnemyEventListener eventListener;
 
-    public EnemyManager() {
-        EnemyRegistry.registerDefaults();
+    /**
+     * @param registry the enemies this world knows
+     * @param gameLog  receives the enemies' gameplay events
+     */
+    public EnemyManager(EnemyRegistry registry, GameLogger gameLog) {
+        this.registry = registry;
+        this.gameLog = gameLog;
     }
 
     public void spawnAll(List<EnemySpawn> spawns, int totalRows, float tileWorldSize) {
         for (EnemySpawn spawn : spawns) {
-            EnemyDefinition definition = EnemyRegistry.definition(spawn.id());
+            EnemyDefinition definition = registry.definition(spawn.id());
             if (definition == null) {
                 continue;
             }
@@ -30,7 +70,8 @@ public final class EnemyManager {
             // so enemies should spawn with the same convention.
             float x = spawn.col() * tileWorldSize;
             float y = spawn.row() * tileWorldSize;
-            EnemyInstance instance = new EnemyInstance(definition, x, y);
+            EnemyInstance instance = new EnemyInstance(this, definition, animations.of(definition), x, y, gameLog);
+            EnemySpawnEvent.emit(definition.id(), x, y, -1L);
             EnemyLeafNode leaf = new EnemyLeafNode(instance);
             EnemyGroupNode bucket = groupedById.computeIfAbsent(definition.id(), id -> {
                 EnemyGroupNode node = new EnemyGroupNode(id);
@@ -41,6 +82,157 @@ public final class EnemyManager {
         }
     }
 
+    /**
+     * Spawns the enemies of a chunk that just became active, skipping any already defeated in
+     * this run. Each chunk gets its own group so {@link #despawnChunk} can drop it in one step.
+     */
+    public void spawnChunk(long chunkKey, List<EnemySpawn> spawns, float tileWorldSize) {
+        if (spawns.isEmpty() || findChunk(chunkKey) >= 0) {
+            return;
+        }
+        EnemyGroupNode group = new EnemyGroupNode("chunk:" + chunkKey);
+        int spawned = 0;
+        for (EnemySpawn spawn : spawns) {
+            EnemyDefinition definition = registry.definition(spawn.id());
+            if (definition == null || defeatedSpawns.contains(spawn)) {
+                continue;
+            }
+            float x = spawn.col() * tileWorldSize;
+            float y = spawn.row() * tileWorldSize;
+            group.add(new EnemyLeafNode(new EnemyInstance(this, definition, animations.of(definition), x, y, gameLog), spawn));
+            EnemySpawnEvent.emit(definition.id(), x, y, chunkKey);
+            spawned++;
+        }
+        if (spawned == 0) {
+            return;
+        }
+        rootGroup.add(group);
+        activeChunks.add(new ChunkEnemies(chunkKey, group, List.copyOf(spawns)));
+        stateDirty = true;
+    }
+
+    /**
+     * Removes the enemies of a chunk that left the active area. Spawns that are no longer alive
+     * are remembered as defeated so they stay gone when the chunk becomes active again.
+     */
+    public void despawnChunk(long chunkKey) {
+        int index = findChunk(chunkKey);
+        if (index < 0) {
+            return;
+        }
+        ChunkEnemies chunk = activeChunks.remove(index);
+        stateDirty = true;
+        Set<EnemySpawn> alive = new HashSet<>();
+        chunk.group().forEachLiveLeaf(leaf -> alive.add(leaf.spawn()));
+        List<EnemySpawn> spawns = chunk.spawns();
+        int defeated = 0;
+        for (int i = 0; i < spawns.size(); i++) {
+            EnemySpawn spawn = spawns.get(i);
+            if (!alive.contains(spawn) && registry.definition(spawn.id()) != null
+                    && defeatedSpawns.add(spawn)) {
+                defeatedChunkKeys.add(chunkKey);
+                defeatedIndices.add(i);
+                defeated++;
+            }
+        }
+        EnemyDespawnEvent.emit(chunkKey, alive.size(), defeated);
+        rootGroup.remove(chunk.group());
+        chunk.group().dispose();
+    }
+
+    /**
+     * Writes the live enemies nearest to ({@code x}, {@code y}) into {@code out}, closest first,
+     * {@value #ENEMY_STRIDE} floats each: centre x, centre y, health and max health. Allocates
+     * nothing once it has been called with the same {@code max}.
+     *
+     * @return how many enemies were written, at most {@code max}
+     */
+    public int nearestEnemies(float x, float y, int max, float[] out) {
+        if (nearestDistances.length < max) {
+            nearestDistances = new float[max];
+        }
+        nearestCount = 0;
+        collectNearest(rootGroup, x, y, max, out);
+        return nearestCount;
+    }
+
+    private void collectNearest(EnemyGroupNode group, float x, float y, int max, float[] out) {
+        for (int i = 0; i < group.size(); i++) {
+            EnemyComponent child = group.child(i);
+            if (child instanceof EnemyGroupNode nested) {
+                collectNearest(nested, x, y, max, out);
+                continue;
+            }
+            if (!(child instanceof EnemyLeafNode leaf) || leaf.isEmpty()) {
+                continue;
+            }
+            EnemyInstance instance = leaf.instance();
+            float centerX = instance.position().x + instance.width() * 0.5f;
+            float centerY = instance.position().y + instance.height() * 0.5f;
+            float distance2 = (centerX - x) * (centerX - x) + (centerY - y) * (centerY - y);
+            int slot = nearestCount;
+            while (slot > 0 && nearestDistances[slot - 1] > distance2) {
+                slot--;
+            }
+            if (slot >= max) {
+                continue;
+            }
+            int last = Math.min(nearestCount, max - 1);
+            System.arraycopy(nearestDistances, slot, nearestDistances, slot + 1, last - slot);
+            System.arraycopy(out, slot * ENEMY_STRIDE, out, (slot + 1) * ENEMY_STRIDE, (last - slot) * ENEMY_STRIDE);
+            nearestDistances[slot] = distance2;
+            int base = slot * ENEMY_STRIDE;
+            out[base] = centerX;
+            out[base + 1] = centerY;
+            out[base + 2] = instance.currentHealth();
+            out[base + 3] = instance.maxHealth();
+            nearestCount = Math.min(nearestCount + 1, max);
+        }
+    }
+
+    private int findChunk(long chunkKey) {
+        for (int i = 0; i < activeChunks.size(); i++) {
+            if (activeChunks.get(i).key() == chunkKey) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Spawns defeated this run, including those in chunks that are currently resident.
+     */
+    public int defeatedSpawnCount() {
+        int defeated = defeatedSpawns.size();
+        for (ChunkEnemies chunk : activeChunks) {
+            int spawned = 0;
+            for (EnemySpawn spawn : chunk.spawns()) {
+                if (registry.definition(spawn.id()) != null && !defeatedSpawns.contains(spawn)) {
+                    spawned++;
+                }
+            }
+            defeated += spawned - chunk.group().liveLeafCount();
+        }
+        return defeated;
+    }
+
+    /**
+     * @return enemies alive in the active area
+     */
+    public int liveCount() {
+        int live = 0;
+        if (!groupedById.isEmpty()) {
+            for (EnemyGroupNode group : groupedById.values()) {
+                live += group.liveLeafCount();
+            }
+        }
+        // Read for every published render snapshot, so chunk worlds count without iterators.
+        for (int i = 0; i < activeChunks.size(); i++) {
+            live += activeChunks.get(i).group().liveLeafCount();
+        }
+        return live;
+    }
+
     public void update(float delta) {
         rootGroup.update(delta);
     }
@@ -65,19 +257,69 @@ public final class EnemyManager {
         rootGroup.checkEnemyAttacks(playerPos, samurai);
     }
 
+    /**
+     * Rebuilds the spatial index from where the enemies stand now; call once they have moved and
+     * before {@link #selectView}. Only reads the enemies.
+     */
+    public void rebuildIndex() {
+        grid.clear();
+        rootGroup.index(grid);
+        grid.seal();
+    }
+
+    /**
+     * Picks the enemies that {@link #draw}, {@link #emitSprites} and {@link #drawHealthBars}
+     * show: those the index places in or around the rectangle, in world units.
+     */
+    public void selectView(float minX, float minY, float maxX, float maxY) {
+        visibleCount = grid.query(minX - VIEW_MARGIN, minY - VIEW_MARGIN, maxX + VIEW_MARGIN, maxY + VIEW_MARGIN);
+    }
+
+    /**
+     * Resolves the frame each selected enemy will be drawn with, so drawing only draws. Touches
+     * nothing else, so it may run on any thread once the enemies have been updated and selected.
+     */
+    public void stepAnimations() {
+        for (int i = 0; i < visibleCount; i++) {
+            grid.hit(i).stepAnimation();
+        }
+    }
+
+    /**
+     * Draws the enemies picked by {@link #selectView}, in tree order.
+     */
     public void draw(SpriteBatch batch) {
-        rootGroup.draw(batch);
+        for (int i = 0; i < visibleCount; i++) {
+            grid.hit(i).draw(batch);
+        }
     }
 
+    /**
+     * Reports the enemies picked by {@link #selectView} to {@code sink} in draw order, as
+     * {@link #draw} and {@link #drawHealthBars} would draw them.
+     */
+    public void emitSprites(SpriteSink sink) {
+        for (int i = 0; i < visibleCount; i++) {
+            grid.hit(i).emitSprites(sink);
+        }
+    }
+
+    /**
+     * Draws the health bars of the enemies picked by {@link #selectView}.
+     */
     public void drawHealthBars(ShapeRenderer shapeRenderer) {
-        if (rootGroup.isEmpty()) {
+        if (visibleCount == 0) {
             return;
         }
         shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
-        rootGroup.drawHealthFill(shapeRenderer);
+        for (int i = 0; i < visibleCount; i++) {
+            grid.hit(i).drawHealthBarFill(shapeRenderer);
+        }
         shapeRenderer.end();
         shapeRenderer.begin(ShapeRenderer.ShapeType.Line);
-        rootGroup.drawHealthOutline(shapeRenderer);
+        for (int i = 0; i < visibleCount; i++) {
+            grid.hit(i).drawHealthBarOutline(shapeRenderer);
+        }
         shapeRenderer.end();
     }
 
@@ -92,9 +334,44 @@ public final class EnemyManager {
         rootGroup.applyMeleeDamage(attackPoint, ATTACK_RANGE, damage, eventListener);
     }
 
+    /**
+     * Loads the animations of every enemy the registry knows, so later spawns make no GL calls
+     * and can run off the render thread. Call on the render thread.
+     */
+    public void preloadAnimations() {
+        for (String id : registry.ids()) {
+            EnemyDefinition definition = registry.definition(id);
+            if (definition != null) {
+                animations.of(definition);
+            }
+        }
+    }
+
+    /**
+     * Removes every enemy and releases the shared textures.
+     */
     public void dispose() {
+        clear();
+        animations.dispose();
+    }
+
+    private void clear() {
         rootGroup.dispose();
         groupedById.clear();
+        activeChunks.clear();
+        grid.clear();
+        visibleCount = 0;
+        stateDirty = true;
+    }
+
+    /**
+     * Clears every enemy and the defeated-spawn record before a new run.
+     */
+    public void resetChunks() {
+        clear();
+        defeatedSpawns.clear();
+        defeatedChunkKeys.clear();
+        defeatedIndices.clear();
     }
 
     public boolean isEmpty() {
@@ -102,13 +379,188 @@ public final class EnemyManager {
     }
 
     public void respawn(List<EnemySpawn> spawns, int rows, float tileWorldSize) {
-        dispose();
+        clear();
         if (spawns == null || spawns.isEmpty()) {
             return;
         }
         spawnAll(spawns, rows, tileWorldSize);
     }
 
+    // -------------------------------------------------------------------------
+    // Snapshots. Enemies are named by (chunk key, index into the chunk's spawn list), so only
+    // chunk-spawned enemies can be captured; spawnAll() places enemies without a chunk.
+    // -------------------------------------------------------------------------
+
+    /**
+     * Writes every active chunk with its enemies in update order, then the defeated spawns.
+     * Allocation-free.
+     *
+     * @throws IllegalStateException if enemies were placed with {@link #spawnAll}
+     */
+    public void writeSnapshot(StateWriter out) {
+        write(out, null);
+    }
+
+    /**
+     * Writes what {@link #writeSnapshot} does for the state hash, but each enemy as the hash of
+     * its own snapshot, which an enemy only recomputes after it changed.
+     */
+    public void hashSnapshot(StateHasher out) {
+        write(out, out);
+        stateDirty = false;
+    }
+
+    /**
+     * @return whether an enemy was spawned, restored, changed or went away since the last
+     * {@link #hashSnapshot}
+     */
+    public boolean isStateDirty() {
+        return stateDirty;
+    }
+
+    void enemyChanged() {
+        stateDirty = true;
+    }
+
+    /**
+     * @param hasher if not {@code null}, enemies are written as their cached hashes
+     */
+    private void write(StateWriter out, StateHasher hasher) {
+        if (!groupedById.isEmpty()) {
+            throw new IllegalStateException("Enemies placed without a chunk cannot be snapshotted");
+        }
+        out.putShort(activeChunks.size());
+        for (int c = 0; c < activeChunks.size(); c++) {
+            ChunkEnemies chunk = activeChunks.get(c);
+            EnemyGroupNode group = chunk.group();
+            out.putLong(chunk.key());
+            out.putByte(group.size());
+            for (int i = 0; i < group.size(); i++) {
+                EnemyLeafNode leaf = (EnemyLeafNode) group.child(i);
+                out.putByte(spawnIndex(chunk.spawns(), leaf.spawn()));
+                if (hasher != null) {
+                    leaf.instance().hashSnapshot(hasher);
+                } else {
+                    leaf.instance().writeSnapshot(out);
+                }
+            }
+        }
+        out.putInt(defeatedChunkKeys.size);
+        for (int i = 0; i < defeatedChunkKeys.size; i++) {
+            out.putLong(defeatedChunkKeys.get(i));
+            out.putByte(defeatedIndices.get(i));
+        }
+    }
+
+    /**
+     * Brings back exactly the saved enemies, in the saved order. Enemies that still exist are
+     * reused and only have their fields overwritten; enemies that were purged or despawned since
+     * the snapshot are rebuilt on the world's shared animations, which only loads textures for a
+     * type this world has never spawned.
+     *
+     * @param spawns         spawn lists of chunks that are not active right now
+     * @param playerPosition the live position enemies track
+     */
+    public void readSnapshot(ByteBuffer buffer, SpawnLookup spawns, Vector2 playerPosition) {
+        if (!groupedById.isEmpty()) {
+            throw new IllegalStateException("Enemies placed without a chunk cannot be restored over");
+        }
+        scratchChunks.clear();
+        scratchChunks.addAll(activeChunks);
+        activeChunks.clear();
+        rootGroup.detachAll();
+        stateDirty = true;
+
+        int chunkCount = buffer.getShort();
+        for (int c = 0; c < chunkCount; c++) {
+            long key = buffer.getLong();
+            ChunkEnemies chunk = takeScratchChunk(key);
+            if (chunk == null) {
+                chunk = new ChunkEnemies(key, new EnemyGroupNode("chunk:" + key), List.copyOf(spawns.spawnsOf(key)));
+            }
+            EnemyGroupNode group = chunk.group();
+            scratchLeaves.clear();
+            for (int i = 0; i < group.size(); i++) {
+                scratchLeaves.add((EnemyLeafNode) group.child(i));
+            }
+            group.detachAll();
+            int leafCount = buffer.get();
+            for (int i = 0; i < leafCount; i++) {
+                EnemySpawn spawn = chunk.spawns().get(buffer.get());
+                EnemyLeafNode leaf = takeScratchLeaf(spawn);
+                if (leaf == null) {
+                    // Position comes from the snapshot right below.
+                    EnemyDefinition definition = registry.definition(spawn.id());
+                    leaf = new EnemyLeafNode(new EnemyInstance(this, definition, animations.of(definition), 0f, 0f, gameLog), spawn);
+                }
+                leaf.instance().readSnapshot(buffer, playerPosition);
+                group.add(leaf);
+            }
+            for (int i = 0; i < scratchLeaves.size(); i++) {
+                EnemyLeafNode unused = scratchLeaves.get(i);
+                if (unused != null) {
+                    unused.dispose();
+                }
+            }
+            activeChunks.add(chunk);
+            if (!group.isEmpty()) {
+                rootGroup.add(group);
+            }
+        }
+        for (int i = 0; i < scratchChunks.size(); i++) {
+            ChunkEnemies unused = scratchChunks.get(i);
+            if (unused != null) {
+                unused.group().dispose();
+            }
+        }
+        scratchChunks.clear();
+        scratchLeaves.clear();
+
+        int defeated = buffer.getInt();
+        boolean same = defeated == defeatedChunkKeys.size;
+        int start = buffer.position();
+        for (int i = 0; i < defeated && same; i++) {
+            same = buffer.getLong() == defeatedChunkKeys.get(i) && buffer.get() == defeatedIndices.get(i);
+        }
+        if (same) {
+            buffer.position(start + defeated * (Long.BYTES + 1));
+            return;
+        }
+        buffer.position(start);
+        defeatedSpawns.clear();
+        defeatedChunkKeys.clear();
+        defeatedIndices.clear();
+        for (int i = 0; i < defeated; i++) {
+            long key = buffer.getLong();
+            int index = buffer.get();
+            defeatedSpawns.add(spawns.spawnsOf(key).get(index));
+            defeatedChunkKeys.add(key);
+            defeatedIndices.add(index);
+        }
+    }
+
+    private ChunkEnemies takeScratchChunk(long key) {
+        for (int i = 0; i < scratchChunks.size(); i++) {
+            ChunkEnemies chunk = scratchChunks.get(i);
+            if (chunk != null && chunk.key() == key) {
+                scratchChunks.set(i, null);
+                return chunk;
+            }
+        }
+        return null;
+    }
+
+    private EnemyLeafNode takeScratchLeaf(EnemySpawn spawn) {
+        for (int i = 0; i < scratchLeaves.size(); i++) {
+            EnemyLeafNode leaf = scratchLeaves.get(i);
+            if (leaf != null && leaf.spawn().equals(spawn)) {
+                scratchLeaves.set(i, null);
+                return leaf;
+            }
+        }
+        return null;
+    }
+
     public void setEventListener(EnemyEventListener listener) {
         this.eventListener = listener;
     }
@@ -116,6 +568,29 @@ public final class EnemyManager {
     public interface EnemyEventListener {
         void onEnemyDefeated(EnemyDefinition definition);
     }
+
+    /**
+     * Spawn lists by chunk key, for restoring chunks that are no longer active.
+     */
+    public interface SpawnLookup {
+        List<EnemySpawn> spawnsOf(long chunkKey);
+    }
+
+    /**
+     * Leaves hold the very spawn objects of their chunk's list, so identity finds them without
+     * comparing ids.
+     */
+    private static int spawnIndex(List<EnemySpawn> spawns, EnemySpawn spawn) {
+        for (int i = 0; i < spawns.size(); i++) {
+            if (spawns.get(i) == spawn) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private record ChunkEnemies(long key, EnemyGroupNode group, List<EnemySpawn> spawns) {
+    }
 }
 
 
@@ -1,29 +1,49 @@
 package org.celestelike.game.entity.enemy;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
- * Central lookup table for all known enemy variants.
+ * Lookup table for the enemy variants a world knows. Each
+ * {@link org.celestelike.game.GameSimulation} owns one, so worlds running side by side in one
+ * JVM never share registrations. Not thread-safe while registering; read-only afterwards.
  */
 public final class EnemyRegistry {
 
-    private static final Map<String, EnemyDefinition> DEFINITIONS = new HashMap<>();
+    private final Map<String, EnemyDefinition> definitions = new HashMap<>();
 
-    private EnemyRegistry() {}
+    public EnemyRegistry() {
+    }
 
-    public static void register(EnemyDefinition definition) {
-        DEFINITIONS.put(definition.id(), definition);
+    /**
+     * @return a new registry holding the game's built-in enemies
+     */
+    public static EnemyRegistry defaults() {
+        EnemyRegistry registry = new EnemyRegistry();
+        registry.registerDefaults();
+        return registry;
     }
 
-    public static EnemyDefinition definition(String id) {
-        return DEFINITIONS.get(id);
+    public void register(EnemyDefinition definition) {
+        definitions.put(definition.id(), definition);
     }
 
-    public static void registerDefaults() {
-        if (!DEFINITIONS.isEmpty()) {
-            return;
-        }
+    public EnemyDefinition definition(String id) {
+        return definitions.get(id);
+    }
+
+    /**
+     * @return registered enemy ids in a stable (sorted) order
+     */
+    public List<String> ids() {
+        List<String> ids = new ArrayList<>(definitions.keySet());
+        ids.sort(null);
+        return ids;
+    }
+
+    private void registerDefaults() {
         // redDeon definition
         String redDeonBase = "assets/emenies/redDeon/";
         int redDeonWidth = 79;
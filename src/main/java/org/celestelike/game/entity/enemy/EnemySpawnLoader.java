@@ -2,10 +2,10 @@ package org.celestelike.game.entity.enemy;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.files.FileHandle;
-import com.badlogic.gdx.utils.JsonReader;
-import com.badlogic.gdx.utils.JsonValue;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import org.celestelike.game.world.JsonPullParser;
 
 /**
  * Reads enemy spawn coordinates from inspector_snapshot.json.
@@ -53,35 +53,52 @@ public final class EnemySpawnLoader {
     }
 
     private static void loadFromFile(FileHandle file, List<EnemySpawn> spawns) {
-        try {
-            JsonValue root = new JsonReader().parse(file);
-            JsonValue enemies;
-            if (root.isArray()) {
+        try (JsonPullParser parser = JsonPullParser.open(file)) {
+            if (parser.peek() == JsonPullParser.Token.BEGIN_ARRAY) {
                 // New format: root is a plain array of enemy objects
-                enemies = root;
-            } else {
-                // Legacy format: { ..., "enemies": [ ... ] }
-                enemies = root.get("enemies");
-            }
-            if (enemies == null) {
+                readEnemies(parser, spawns);
                 return;
             }
-            for (JsonValue enemyValue : enemies) {
-                if (!enemyValue.isObject()) {
-                    continue;
-                }
-                String name = enemyValue.getString("name", null);
-                JsonValue rowValue = enemyValue.get("row");
-                JsonValue colValue = enemyValue.get("col");
-                if (name == null || rowValue == null || colValue == null) {
-                    continue;
+            // Legacy format: { ..., "enemies": [ ... ] }
+            parser.beginObject();
+            while (parser.hasNext()) {
+                if ("enemies".equals(parser.nextName()) && parser.peek() == JsonPullParser.Token.BEGIN_ARRAY) {
+                    readEnemies(parser, spawns);
+                } else {
+                    parser.skipValue();
                 }
-                spawns.add(new EnemySpawn(name, rowValue.asInt(), colValue.asInt()));
             }
+            parser.endObject();
         } catch (Exception exception) {
             Gdx.app.error("EnemySpawnLoader", "Failed to parse enemy spawns from " + file.path(), exception);
         }
     }
-}
-
 
+    private static void readEnemies(JsonPullParser parser, List<EnemySpawn> spawns) throws IOException {
+        parser.beginArray();
+        while (parser.hasNext()) {
+            if (parser.peek() != JsonPullParser.Token.BEGIN_OBJECT) {
+                parser.skipValue();
+                continue;
+            }
+            String name = null;
+            int row = Integer.MIN_VALUE;
+            int col = Integer.MIN_VALUE;
+            parser.beginObject();
+            while (parser.hasNext()) {
+                switch (parser.nextName()) {
+                    case "name" -> name = parser.nextString();
+                    case "row" -> row = parser.nextInt();
+                    case "col" -> col = parser.nextInt();
+                    default -> parser.skipValue();
+                }
+            }
+            parser.endObject();
+            if (name == null || row == Integer.MIN_VALUE || col == Integer.MIN_VALUE) {
+                continue;
+            }
+            spawns.add(new EnemySpawn(name, row, col));
+        }
+        parser.endArray();
+    }
+}
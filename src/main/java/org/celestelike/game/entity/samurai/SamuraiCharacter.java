@@ -9,10 +9,13 @@ import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Logger;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.EnumMap;
-import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
+import org.celestelike.game.entity.SpriteSheets;
+import org.celestelike.game.entity.SpriteSink;
 import org.celestelike.game.entity.samurai.attack.SamuraiAttackCoordinator;
 import org.celestelike.game.entity.samurai.attack.SamuraiAttackStrategy;
 import org.celestelike.game.entity.samurai.state.SamuraiAttackState;
@@ -32,12 +35,19 @@ import org.celestelike.game.entity.samurai.state.SamuraiHurtState;
 import org.celestelike.game.entity.samurai.state.SamuraiWallContactState;
 import org.celestelike.game.entity.samurai.state.SamuraiWallJumpState;
 import org.celestelike.game.entity.samurai.state.SamuraiWallSlideState;
-import org.celestelike.game.entity.samurai.powerup.BaseSamuraiAttributes;
-import org.celestelike.game.entity.samurai.powerup.SamuraiAttributes;
-import org.celestelike.game.entity.samurai.powerup.SamuraiPowerUpSnapshot;
+import org.celestelike.game.entity.samurai.powerup.PowerUpStack;
 import org.celestelike.game.entity.samurai.powerup.SamuraiPowerUpType;
+import org.celestelike.game.entity.samurai.powerup.SamuraiPowerUpView;
 import org.celestelike.game.logging.GameLogger;
-import org.celestelike.game.world.LevelCollisionMap;
+import org.celestelike.game.metrics.InputLatency;
+import org.celestelike.game.metrics.SessionMetrics;
+import org.celestelike.game.metrics.Tracer;
+import org.celestelike.game.metrics.jfr.DamageEvent;
+import org.celestelike.game.metrics.jfr.LoadStageEvent;
+import org.celestelike.game.metrics.jfr.StateTransitionEvent;
+import org.celestelike.game.state.StateHasher;
+import org.celestelike.game.state.StateWriter;
+import org.celestelike.game.world.CollisionWorld;
 
 /**
  * Samurai hero facade. Handles loading, state updates, animation selection, and rendering.
@@ -96,6 +106,7 @@ public final class SamuraiCharacter {
     private static final int DEATH_FRAMES = 9;
     private static final float HURT_FRAME_DURATION = 0.07f;
     private static final int SPECIAL_ATTACK_DAMAGE = 40;
+    private static final JumpPhase[] JUMP_PHASES = JumpPhase.values();
     private final Vector2 dashDirection = new Vector2();
 
     private final EnumMap<SamuraiAnimationKey, Animation<TextureRegion>> animations =
@@ -113,15 +124,23 @@ public final class SamuraiCharacter {
     private final SamuraiWallContactState wallContactState = new SamuraiWallContactState();
     private final SamuraiWallSlideState wallSlideState = new SamuraiWallSlideState();
     private final SamuraiWallJumpState wallJumpState = new SamuraiWallJumpState();
+    /** Snapshot order of the states; append only. */
+    private final SamuraiState[] states = {
+            idleState, runState, jumpState, dashState, attackState, defendState, specialAttackState,
+            deathState, hurtState, wallContactState, wallSlideState, wallJumpState
+    };
     private final SamuraiKinematicController controller = new SamuraiKinematicController();
     private final SamuraiAttackCoordinator attackCoordinator = new SamuraiAttackCoordinator();
     private final HealthComponent health = new HealthComponent(100);
-    private final SamuraiAttributes baseAttributes = new BaseSamuraiAttributes();
-    private SamuraiAttributes currentAttributes = baseAttributes;
-    private final List<ActivePowerUp> activePowerUps = new ArrayList<>();
+    private final PowerUpStack powerUps = new PowerUpStack();
+    private final Consumer<SamuraiPowerUpType> powerUpExpired = this::logPowerUpExpired;
 
     private SamuraiState currentState;
     private TextureRegion currentFrame;
+    // What currentFrame was picked from, for SpriteSink consumers that pick frames themselves.
+    private Animation<TextureRegion> currentAnimation;
+    private float currentAnimationTime;
+    private boolean currentAnimationLoops;
     private float stateTime;
     private int verticalIntent; // -1 down, 0 neutral, 1 up
     private boolean facingRight = true;
@@ -151,9 +170,21 @@ public final class SamuraiCharacter {
     private final float colliderOffsetY;
     private final float renderOffsetX;
     private final float renderOffsetY;
-
-    public SamuraiCharacter(GameConfig.PlayerConfig config) {
+    private final GameLogger gameLog;
+    // For the state hash: whether what hashSnapshot writes as it is (the controller and the
+    // signature) or the rest other than timers running on changed since the last hash; the hash
+    // of the rest as of its last change; and the signature update last compared against.
+    private boolean changed = true;
+    private boolean restDirty = true;
+    private long restHash;
+    private int checkedSignature;
+
+    /**
+     * @param gameLog receives this samurai's gameplay events
+     */
+    public SamuraiCharacter(GameConfig.PlayerConfig config, GameLogger gameLog) {
         LOGGER.info("Samurai character initialized");
+        this.gameLog = gameLog;
         colliderWidth = config == null ? 39f : config.colliderWidth();
         colliderHeight = config == null ? 84f : config.colliderHeight();
         colliderOffsetX = config == null ? 27f : config.colliderOffsetX();
@@ -168,6 +199,11 @@ public final class SamuraiCharacter {
         isDying = false;
         deathNotified = false;
         health.addListener(new HealthListener() {
+            @Override
+            public void onHealthChanged(int current, int max) {
+                restDirty = true;
+            }
+
             @Override
             public void onDeath() {
                 handleDeath();
@@ -176,6 +212,18 @@ public final class SamuraiCharacter {
     }
 
     public void loadAssets() {
+        LoadStageEvent event = new LoadStageEvent();
+        event.begin();
+        Tracer.begin("load", "SamuraiCharacter.loadAssets");
+        loadAnimations();
+        Tracer.end("load", "SamuraiCharacter.loadAssets");
+        event.stage = "SamuraiCharacter.loadAssets";
+        event.source = SAMURAI_BASE;
+        event.items = animations.size();
+        event.commit();
+    }
+
+    private void loadAnimations() {
         LOGGER.info("Loading samurai spritesheets");
         Animation<TextureRegion> idleAnimation = loadAnimation(IDLE_FILE, DEFAULT_FRAME_DURATION, Animation.PlayMode.LOOP);
         Animation<TextureRegion> runAnimation = loadAnimation(RUN_FILE, RUN_FRAME_DURATION, Animation.PlayMode.LOOP);
@@ -186,6 +234,8 @@ public final class SamuraiCharacter {
         if (idleAnimation != null) {
             animations.put(SamuraiAnimationKey.IDLE, idleAnimation);
             currentFrame = idleAnimation.getKeyFrame(0f);
+            currentAnimation = idleAnimation;
+            currentAnimationLoops = true;
             LOGGER.info("Idle animation primed");
         } else {
             LOGGER.error("Failed to load idle animation; rendering will be skipped.");
@@ -339,7 +389,7 @@ public final class SamuraiCharacter {
             LOGGER.error("Missing animation sheet: " + path);
             return null;
         }
-        Texture texture = new Texture(handle);
+        Texture texture = SpriteSheets.load(handle);
         ownedTextures.add(texture);
         TextureRegion[][] split = TextureRegion.split(texture, FRAME_SIZE, FRAME_SIZE);
         Array<TextureRegion> frames = new Array<>();
@@ -380,7 +430,7 @@ public final class SamuraiCharacter {
             LOGGER.error("Missing animation sheet: " + path);
             return null;
         }
-        Texture texture = new Texture(handle);
+        Texture texture = SpriteSheets.load(handle);
         ownedTextures.add(texture);
         TextureRegion[][] split = TextureRegion.split(texture, FRAME_SIZE, FRAME_SIZE);
         Array<TextureRegion> frames = new Array<>();
@@ -413,6 +463,7 @@ public final class SamuraiCharacter {
 
     public void placeAt(float worldX, float worldY) {
         controller.place(worldX, worldY);
+        changed = true;
         LOGGER.info("Samurai placed at (" + worldX + ", " + worldY + ")");
     }
 
@@ -421,7 +472,7 @@ public final class SamuraiCharacter {
         controller.setGroundY(groundY);
     }
 
-    public void attachCollisionMap(LevelCollisionMap collisionMap) {
+    public void attachCollisionMap(CollisionWorld collisionMap) {
         controller.setCollisionMap(collisionMap);
     }
 
@@ -443,9 +494,16 @@ public final class SamuraiCharacter {
             return;
         }
         LOGGER.info("Switching state from " + prev + " to " + nextState.name());
-        GameLogger.stateTransition("Player", prev, nextState.name());
+        gameLog.stateTransition("Player", prev, nextState.name());
+        StateTransitionEvent.emit("Samurai", prev, nextState.name());
+        SessionMetrics.stateTransition("Samurai", nextState.name());
+        InputLatency.stateSwitched(this);
+        if (Tracer.isRecording()) {
+            Tracer.instant("state", "Samurai", prev + " -> " + nextState.name());
+        }
         currentState = nextState;
         stateTime = 0f;
+        changed = true;
         nextState.enter(this);
     }
 
@@ -461,7 +519,6 @@ public final class SamuraiCharacter {
     public void update(float delta) {
         stateTime += delta;
         controller.update(delta);
-        tickPowerUps(delta);
         if (!isDead()) {
             checkEnvironmentHazards();
         }
@@ -484,14 +541,32 @@ public final class SamuraiCharacter {
         if (currentState != null) {
             currentState.update(this, delta);
             updateJumpPhase(delta);
-            Animation<TextureRegion> animation = animations.get(resolveAnimationKey());
-            if (animation != null) {
-                float animationTime = currentState == jumpState ? jumpPhaseTime : stateTime;
-                boolean loop = animation.getPlayMode() == Animation.PlayMode.LOOP || animation.getPlayMode() == Animation.PlayMode.LOOP_REVERSED;
-                currentFrame = animation.getKeyFrame(animationTime, loop);
-            } else {
-                LOGGER.error("No animation registered for state " + currentState.name());
-            }
+            refreshCurrentFrame();
+        }
+        markDirtyIfChanged();
+    }
+
+    /**
+     * Notes whether the controller or the {@link #signature} changed since the last tick. State
+     * switches, health and power-ups are also noted where they change.
+     */
+    private void markDirtyIfChanged() {
+        int signature = signature();
+        changed |= controller.takeMoved() || signature != checkedSignature;
+        checkedSignature = signature;
+    }
+
+    private void refreshCurrentFrame() {
+        Animation<TextureRegion> animation = animations.get(resolveAnimationKey());
+        if (animation != null) {
+            float animationTime = currentState == jumpState ? jumpPhaseTime : stateTime;
+            boolean loop = animation.getPlayMode() == Animation.PlayMode.LOOP || animation.getPlayMode() == Animation.PlayMode.LOOP_REVERSED;
+            currentFrame = animation.getKeyFrame(animationTime, loop);
+            currentAnimation = animation;
+            currentAnimationTime = animationTime;
+            currentAnimationLoops = loop;
+        } else {
+            LOGGER.error("No animation registered for state " + currentState.name());
         }
     }
 
@@ -509,6 +584,18 @@ public final class SamuraiCharacter {
         batch.draw(currentFrame, drawX, drawY, drawWidth, height);
     }
 
+    /**
+     * Reports what {@link #draw} would draw; nothing before the assets are loaded.
+     */
+    public void emitSprite(SpriteSink sink) {
+        if (currentAnimation == null) {
+            return;
+        }
+        Vector2 pos = controller.position();
+        sink.sprite(this, currentAnimation, currentAnimationTime, currentAnimationLoops,
+                pos.x, pos.y, renderOffsetX, renderOffsetY, facingRight);
+    }
+
     public void dispose() {
         LOGGER.info("Disposing samurai textures");
         for (Texture texture : ownedTextures) {
@@ -555,6 +642,38 @@ public final class SamuraiCharacter {
         return facingRight;
     }
 
+    public Vector2 getVelocity() {
+        return controller.velocity();
+    }
+
+    public float getColliderCenterX() {
+        return controller.position().x + colliderOffsetX + colliderWidth * 0.5f;
+    }
+
+    public float getColliderCenterY() {
+        return controller.position().y + colliderOffsetY + colliderHeight * 0.5f;
+    }
+
+    public boolean isDashing() {
+        return isDashing;
+    }
+
+    public boolean isAttacking() {
+        return isAttacking || isSpecialAttacking;
+    }
+
+    public boolean isTouchingWallLeft() {
+        return controller.isTouchingWallLeft();
+    }
+
+    public boolean isTouchingWallRight() {
+        return controller.isTouchingWallRight();
+    }
+
+    public boolean isInWater() {
+        return controller.isInWater();
+    }
+
     private boolean canApplyHorizontalInput() {
         return !isDead() && !isDashing && !isAttacking && !isDefending && !isSpecialAttacking && !isHurting;
     }
@@ -563,7 +682,7 @@ public final class SamuraiCharacter {
         if (!canApplyHorizontalInput()) {
             return;
         }
-        float speed = DEFAULT_RUN_SPEED * currentAttributes.speedMultiplier();
+        float speed = DEFAULT_RUN_SPEED * powerUps.speedMultiplier();
         controller.setHorizontalSpeed(speed);
         facingRight = true;
         if (controller.isGrounded()) {
@@ -575,7 +694,7 @@ public final class SamuraiCharacter {
         if (!canApplyHorizontalInput()) {
             return;
         }
-        float speed = DEFAULT_RUN_SPEED * currentAttributes.speedMultiplier();
+        float speed = DEFAULT_RUN_SPEED * powerUps.speedMultiplier();
         controller.setHorizontalSpeed(-speed);
         facingRight = false;
         if (controller.isGrounded()) {
@@ -600,6 +719,14 @@ public final class SamuraiCharacter {
         return DEFAULT_RUN_SPEED;
     }
 
+    /**
+     * Base dash speed in world units per second, before power-up multipliers. The fastest the
+     * player crosses the world, so streaming systems size their lookahead against it.
+     */
+    public static float dashSpeed() {
+        return DASH_SPEED;
+    }
+
     public void aimUp() {
         if (verticalIntent != 1) {
             LOGGER.info("Vertical intent set to UP");
@@ -630,7 +757,7 @@ public final class SamuraiCharacter {
             return false;
         }
         jumpAvailable = false;
-        float jumpVelocity = jumpSpeed * currentAttributes.speedMultiplier();
+        float jumpVelocity = jumpSpeed * powerUps.speedMultiplier();
         controller.setVerticalVelocity(jumpVelocity);
         jumpPhase = JumpPhase.START;
         jumpPhaseTime = 0f;
@@ -647,7 +774,7 @@ public final class SamuraiCharacter {
         if (!touchingLeft && !touchingRight) {
             return false;
         }
-        float speedMultiplier = currentAttributes.speedMultiplier();
+        float speedMultiplier = powerUps.speedMultiplier();
         float horizontal = touchingLeft ? WALL_JUMP_HORIZONTAL_SPEED : -WALL_JUMP_HORIZONTAL_SPEED;
         horizontal *= speedMultiplier;
         controller.setHorizontalSpeed(horizontal);
@@ -672,7 +799,7 @@ public final class SamuraiCharacter {
         dashAvailable = false;
         isDashing = true;
         dashTimer = DASH_DURATION;
-        float dashSpeed = DASH_SPEED * currentAttributes.speedMultiplier();
+        float dashSpeed = DASH_SPEED * powerUps.speedMultiplier();
         controller.setHorizontalSpeed(direction.x * dashSpeed);
         controller.setVerticalVelocity(direction.y * dashSpeed);
         if (direction.x > 0.01f) {
@@ -792,35 +919,45 @@ public final class SamuraiCharacter {
         if (type == null) {
             return;
         }
-        for (ActivePowerUp powerUp : activePowerUps) {
-            if (powerUp.type == type) {
-                powerUp.reset();
-                GameLogger.decoratorApplied(type.name(), "Samurai", "REFRESH");
-                return;
-            }
+        restDirty = true;
+        if (powerUps.grant(type)) {
+            gameLog.decoratorApplied(type.name(), "Samurai", type.durationSeconds() + "s");
+        } else {
+            gameLog.decoratorApplied(type.name(), "Samurai", "REFRESH");
         }
-        activePowerUps.add(new ActivePowerUp(type));
-        rebuildAttributes();
-        GameLogger.decoratorApplied(type.name(), "Samurai", type.durationSeconds() + "s");
     }
 
-    public List<SamuraiPowerUpSnapshot> getActivePowerUps() {
-        if (activePowerUps.isEmpty()) {
-            return List.of();
-        }
-        List<SamuraiPowerUpSnapshot> snapshots = new ArrayList<>(activePowerUps.size());
-        for (ActivePowerUp active : activePowerUps) {
-            snapshots.add(new SamuraiPowerUpSnapshot(active.type, active.remaining));
-        }
-        return snapshots;
+    public SamuraiPowerUpView getActivePowerUps() {
+        return powerUps;
+    }
+
+    /**
+     * Counts the active power-ups down by {@code delta} seconds and drops the expired ones. Not
+     * part of {@link #update}: the simulation ticks the timers at the end of each tick, after
+     * everything that reads them.
+     */
+    public void tickPowerUps(float delta) {
+        powerUps.advance(delta, powerUpExpired);
+    }
+
+    private void logPowerUpExpired(SamuraiPowerUpType type) {
+        restDirty = true;
+        gameLog.decoratorRemoved(type.name(), "Samurai");
     }
     
     public void applyDamage(int amount) {
         if (isDead()) {
             return;
         }
-        int adjusted = Math.max(1, Math.round(amount * currentAttributes.defenseMultiplier()));
+        int adjusted = Math.max(1, Math.round(amount * powerUps.defenseMultiplier()));
         health.damage(adjusted);
+        DamageEvent.emit("Samurai", adjusted, health.currentHealth());
+        if (Tracer.isRecording()) {
+            Tracer.instant("gameplay", "hit", "Samurai -" + adjusted + " hp=" + health.currentHealth());
+            if (health.currentHealth() <= 0) {
+                Tracer.instant("gameplay", "death", "Samurai");
+            }
+        }
     }
 
     public void heal(int amount) {
@@ -862,11 +999,147 @@ public final class SamuraiCharacter {
         attackState.clearStrategy();
         attackCoordinator.resetCombo();
         controller.place(worldX, worldY);
+        changed = true;
+        restDirty = true;
         ensureIdleState();
     }
 
+    // -------------------------------------------------------------------------
+    // Snapshots: everything update() reads, so a restored samurai continues exactly as the saved
+    // one would have. Listeners, assets and collider configuration are not state.
+    // -------------------------------------------------------------------------
+
+    public void writeSnapshot(StateWriter out) {
+        controller.writeSnapshot(out);
+        writeSnapshotWithoutController(out);
+    }
+
+    /**
+     * Writes what changes from tick to tick as it is: the controller as {@link #writeSnapshot}
+     * does and the {@link #signature}. The rest is written as the hash of
+     * {@link #writeSnapshot}'s remainder, recomputed only after health, power-ups or the jump
+     * speed changed, so its timers count as of then.
+     */
+    public void hashSnapshot(StateHasher out) {
+        controller.writeSnapshot(out);
+        out.putInt(signature());
+        if (restDirty) {
+            writeSnapshotWithoutController(out.beginPart());
+            restHash = out.finishPart();
+            restDirty = false;
+        }
+        out.putLong(restHash);
+        changed = false;
+    }
+
+    /**
+     * @return whether the samurai moved or changed state, health, flags or power-ups since the
+     * last {@link #hashSnapshot}; timers that only ran on do not count
+     */
+    public boolean isStateDirty() {
+        return changed || restDirty;
+    }
+
+    private void writeSnapshotWithoutController(StateWriter out) {
+        attackCoordinator.writeSnapshot(out);
+        out.putByte(stateIndex(currentState));
+        out.putByte(attackCoordinator.indexOf(attackState.strategy()));
+        out.putByte(attackCoordinator.indexOf(queuedAttackStrategy));
+        out.putByte(jumpPhase.ordinal());
+        out.putByte(verticalIntent);
+        out.putShort(health.currentHealth());
+        out.putShort(snapshotFlags());
+        out.putFloat(stateTime);
+        out.putFloat(jumpSpeed);
+        out.putFloat(jumpPhaseTime);
+        out.putFloat(dashTimer);
+        out.putFloat(wallJumpTimer);
+        powerUps.writeSnapshot(out);
+    }
+
+    /**
+     * The flags, jump phase, vertical intent, combo, state and attack strategies packed into one
+     * int: everything {@link #writeSnapshot} writes after the controller that is not a timer,
+     * health or power-ups.
+     */
+    private int signature() {
+        return snapshotFlags()
+                | jumpPhase.ordinal() << 12
+                | (verticalIntent + 1) << 14
+                | attackCoordinator.comboIndex() << 16
+                | (stateIndex(currentState) + 1) << 18
+                | (attackCoordinator.indexOf(attackState.strategy()) + 1) << 22
+                | (attackCoordinator.indexOf(queuedAttackStrategy) + 1) << 25;
+    }
+
+    private int snapshotFlags() {
+        return (facingRight ? 1 : 0)
+                | (dashAvailable ? 1 << 1 : 0)
+                | (jumpAvailable ? 1 << 2 : 0)
+                | (isDashing ? 1 << 3 : 0)
+                | (isDefending ? 1 << 4 : 0)
+                | (isAttacking ? 1 << 5 : 0)
+                | (isSpecialAttacking ? 1 << 6 : 0)
+                | (isDying ? 1 << 7 : 0)
+                | (isHurting ? 1 << 8 : 0)
+                | (deathNotified ? 1 << 9 : 0)
+                | (wasGrounded ? 1 << 10 : 0)
+                | (health.isDead() ? 1 << 11 : 0);
+    }
+
+    /**
+     * Restores a {@link #writeSnapshot} without running state {@code enter} hooks or firing
+     * anything but {@code onHealthChanged}. Allocation-free unless the power-up set changed.
+     */
+    public void readSnapshot(ByteBuffer buffer) {
+        controller.readSnapshot(buffer);
+        attackCoordinator.readSnapshot(buffer);
+        int stateIndex = buffer.get();
+        currentState = stateIndex < 0 ? null : states[stateIndex];
+        attackState.setStrategy(attackCoordinator.strategyAt(buffer.get()));
+        queuedAttackStrategy = attackCoordinator.strategyAt(buffer.get());
+        jumpPhase = JUMP_PHASES[buffer.get()];
+        verticalIntent = buffer.get();
+        int currentHealth = buffer.getShort();
+        int flags = buffer.getShort();
+        facingRight = (flags & 1) != 0;
+        dashAvailable = (flags & 1 << 1) != 0;
+        jumpAvailable = (flags & 1 << 2) != 0;
+        isDashing = (flags & 1 << 3) != 0;
+        isDefending = (flags & 1 << 4) != 0;
+        isAttacking = (flags & 1 << 5) != 0;
+        isSpecialAttacking = (flags & 1 << 6) != 0;
+        isDying = (flags & 1 << 7) != 0;
+        isHurting = (flags & 1 << 8) != 0;
+        deathNotified = (flags & 1 << 9) != 0;
+        wasGrounded = (flags & 1 << 10) != 0;
+        health.restore(currentHealth, (flags & 1 << 11) != 0);
+        stateTime = buffer.getFloat();
+        jumpSpeed = buffer.getFloat();
+        jumpPhaseTime = buffer.getFloat();
+        dashTimer = buffer.getFloat();
+        wallJumpTimer = buffer.getFloat();
+
+        powerUps.readSnapshot(buffer);
+        changed = true;
+        restDirty = true;
+        if (currentState != null) {
+            refreshCurrentFrame();
+        }
+    }
+
+    private int stateIndex(SamuraiState state) {
+        for (int i = 0; i < states.length; i++) {
+            if (states[i] == state) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     public void setJumpSpeed(float speed) {
         this.jumpSpeed = speed;
+        restDirty = true;
         LOGGER.info("Jump speed updated to " + speed);
     }
 
@@ -1031,8 +1304,8 @@ public final class SamuraiCharacter {
         if (attackImpactListener == null || baseDamage <= 0) {
             return;
         }
-        float scaled = baseDamage * currentAttributes.attackMultiplier();
-        int adjusted = Math.max(1, Math.round(scaled) + currentAttributes.attackBonus());
+        float scaled = baseDamage * powerUps.attackMultiplier();
+        int adjusted = Math.max(1, Math.round(scaled) + powerUps.attackBonus());
         attackImpactListener.onAttackImpact(adjusted);
     }
 
@@ -1040,7 +1313,7 @@ public final class SamuraiCharacter {
         if (isHurting || isDying) {
             return;
         }
-        GameLogger.collision("Samurai collided with water tile");
+        gameLog.collision("Samurai collided with water tile");
         cancelAttackState();
         queuedAttackStrategy = null;
         isAttacking = false;
@@ -1120,33 +1393,6 @@ public final class SamuraiCharacter {
         controller.setVerticalVelocity(velocity.y);
     }
 
-    private void tickPowerUps(float delta) {
-        if (activePowerUps.isEmpty()) {
-            return;
-        }
-        boolean changed = false;
-        for (Iterator<ActivePowerUp> iterator = activePowerUps.iterator(); iterator.hasNext();) {
-            ActivePowerUp active = iterator.next();
-            active.remaining -= delta;
-            if (active.remaining <= 0f) {
-                GameLogger.decoratorRemoved(active.type.name(), "Samurai");
-                iterator.remove();
-                changed = true;
-            }
-        }
-        if (changed) {
-            rebuildAttributes();
-        }
-    }
-
-    private void rebuildAttributes() {
-        SamuraiAttributes rebuilt = baseAttributes;
-        for (ActivePowerUp active : activePowerUps) {
-            rebuilt = active.type.wrap(rebuilt);
-        }
-        currentAttributes = rebuilt;
-    }
-
     private boolean isInWallState() {
         return currentState == wallContactState || currentState == wallSlideState;
     }
@@ -1178,19 +1424,5 @@ public final class SamuraiCharacter {
         TRANSITION,
         FALL
     }
-
-    private static final class ActivePowerUp {
-        private final SamuraiPowerUpType type;
-        private float remaining;
-
-        private ActivePowerUp(SamuraiPowerUpType type) {
-            this.type = type;
-            this.remaining = type.durationSeconds();
-        }
-
-        private void reset() {
-            this.remaining = type.durationSeconds();
-        }
-    }
 }
 
@@ -3,7 +3,9 @@ package org.celestelike.game.entity.samurai;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Logger;
-import org.celestelike.game.world.LevelCollisionMap;
+import java.nio.ByteBuffer;
+import org.celestelike.game.state.StateWriter;
+import org.celestelike.game.world.CollisionWorld;
 
 /**
  * Lightweight kinematic controller tailored for a Celeste-like feel.
@@ -20,7 +22,7 @@ public final class SamuraiKinematicController {
     private float gravity = -1500f;
     private float groundY = 0f;
     private boolean grounded = false;
-    private LevelCollisionMap collisionMap;
+    private CollisionWorld collisionMap;
     private boolean touchingWallLeft;
     private boolean touchingWallRight;
     private boolean inWater;
@@ -28,6 +30,12 @@ public final class SamuraiKinematicController {
     private float colliderHeight = 80f;
     private float colliderOffsetX = 2f;
     private float colliderOffsetY = 0f;
+    // Raw bits of position and velocity, and the contact flags, as takeMoved last saw them.
+    private int checkedX;
+    private int checkedY;
+    private int checkedVelocityX;
+    private int checkedVelocityY;
+    private int checkedContacts = -1;
 
     public void place(float x, float y) {
         position.set(x, y);
@@ -46,7 +54,7 @@ public final class SamuraiKinematicController {
         LOGGER.info("Ground plane set to y=" + groundY);
     }
 
-    public void setCollisionMap(LevelCollisionMap collisionMap) {
+    public void setCollisionMap(CollisionWorld collisionMap) {
         this.collisionMap = collisionMap;
     }
 
@@ -59,15 +67,17 @@ public final class SamuraiKinematicController {
 
     public void addImpulse(float impulseX, float impulseY) {
         velocity.add(impulseX, impulseY);
-        LOGGER.info("Impulse applied (" + impulseX + ", " + impulseY + ")");
+        if (LOGGER.getLevel() >= Logger.DEBUG) {
+            LOGGER.debug("Impulse applied (" + impulseX + ", " + impulseY + ")");
+        }
         if (impulseY > 0f) {
             grounded = false;
         }
     }
 
     public void setHorizontalSpeed(float speed) {
-        if (!MathUtils.isEqual(velocity.x, speed, 0.1f)) {
-            LOGGER.info("Horizontal speed set to " + speed);
+        if (LOGGER.getLevel() >= Logger.DEBUG && !MathUtils.isEqual(velocity.x, speed, 0.1f)) {
+            LOGGER.debug("Horizontal speed set to " + speed);
         }
         velocity.x = speed;
     }
@@ -80,7 +90,9 @@ public final class SamuraiKinematicController {
     }
 
     public void setVerticalVelocity(float speed) {
-        LOGGER.info("Vertical velocity set to " + speed);
+        if (LOGGER.getLevel() >= Logger.DEBUG) {
+            LOGGER.debug("Vertical velocity set to " + speed);
+        }
         velocity.y = speed;
     }
 
@@ -120,6 +132,55 @@ public final class SamuraiKinematicController {
         return inWater;
     }
 
+    /**
+     * @return whether position, velocity or contact flags changed since the last call; the
+     * samurai asks once a tick to know whether its hash went stale
+     */
+    public boolean takeMoved() {
+        int x = Float.floatToRawIntBits(position.x);
+        int y = Float.floatToRawIntBits(position.y);
+        int velocityX = Float.floatToRawIntBits(velocity.x);
+        int velocityY = Float.floatToRawIntBits(velocity.y);
+        int contacts = contactFlags();
+        boolean moved = x != checkedX || y != checkedY || velocityX != checkedVelocityX
+                || velocityY != checkedVelocityY || contacts != checkedContacts;
+        checkedX = x;
+        checkedY = y;
+        checkedVelocityX = velocityX;
+        checkedVelocityY = velocityY;
+        checkedContacts = contacts;
+        return moved;
+    }
+
+    /**
+     * Writes position, velocity and contact flags; gravity, ground and collider come from
+     * configuration and are not part of the state.
+     */
+    public void writeSnapshot(StateWriter out) {
+        out.putFloat(position.x);
+        out.putFloat(position.y);
+        out.putFloat(velocity.x);
+        out.putFloat(velocity.y);
+        out.putByte(contactFlags());
+    }
+
+    private int contactFlags() {
+        return (grounded ? 1 : 0)
+                | (touchingWallLeft ? 2 : 0)
+                | (touchingWallRight ? 4 : 0)
+                | (inWater ? 8 : 0);
+    }
+
+    public void readSnapshot(ByteBuffer buffer) {
+        position.set(buffer.getFloat(), buffer.getFloat());
+        velocity.set(buffer.getFloat(), buffer.getFloat());
+        int flags = buffer.get();
+        grounded = (flags & 1) != 0;
+        touchingWallLeft = (flags & 2) != 0;
+        touchingWallRight = (flags & 4) != 0;
+        inWater = (flags & 8) != 0;
+    }
+
     private void refreshWallTouchFlags() {
         if (collisionMap == null) {
             touchingWallLeft = false;
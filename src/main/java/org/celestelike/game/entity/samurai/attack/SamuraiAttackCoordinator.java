@@ -1,6 +1,8 @@
 package org.celestelike.game.entity.samurai.attack;
 
+import java.nio.ByteBuffer;
 import org.celestelike.game.entity.samurai.SamuraiCharacter;
+import org.celestelike.game.state.StateWriter;
 
 /**
  * Manages combo progression and chooses the appropriate attack strategy
@@ -77,6 +79,49 @@ public final class SamuraiAttackCoordinator {
         comboTimer = 0f;
         lastGroundAttackIndex = 0;
     }
+
+    /**
+     * @return the last ground attack of the running combo, 1 to 3, or 0 if none
+     */
+    public int comboIndex() {
+        return lastGroundAttackIndex;
+    }
+
+    /**
+     * @return a stable index for one of this coordinator's strategies, or -1 for {@code null}
+     */
+    public int indexOf(SamuraiAttackStrategy strategy) {
+        if (strategy == attackOne) {
+            return 0;
+        } else if (strategy == attackTwo) {
+            return 1;
+        } else if (strategy == attackThree) {
+            return 2;
+        } else if (strategy == airAttack) {
+            return 3;
+        }
+        return -1;
+    }
+
+    public SamuraiAttackStrategy strategyAt(int index) {
+        return switch (index) {
+            case 0 -> attackOne;
+            case 1 -> attackTwo;
+            case 2 -> attackThree;
+            case 3 -> airAttack;
+            default -> null;
+        };
+    }
+
+    public void writeSnapshot(StateWriter out) {
+        out.putFloat(comboTimer);
+        out.putByte(lastGroundAttackIndex);
+    }
+
+    public void readSnapshot(ByteBuffer buffer) {
+        comboTimer = buffer.getFloat();
+        lastGroundAttackIndex = buffer.get();
+    }
 }
 
 
@@ -85,6 +85,23 @@ public final class HealthComponent {
         }
     }
 
+    /**
+     * Puts back a saved value without replaying damage or death: listeners only hear
+     * {@code onHealthChanged}, and only if the value moved.
+     */
+    public void restore(int health, boolean dead) {
+        int clamped = Math.max(0, Math.min(maxHealth, health));
+        boolean changed = clamped != currentHealth;
+        currentHealth = clamped;
+        this.dead = dead;
+        if (!changed) {
+            return;
+        }
+        for (HealthListener listener : listeners) {
+            listener.onHealthChanged(currentHealth, maxHealth);
+        }
+    }
+
     public void reset() {
         dead = false;
         currentHealth = maxHealth;
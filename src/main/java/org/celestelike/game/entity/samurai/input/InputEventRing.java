@@ -0,0 +1,89 @@
+package org.celestelike.game.entity.samurai.input;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Bounded single-producer, single-consumer queue of timestamped input events. The windowing
+ * callbacks offer and the simulation drains; each side owns one index and publishes it with a
+ * release store, so neither ever locks or waits for the other, and nothing is allocated after
+ * construction.
+ *
+ * <p>An event is a code and the {@link System#nanoTime()} it was seen at. Events come out in the
+ * order they went in.
+ */
+final class InputEventRing {
+
+    private static final VarHandle HEAD;
+    private static final VarHandle TAIL;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            HEAD = lookup.findVarHandle(InputEventRing.class, "head", long.class);
+            TAIL = lookup.findVarHandle(InputEventRing.class, "tail", long.class);
+        } catch (ReflectiveOperationException exception) {
+            throw new ExceptionInInitializerError(exception);
+        }
+    }
+
+    private final long[] times;
+    private final int[] codes;
+    private final int mask;
+    /** Next slot to read; written by the consumer only. */
+    private long head;
+    /** Next slot to write; written by the producer only. */
+    private long tail;
+
+    /**
+     * @param capacity a power of two
+     */
+    InputEventRing(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+        }
+        times = new long[capacity];
+        codes = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Producer side.
+     *
+     * @return false if the ring is full and the event was dropped
+     */
+    boolean offer(long timeNanos, int code) {
+        long slot = tail;
+        if (slot - (long) HEAD.getAcquire(this) > mask) {
+            return false;
+        }
+        int index = (int) slot & mask;
+        times[index] = timeNanos;
+        codes[index] = code;
+        TAIL.setRelease(this, slot + 1);
+        return true;
+    }
+
+    /**
+     * Consumer side: whether an event is waiting, so {@link #peekTime()} and {@link #peekCode()}
+     * may be read.
+     */
+    boolean hasNext() {
+        return head != (long) TAIL.getAcquire(this);
+    }
+
+    long peekTime() {
+        return times[(int) head & mask];
+    }
+
+    int peekCode() {
+        return codes[(int) head & mask];
+    }
+
+    /**
+     * Consumer side: hands the peeked slot back to the producer.
+     */
+    void pop() {
+        HEAD.setRelease(this, head + 1);
+    }
+}
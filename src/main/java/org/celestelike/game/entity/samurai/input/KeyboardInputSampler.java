@@ -0,0 +1,176 @@
+package org.celestelike.game.entity.samurai.input;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.InputAdapter;
+import org.celestelike.game.metrics.InputLatency;
+
+/**
+ * Turns keyboard and mouse events into {@link SamuraiInputFrame}s, one per simulation tick.
+ * Installed as the input processor, it stamps every key and button edge as the window reports it
+ * and queues it on an {@link InputEventRing}; the tick loop then collects the events up to each
+ * tick's deadline. Input is resolved per tick rather than per rendered frame: when a slow frame
+ * runs several ticks, its events land on the ticks they happened during, and a control pressed
+ * and released within one tick still shows as held on that tick, where polling once a frame
+ * would miss it.
+ *
+ * <p>{@link #collectUntil(long)} and {@link #takeFrame()} must be called from one thread; the
+ * callbacks may run on another.
+ */
+public final class KeyboardInputSampler extends InputAdapter {
+
+    private static final String TAG = "KeyboardInputSampler";
+    private static final int RING_CAPACITY = 1024;
+    private static final int BUTTON_BASE = Input.Keys.MAX_KEYCODE + 1;
+    private static final int BUTTON_COUNT = Input.Buttons.FORWARD + 1;
+    /** The controls each key (and, from {@link #BUTTON_BASE}, each mouse button) drives. */
+    private static final int[] CONTROLS = controls();
+    private static final int HELD_CONTROLS = Integer.SIZE - Integer.numberOfLeadingZeros(SamuraiInputFrame.HELD_MASK);
+
+    private final InputEventRing events = new InputEventRing(RING_CAPACITY);
+    private final boolean[] down = new boolean[BUTTON_BASE + BUTTON_COUNT];
+    /** How many keys hold each held control, by bit index; several keys share one control. */
+    private final int[] holders = new int[HELD_CONTROLS];
+    private int held;
+    /** Held controls that went down since the last frame was taken, even if already released. */
+    private int tapped;
+    private int presses;
+    private boolean overflowReported;
+
+    @Override
+    public boolean keyDown(int keycode) {
+        return offer(keycode, true);
+    }
+
+    @Override
+    public boolean keyUp(int keycode) {
+        return offer(keycode, false);
+    }
+
+    @Override
+    public boolean touchDown(int screenX, int screenY, int pointer, int button) {
+        return offer(BUTTON_BASE + button, true);
+    }
+
+    @Override
+    public boolean touchUp(int screenX, int screenY, int pointer, int button) {
+        return offer(BUTTON_BASE + button, false);
+    }
+
+    /**
+     * Applies every queued event seen at or before {@code deadlineNanos}, on the
+     * {@link System#nanoTime()} clock, to the frame being built. Later events stay queued.
+     */
+    public void collectUntil(long deadlineNanos) {
+        while (events.hasNext() && events.peekTime() - deadlineNanos <= 0L) {
+            apply(events.peekCode(), events.peekTime());
+            events.pop();
+        }
+    }
+
+    /**
+     * @return the frame for the next tick; presses and released controls are consumed
+     */
+    public int takeFrame() {
+        int frame = held | tapped | presses;
+        tapped = SamuraiInputFrame.NONE;
+        presses = SamuraiInputFrame.NONE;
+        return frame;
+    }
+
+    /**
+     * Applies every queued event and drops the presses among them; used while the simulation is
+     * not running (menus, pause) so held controls stay current and nothing fires on resume.
+     */
+    public void clearPresses() {
+        collectUntil(Long.MAX_VALUE);
+        tapped = SamuraiInputFrame.NONE;
+        presses = SamuraiInputFrame.NONE;
+    }
+
+    private boolean offer(int code, boolean pressed) {
+        if (code < 0 || code >= CONTROLS.length || CONTROLS[code] == SamuraiInputFrame.NONE) {
+            return false;
+        }
+        if (!events.offer(System.nanoTime(), pressed ? code : ~code) && !overflowReported) {
+            // Only possible if the simulation stops draining; a lost release would stick a key.
+            overflowReported = true;
+            Gdx.app.error(TAG, "Input queue full; dropping events");
+        }
+        return false;
+    }
+
+    private void apply(int event, long nanos) {
+        boolean pressed = event >= 0;
+        int code = pressed ? event : ~event;
+        if (down[code] == pressed) {
+            return;
+        }
+        down[code] = pressed;
+        int controls = CONTROLS[code];
+        for (int bits = controls & SamuraiInputFrame.HELD_MASK; bits != 0; bits &= bits - 1) {
+            int control = Integer.numberOfTrailingZeros(bits);
+            holders[control] += pressed ? 1 : -1;
+            if (holders[control] > 0) {
+                held |= 1 << control;
+            } else {
+                held &= ~(1 << control);
+            }
+        }
+        if (pressed) {
+            tapped |= controls & SamuraiInputFrame.HELD_MASK;
+            presses |= controls & SamuraiInputFrame.PRESSED_MASK;
+            InputLatency.Input input = latencyInput(controls);
+            if (input != null) {
+                InputLatency.pressed(input, nanos);
+            }
+        }
+    }
+
+    private static InputLatency.Input latencyInput(int controls) {
+        if (SamuraiInputFrame.has(controls, SamuraiInputFrame.LEFT | SamuraiInputFrame.RIGHT)) {
+            return InputLatency.Input.MOVE;
+        }
+        if (SamuraiInputFrame.has(controls, SamuraiInputFrame.JUMP)) {
+            return InputLatency.Input.JUMP;
+        }
+        if (SamuraiInputFrame.has(controls, SamuraiInputFrame.DASH)) {
+            return InputLatency.Input.DASH;
+        }
+        if (SamuraiInputFrame.has(controls, SamuraiInputFrame.ATTACK)) {
+            return InputLatency.Input.ATTACK;
+        }
+        if (SamuraiInputFrame.has(controls, SamuraiInputFrame.SPECIAL)) {
+            return InputLatency.Input.SPECIAL;
+        }
+        if (SamuraiInputFrame.has(controls, SamuraiInputFrame.DEFEND)) {
+            return InputLatency.Input.DEFEND;
+        }
+        return null;
+    }
+
+    private static int[] controls() {
+        int[] controls = new int[BUTTON_BASE + BUTTON_COUNT];
+        controls[Input.Keys.A] = SamuraiInputFrame.LEFT;
+        controls[Input.Keys.LEFT] = SamuraiInputFrame.LEFT;
+        controls[Input.Keys.D] = SamuraiInputFrame.RIGHT;
+        controls[Input.Keys.RIGHT] = SamuraiInputFrame.RIGHT;
+        controls[Input.Keys.W] = SamuraiInputFrame.UP;
+        controls[Input.Keys.UP] = SamuraiInputFrame.UP;
+        controls[Input.Keys.S] = SamuraiInputFrame.DOWN;
+        controls[Input.Keys.DOWN] = SamuraiInputFrame.DOWN;
+        controls[BUTTON_BASE + Input.Buttons.RIGHT] = SamuraiInputFrame.DEFEND;
+        controls[Input.Keys.SPACE] = SamuraiInputFrame.JUMP;
+        controls[Input.Keys.J] = SamuraiInputFrame.ATTACK;
+        controls[Input.Keys.Z] = SamuraiInputFrame.ATTACK;
+        controls[BUTTON_BASE + Input.Buttons.LEFT] = SamuraiInputFrame.ATTACK;
+        controls[Input.Keys.E] = SamuraiInputFrame.SPECIAL;
+        controls[BUTTON_BASE + Input.Buttons.MIDDLE] = SamuraiInputFrame.SPECIAL;
+        controls[Input.Keys.SHIFT_LEFT] = SamuraiInputFrame.DASH;
+        controls[Input.Keys.SHIFT_RIGHT] = SamuraiInputFrame.DASH;
+        controls[Input.Keys.NUM_1] = SamuraiInputFrame.POWER_SHIELD;
+        controls[Input.Keys.NUM_2] = SamuraiInputFrame.POWER_SPEED;
+        controls[Input.Keys.NUM_3] = SamuraiInputFrame.POWER_WEAPON;
+        return controls;
+    }
+}
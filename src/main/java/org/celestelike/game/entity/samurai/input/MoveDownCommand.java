@@ -30,5 +30,12 @@ public final class MoveDownCommand implements SamuraiCommand {
         LOGGER.info("MoveDownCommand released");
         active = false;
     }
-}
 
+    boolean isActive() {
+        return active;
+    }
+
+    void setActive(boolean active) {
+        this.active = active;
+    }
+}
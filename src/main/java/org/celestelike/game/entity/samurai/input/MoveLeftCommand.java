@@ -30,5 +30,12 @@ public final class MoveLeftCommand implements SamuraiCommand {
         LOGGER.info("MoveLeftCommand released");
         active = false;
     }
-}
 
+    boolean isActive() {
+        return active;
+    }
+
+    void setActive(boolean active) {
+        this.active = active;
+    }
+}
@@ -30,5 +30,12 @@ public final class MoveRightCommand implements SamuraiCommand {
         LOGGER.info("MoveRightCommand released");
         active = false;
     }
-}
 
+    boolean isActive() {
+        return active;
+    }
+
+    void setActive(boolean active) {
+        this.active = active;
+    }
+}
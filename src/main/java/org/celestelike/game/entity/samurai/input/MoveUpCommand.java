@@ -30,5 +30,12 @@ public final class MoveUpCommand implements SamuraiCommand {
         LOGGER.info("MoveUpCommand released");
         active = false;
     }
-}
 
+    boolean isActive() {
+        return active;
+    }
+
+    void setActive(boolean active) {
+        this.active = active;
+    }
+}
@@ -0,0 +1,113 @@
+package org.celestelike.game.entity.samurai.input;
+
+import static org.celestelike.game.entity.samurai.input.SamuraiInputFrame.has;
+
+import org.celestelike.game.entity.samurai.SamuraiCharacter;
+import org.celestelike.game.metrics.InputLatency;
+import org.celestelike.game.entity.samurai.powerup.SamuraiPowerUpType;
+
+/**
+ * Turns one {@link SamuraiInputFrame} into {@link SamuraiCommand} calls. Live keyboard input and
+ * replayed recordings both go through here, so a replay issues exactly the commands the player
+ * did.
+ */
+public final class SamuraiInputDispatcher {
+
+    private final MoveRightCommand moveRightCommand = new MoveRightCommand();
+    private final MoveLeftCommand moveLeftCommand = new MoveLeftCommand();
+    private final MoveUpCommand moveUpCommand = new MoveUpCommand();
+    private final MoveDownCommand moveDownCommand = new MoveDownCommand();
+    private final SamuraiCommand jumpCommand = new JumpCommand();
+    private final DashCommand dashCommand = new DashCommand();
+    private final SamuraiCommand attackCommand = new AttackCommand();
+    private final SamuraiCommand defendCommand = new DefendCommand();
+    private final SamuraiCommand specialAttackCommand = new SpecialAttackCommand();
+
+    public void apply(SamuraiCharacter samurai, int frame, float delta) {
+        boolean leftHeld = has(frame, SamuraiInputFrame.LEFT);
+        boolean rightHeld = has(frame, SamuraiInputFrame.RIGHT);
+        boolean upHeld = has(frame, SamuraiInputFrame.UP);
+        boolean downHeld = has(frame, SamuraiInputFrame.DOWN);
+
+        if (leftHeld != rightHeld) {
+            InputLatency.commandExecuted(samurai, InputLatency.Input.MOVE);
+        }
+        if (leftHeld && !rightHeld) {
+            moveLeftCommand.execute(samurai, delta);
+            moveRightCommand.release(samurai);
+        } else if (rightHeld && !leftHeld) {
+            moveRightCommand.execute(samurai, delta);
+            moveLeftCommand.release(samurai);
+        } else {
+            moveLeftCommand.release(samurai);
+            moveRightCommand.release(samurai);
+        }
+
+        if (upHeld && !downHeld) {
+            moveUpCommand.execute(samurai, delta);
+            moveDownCommand.release(samurai);
+        } else if (downHeld && !upHeld) {
+            moveDownCommand.execute(samurai, delta);
+            moveUpCommand.release(samurai);
+        } else {
+            moveUpCommand.release(samurai);
+            moveDownCommand.release(samurai);
+        }
+
+        if (has(frame, SamuraiInputFrame.JUMP)) {
+            InputLatency.commandExecuted(samurai, InputLatency.Input.JUMP);
+            jumpCommand.execute(samurai, delta);
+        }
+        if (has(frame, SamuraiInputFrame.ATTACK)) {
+            InputLatency.commandExecuted(samurai, InputLatency.Input.ATTACK);
+            attackCommand.execute(samurai, delta);
+        }
+        if (has(frame, SamuraiInputFrame.SPECIAL)) {
+            InputLatency.commandExecuted(samurai, InputLatency.Input.SPECIAL);
+            specialAttackCommand.execute(samurai, delta);
+        }
+
+        if (has(frame, SamuraiInputFrame.DEFEND)) {
+            InputLatency.commandExecuted(samurai, InputLatency.Input.DEFEND);
+            defendCommand.execute(samurai, delta);
+        } else {
+            defendCommand.release(samurai);
+        }
+
+        if (has(frame, SamuraiInputFrame.DASH)) {
+            float dashX = (rightHeld ? 1f : 0f) - (leftHeld ? 1f : 0f);
+            float dashY = (upHeld ? 1f : 0f) - (downHeld ? 1f : 0f);
+            dashCommand.setDirection(dashX, dashY);
+            InputLatency.commandExecuted(samurai, InputLatency.Input.DASH);
+            dashCommand.execute(samurai, delta);
+        }
+
+        if (has(frame, SamuraiInputFrame.POWER_SHIELD)) {
+            samurai.grantPowerUp(SamuraiPowerUpType.SHIELD);
+        }
+        if (has(frame, SamuraiInputFrame.POWER_SPEED)) {
+            samurai.grantPowerUp(SamuraiPowerUpType.SPEED);
+        }
+        if (has(frame, SamuraiInputFrame.POWER_WEAPON)) {
+            samurai.grantPowerUp(SamuraiPowerUpType.WEAPON);
+        }
+    }
+
+    /**
+     * The move commands only release what they engaged, so which ones are engaged is part of the
+     * simulation state: {@link SamuraiInputFrame#LEFT}/{@code RIGHT}/{@code UP}/{@code DOWN} bits.
+     */
+    public int engagedMoves() {
+        return (moveLeftCommand.isActive() ? SamuraiInputFrame.LEFT : 0)
+                | (moveRightCommand.isActive() ? SamuraiInputFrame.RIGHT : 0)
+                | (moveUpCommand.isActive() ? SamuraiInputFrame.UP : 0)
+                | (moveDownCommand.isActive() ? SamuraiInputFrame.DOWN : 0);
+    }
+
+    public void restoreEngagedMoves(int moves) {
+        moveLeftCommand.setActive(has(moves, SamuraiInputFrame.LEFT));
+        moveRightCommand.setActive(has(moves, SamuraiInputFrame.RIGHT));
+        moveUpCommand.setActive(has(moves, SamuraiInputFrame.UP));
+        moveDownCommand.setActive(has(moves, SamuraiInputFrame.DOWN));
+    }
+}
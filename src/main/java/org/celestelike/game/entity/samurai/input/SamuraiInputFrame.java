@@ -0,0 +1,39 @@
+package org.celestelike.game.entity.samurai.input;
+
+/**
+ * Player input for one simulation tick, packed into an {@code int}: "held" bits stay set while a
+ * control is down, "pressed" bits are set only on the tick the control went down. A frame holds
+ * everything {@link SamuraiInputDispatcher} needs to issue commands, so recording frames is
+ * enough to reproduce a session without a keyboard.
+ */
+public final class SamuraiInputFrame {
+
+    public static final int NONE = 0;
+
+    // Held controls.
+    public static final int LEFT = 1;
+    public static final int RIGHT = 1 << 1;
+    public static final int UP = 1 << 2;
+    public static final int DOWN = 1 << 3;
+    public static final int DEFEND = 1 << 4;
+
+    // Controls pressed on this tick.
+    public static final int JUMP = 1 << 5;
+    public static final int ATTACK = 1 << 6;
+    public static final int SPECIAL = 1 << 7;
+    public static final int DASH = 1 << 8;
+    public static final int POWER_SHIELD = 1 << 9;
+    public static final int POWER_SPEED = 1 << 10;
+    public static final int POWER_WEAPON = 1 << 11;
+
+    public static final int HELD_MASK = LEFT | RIGHT | UP | DOWN | DEFEND;
+    public static final int PRESSED_MASK = JUMP | ATTACK | SPECIAL | DASH | POWER_SHIELD | POWER_SPEED | POWER_WEAPON;
+    public static final int ALL_MASK = HELD_MASK | PRESSED_MASK;
+
+    private SamuraiInputFrame() {
+    }
+
+    public static boolean has(int frame, int control) {
+        return (frame & control) != 0;
+    }
+}
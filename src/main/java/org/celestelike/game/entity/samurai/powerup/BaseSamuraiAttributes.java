@@ -1,8 +0,0 @@
-package org.celestelike.game.entity.samurai.powerup;
-
-/**
- * Default attribute set with no modifiers applied.
- */
-public final class BaseSamuraiAttributes implements SamuraiAttributes {
-}
-
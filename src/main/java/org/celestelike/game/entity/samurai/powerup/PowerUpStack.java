@@ -0,0 +1,255 @@
+package org.celestelike.game.entity.samurai.powerup;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import org.celestelike.game.state.StateWriter;
+
+/**
+ * The power-ups a samurai holds, in the order they were granted, and the attributes they resolve
+ * to. The modifiers of every held power-up are folded into four plain values whenever the set
+ * changes, so reading an attribute is a field load however many buffs are active.
+ *
+ * <p>Expiry times are absolute on a clock the stack advances itself, and the held entries form a
+ * binary min-heap on them: a tick in which nothing expires compares the clock with the top of the
+ * heap and is done. Granting a type already held refreshes its timer instead of stacking it.
+ *
+ * <p>Not thread-safe; the simulation owns it.
+ */
+public final class PowerUpStack implements SamuraiAttributes, SamuraiPowerUpView {
+
+    /** Shields never reduce damage below this fraction. */
+    private static final float MIN_DEFENSE_MULTIPLIER = 0.1f;
+    private static final SamuraiPowerUpType[] TYPES = SamuraiPowerUpType.values();
+
+    private SamuraiPowerUpType[] types = new SamuraiPowerUpType[TYPES.length];
+    private double[] expiries = new double[TYPES.length];
+    /** Entry indices, ordered as a min-heap on {@link #expiries}. */
+    private int[] heap = new int[TYPES.length];
+    /** Where each entry sits in {@link #heap}. */
+    private int[] heapSlots = new int[TYPES.length];
+    /** The entry holding each type, or -1. */
+    private final int[] entryOfType = new int[TYPES.length];
+    private int size;
+    private double clock;
+
+    private float attackMultiplier = 1f;
+    private int attackBonus;
+    private float defenseMultiplier = 1f;
+    private float speedMultiplier = 1f;
+
+    public PowerUpStack() {
+        Arrays.fill(entryOfType, -1);
+    }
+
+    /**
+     * Adds {@code type} for its full duration, or restarts its timer if it is already held.
+     *
+     * @return whether the type was newly added
+     */
+    public boolean grant(SamuraiPowerUpType type) {
+        double expiry = clock + type.durationSeconds();
+        int entry = entryOfType[type.ordinal()];
+        if (entry >= 0) {
+            expiries[entry] = expiry;
+            siftDown(heapSlots[entry]);
+            return false;
+        }
+        ensureCapacity(size + 1);
+        entry = size++;
+        types[entry] = type;
+        expiries[entry] = expiry;
+        entryOfType[type.ordinal()] = entry;
+        heap[entry] = entry;
+        heapSlots[entry] = entry;
+        siftUp(entry);
+        resolve();
+        return true;
+    }
+
+    /**
+     * Advances the clock and drops every power-up whose time ran out, reporting each to
+     * {@code expired}.
+     */
+    public void advance(float delta, Consumer<SamuraiPowerUpType> expired) {
+        clock += delta;
+        if (size == 0 || expiries[heap[0]] > clock) {
+            return;
+        }
+        while (size > 0 && expiries[heap[0]] <= clock) {
+            SamuraiPowerUpType type = types[heap[0]];
+            remove(heap[0]);
+            expired.accept(type);
+        }
+        resolve();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public SamuraiPowerUpType type(int index) {
+        return types[index];
+    }
+
+    @Override
+    public float remainingSeconds(int index) {
+        return (float) (expiries[index] - clock);
+    }
+
+    @Override
+    public float attackMultiplier() {
+        return attackMultiplier;
+    }
+
+    @Override
+    public int attackBonus() {
+        return attackBonus;
+    }
+
+    @Override
+    public float defenseMultiplier() {
+        return defenseMultiplier;
+    }
+
+    @Override
+    public float speedMultiplier() {
+        return speedMultiplier;
+    }
+
+    /**
+     * Writes the clock and the held entries in grant order; times go out as raw bits so a
+     * restored stack expires on exactly the same tick.
+     */
+    public void writeSnapshot(StateWriter out) {
+        out.putLong(Double.doubleToRawLongBits(clock));
+        out.putByte(size);
+        for (int i = 0; i < size; i++) {
+            out.putByte(types[i].ordinal());
+            out.putLong(Double.doubleToRawLongBits(expiries[i]));
+        }
+    }
+
+    /**
+     * Restores a {@link #writeSnapshot}. Allocation-free unless more power-ups are held than ever
+     * before.
+     */
+    public void readSnapshot(ByteBuffer buffer) {
+        clock = Double.longBitsToDouble(buffer.getLong());
+        int count = buffer.get();
+        ensureCapacity(count);
+        Arrays.fill(entryOfType, -1);
+        for (int i = 0; i < count; i++) {
+            SamuraiPowerUpType type = TYPES[buffer.get()];
+            types[i] = type;
+            expiries[i] = Double.longBitsToDouble(buffer.getLong());
+            entryOfType[type.ordinal()] = i;
+            heap[i] = i;
+            heapSlots[i] = i;
+        }
+        if (count < size) {
+            Arrays.fill(types, count, size, null);
+        }
+        size = count;
+        for (int slot = size / 2 - 1; slot >= 0; slot--) {
+            siftDown(slot);
+        }
+        resolve();
+    }
+
+    /**
+     * Removes {@code entry} from the heap, then closes its gap so the rest keep their grant
+     * order.
+     */
+    private void remove(int entry) {
+        int slot = heapSlots[entry];
+        int last = heap[size - 1];
+        heap[slot] = last;
+        heapSlots[last] = slot;
+        entryOfType[types[entry].ordinal()] = -1;
+        size--;
+        if (slot < size) {
+            siftDown(slot);
+            siftUp(heapSlots[last]);
+        }
+        for (int i = entry; i < size; i++) {
+            types[i] = types[i + 1];
+            expiries[i] = expiries[i + 1];
+            heapSlots[i] = heapSlots[i + 1];
+            heap[heapSlots[i]] = i;
+            entryOfType[types[i].ordinal()] = i;
+        }
+        types[size] = null;
+    }
+
+    /**
+     * Folds the held modifiers in grant order; each shield is clamped as it applies.
+     */
+    private void resolve() {
+        float attack = 1f;
+        int bonus = 0;
+        float defense = 1f;
+        float speed = 1f;
+        for (int i = 0; i < size; i++) {
+            SamuraiPowerUpType type = types[i];
+            attack *= type.attackMultiplier();
+            bonus += type.attackBonus();
+            if (type.defenseMultiplier() != 1f) {
+                defense = Math.max(MIN_DEFENSE_MULTIPLIER, defense * type.defenseMultiplier());
+            }
+            speed *= type.speedMultiplier();
+        }
+        attackMultiplier = attack;
+        attackBonus = bonus;
+        defenseMultiplier = defense;
+        speedMultiplier = speed;
+    }
+
+    private void siftUp(int slot) {
+        int entry = heap[slot];
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            if (expiries[heap[parent]] <= expiries[entry]) {
+                break;
+            }
+            place(heap[parent], slot);
+            slot = parent;
+        }
+        place(entry, slot);
+    }
+
+    private void siftDown(int slot) {
+        int entry = heap[slot];
+        int half = size >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            if (child + 1 < size && expiries[heap[child + 1]] < expiries[heap[child]]) {
+                child++;
+            }
+            if (expiries[entry] <= expiries[heap[child]]) {
+                break;
+            }
+            place(heap[child], slot);
+            slot = child;
+        }
+        place(entry, slot);
+    }
+
+    private void place(int entry, int slot) {
+        heap[slot] = entry;
+        heapSlots[entry] = slot;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= types.length) {
+            return;
+        }
+        int grown = Math.max(capacity, types.length * 2);
+        types = Arrays.copyOf(types, grown);
+        expiries = Arrays.copyOf(expiries, grown);
+        heap = Arrays.copyOf(heap, grown);
+        heapSlots = Arrays.copyOf(heapSlots, grown);
+    }
+}
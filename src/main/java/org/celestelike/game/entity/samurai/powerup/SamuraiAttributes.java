@@ -1,8 +1,8 @@
 package org.celestelike.game.entity.samurai.powerup;
 
 /**
- * Describes the mutable combat/movement attributes for the samurai hero.
- * Decorators can wrap this interface to stack temporary modifiers.
+ * Describes the combat/movement attributes for the samurai hero; without power-ups every
+ * modifier is neutral. {@link PowerUpStack} resolves the held power-ups into one set.
  */
 public interface SamuraiAttributes {
 
@@ -1,27 +1,37 @@
 package org.celestelike.game.entity.samurai.powerup;
 
-import java.util.function.Function;
-
 /**
- * Available power-up definitions. Each enum entry knows how to wrap the
- * current attribute chain.
+ * Available power-up definitions. Each enum entry lists the modifiers it applies while held;
+ * {@link PowerUpStack} folds those of every held power-up into the samurai's attributes.
  */
 public enum SamuraiPowerUpType {
-    SHIELD("Aegis Shield", 15f, attrs -> new ShieldPowerUp(attrs, 0.6f)),
-    SPEED("Windrunner Boots", 12f, attrs -> new SpeedPowerUp(attrs, 1.35f)),
-    WEAPON("Crimson Blade", 10f, attrs -> new WeaponPowerUp(attrs, 1.4f, 6));
+    /** Reduces incoming damage. */
+    SHIELD("Aegis Shield", 15f, 1f, 0, 0.6f, 1f),
+    /** Boosts horizontal movement, jump, and dash speeds. */
+    SPEED("Windrunner Boots", 12f, 1f, 0, 1f, 1.35f),
+    /** Increases outgoing damage. */
+    WEAPON("Crimson Blade", 10f, 1.4f, 6, 1f, 1f);
 
     private final String displayName;
     private final float durationSeconds;
-    private final Function<SamuraiAttributes, SamuraiAttributes> decoratorFactory;
+    private final float attackMultiplier;
+    private final int attackBonus;
+    private final float defenseMultiplier;
+    private final float speedMultiplier;
 
     SamuraiPowerUpType(
             String displayName,
             float durationSeconds,
-            Function<SamuraiAttributes, SamuraiAttributes> decoratorFactory) {
+            float attackMultiplier,
+            int attackBonus,
+            float defenseMultiplier,
+            float speedMultiplier) {
         this.displayName = displayName;
         this.durationSeconds = durationSeconds;
-        this.decoratorFactory = decoratorFactory;
+        this.attackMultiplier = attackMultiplier;
+        this.attackBonus = attackBonus;
+        this.defenseMultiplier = defenseMultiplier;
+        this.speedMultiplier = speedMultiplier;
     }
 
     public String displayName() {
@@ -32,8 +42,19 @@ public enum SamuraiPowerUpType {
         return durationSeconds;
     }
 
-    public SamuraiAttributes wrap(SamuraiAttributes current) {
-        return decoratorFactory.apply(current);
+    public float attackMultiplier() {
+        return attackMultiplier;
+    }
+
+    public int attackBonus() {
+        return attackBonus;
     }
-}
 
+    public float defenseMultiplier() {
+        return defenseMultiplier;
+    }
+
+    public float speedMultiplier() {
+        return speedMultiplier;
+    }
+}
@@ -0,0 +1,20 @@
+package org.celestelike.game.entity.samurai.powerup;
+
+/**
+ * Read-only, live view of a samurai's active power-ups, used by the HUD. It reflects every grant
+ * and expiry as it happens and reading it allocates nothing.
+ */
+public interface SamuraiPowerUpView {
+
+    int size();
+
+    /**
+     * @param index below {@link #size()}
+     */
+    SamuraiPowerUpType type(int index);
+
+    /**
+     * @param index below {@link #size()}
+     */
+    float remainingSeconds(int index);
+}
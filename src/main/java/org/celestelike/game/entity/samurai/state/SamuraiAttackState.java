@@ -19,6 +19,10 @@ public final class SamuraiAttackState implements SamuraiState {
         this.strategy = null;
     }
 
+    public SamuraiAttackStrategy strategy() {
+        return strategy;
+    }
+
     @Override
     public void enter(SamuraiCharacter samurai) {
         if (strategy != null) {
@@ -19,7 +19,7 @@ public final class SamuraiIdleState implements SamuraiState {
     @Override
     public void update(SamuraiCharacter samurai, float delta) {
         // No behavior yet, but we still emit a trace when verbose logging is enabled.
-        if (LOGGER.getLevel() <= Logger.DEBUG) {
+        if (LOGGER.getLevel() >= Logger.DEBUG) {
             LOGGER.debug("Samurai remains idle (delta=" + delta + ")");
         }
     }
@@ -18,7 +18,7 @@ public final class SamuraiJumpState implements SamuraiState {
 
     @Override
     public void update(SamuraiCharacter samurai, float delta) {
-        if (LOGGER.getLevel() <= Logger.DEBUG) {
+        if (LOGGER.getLevel() >= Logger.DEBUG) {
             LOGGER.debug("Samurai airborne (delta=" + delta + ")");
         }
     }
@@ -18,7 +18,7 @@ public final class SamuraiWallJumpState implements SamuraiState {
 
     @Override
     public void update(SamuraiCharacter samurai, float delta) {
-        if (LOGGER.getLevel() <= Logger.DEBUG) {
+        if (LOGGER.getLevel() >= Logger.DEBUG) {
             LOGGER.debug("Samurai wall jumping (delta=" + delta + ")");
         }
     }
@@ -0,0 +1,236 @@
+package org.celestelike.game.headless;
+
+import com.badlogic.gdx.Application;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.SplittableRandom;
+import org.celestelike.game.GameSimulation;
+import org.celestelike.game.config.GameConfig;
+import org.celestelike.game.entity.enemy.EnemyManager;
+import org.celestelike.game.entity.enemy.EnemyRegistry;
+import org.celestelike.game.entity.samurai.SamuraiCharacter;
+import org.celestelike.game.entity.samurai.input.SamuraiInputFrame;
+import org.celestelike.game.logging.GameLogger;
+import org.celestelike.game.world.CollisionWorld;
+
+/**
+ * Gym-style environment around a headless {@link GameSimulation}, for automated playtesting and
+ * learning agents: {@link #reset(long)}, then {@link #step(int)} once per tick with a
+ * {@link SamuraiInputFrame} bitmask as the action, which goes through the same dispatcher and
+ * commands as keyboard input. {@link #observe(FloatBuffer)} writes the observation into a
+ * caller-provided buffer without allocating.
+ *
+ * <p>The observation is {@value #OBSERVATION_FLOATS} floats, distances in tiles relative to the
+ * centre of the samurai's collider:
+ * <ul>
+ *   <li>{@value #SAMURAI_FEATURES} samurai features from {@link #SAMURAI_OFFSET}: tile x and y,
+ *       velocity x and y in tiles per second, health ratio, then 1/0 flags for grounded, facing
+ *       right, dashing, attacking, defending and in water, -1/0/1 for a wall on the left/right,
+ *       and a final 1/0 flag for dead;</li>
+ *   <li>a {@value #PATCH_SIZE}x{@value #PATCH_SIZE} collision patch from {@link #PATCH_OFFSET},
+ *       bottom row first: 1 solid, 0.5 water, 0 empty (outside the world counts as solid);</li>
+ *   <li>the {@value #MAX_ENEMIES} nearest live enemies from {@link #ENEMY_OFFSET}, closest first,
+ *       {@value #ENEMY_FEATURES} floats each: dx, dy, health ratio and 1 for present; absent
+ *       slots are zero.</li>
+ * </ul>
+ *
+ * <p>{@link #step} returns a default shaped reward: one per tile of new ground to the right, one
+ * per enemy defeated, minus the fraction of health lost; clearing the level adds
+ * {@value #CLEAR_REWARD} and losing the run subtracts {@value #DEATH_PENALTY}. Agents that want
+ * something else can compute it from the observations. Not thread-safe; use one environment per
+ * thread, which {@link GameSimulation}'s isolation allows.
+ */
+public final class GymEnvironment implements AutoCloseable {
+
+    public static final int PATCH_RADIUS = 6;
+    public static final int PATCH_SIZE = PATCH_RADIUS * 2 + 1;
+    public static final int MAX_ENEMIES = 8;
+    public static final int SAMURAI_FEATURES = 13;
+    public static final int ENEMY_FEATURES = 4;
+    public static final int SAMURAI_OFFSET = 0;
+    public static final int PATCH_OFFSET = SAMURAI_OFFSET + SAMURAI_FEATURES;
+    public static final int ENEMY_OFFSET = PATCH_OFFSET + PATCH_SIZE * PATCH_SIZE;
+    public static final int OBSERVATION_FLOATS = ENEMY_OFFSET + MAX_ENEMIES * ENEMY_FEATURES;
+    public static final int OBSERVATION_BYTES = OBSERVATION_FLOATS * Float.BYTES;
+    /** Reset waits a seeded number of idle ticks, up to this many, so episodes start apart. */
+    public static final int MAX_NOOP_START = 30;
+
+    private static final float CLEAR_REWARD = 10f;
+    private static final float DEATH_PENALTY = 1f;
+
+    private final GameSimulation simulation;
+    private final long maxEpisodeTicks;
+    private final float[] observation = new float[OBSERVATION_FLOATS];
+    private final float[] enemies = new float[MAX_ENEMIES * EnemyManager.ENEMY_STRIDE];
+    private long episodeTicks;
+    private float furthestX;
+    private boolean terminated;
+    private boolean truncated;
+
+    /**
+     * @param maxEpisodeTicks ticks after which an episode is truncated, or 0 for no limit
+     */
+    public GymEnvironment(GameConfig config, long maxEpisodeTicks) {
+        HeadlessRuntime.install(Application.LOG_ERROR);
+        simulation = new GameSimulation(config, 1, EnemyRegistry.defaults(), GameLogger.discarding());
+        this.maxEpisodeTicks = maxEpisodeTicks;
+        reset(0L);
+    }
+
+    /**
+     * Starts a new episode from the run-start checkpoint. Equal seeds give equal episodes for
+     * equal actions.
+     */
+    public void reset(long seed) {
+        simulation.startRun();
+        int idleTicks = new SplittableRandom(seed).nextInt(MAX_NOOP_START + 1);
+        for (int i = 0; i < idleTicks; i++) {
+            simulation.tick(SamuraiInputFrame.NONE);
+        }
+        episodeTicks = 0L;
+        furthestX = simulation.samurai().getColliderCenterX();
+        terminated = false;
+        truncated = false;
+    }
+
+    /**
+     * Advances one tick with {@code action}, a {@link SamuraiInputFrame} bitmask.
+     *
+     * @return the reward for this tick
+     * @throws IllegalStateException if the episode is over and has not been reset
+     */
+    public float step(int action) {
+        if (isDone()) {
+            throw new IllegalStateException("Episode is over; call reset first");
+        }
+        SamuraiCharacter samurai = simulation.samurai();
+        int healthBefore = samurai.getCurrentHealth();
+        int defeatedBefore = simulation.enemies().defeatedSpawnCount();
+        simulation.tick(action & SamuraiInputFrame.ALL_MASK);
+        episodeTicks++;
+
+        float tile = simulation.tileWorldSize();
+        float reward = 0f;
+        float x = samurai.getColliderCenterX();
+        if (x > furthestX) {
+            reward += (x - furthestX) / tile;
+            furthestX = x;
+        }
+        reward += simulation.enemies().defeatedSpawnCount() - defeatedBefore;
+        reward -= (healthBefore - Math.max(0, samurai.getCurrentHealth())) / (float) samurai.getMaxHealth();
+        if (simulation.isCleared()) {
+            reward += CLEAR_REWARD;
+            terminated = true;
+        } else if (simulation.isRunOver()) {
+            reward -= DEATH_PENALTY;
+            terminated = true;
+        }
+        truncated = !terminated && maxEpisodeTicks > 0L && episodeTicks >= maxEpisodeTicks;
+        return reward;
+    }
+
+    /**
+     * @return {@code true} once the samurai died or cleared the level
+     */
+    public boolean isTerminated() {
+        return terminated;
+    }
+
+    /**
+     * @return {@code true} once the episode hit its tick limit without terminating
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public boolean isDone() {
+        return terminated || truncated;
+    }
+
+    public long episodeTicks() {
+        return episodeTicks;
+    }
+
+    /**
+     * Writes the observation at {@code out}'s position and advances it by
+     * {@value #OBSERVATION_FLOATS}.
+     */
+    public void observe(FloatBuffer out) {
+        fillObservation();
+        out.put(observation);
+    }
+
+    /**
+     * Writes the observation at {@code out}'s position in {@code out}'s byte order and advances it
+     * by {@value #OBSERVATION_BYTES} bytes.
+     */
+    public void observe(ByteBuffer out) {
+        fillObservation();
+        for (float value : observation) {
+            out.putFloat(value);
+        }
+    }
+
+    public GameSimulation simulation() {
+        return simulation;
+    }
+
+    @Override
+    public void close() {
+        simulation.dispose();
+    }
+
+    private void fillObservation() {
+        float[] obs = observation;
+        SamuraiCharacter samurai = simulation.samurai();
+        float tile = simulation.tileWorldSize();
+        float centerX = samurai.getColliderCenterX();
+        float centerY = samurai.getColliderCenterY();
+
+        int i = SAMURAI_OFFSET;
+        obs[i++] = centerX / tile;
+        obs[i++] = centerY / tile;
+        obs[i++] = samurai.getVelocity().x / tile;
+        obs[i++] = samurai.getVelocity().y / tile;
+        obs[i++] = Math.max(0, samurai.getCurrentHealth()) / (float) samurai.getMaxHealth();
+        obs[i++] = flag(samurai.isGrounded());
+        obs[i++] = flag(samurai.isFacingRight());
+        obs[i++] = flag(samurai.isDashing());
+        obs[i++] = flag(samurai.isAttacking());
+        obs[i++] = flag(samurai.isDefending());
+        obs[i++] = flag(samurai.isInWater());
+        obs[i++] = samurai.isTouchingWallLeft() ? -1f : samurai.isTouchingWallRight() ? 1f : 0f;
+        obs[i++] = flag(samurai.isDead());
+
+        CollisionWorld collision = simulation.collision();
+        int centerRow = collision.worldToRow(centerY);
+        int centerCol = collision.worldToCol(centerX);
+        i = PATCH_OFFSET;
+        for (int row = centerRow - PATCH_RADIUS; row <= centerRow + PATCH_RADIUS; row++) {
+            for (int col = centerCol - PATCH_RADIUS; col <= centerCol + PATCH_RADIUS; col++) {
+                obs[i++] = collision.isSolid(row, col) ? 1f : collision.isWater(row, col) ? 0.5f : 0f;
+            }
+        }
+
+        int found = simulation.enemies().nearestEnemies(centerX, centerY, MAX_ENEMIES, enemies);
+        i = ENEMY_OFFSET;
+        for (int e = 0; e < MAX_ENEMIES; e++) {
+            if (e < found) {
+                int base = e * EnemyManager.ENEMY_STRIDE;
+                obs[i++] = (enemies[base] - centerX) / tile;
+                obs[i++] = (enemies[base + 1] - centerY) / tile;
+                obs[i++] = enemies[base + 2] / Math.max(1f, enemies[base + 3]);
+                obs[i++] = 1f;
+            } else {
+                obs[i++] = 0f;
+                obs[i++] = 0f;
+                obs[i++] = 0f;
+                obs[i++] = 0f;
+            }
+        }
+    }
+
+    private static float flag(boolean value) {
+        return value ? 1f : 0f;
+    }
+}
@@ -0,0 +1,187 @@
+package org.celestelike.game.headless;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.ApplicationListener;
+import com.badlogic.gdx.ApplicationLogger;
+import com.badlogic.gdx.Audio;
+import com.badlogic.gdx.Files;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Graphics;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.LifecycleListener;
+import com.badlogic.gdx.Net;
+import com.badlogic.gdx.Preferences;
+import com.badlogic.gdx.backends.lwjgl3.Lwjgl3ApplicationLogger;
+import com.badlogic.gdx.utils.Clipboard;
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * Just enough of {@link Application} for gameplay code to log and post runnables without a
+ * window. Graphics, input, audio and network are absent; the simulation never touches them.
+ * Runnables posted from any thread run on the next {@link #runPosted()}.
+ */
+final class HeadlessApplication implements Application {
+
+    private final Queue<Runnable> posted = new ArrayDeque<>();
+    private ApplicationLogger logger = new Lwjgl3ApplicationLogger();
+    private int logLevel;
+
+    HeadlessApplication(int logLevel) {
+        this.logLevel = logLevel;
+    }
+
+    void runPosted() {
+        while (true) {
+            Runnable runnable;
+            synchronized (posted) {
+                runnable = posted.poll();
+            }
+            if (runnable == null) {
+                return;
+            }
+            runnable.run();
+        }
+    }
+
+    @Override
+    public ApplicationListener getApplicationListener() {
+        return null;
+    }
+
+    @Override
+    public Graphics getGraphics() {
+        return null;
+    }
+
+    @Override
+    public Audio getAudio() {
+        return null;
+    }
+
+    @Override
+    public Input getInput() {
+        return null;
+    }
+
+    @Override
+    public Files getFiles() {
+        return Gdx.files;
+    }
+
+    @Override
+    public Net getNet() {
+        return null;
+    }
+
+    @Override
+    public void log(String tag, String message) {
+        if (logLevel >= LOG_INFO) {
+            logger.log(tag, message);
+        }
+    }
+
+    @Override
+    public void log(String tag, String message, Throwable exception) {
+        if (logLevel >= LOG_INFO) {
+            logger.log(tag, message, exception);
+        }
+    }
+
+    @Override
+    public void error(String tag, String message) {
+        if (logLevel >= LOG_ERROR) {
+            logger.error(tag, message);
+        }
+    }
+
+    @Override
+    public void error(String tag, String message, Throwable exception) {
+        if (logLevel >= LOG_ERROR) {
+            logger.error(tag, message, exception);
+        }
+    }
+
+    @Override
+    public void debug(String tag, String message) {
+        if (logLevel >= LOG_DEBUG) {
+            logger.debug(tag, message);
+        }
+    }
+
+    @Override
+    public void debug(String tag, String message, Throwable exception) {
+        if (logLevel >= LOG_DEBUG) {
+            logger.debug(tag, message, exception);
+        }
+    }
+
+    @Override
+    public void setLogLevel(int logLevel) {
+        this.logLevel = logLevel;
+    }
+
+    @Override
+    public int getLogLevel() {
+        return logLevel;
+    }
+
+    @Override
+    public void setApplicationLogger(ApplicationLogger applicationLogger) {
+        this.logger = applicationLogger;
+    }
+
+    @Override
+    public ApplicationLogger getApplicationLogger() {
+        return logger;
+    }
+
+    @Override
+    public ApplicationType getType() {
+        return ApplicationType.HeadlessDesktop;
+    }
+
+    @Override
+    public int getVersion() {
+        return 0;
+    }
+
+    @Override
+    public long getJavaHeap() {
+        return Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+    }
+
+    @Override
+    public long getNativeHeap() {
+        return getJavaHeap();
+    }
+
+    @Override
+    public Preferences getPreferences(String name) {
+        throw new UnsupportedOperationException("No preferences in headless runs");
+    }
+
+    @Override
+    public Clipboard getClipboard() {
+        return null;
+    }
+
+    @Override
+    public void postRunnable(Runnable runnable) {
+        synchronized (posted) {
+            posted.add(runnable);
+        }
+    }
+
+    @Override
+    public void exit() {
+    }
+
+    @Override
+    public void addLifecycleListener(LifecycleListener listener) {
+    }
+
+    @Override
+    public void removeLifecycleListener(LifecycleListener listener) {
+    }
+}
@@ -0,0 +1,138 @@
+package org.celestelike.game.headless;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.lwjgl3.Lwjgl3Files;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+import org.celestelike.game.GameSimulation;
+import org.celestelike.game.config.GameConfig;
+import org.celestelike.game.metrics.TimeHistogram;
+import org.celestelike.game.replay.InputRecording;
+import org.celestelike.game.replay.InputReplayer;
+
+/**
+ * Runs the {@link GameSimulation} without a window: no rendering, no keyboard, input comes from
+ * an {@link InputRecording} under the fixed tick. Textures are still decoded (see
+ * {@link NullStubs}) so animation-driven timings match the real game, which makes a replay a
+ * reproducible CPU workload for comparing builds.
+ */
+public final class HeadlessRuntime {
+
+    /**
+     * Where the samurai ended up; two runs of the same recording must agree exactly.
+     */
+    public record PlaybackResult(long ticks, int runs, float samuraiX, float samuraiY, int health, int defeated) {
+    }
+
+    /**
+     * Sees the simulation after every tick of a playback, outside the tick timing.
+     */
+    public interface TickListener {
+        void afterTick(long index, GameSimulation simulation);
+    }
+
+    private static HeadlessApplication application;
+
+    private final GameSimulation simulation;
+
+    public HeadlessRuntime(GameConfig config) {
+        this(config, 1);
+    }
+
+    /**
+     * @param players 1, or {@link GameSimulation#MAX_PLAYERS} for a co-op simulation
+     */
+    public HeadlessRuntime(GameConfig config, int players) {
+        install(Application.LOG_ERROR);
+        simulation = new GameSimulation(config, players);
+    }
+
+    /**
+     * Installs the headless {@code Gdx.app}, {@code Gdx.files}, {@code Gdx.gl} and
+     * {@code Gdx.graphics}; safe to call
+     * more than once. Does nothing inside a real application.
+     */
+    public static synchronized void install(int logLevel) {
+        if (Gdx.app != null && !(Gdx.app instanceof HeadlessApplication)) {
+            return;
+        }
+        if (application == null) {
+            GdxNativesLoader.load();
+            application = new HeadlessApplication(logLevel);
+            Gdx.app = application;
+            if (Gdx.files == null) {
+                Gdx.files = new Lwjgl3Files();
+            }
+            GL20 gl = NullStubs.createGl();
+            Gdx.gl = gl;
+            Gdx.gl20 = gl;
+            Gdx.graphics = NullStubs.createGraphics();
+        }
+        application.setLogLevel(logLevel);
+    }
+
+    public GameSimulation simulation() {
+        return simulation;
+    }
+
+    /**
+     * Starts a fresh run and feeds it every frame of the recording, one tick each. Recordings made
+     * by the game end when the samurai dies; if a longer (scripted) one outlives him, a new run
+     * starts on the next tick, as the player pressing retry would.
+     *
+     * @param tickTimes receives the wall time of every tick; may be {@code null}
+     * @throws IllegalArgumentException if the recording was made in another world or tick rate
+     */
+    public PlaybackResult play(InputRecording recording, TimeHistogram tickTimes) {
+        return play(recording, tickTimes, null);
+    }
+
+    /**
+     * As {@link #play(InputRecording, TimeHistogram)}, calling {@code listener} after each tick.
+     */
+    public PlaybackResult play(InputRecording recording, TimeHistogram tickTimes, TickListener listener) {
+        long fingerprint = InputRecording.fingerprint(simulation.source());
+        if (recording.worldFingerprint() != fingerprint) {
+            throw new IllegalArgumentException("Recording was made in a different world (fingerprint "
+                    + Long.toHexString(recording.worldFingerprint()) + ", this world "
+                    + Long.toHexString(fingerprint) + ")");
+        }
+        if (recording.ticksPerSecond() != GameSimulation.TICKS_PER_SECOND) {
+            throw new IllegalArgumentException("Recording runs at " + recording.ticksPerSecond()
+                    + " ticks/s, the simulation at " + GameSimulation.TICKS_PER_SECOND);
+        }
+        simulation.startRun();
+        int runs = 1;
+        long ticks = 0L;
+        InputReplayer replayer = recording.replayer();
+        while (replayer.hasNext()) {
+            int frame = replayer.nextFrame();
+            if (simulation.isRunOver()) {
+                ticks += simulation.tickCount();
+                simulation.startRun();
+                runs++;
+            }
+            long start = System.nanoTime();
+            simulation.tick(frame);
+            if (tickTimes != null) {
+                tickTimes.record(System.nanoTime() - start);
+            }
+            if (listener != null) {
+                listener.afterTick(replayer.tick() - 1, simulation);
+            }
+            application.runPosted();
+        }
+        return new PlaybackResult(
+                ticks + simulation.tickCount(),
+                runs,
+                simulation.samurai().getPosition().x,
+                simulation.samurai().getPosition().y,
+                simulation.samurai().getCurrentHealth(),
+                simulation.enemies().defeatedSpawnCount());
+    }
+
+    public void dispose() {
+        simulation.dispose();
+    }
+}
@@ -0,0 +1,100 @@
+package org.celestelike.game.headless;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Graphics;
+import com.badlogic.gdx.graphics.GL20;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.IntBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds implementations of libGDX service interfaces that accept every call and return
+ * zero/false/null. Installed as {@code Gdx.gl} and {@code Gdx.graphics} in headless runs so
+ * {@link com.badlogic.gdx.graphics.Texture}s still decode their images and report real sizes:
+ * sprite-sheet frame counts, and therefore animation timings, match the windowed game exactly.
+ *
+ * <p>The GL stub also hands out object names and reports every shader as compiled and linked, so
+ * sprite batches and shape renderers can be built and drawn headless. Nothing reaches a GPU,
+ * but a {@link com.badlogic.gdx.graphics.profiling.GLProfiler} installed through the graphics stub
+ * counts the draw calls and texture binds the real game would issue.
+ */
+final class NullStubs {
+
+    private NullStubs() {
+    }
+
+    static GL20 createGl() {
+        AtomicInteger names = new AtomicInteger();
+        return proxy(GL20.class, (proxy, method, args) -> switch (method.getName()) {
+            case "glCreateShader", "glCreateProgram", "glGenBuffer", "glGenTexture",
+                    "glGenFramebuffer", "glGenRenderbuffer" -> names.incrementAndGet();
+            case "glGetShaderiv", "glGetProgramiv" -> {
+                int name = (Integer) args[1];
+                ((IntBuffer) args[2]).put(0, name == GL20.GL_COMPILE_STATUS || name == GL20.GL_LINK_STATUS ? 1 : 0);
+                yield null;
+            }
+            default -> defaultValue(method.getReturnType());
+        });
+    }
+
+    /**
+     * @return graphics whose GL is {@code Gdx.gl20}; setting it replaces {@code Gdx.gl} too, as the
+     * desktop backend does
+     */
+    static Graphics createGraphics() {
+        return proxy(Graphics.class, (proxy, method, args) -> switch (method.getName()) {
+            case "getGL20" -> Gdx.gl20;
+            case "setGL20" -> {
+                Gdx.gl20 = (GL20) args[0];
+                Gdx.gl = Gdx.gl20;
+                yield null;
+            }
+            default -> defaultValue(method.getReturnType());
+        });
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        Object stub = Proxy.newProxyInstance(
+                type.getClassLoader(),
+                new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        return objectMethod(type, proxy, method, args);
+                    }
+                    return handler.invoke(proxy, method, args);
+                });
+        return type.cast(stub);
+    }
+
+    private static Object objectMethod(Class<?> type, Object proxy, Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            default -> "NullStub[" + type.getSimpleName() + "]";
+        };
+    }
+
+    private static Object defaultValue(Class<?> result) {
+        if (result == int.class) {
+            return 0;
+        }
+        if (result == boolean.class) {
+            return false;
+        }
+        if (result == float.class) {
+            return 0f;
+        }
+        if (result == long.class) {
+            return 0L;
+        }
+        if (result == double.class) {
+            return 0.0;
+        }
+        if (result == String.class) {
+            return "";
+        }
+        return null;
+    }
+}
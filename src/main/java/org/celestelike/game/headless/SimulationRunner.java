@@ -0,0 +1,149 @@
+package org.celestelike.game.headless;
+
+import com.badlogic.gdx.Application;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import org.celestelike.game.GameSimulation;
+import org.celestelike.game.config.GameConfig;
+import org.celestelike.game.entity.enemy.EnemyRegistry;
+import org.celestelike.game.entity.samurai.input.SamuraiInputFrame;
+import org.celestelike.game.logging.GameLogger;
+import org.celestelike.game.replay.InputRecording;
+import org.celestelike.game.replay.InputReplayer;
+import org.celestelike.game.replay.StateHashTrace;
+
+/**
+ * Runs many independent headless worlds at once, for bot evaluation, balancing sweeps and replay
+ * regression suites. Each {@link Task} builds its own {@link GameSimulation} on a worker of a
+ * work-stealing pool, with its own enemy registry and a discarding event log, so the worlds share
+ * nothing mutable and throughput grows with the number of cores.
+ *
+ * <p>The pool is sized to the cores by default: worlds are CPU-bound and never block, so more
+ * threads than cores only adds switching.
+ */
+public final class SimulationRunner implements AutoCloseable {
+
+    /**
+     * Chooses the input frame of each tick after seeing the world. Called from the task's worker
+     * only, but one controller may be shared by several tasks, so it should keep no per-world state.
+     */
+    public interface Controller {
+        int nextFrame(GameSimulation simulation, long tick);
+
+        /**
+         * @return a controller that plays {@code recording} from its first tick and stands still
+         * once it runs out; the frames are decoded once and shared by every task using it
+         */
+        static Controller replaying(InputRecording recording) {
+            int[] frames = new int[(int) recording.tickCount()];
+            InputReplayer replayer = recording.replayer();
+            for (int i = 0; i < frames.length; i++) {
+                frames[i] = replayer.nextFrame();
+            }
+            return (simulation, tick) -> tick < frames.length ? frames[(int) tick] : SamuraiInputFrame.NONE;
+        }
+    }
+
+    /**
+     * One world to run.
+     *
+     * @param registry the enemies of this world, or {@code null} for the built-in ones; only read,
+     *                 so one registry may serve many tasks
+     * @param ticks    how long to run; a run that ends early restarts, as in
+     *                 {@link HeadlessRuntime#play}
+     */
+    public record Task(String name, GameConfig config, EnemyRegistry registry, Controller controller, long ticks) {
+    }
+
+    /**
+     * @param stateHash all sections of the final state folded together; equal tasks must agree
+     */
+    public record Result(
+            String name,
+            long ticks,
+            int runs,
+            long elapsedNanos,
+            long stateHash,
+            int defeated,
+            boolean cleared) {
+
+        public double ticksPerSecond() {
+            return elapsedNanos == 0L ? 0.0 : ticks * 1e9 / elapsedNanos;
+        }
+    }
+
+    private final ForkJoinPool pool;
+
+    public SimulationRunner() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public SimulationRunner(int parallelism) {
+        HeadlessRuntime.install(Application.LOG_ERROR);
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    public int parallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Runs every task and waits for all of them.
+     *
+     * @return one result per task, in task order
+     * @throws IllegalStateException if a task fails; the others still run to completion
+     */
+    public List<Result> run(List<Task> tasks) {
+        List<Callable<Result>> calls = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            calls.add(() -> execute(task));
+        }
+        List<Future<Result>> futures = pool.invokeAll(calls);
+        List<Result> results = new ArrayList<>(tasks.size());
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                results.add(futures.get(i).get());
+            } catch (ExecutionException exception) {
+                throw new IllegalStateException("Task " + tasks.get(i).name() + " failed", exception.getCause());
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while running " + tasks.get(i).name(), exception);
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private static Result execute(Task task) {
+        EnemyRegistry registry = task.registry() != null ? task.registry() : EnemyRegistry.defaults();
+        GameSimulation simulation = new GameSimulation(task.config(), 1, registry, GameLogger.discarding());
+        try {
+            Controller controller = task.controller();
+            long start = System.nanoTime();
+            simulation.startRun();
+            int runs = 1;
+            for (long tick = 0L; tick < task.ticks(); tick++) {
+                if (simulation.isRunOver()) {
+                    simulation.startRun();
+                    runs++;
+                }
+                simulation.tick(controller.nextFrame(simulation, tick));
+            }
+            long elapsed = System.nanoTime() - start;
+            StateHashTrace finalState = new StateHashTrace(1);
+            finalState.record(simulation);
+            return new Result(task.name(), task.ticks(), runs, elapsed, finalState.combinedHash(0),
+                    simulation.enemies().defeatedSpawnCount(), simulation.isCleared());
+        } finally {
+            simulation.dispose();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.celestelike.game.logging;
+
+import java.util.Arrays;
+
+/**
+ * A {@link GameLogger.Sink} that only notes each event and when it happened; {@link #flush()}
+ * formats the noted events and queues them on the shared log, in the order they were noted and
+ * stamped with their own times. The render loop logs the simulation through one of these, so
+ * formatting happens once a frame, off the ticks.
+ *
+ * <p>Events may be noted and flushed from any thread.
+ */
+public final class DeferredLogSink implements GameLogger.Sink {
+
+    private static final int INITIAL_EVENTS = 16;
+
+    private long[] times = new long[INITIAL_EVENTS];
+    private String[] categories = new String[INITIAL_EVENTS];
+    private String[] messages = new String[INITIAL_EVENTS];
+    private int count;
+
+    @Override
+    public synchronized void write(String category, String message) {
+        if (count == times.length) {
+            int grown = count * 2;
+            times = Arrays.copyOf(times, grown);
+            categories = Arrays.copyOf(categories, grown);
+            messages = Arrays.copyOf(messages, grown);
+        }
+        times[count] = System.currentTimeMillis();
+        categories[count] = category;
+        messages[count] = message;
+        count++;
+    }
+
+    /**
+     * Formats every event noted so far and queues it on the shared log.
+     */
+    public synchronized void flush() {
+        for (int i = 0; i < count; i++) {
+            GameLogger.appendAt(times[i], categories[i], messages[i]);
+            categories[i] = null;
+            messages[i] = null;
+        }
+        count = 0;
+    }
+}
@@ -1,21 +1,49 @@
 package org.celestelike.game.logging;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 
 /**
- * Centralized file logger for gameplay events.
+ * File logger for gameplay events. The game and the tools log through {@link #shared()}, which
+ * appends to {@code logs/game.log}; each {@link org.celestelike.game.GameSimulation} logs through
+ * the instance it was built with, so worlds run in batch can log elsewhere or not at all.
+ *
+ * <p>The shared log only queues each line; a background writer appends them to the file and
+ * flushes whenever the queue runs dry, so logging never waits on the disk. When the JVM exits, a
+ * shutdown hook stops the writer behind the lines already queued, waits for it, and writes
+ * whatever was logged after that, so no line is lost or written out of order. Lines logged later,
+ * by other shutdown hooks, are written as they are logged.
  */
 public final class GameLogger {
 
+    /**
+     * Receives each event as a category and a message.
+     */
+    public interface Sink {
+        void write(String category, String message);
+    }
+
     private static final Path LOG_PATH = Paths.get("logs", "game.log");
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final GameLogger SHARED = new GameLogger(GameLogger::append);
+    private static final GameLogger DISCARDING = new GameLogger(null);
+    private static final BlockingQueue<String> PENDING = new LinkedBlockingQueue<>();
+    private static final Object FILE_LOCK = new Object();
+    // Queued by the shutdown hook; compared by identity, and no logged line matches it anyway.
+    private static final String STOP = "\u0000stop";
+    private static final long EXIT_WAIT_MILLIS = 2000L;
+    private static volatile boolean flushedOnExit;
+    private static final Thread WRITER = new Thread(GameLogger::writeLoop, "game-log-writer");
 
     static {
         try {
@@ -26,53 +54,178 @@ public final class GameLogger {
         } catch (IOException exception) {
             exception.printStackTrace();
         }
+        WRITER.setDaemon(true);
+        WRITER.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(GameLogger::flushOnExit, "game-log-flush"));
+    }
+
+    private final Sink sink;
+
+    /**
+     * @param sink where events go; {@code null} drops them
+     */
+    public GameLogger(Sink sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * @return the logger writing to {@code logs/game.log}
+     */
+    public static GameLogger shared() {
+        return SHARED;
+    }
+
+    /**
+     * @return a logger that drops every event, for worlds nobody reads the log of
+     */
+    public static GameLogger discarding() {
+        return DISCARDING;
     }
 
-    private GameLogger() {}
+    /**
+     * @return {@code false} if events are dropped, so callers can skip building messages
+     */
+    public boolean isEnabled() {
+        return sink != null;
+    }
 
-    private static synchronized void write(String category, String message) {
-        String timestamp = LocalDateTime.now().format(FORMATTER);
-        String line = "[" + timestamp + "] [" + category + "] " + message;
-        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(
-                LOG_PATH,
-                StandardOpenOption.APPEND))) {
-            writer.println(line);
+    private void write(String category, String message) {
+        if (sink != null) {
+            sink.write(category, message);
+        }
+    }
+
+    /**
+     * @return lines of the shared log queued but not yet written
+     */
+    public static int pendingLines() {
+        return PENDING.size();
+    }
+
+    private static void append(String category, String message) {
+        queue(LocalDateTime.now(), category, message);
+    }
+
+    /**
+     * Queues an event on the shared log stamped with the time it happened rather than the time it
+     * is formatted; see {@link DeferredLogSink}.
+     */
+    static void appendAt(long epochMillis, String category, String message) {
+        queue(LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault()), category, message);
+    }
+
+    private static void queue(LocalDateTime time, String category, String message) {
+        PENDING.add("[" + time.format(FORMATTER) + "] [" + category + "] " + message);
+        if (flushedOnExit) {
+            writePending();
+        }
+    }
+
+    private static void writeLoop() {
+        try {
+            boolean stopped = false;
+            while (!stopped) {
+                String first = PENDING.take();
+                synchronized (FILE_LOCK) {
+                    stopped = appendToFile(first);
+                }
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Stops the writer once it has written every line queued so far, then writes the lines logged
+     * since. Waiting for the writer keeps it from exiting with a line taken but not yet written.
+     */
+    private static void flushOnExit() {
+        PENDING.add(STOP);
+        try {
+            WRITER.join(EXIT_WAIT_MILLIS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        flushedOnExit = true;
+        writePending();
+    }
+
+    private static void writePending() {
+        synchronized (FILE_LOCK) {
+            String line;
+            while ((line = PENDING.poll()) != null) {
+                appendToFile(line);
+            }
+        }
+    }
+
+    /**
+     * Appends {@code first} and whatever else is queued by now in one open of the file, up to
+     * the writer's stop marker.
+     *
+     * @return whether the stop marker was reached
+     */
+    private static boolean appendToFile(String first) {
+        if (first == STOP) {
+            return true;
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(LOG_PATH, StandardOpenOption.APPEND)) {
+            String line = first;
+            while (line != null) {
+                if (line == STOP) {
+                    return true;
+                }
+                writer.write(line);
+                writer.newLine();
+                line = PENDING.poll();
+            }
         } catch (IOException exception) {
             exception.printStackTrace();
         }
+        return false;
     }
 
-    public static void info(String message) {
+    public void info(String message) {
         write("INFO", message);
     }
 
-    public static void stateTransition(String target, String from, String to) {
-        write("STATE", target + ": " + from + " -> " + to);
+    public void stateTransition(String target, String from, String to) {
+        if (sink != null) {
+            write("STATE", target + ": " + from + " -> " + to);
+        }
     }
 
-    public static void decoratorApplied(String decorator, String target, String duration) {
-        write("DECORATOR", decorator + " applied to " + target + (duration == null ? "" : " (duration=" + duration + ")"));
+    public void decoratorApplied(String decorator, String target, String duration) {
+        if (sink != null) {
+            write("DECORATOR", decorator + " applied to " + target + (duration == null ? "" : " (duration=" + duration + ")"));
+        }
     }
 
-    public static void decoratorRemoved(String decorator, String target) {
-        write("DECORATOR", decorator + " removed from " + target);
+    public void decoratorRemoved(String decorator, String target) {
+        if (sink != null) {
+            write("DECORATOR", decorator + " removed from " + target);
+        }
     }
 
-    public static void entityCreated(String type, String identifier) {
-        write("ENTITY", "CREATED " + type + " [" + identifier + "]");
+    public void entityCreated(String type, String identifier) {
+        if (sink != null) {
+            write("ENTITY", "CREATED " + type + " [" + identifier + "]");
+        }
     }
 
-    public static void entityDestroyed(String type, String identifier) {
-        write("ENTITY", "DESTROYED " + type + " [" + identifier + "]");
+    public void entityDestroyed(String type, String identifier) {
+        if (sink != null) {
+            write("ENTITY", "DESTROYED " + type + " [" + identifier + "]");
+        }
     }
 
-    public static void collision(String description) {
+    public void collision(String description) {
         write("COLLISION", description);
     }
 
-    public static void levelChange(String from, String to) {
-        write("LEVEL", from + " -> " + to);
+    public void levelChange(String from, String to) {
+        if (sink != null) {
+            write("LEVEL", from + " -> " + to);
+        }
     }
 }
-
-
@@ -0,0 +1,30 @@
+package org.celestelike.game.metrics;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+
+/**
+ * A {@link SpriteBatch} that also counts the texture switches that forced a flush, the usual
+ * cause of extra draw calls when sprites from different textures are interleaved. Flushes
+ * themselves are already counted by {@link SpriteBatch#totalRenderCalls}.
+ */
+public class CountingSpriteBatch extends SpriteBatch {
+
+    private int textureSwitches;
+
+    /**
+     * @return texture switches that flushed pending sprites since the batch was created
+     */
+    public int textureSwitches() {
+        return textureSwitches;
+    }
+
+    @Override
+    protected void switchTexture(Texture texture) {
+        int flushes = totalRenderCalls;
+        super.switchTexture(texture);
+        if (totalRenderCalls != flushes) {
+            textureSwitches++;
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package org.celestelike.game.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import jdk.jfr.EventType;
+import org.celestelike.game.metrics.jfr.FrameEvent;
+import org.celestelike.game.metrics.jfr.FramePhaseEvent;
+import org.celestelike.game.world.AtomicFileWriter;
+
+/**
+ * Per-phase timings and allocations of the last {@value #HISTORY} rendered frames, for the
+ * in-game profiler overlay. Each phase is bracketed by {@link #begin} and {@link #end}, which
+ * read {@link System#nanoTime} and {@link ThreadAllocations#currentThreadBytes()} into
+ * preallocated ring buffers: recording costs two clock and two counter reads per phase and
+ * allocates nothing, so it runs whether or not anyone is looking. Statistics are only computed
+ * on request.
+ *
+ * <p>Two totals are kept per frame: the work from {@link #beginFrame} to {@link #endFrame}, and
+ * the interval since the previous frame began, which also covers buffer swaps and vsync waits.
+ * The simulation ticks run in a frame are counted too, so update allocations can be read per tick.
+ *
+ * <p>While a Flight Recorder recording is running, every frame and phase is also committed as a
+ * {@link FrameEvent} and {@link FramePhaseEvent}, so recordings show them beside GC and JIT
+ * activity, and while the {@link Tracer} records they are traced as spans. Without either that
+ * costs two flag checks per phase.
+ *
+ * <p>Not thread-safe; the render thread owns it.
+ */
+public final class FrameProfiler {
+
+    /** Frames kept, 10 s at 60 fps. */
+    public static final int HISTORY = 600;
+
+    /**
+     * The parts of a rendered frame. Sprite batches draw when they fill up or end, so the cost of
+     * flushing lands in whichever phase does that.
+     */
+    public enum Phase {
+        INPUT("input"),
+        UPDATE("update"),
+        TILES("tiles"),
+        ENEMIES("enemies"),
+        SAMURAI("samurai"),
+        HEALTH_BARS("health bars"),
+        HUD("hud"),
+        STATE_OVERLAY("state overlay"),
+        PROFILER("profiler");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+
+        public String label() {
+            return label;
+        }
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final EventType FRAME_EVENTS = EventType.getEventType(FrameEvent.class);
+    private static final EventType PHASE_EVENTS = EventType.getEventType(FramePhaseEvent.class);
+    private static final String TRACE_CATEGORY = "frame";
+
+    private final long[][] phaseNanos = new long[PHASES.length][HISTORY];
+    private final long[] phaseStarts = new long[PHASES.length];
+    private final long[][] phaseBytes = new long[PHASES.length][HISTORY];
+    private final long[] phaseByteStarts = new long[PHASES.length];
+    private final long[] workNanos = new long[HISTORY];
+    private final long[] workBytes = new long[HISTORY];
+    private final long[] ticks = new long[HISTORY];
+    private final long[] intervalNanos = new long[HISTORY];
+    private final long[] scratch = new long[HISTORY];
+    private final FramePhaseEvent[] phaseEvents = new FramePhaseEvent[PHASES.length];
+    private FrameEvent frameEvent;
+    private long frameStart;
+    private long frameStartBytes;
+    private long frameNumber;
+    private int cursor;
+    private int frames;
+
+    /**
+     * Starts a frame; phases not run this frame count as zero.
+     */
+    public void beginFrame() {
+        long now = System.nanoTime();
+        intervalNanos[cursor] = frameStart == 0L ? 0L : now - frameStart;
+        frameStart = now;
+        frameStartBytes = ThreadAllocations.currentThreadBytes();
+        for (int phase = 0; phase < PHASES.length; phase++) {
+            phaseNanos[phase][cursor] = 0L;
+            phaseBytes[phase][cursor] = 0L;
+        }
+        ticks[cursor] = 0L;
+        if (FRAME_EVENTS.isEnabled()) {
+            frameEvent = new FrameEvent();
+            frameEvent.begin();
+        }
+        Tracer.begin(TRACE_CATEGORY, "frame");
+    }
+
+    public void begin(Phase phase) {
+        int index = phase.ordinal();
+        if (PHASE_EVENTS.isEnabled()) {
+            FramePhaseEvent event = new FramePhaseEvent();
+            event.begin();
+            phaseEvents[index] = event;
+        }
+        Tracer.begin(TRACE_CATEGORY, phase.label());
+        phaseByteStarts[index] = ThreadAllocations.currentThreadBytes();
+        phaseStarts[index] = System.nanoTime();
+    }
+
+    /**
+     * Adds the time and allocations since the matching {@link #begin} to this frame, so a phase
+     * may run more than once per frame.
+     */
+    public void end(Phase phase) {
+        int index = phase.ordinal();
+        phaseNanos[index][cursor] += System.nanoTime() - phaseStarts[index];
+        phaseBytes[index][cursor] += ThreadAllocations.currentThreadBytes() - phaseByteStarts[index];
+        Tracer.end(TRACE_CATEGORY, phase.label());
+        FramePhaseEvent event = phaseEvents[index];
+        if (event != null) {
+            event.phase = phase.label();
+            event.frame = frameNumber;
+            event.commit();
+            phaseEvents[index] = null;
+        }
+    }
+
+    /**
+     * Counts simulation ticks run in this frame.
+     */
+    public void addTicks(int count) {
+        ticks[cursor] += count;
+    }
+
+    public void endFrame() {
+        workNanos[cursor] = System.nanoTime() - frameStart;
+        workBytes[cursor] = ThreadAllocations.currentThreadBytes() - frameStartBytes;
+        Tracer.end(TRACE_CATEGORY, "frame");
+        if (frameEvent != null) {
+            frameEvent.frame = frameNumber;
+            frameEvent.commit();
+            frameEvent = null;
+        }
+        frameNumber++;
+        cursor = (cursor + 1) % HISTORY;
+        if (frames < HISTORY) {
+            frames++;
+        }
+    }
+
+    /**
+     * @return how many completed frames are kept, at most {@value #HISTORY}
+     */
+    public int frameCount() {
+        return frames;
+    }
+
+    /**
+     * @param age 0 for the last completed frame, up to {@link #frameCount()} - 1
+     */
+    public long workNanos(int age) {
+        return workNanos[slot(age)];
+    }
+
+    /**
+     * @param age 0 for the last completed frame, up to {@link #frameCount()} - 1
+     */
+    public long intervalNanos(int age) {
+        return intervalNanos[slot(age)];
+    }
+
+    /**
+     * @param age 0 for the last completed frame, up to {@link #frameCount()} - 1
+     */
+    public long phaseNanos(Phase phase, int age) {
+        return phaseNanos[phase.ordinal()][slot(age)];
+    }
+
+    /**
+     * @param age 0 for the last completed frame, up to {@link #frameCount()} - 1
+     */
+    public long phaseBytes(Phase phase, int age) {
+        return phaseBytes[phase.ordinal()][slot(age)];
+    }
+
+    public double averageNanos(Phase phase) {
+        return average(phaseNanos[phase.ordinal()]);
+    }
+
+    public long percentileNanos(Phase phase, double percentile) {
+        return percentile(phaseNanos[phase.ordinal()], percentile);
+    }
+
+    public double averageWorkNanos() {
+        return average(workNanos);
+    }
+
+    public long percentileWorkNanos(double percentile) {
+        return percentile(workNanos, percentile);
+    }
+
+    public double averageBytes(Phase phase) {
+        return average(phaseBytes[phase.ordinal()]);
+    }
+
+    public double averageWorkBytes() {
+        return average(workBytes);
+    }
+
+    /**
+     * @return bytes allocated by the update phase per simulation tick over the kept frames, or 0
+     * when no tick ran
+     */
+    public double bytesPerTick() {
+        long tickCount = 0L;
+        long bytes = 0L;
+        long[] updateBytes = phaseBytes[Phase.UPDATE.ordinal()];
+        for (int age = 0; age < frames; age++) {
+            tickCount += ticks[slot(age)];
+            bytes += updateBytes[slot(age)];
+        }
+        return tickCount == 0L ? 0.0 : (double) bytes / tickCount;
+    }
+
+    public double averageIntervalNanos() {
+        return average(intervalNanos);
+    }
+
+    public long percentileIntervalNanos(double percentile) {
+        return percentile(intervalNanos, percentile);
+    }
+
+    /**
+     * Writes the kept frames oldest first, one CSV row each: times in microseconds, then ticks
+     * and allocated bytes.
+     */
+    public void save(Path target) throws IOException {
+        AtomicFileWriter.write(target, this::write);
+    }
+
+    public void write(Writer writer) throws IOException {
+        StringBuilder line = new StringBuilder("frame,interval_us,work_us");
+        for (Phase phase : PHASES) {
+            line.append(',').append(phase.name().toLowerCase(Locale.ROOT)).append("_us");
+        }
+        line.append(",ticks,work_bytes");
+        for (Phase phase : PHASES) {
+            line.append(',').append(phase.name().toLowerCase(Locale.ROOT)).append("_bytes");
+        }
+        writer.write(line.append('\n').toString());
+        for (int age = frames - 1; age >= 0; age--) {
+            int slot = slot(age);
+            line.setLength(0);
+            line.append(frames - 1 - age)
+                    .append(',').append(micros(intervalNanos[slot]))
+                    .append(',').append(micros(workNanos[slot]));
+            for (long[] phase : phaseNanos) {
+                line.append(',').append(micros(phase[slot]));
+            }
+            line.append(',').append(ticks[slot]).append(',').append(workBytes[slot]);
+            for (long[] phase : phaseBytes) {
+                line.append(',').append(phase[slot]);
+            }
+            writer.write(line.append('\n').toString());
+        }
+    }
+
+    private int slot(int age) {
+        return Math.floorMod(cursor - 1 - age, HISTORY);
+    }
+
+    private double average(long[] samples) {
+        if (frames == 0) {
+            return 0.0;
+        }
+        long sum = 0L;
+        for (int age = 0; age < frames; age++) {
+            sum += samples[slot(age)];
+        }
+        return (double) sum / frames;
+    }
+
+    private long percentile(long[] samples, double percentile) {
+        if (frames == 0) {
+            return 0L;
+        }
+        for (int age = 0; age < frames; age++) {
+            scratch[age] = samples[slot(age)];
+        }
+        Arrays.sort(scratch, 0, frames);
+        int rank = (int) Math.ceil(percentile / 100.0 * frames) - 1;
+        return scratch[Math.max(0, Math.min(frames - 1, rank))];
+    }
+
+    /**
+     * Microseconds to one decimal, without going through {@code String.format}.
+     */
+    private static String micros(long nanos) {
+        return nanos / 1_000L + "." + nanos / 100L % 10L;
+    }
+}
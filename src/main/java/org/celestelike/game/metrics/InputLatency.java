@@ -0,0 +1,277 @@
+package org.celestelike.game.metrics;
+
+import java.util.Locale;
+
+/**
+ * End-to-end latency of the local player's inputs, from the moment the window reported a press to
+ * the buffer swap that first showed its effect. Each input type has one press in flight at a
+ * time, which is stamped as it passes each {@link Stage}:
+ *
+ * <ol>
+ *   <li>{@link Stage#COMMAND}: the tick that took the press executed its command;</li>
+ *   <li>{@link Stage#STATE}: the samurai switched state at or after that command;</li>
+ *   <li>{@link Stage#SUBMIT}: the render thread finished drawing the next frame that shows that
+ *   state;</li>
+ *   <li>{@link Stage#SWAP}: that frame was swapped, seen as the start of the frame after it.</li>
+ * </ol>
+ *
+ * <p>Every stage is measured from the press, into a {@link TimeHistogram} per input and stage for
+ * the debug overlay and a {@link SessionMetrics.Histogram} for the metrics export. A press the
+ * game ignored (a jump in mid-air) never reaches {@link Stage#STATE} and is dropped after
+ * {@value #TIMEOUT_MILLIS} ms, unless some other state change lands in that window and is
+ * credited to it; that is rare enough not to skew the figures.
+ *
+ * <p>Nothing is measured until {@link #track} names a player, and until then every hook costs one
+ * volatile read; once tracking, each takes a lock that only the simulation and render threads
+ * contend for. Recording allocates nothing.
+ */
+public final class InputLatency {
+
+    /** Inputs measured; each is a press that should change the samurai's state. */
+    public enum Input {
+        MOVE("move"),
+        JUMP("jump"),
+        DASH("dash"),
+        ATTACK("attack"),
+        SPECIAL("special"),
+        DEFEND("defend");
+
+        private final String label;
+
+        Input(String label) {
+            this.label = label;
+        }
+
+        public String label() {
+            return label;
+        }
+    }
+
+    /** How far a press has got; each is measured from the press itself. */
+    public enum Stage {
+        COMMAND("command"),
+        STATE("state"),
+        SUBMIT("submit"),
+        SWAP("swap");
+
+        private final String label;
+
+        Stage(String label) {
+            this.label = label;
+        }
+
+        public String label() {
+            return label;
+        }
+    }
+
+    private static final long MS = 1_000_000L;
+    private static final long TIMEOUT_MILLIS = 500L;
+    private static final Input[] INPUTS = Input.values();
+    private static final Stage[] STAGES = Stage.values();
+    private static final long NONE = Long.MIN_VALUE;
+
+    private static final Object LOCK = new Object();
+    private static volatile Object tracked;
+    private static final long[] pressed = new long[INPUTS.length];
+    /** The latest stage each in-flight press reached, or -1 while its command has not run. */
+    private static final int[] reached = new int[INPUTS.length];
+    private static final long[][] stamps = new long[INPUTS.length][STAGES.length];
+    private static final TimeHistogram[][] histograms = new TimeHistogram[INPUTS.length][STAGES.length];
+    private static final SessionMetrics.Histogram[][] exported = new SessionMetrics.Histogram[INPUTS.length][STAGES.length];
+    private static long dropped;
+
+    static {
+        for (int input = 0; input < INPUTS.length; input++) {
+            pressed[input] = NONE;
+            for (int stage = 0; stage < STAGES.length; stage++) {
+                histograms[input][stage] = new TimeHistogram();
+                exported[input][stage] = new SessionMetrics.Histogram(
+                        MS, 2 * MS, 4 * MS, 8 * MS, 16_700_000L, 25 * MS, 33_300_000L, 50 * MS, 67 * MS, 100 * MS, 150 * MS, 250 * MS);
+            }
+        }
+    }
+
+    private InputLatency() {
+    }
+
+    /**
+     * Measures the inputs of {@code player} from now on, or nothing when {@code null}; in-flight
+     * presses are dropped.
+     */
+    public static void track(Object player) {
+        synchronized (LOCK) {
+            tracked = player;
+            for (int input = 0; input < INPUTS.length; input++) {
+                pressed[input] = NONE;
+            }
+        }
+    }
+
+    /**
+     * A press of {@code input} was reported at {@code nanos}, on the {@link System#nanoTime()}
+     * clock. Ignored while an earlier press of the same input is in flight.
+     */
+    public static void pressed(Input input, long nanos) {
+        if (tracked == null) {
+            return;
+        }
+        synchronized (LOCK) {
+            if (pressed[input.ordinal()] == NONE) {
+                pressed[input.ordinal()] = nanos;
+                reached[input.ordinal()] = -1;
+            }
+        }
+    }
+
+    /**
+     * {@code player} executed the command for {@code input}; the simulation calls this on every
+     * tick the command runs, and re-simulated ticks are not counted twice.
+     */
+    public static void commandExecuted(Object player, Input input) {
+        if (tracked != player || player == null) {
+            return;
+        }
+        synchronized (LOCK) {
+            advance(input.ordinal(), Stage.COMMAND, System.nanoTime());
+        }
+    }
+
+    /**
+     * {@code player} switched state; completes {@link Stage#STATE} for every press whose command
+     * has run.
+     */
+    public static void stateSwitched(Object player) {
+        if (tracked != player || player == null) {
+            return;
+        }
+        synchronized (LOCK) {
+            long now = System.nanoTime();
+            for (int input = 0; input < INPUTS.length; input++) {
+                advance(input, Stage.STATE, now);
+            }
+        }
+    }
+
+    /**
+     * The render thread finished drawing a frame of the live world and is about to hand it to
+     * the swap chain.
+     */
+    public static void frameSubmitted() {
+        frameSubmitted(System.nanoTime());
+    }
+
+    /**
+     * The render thread finished drawing a frame of the world as it stood at
+     * {@code shownUpToNanos}, such as a snapshot the simulation thread published then. Only
+     * state changes made by that time count as shown.
+     */
+    public static void frameSubmitted(long shownUpToNanos) {
+        if (tracked == null) {
+            return;
+        }
+        synchronized (LOCK) {
+            long now = System.nanoTime();
+            for (int input = 0; input < INPUTS.length; input++) {
+                if (reached[input] == Stage.STATE.ordinal()
+                        && stamps[input][Stage.STATE.ordinal()] - shownUpToNanos <= 0L) {
+                    advance(input, Stage.SUBMIT, now);
+                }
+            }
+        }
+    }
+
+    /**
+     * A new frame started, so the one submitted before it has been swapped; records every press
+     * that reached the screen and drops the ones that timed out.
+     */
+    public static void frameSwapped() {
+        if (tracked == null) {
+            return;
+        }
+        synchronized (LOCK) {
+            long now = System.nanoTime();
+            for (int input = 0; input < INPUTS.length; input++) {
+                if (pressed[input] == NONE) {
+                    continue;
+                }
+                if (advance(input, Stage.SWAP, now)) {
+                    for (int stage = 0; stage < STAGES.length; stage++) {
+                        long latency = stamps[input][stage] - pressed[input];
+                        histograms[input][stage].record(latency);
+                        exported[input][stage].record(Math.max(0L, latency));
+                    }
+                    pressed[input] = NONE;
+                } else if (now - pressed[input] > TIMEOUT_MILLIS * MS) {
+                    pressed[input] = NONE;
+                    dropped++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Stamps {@code stage} if the press of {@code input} has just reached the stage before it.
+     */
+    private static boolean advance(int input, Stage stage, long now) {
+        if (pressed[input] == NONE || reached[input] != stage.ordinal() - 1) {
+            return false;
+        }
+        stamps[input][stage.ordinal()] = now;
+        reached[input] = stage.ordinal();
+        return true;
+    }
+
+    /**
+     * @return presses measured through to the swap for {@code input}
+     */
+    public static long count(Input input) {
+        synchronized (LOCK) {
+            return histograms[input.ordinal()][Stage.SWAP.ordinal()].count();
+        }
+    }
+
+    /**
+     * @return presses dropped because the game ignored them or they timed out
+     */
+    public static long dropped() {
+        synchronized (LOCK) {
+            return dropped;
+        }
+    }
+
+    /**
+     * @param percentile in {@code [0, 100]}
+     */
+    public static long percentileNanos(Input input, Stage stage, double percentile) {
+        synchronized (LOCK) {
+            return histograms[input.ordinal()][stage.ordinal()].percentileNanos(percentile);
+        }
+    }
+
+    /**
+     * The exported histogram; safe to read from any thread.
+     */
+    public static SessionMetrics.Histogram exported(Input input, Stage stage) {
+        return exported[input.ordinal()][stage.ordinal()];
+    }
+
+    /**
+     * One overlay line for {@code input}: median time to each stage and the 99th percentile to
+     * the swap, in milliseconds.
+     */
+    public static String summary(Input input) {
+        synchronized (LOCK) {
+            TimeHistogram[] stages = histograms[input.ordinal()];
+            TimeHistogram swap = stages[Stage.SWAP.ordinal()];
+            if (swap.count() == 0L) {
+                return String.format(Locale.US, "  %-8s no presses yet", input.label());
+            }
+            return String.format(Locale.US, "  %-8s n=%-5d cmd %5.1f state %5.1f swap %5.1f p99 %5.1f ms",
+                    input.label(), swap.count(),
+                    stages[Stage.COMMAND.ordinal()].percentileNanos(50) / 1e6,
+                    stages[Stage.STATE.ordinal()].percentileNanos(50) / 1e6,
+                    swap.percentileNanos(50) / 1e6, swap.percentileNanos(99) / 1e6);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package org.celestelike.game.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import org.celestelike.game.logging.GameLogger;
+
+/**
+ * Serves {@link SessionMetrics}, heap and GC statistics and the log queue depth at
+ * {@code http://127.0.0.1:<port>/metrics} in the Prometheus text format, for soak tests of
+ * long-running installs. It binds to the loopback address only and answers on one daemon thread,
+ * which reads the counters without ever blocking the game.
+ */
+public final class MetricsServer implements AutoCloseable {
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * @throws IOException if the port cannot be bound
+     */
+    public MetricsServer(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/metrics", this::handle);
+        server.start();
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = render().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    static String render() {
+        StringBuilder out = new StringBuilder(4096);
+        header(out, "celestelike_frames_total", "counter", "Frames rendered");
+        out.append("celestelike_frames_total ").append(SessionMetrics.frames()).append('\n');
+        histogram(out, "celestelike_frame_seconds", "Time between frames, including vsync waits",
+                SessionMetrics.FRAME_TIME);
+        histogram(out, "celestelike_update_seconds", "Time spent in simulation ticks per frame",
+                SessionMetrics.UPDATE_TIME);
+        inputLatency(out);
+        gauge(out, "celestelike_live_enemies", "Enemies alive in the active area", SessionMetrics.liveEnemies());
+        gauge(out, "celestelike_textures", "Managed textures loaded", SessionMetrics.textures());
+        gauge(out, "celestelike_log_queue_depth", "Log lines waiting to be written", GameLogger.pendingLines());
+
+        header(out, "celestelike_state_transitions_total", "counter", "State transitions by target and state entered");
+        for (Map.Entry<String, Map<String, LongAdder>> target : SessionMetrics.transitions().entrySet()) {
+            for (Map.Entry<String, LongAdder> state : target.getValue().entrySet()) {
+                out.append("celestelike_state_transitions_total{target=\"").append(escape(target.getKey()))
+                        .append("\",state=\"").append(escape(state.getKey())).append("\"} ")
+                        .append(state.getValue().sum()).append('\n');
+            }
+        }
+
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        gauge(out, "jvm_memory_heap_used_bytes", "Heap in use", heap.getUsed());
+        gauge(out, "jvm_memory_heap_committed_bytes", "Heap committed by the JVM", heap.getCommitted());
+        gauge(out, "jvm_memory_heap_max_bytes", "Largest heap the JVM may use, -1 if unbounded", heap.getMax());
+        header(out, "jvm_gc_collections_total", "counter", "Collections by collector");
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            out.append("jvm_gc_collections_total{gc=\"").append(escape(gc.getName())).append("\"} ")
+                    .append(Math.max(0L, gc.getCollectionCount())).append('\n');
+        }
+        header(out, "jvm_gc_collection_seconds_total", "counter", "Time spent collecting by collector");
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            out.append("jvm_gc_collection_seconds_total{gc=\"").append(escape(gc.getName())).append("\"} ")
+                    .append(seconds(Math.max(0L, gc.getCollectionTime()) * 1_000_000L)).append('\n');
+        }
+        return out.toString();
+    }
+
+    private static void histogram(StringBuilder out, String name, String help, SessionMetrics.Histogram histogram) {
+        header(out, name, "histogram", help);
+        series(out, name, "", histogram);
+    }
+
+    private static void inputLatency(StringBuilder out) {
+        String name = "celestelike_input_latency_seconds";
+        header(out, name, "histogram", "Time from a key press to each stage of showing its effect");
+        for (InputLatency.Input input : InputLatency.Input.values()) {
+            for (InputLatency.Stage stage : InputLatency.Stage.values()) {
+                series(out, name, "input=\"" + input.label() + "\",stage=\"" + stage.label() + "\"",
+                        InputLatency.exported(input, stage));
+            }
+        }
+    }
+
+    /**
+     * @param labels {@code name="value"} pairs shared by every line, or empty
+     */
+    private static void series(StringBuilder out, String name, String labels, SessionMetrics.Histogram histogram) {
+        String bucketLabels = labels.isEmpty() ? "" : labels + ",";
+        String seriesLabels = labels.isEmpty() ? "" : "{" + labels + "}";
+        long cumulative = 0L;
+        for (int i = 0; i < histogram.boundCount(); i++) {
+            cumulative += histogram.bucketCount(i);
+            out.append(name).append("_bucket{").append(bucketLabels).append("le=\"")
+                    .append(seconds(histogram.boundNanos(i))).append("\"} ").append(cumulative).append('\n');
+        }
+        cumulative += histogram.bucketCount(histogram.boundCount());
+        out.append(name).append("_bucket{").append(bucketLabels).append("le=\"+Inf\"} ").append(cumulative).append('\n');
+        out.append(name).append("_sum").append(seriesLabels).append(' ').append(seconds(histogram.sumNanos())).append('\n');
+        out.append(name).append("_count").append(seriesLabels).append(' ').append(cumulative).append('\n');
+    }
+
+    private static void gauge(StringBuilder out, String name, String help, long value) {
+        header(out, name, "gauge", help);
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static String seconds(long nanos) {
+        return BigDecimal.valueOf(nanos, 9).stripTrailingZeros().toPlainString();
+    }
+
+    private static String escape(String label) {
+        return label.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,134 @@
+package org.celestelike.game.metrics;
+
+import com.badlogic.gdx.graphics.profiling.GLProfiler;
+import java.util.Arrays;
+import org.celestelike.game.metrics.FrameProfiler.Phase;
+
+/**
+ * Render counters per {@link Phase}: GL draw calls, texture binds and shader switches from a
+ * {@link GLProfiler}, and sprite batch flushes and flushing texture switches from a
+ * {@link CountingSpriteBatch}. Phases are bracketed like in {@link FrameProfiler}; the counters
+ * of the last frame are kept per phase, and totals over all frames for averages.
+ *
+ * <p>The GL counters stay at zero while the profiler is disabled: it checks {@code glGetError}
+ * after every call, which is worth paying only while someone looks at the numbers.
+ *
+ * <p>Not thread-safe; the render thread owns it.
+ */
+public final class RenderStats {
+
+    public enum Counter {
+        DRAW_CALLS("draw calls"),
+        TEXTURE_BINDS("texture binds"),
+        SHADER_SWITCHES("shader switches"),
+        BATCH_FLUSHES("batch flushes"),
+        TEXTURE_SWITCHES("texture switches");
+
+        private final String label;
+
+        Counter(String label) {
+            this.label = label;
+        }
+
+        public String label() {
+            return label;
+        }
+    }
+
+    private static final Counter[] COUNTERS = Counter.values();
+    private static final int PHASES = Phase.values().length;
+
+    private final GLProfiler gl;
+    private final CountingSpriteBatch batch;
+    private final int[][] phaseCounts = new int[COUNTERS.length][PHASES];
+    private final int[][] phaseStarts = new int[COUNTERS.length][PHASES];
+    private final int[] frameCounts = new int[COUNTERS.length];
+    private final long[] totals = new long[COUNTERS.length];
+    private long frames;
+
+    /**
+     * @param gl counts GL calls, or {@code null} to count only what the batch sees
+     */
+    public RenderStats(GLProfiler gl, CountingSpriteBatch batch) {
+        this.gl = gl;
+        this.batch = batch;
+    }
+
+    public void beginFrame() {
+        for (int[] counts : phaseCounts) {
+            Arrays.fill(counts, 0);
+        }
+        if (gl != null) {
+            gl.reset();
+        }
+    }
+
+    public void begin(Phase phase) {
+        int index = phase.ordinal();
+        for (Counter counter : COUNTERS) {
+            phaseStarts[counter.ordinal()][index] = read(counter);
+        }
+    }
+
+    /**
+     * Adds what was counted since the matching {@link #begin}, so a phase may run more than once
+     * per frame.
+     */
+    public void end(Phase phase) {
+        int index = phase.ordinal();
+        for (Counter counter : COUNTERS) {
+            phaseCounts[counter.ordinal()][index] += read(counter) - phaseStarts[counter.ordinal()][index];
+        }
+    }
+
+    public void endFrame() {
+        for (Counter counter : COUNTERS) {
+            int sum = 0;
+            for (int count : phaseCounts[counter.ordinal()]) {
+                sum += count;
+            }
+            frameCounts[counter.ordinal()] = sum;
+            totals[counter.ordinal()] += sum;
+        }
+        frames++;
+    }
+
+    /**
+     * @return the count of the last completed frame within {@code phase}
+     */
+    public int count(Counter counter, Phase phase) {
+        return phaseCounts[counter.ordinal()][phase.ordinal()];
+    }
+
+    /**
+     * @return the count of the last completed frame over all phases
+     */
+    public int frameCount(Counter counter) {
+        return frameCounts[counter.ordinal()];
+    }
+
+    public double averagePerFrame(Counter counter) {
+        return frames == 0L ? 0.0 : (double) totals[counter.ordinal()] / frames;
+    }
+
+    public long frames() {
+        return frames;
+    }
+
+    /**
+     * @return the most sprites the batch has drawn in one flush
+     */
+    public int maxSpritesInBatch() {
+        return batch.maxSpritesInBatch;
+    }
+
+    private int read(Counter counter) {
+        return switch (counter) {
+            case DRAW_CALLS -> gl == null ? 0 : gl.getDrawCalls();
+            case TEXTURE_BINDS -> gl == null ? 0 : gl.getTextureBindings();
+            case SHADER_SWITCHES -> gl == null ? 0 : gl.getShaderSwitches();
+            case BATCH_FLUSHES -> batch.totalRenderCalls;
+            case TEXTURE_SWITCHES -> batch.textureSwitches();
+        };
+    }
+}
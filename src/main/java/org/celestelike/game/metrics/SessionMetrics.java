@@ -0,0 +1,124 @@
+package org.celestelike.game.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide counters for long-running sessions, read by {@link MetricsServer}. The game writes
+ * them from the render thread while the server reads them from its own; every value is a
+ * {@link LongAdder} or a volatile gauge, so neither side ever waits for the other.
+ *
+ * <p>Recording allocates nothing once a state has been seen.
+ */
+public final class SessionMetrics {
+
+    /**
+     * Cumulative histogram with fixed bucket bounds, as Prometheus expects: a value lands in the
+     * first bucket whose bound is not below it, or in the overflow bucket.
+     */
+    public static final class Histogram {
+
+        private final long[] boundsNanos;
+        private final LongAdder[] buckets;
+        private final LongAdder sumNanos = new LongAdder();
+
+        Histogram(long... boundsNanos) {
+            this.boundsNanos = boundsNanos.clone();
+            buckets = new LongAdder[boundsNanos.length + 1];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        public void record(long nanos) {
+            int index = 0;
+            while (index < boundsNanos.length && nanos > boundsNanos[index]) {
+                index++;
+            }
+            buckets[index].increment();
+            sumNanos.add(nanos);
+        }
+
+        public int boundCount() {
+            return boundsNanos.length;
+        }
+
+        public long boundNanos(int index) {
+            return boundsNanos[index];
+        }
+
+        /**
+         * @param index up to {@link #boundCount()}, which is the overflow bucket
+         */
+        public long bucketCount(int index) {
+            return buckets[index].sum();
+        }
+
+        public long sumNanos() {
+            return sumNanos.sum();
+        }
+    }
+
+    private static final long MS = 1_000_000L;
+
+    /** Time between frames, including buffer swaps and vsync waits. */
+    public static final Histogram FRAME_TIME = new Histogram(
+            4 * MS, 8 * MS, 12 * MS, 16_700_000L, 20 * MS, 25 * MS, 33_300_000L, 50 * MS, 100 * MS, 250 * MS);
+    /** Time spent running simulation ticks in a frame. */
+    public static final Histogram UPDATE_TIME = new Histogram(
+            250_000L, 500_000L, MS, 2 * MS, 4 * MS, 8 * MS, 16 * MS, 33 * MS, 100 * MS);
+
+    private static final LongAdder FRAMES = new LongAdder();
+    private static final Map<String, Map<String, LongAdder>> TRANSITIONS = new ConcurrentHashMap<>();
+    private static volatile int liveEnemies;
+    private static volatile int textures;
+
+    private SessionMetrics() {
+    }
+
+    /**
+     * Records one rendered frame; called by the render thread.
+     */
+    public static void frame(long frameNanos, long updateNanos, int liveEnemyCount, int textureCount) {
+        FRAMES.increment();
+        FRAME_TIME.record(frameNanos);
+        UPDATE_TIME.record(updateNanos);
+        liveEnemies = liveEnemyCount;
+        textures = textureCount;
+    }
+
+    /**
+     * @param target what changed state, e.g. {@code "Game"} or {@code "Samurai"}
+     */
+    public static void stateTransition(String target, String to) {
+        Map<String, LongAdder> states = TRANSITIONS.get(target);
+        if (states == null) {
+            states = TRANSITIONS.computeIfAbsent(target, key -> new ConcurrentHashMap<>());
+        }
+        LongAdder count = states.get(to);
+        if (count == null) {
+            count = states.computeIfAbsent(to, key -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    public static long frames() {
+        return FRAMES.sum();
+    }
+
+    public static int liveEnemies() {
+        return liveEnemies;
+    }
+
+    public static int textures() {
+        return textures;
+    }
+
+    /**
+     * @return transitions counted so far, by target and then by the state entered; live views
+     */
+    public static Map<String, Map<String, LongAdder>> transitions() {
+        return TRANSITIONS;
+    }
+}
@@ -0,0 +1,187 @@
+package org.celestelike.game.metrics;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import org.celestelike.game.world.AtomicFileWriter;
+
+/**
+ * Log-linear histogram of durations in nanoseconds: every power of two is split into
+ * {@value #SUB_BUCKETS} buckets, so any recorded value is reported within about 6% while the
+ * whole range from 1 ns to minutes fits in a few hundred counters. Recording is allocation-free
+ * and cheap enough to run every tick.
+ *
+ * <p>Not thread-safe; give each thread its own histogram and {@link #add} them.
+ */
+public final class TimeHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40; // ~18 minutes
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    public void record(long nanos) {
+        long value = Math.max(0L, nanos);
+        counts[bucketIndex(value)]++;
+        count++;
+        sum += value;
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    public void add(TimeHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0L);
+        count = 0L;
+        sum = 0L;
+        min = Long.MAX_VALUE;
+        max = 0L;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public long maxNanos() {
+        return max;
+    }
+
+    public long minNanos() {
+        return count == 0L ? 0L : min;
+    }
+
+    public double meanNanos() {
+        return count == 0L ? 0.0 : sum / (double) count;
+    }
+
+    /**
+     * @param percentile in {@code [0, 100]}
+     * @return upper bound of the bucket holding that percentile, capped at the observed maximum
+     */
+    public long percentileNanos(double percentile) {
+        if (count == 0L) {
+            return 0L;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(max, bucketUpperBound(i));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * One line of the usual percentiles in microseconds.
+     */
+    public String summary() {
+        return String.format(Locale.US, "n=%d mean=%.1fus p50=%.1fus p90=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus",
+                count, meanNanos() / 1e3,
+                percentileNanos(50) / 1e3, percentileNanos(90) / 1e3, percentileNanos(99) / 1e3,
+                percentileNanos(99.9) / 1e3, max / 1e3);
+    }
+
+    // -------------------------------------------------------------------------
+    // Persistence: "upper_ns,count" lines for non-empty buckets, plus a header with the exact stats.
+    // -------------------------------------------------------------------------
+
+    public void save(Path target) throws IOException {
+        AtomicFileWriter.write(target, this::write);
+    }
+
+    public void write(Writer writer) throws IOException {
+        writer.write("# count=" + count + " sum=" + sum + " min=" + minNanos() + " max=" + max + "\n");
+        writer.write("upper_ns,count\n");
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts[i] != 0L) {
+                writer.write(bucketUpperBound(i) + "," + counts[i] + "\n");
+            }
+        }
+    }
+
+    public static TimeHistogram load(Path source) throws IOException {
+        TimeHistogram histogram = new TimeHistogram();
+        try (BufferedReader reader = Files.newBufferedReader(source, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("#")) {
+                    for (String field : line.substring(1).trim().split(" ")) {
+                        int equals = field.indexOf('=');
+                        if (equals < 0) {
+                            continue;
+                        }
+                        long value = Long.parseLong(field.substring(equals + 1));
+                        switch (field.substring(0, equals)) {
+                            case "count" -> histogram.count = value;
+                            case "sum" -> histogram.sum = value;
+                            case "min" -> histogram.min = value;
+                            case "max" -> histogram.max = value;
+                            default -> {
+                            }
+                        }
+                    }
+                    continue;
+                }
+                int comma = line.indexOf(',');
+                if (comma < 0 || !Character.isDigit(line.charAt(0))) {
+                    continue;
+                }
+                long upper = Long.parseLong(line.substring(0, comma));
+                histogram.counts[bucketIndex(upper)] += Long.parseLong(line.substring(comma + 1).trim());
+            }
+        }
+        return histogram;
+    }
+
+    // -------------------------------------------------------------------------
+    // Bucketing
+    // -------------------------------------------------------------------------
+
+    private static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int sub = index % SUB_BUCKETS;
+        long lower = (1L << exponent) + ((long) sub << (exponent - SUB_BUCKET_BITS));
+        return lower + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
@@ -0,0 +1,202 @@
+package org.celestelike.game.metrics;
+
+import com.badlogic.gdx.utils.JsonWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import org.celestelike.game.logging.GameLogger;
+import org.celestelike.game.world.AtomicFileWriter;
+
+/**
+ * Optional session timeline: begin/end spans and instant events with nanosecond timestamps, kept
+ * in memory and exported in the Chrome trace-event format, which {@code chrome://tracing} and
+ * Perfetto open as a per-thread timeline.
+ *
+ * <p>Nothing is kept until {@link #start} is called, and while stopped every call costs one
+ * volatile read. Launching with {@code -Dcelestelike.trace=<file>} starts recording at once and
+ * writes the file when the JVM exits.
+ *
+ * <p>Events go into a fixed ring of {@value #DEFAULT_CAPACITY} slots by default, so a long
+ * session keeps its latest part; a span whose begin was overwritten shows up as an unmatched end,
+ * which the viewers ignore. Recording allocates nothing, but callers that build a detail string
+ * should do it only when {@link #isRecording()}. Safe to call from any thread.
+ */
+public final class Tracer {
+
+    /** Slots kept, about three minutes of frames with every render phase traced. */
+    public static final int DEFAULT_CAPACITY = 1 << 18;
+
+    private static final String OUTPUT_PROPERTY = "celestelike.trace";
+    private static final char BEGIN = 'B';
+    private static final char END = 'E';
+    private static final char INSTANT = 'i';
+
+    private static final Object LOCK = new Object();
+    private static volatile boolean recording;
+    private static long origin;
+    private static long[] timestamps;
+    private static char[] phases;
+    private static String[] categories;
+    private static String[] names;
+    private static String[] details;
+    private static Thread[] threads;
+    private static long written;
+
+    static {
+        String output = System.getProperty(OUTPUT_PROPERTY);
+        if (output != null && !output.isBlank()) {
+            start(DEFAULT_CAPACITY);
+            // Loaded now: a class first loaded during shutdown cannot register its own hook.
+            GameLogger log = GameLogger.shared();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                Path target = Path.of(output);
+                try {
+                    save(target);
+                    log.info("Saved trace to " + target);
+                } catch (IOException exception) {
+                    log.info("Failed to save trace to " + target + ": " + exception);
+                }
+            }, "trace-export"));
+        }
+    }
+
+    private Tracer() {
+    }
+
+    public static boolean isRecording() {
+        return recording;
+    }
+
+    /**
+     * Clears the buffer and starts recording; timestamps count from now.
+     */
+    public static void start(int capacity) {
+        synchronized (LOCK) {
+            if (timestamps == null || timestamps.length != capacity) {
+                timestamps = new long[capacity];
+                phases = new char[capacity];
+                categories = new String[capacity];
+                names = new String[capacity];
+                details = new String[capacity];
+                threads = new Thread[capacity];
+            }
+            written = 0L;
+            origin = System.nanoTime();
+            recording = true;
+        }
+    }
+
+    /**
+     * Stops recording; what was kept can still be exported.
+     */
+    public static void stop() {
+        recording = false;
+    }
+
+    public static void begin(String category, String name) {
+        if (recording) {
+            record(BEGIN, category, name, null);
+        }
+    }
+
+    /**
+     * Closes the innermost open span of the calling thread; {@code name} only labels the end.
+     */
+    public static void end(String category, String name) {
+        if (recording) {
+            record(END, category, name, null);
+        }
+    }
+
+    /**
+     * @param detail shown as the event's argument, or {@code null}
+     */
+    public static void instant(String category, String name, String detail) {
+        if (recording) {
+            record(INSTANT, category, name, detail);
+        }
+    }
+
+    private static void record(char phase, String category, String name, String detail) {
+        long now = System.nanoTime();
+        Thread thread = Thread.currentThread();
+        synchronized (LOCK) {
+            if (!recording) {
+                return;
+            }
+            int slot = (int) (written % timestamps.length);
+            timestamps[slot] = now - origin;
+            phases[slot] = phase;
+            categories[slot] = category;
+            names[slot] = name;
+            details[slot] = detail;
+            threads[slot] = thread;
+            written++;
+        }
+    }
+
+    /**
+     * @return events kept, at most the capacity
+     */
+    public static int eventCount() {
+        synchronized (LOCK) {
+            return timestamps == null ? 0 : (int) Math.min(written, timestamps.length);
+        }
+    }
+
+    public static void save(Path target) throws IOException {
+        AtomicFileWriter.write(target, Tracer::write);
+    }
+
+    /**
+     * Writes the kept events oldest first as a Chrome trace-event JSON object, with timestamps in
+     * microseconds to three decimals and one named track per thread.
+     */
+    public static void write(Writer writer) throws IOException {
+        synchronized (LOCK) {
+            JsonWriter json = new JsonWriter(writer);
+            json.setOutputType(JsonWriter.OutputType.json);
+            json.object();
+            json.name("displayTimeUnit").value("ns");
+            json.name("traceEvents");
+            json.array();
+            Map<Long, String> threadNames = new HashMap<>();
+            int count = timestamps == null ? 0 : (int) Math.min(written, timestamps.length);
+            long first = written - count;
+            for (long i = first; i < written; i++) {
+                int slot = (int) (i % timestamps.length);
+                long tid = threads[slot].threadId();
+                threadNames.putIfAbsent(tid, threads[slot].getName());
+                json.object();
+                json.name("name").value(names[slot]);
+                json.name("cat").value(categories[slot]);
+                json.name("ph").value(String.valueOf(phases[slot]));
+                json.name("ts").value(BigDecimal.valueOf(timestamps[slot], 3));
+                json.name("pid").value(1);
+                json.name("tid").value(tid);
+                if (phases[slot] == INSTANT) {
+                    json.name("s").value("t");
+                }
+                if (details[slot] != null) {
+                    json.name("args").object().name("detail").value(details[slot]).pop();
+                }
+                json.pop();
+            }
+            for (Map.Entry<Long, String> thread : threadNames.entrySet()) {
+                json.object();
+                json.name("name").value("thread_name");
+                json.name("ph").value("M");
+                json.name("pid").value(1);
+                json.name("tid").value(thread.getKey());
+                json.name("args").object().name("name").value(thread.getValue()).pop();
+                json.pop();
+            }
+            json.pop();
+            json.pop();
+            json.flush();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.celestelike.game.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Damage dealt to a samurai or an enemy.
+ */
+@Name("celestelike.Damage")
+@Label("Damage")
+@Category({"Celeste-like", "Gameplay"})
+@Description("Damage dealt to a samurai or an enemy")
+@StackTrace(false)
+public final class DamageEvent extends Event {
+
+    @Label("Target")
+    @Description("\"Samurai\" or the enemy id")
+    public String target;
+
+    @Label("Amount")
+    @Description("Damage after defence")
+    public int amount;
+
+    @Label("Remaining Health")
+    public int remainingHealth;
+
+    @Label("Lethal")
+    public boolean lethal;
+
+    /**
+     * Records a hit if a recording wants it; otherwise costs a flag check.
+     */
+    public static void emit(String target, int amount, int remainingHealth) {
+        DamageEvent event = new DamageEvent();
+        if (event.shouldCommit()) {
+            event.target = target;
+            event.amount = amount;
+            event.remainingHealth = remainingHealth;
+            event.lethal = remainingHealth <= 0;
+            event.commit();
+        }
+    }
+}
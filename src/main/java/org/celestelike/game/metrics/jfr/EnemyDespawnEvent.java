@@ -0,0 +1,43 @@
+package org.celestelike.game.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The enemies of a chunk leaving the world because the chunk left the active area.
+ */
+@Name("celestelike.EnemyDespawn")
+@Label("Enemy Despawn")
+@Category({"Celeste-like", "Gameplay"})
+@Description("The enemies of a chunk leaving the active area")
+@StackTrace(false)
+public final class EnemyDespawnEvent extends Event {
+
+    @Label("Chunk")
+    public long chunk;
+
+    @Label("Alive")
+    @Description("Enemies still alive, which come back when the chunk does")
+    public int alive;
+
+    @Label("Defeated")
+    @Description("Spawns newly remembered as defeated")
+    public int defeated;
+
+    /**
+     * Records a despawn if a recording wants it; otherwise costs a flag check.
+     */
+    public static void emit(long chunk, int alive, int defeated) {
+        EnemyDespawnEvent event = new EnemyDespawnEvent();
+        if (event.shouldCommit()) {
+            event.chunk = chunk;
+            event.alive = alive;
+            event.defeated = defeated;
+            event.commit();
+        }
+    }
+}
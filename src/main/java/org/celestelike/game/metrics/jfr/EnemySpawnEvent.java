@@ -0,0 +1,46 @@
+package org.celestelike.game.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * An enemy entering the world, with its chunk when it belongs to one.
+ */
+@Name("celestelike.EnemySpawn")
+@Label("Enemy Spawn")
+@Category({"Celeste-like", "Gameplay"})
+@Description("An enemy entering the world")
+@StackTrace(false)
+public final class EnemySpawnEvent extends Event {
+
+    @Label("Enemy")
+    public String enemy;
+
+    @Label("X")
+    public float x;
+
+    @Label("Y")
+    public float y;
+
+    @Label("Chunk")
+    @Description("Key of the chunk the enemy belongs to, or -1 for one placed directly")
+    public long chunk;
+
+    /**
+     * Records a spawn if a recording wants it; otherwise costs a flag check.
+     */
+    public static void emit(String enemy, float x, float y, long chunk) {
+        EnemySpawnEvent event = new EnemySpawnEvent();
+        if (event.shouldCommit()) {
+            event.enemy = enemy;
+            event.x = x;
+            event.y = y;
+            event.chunk = chunk;
+            event.commit();
+        }
+    }
+}
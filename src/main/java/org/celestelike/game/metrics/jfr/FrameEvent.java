@@ -0,0 +1,23 @@
+package org.celestelike.game.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One rendered frame, from the start of {@code CelesteGame.render} to the end of its drawing.
+ */
+@Name("celestelike.Frame")
+@Label("Frame")
+@Category({"Celeste-like", "Frame"})
+@Description("One rendered frame, input to last draw call")
+@StackTrace(false)
+public final class FrameEvent extends Event {
+
+    @Label("Frame")
+    @Description("Frames rendered before this one")
+    public long frame;
+}
@@ -0,0 +1,26 @@
+package org.celestelike.game.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One phase of a rendered frame, as timed by {@link org.celestelike.game.metrics.FrameProfiler}.
+ */
+@Name("celestelike.FramePhase")
+@Label("Frame Phase")
+@Category({"Celeste-like", "Frame"})
+@Description("One phase of a rendered frame: input, update, a draw pass or an overlay")
+@StackTrace(false)
+public final class FramePhaseEvent extends Event {
+
+    @Label("Phase")
+    public String phase;
+
+    @Label("Frame")
+    @Description("Frames rendered before this one")
+    public long frame;
+}
@@ -0,0 +1,29 @@
+package org.celestelike.game.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One stage of loading a level or its assets. Loads are rare, so the stack trace is kept to show
+ * who asked for the load.
+ */
+@Name("celestelike.LoadStage")
+@Label("Load Stage")
+@Category({"Celeste-like", "Loading"})
+@Description("Reading a blueprint, collision masks, a tileset or sprite sheets")
+public final class LoadStageEvent extends Event {
+
+    @Label("Stage")
+    public String stage;
+
+    @Label("Source")
+    @Description("File or directory the stage reads")
+    public String source;
+
+    @Label("Items")
+    @Description("Cells, tiles or animations loaded")
+    public int items;
+}
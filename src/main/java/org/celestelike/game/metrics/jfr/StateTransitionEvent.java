@@ -0,0 +1,41 @@
+package org.celestelike.game.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A samurai or the game screen switching state.
+ */
+@Name("celestelike.StateTransition")
+@Label("State Transition")
+@Category({"Celeste-like", "Gameplay"})
+@Description("A samurai or the game screen switching state")
+@StackTrace(false)
+public final class StateTransitionEvent extends Event {
+
+    @Label("Target")
+    public String target;
+
+    @Label("From")
+    public String from;
+
+    @Label("To")
+    public String to;
+
+    /**
+     * Records a transition if a recording wants it; otherwise costs a flag check.
+     */
+    public static void emit(String target, String from, String to) {
+        StateTransitionEvent event = new StateTransitionEvent();
+        if (event.shouldCommit()) {
+            event.target = target;
+            event.from = from;
+            event.to = to;
+            event.commit();
+        }
+    }
+}
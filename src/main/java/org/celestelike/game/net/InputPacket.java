@@ -0,0 +1,73 @@
+package org.celestelike.game.net;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Wire format of {@link RollbackSession}: every packet carries the sender's frame, how far it has
+ * confirmed the receiver's inputs, its frame advantage for time sync, and a run of its own
+ * inputs starting at the oldest one the receiver has not acknowledged. Little-endian; one
+ * instance is reused for every packet.
+ */
+final class InputPacket {
+
+    static final int MAX_INPUTS = 32;
+    static final int MAX_BYTES = 20 + MAX_INPUTS * Short.BYTES;
+
+    private static final byte MAGIC = 0x52; // 'R'
+    private static final byte VERSION = 1;
+
+    int tag;
+    int frame;
+    int ack;
+    int advantage;
+    int start;
+    int count;
+    final short[] inputs = new short[MAX_INPUTS];
+
+    void write(ByteBuffer out) {
+        out.clear();
+        out.put(MAGIC);
+        out.put(VERSION);
+        out.putInt(tag);
+        out.putInt(frame);
+        out.putInt(ack);
+        out.put((byte) Math.max(Byte.MIN_VALUE, Math.min(Byte.MAX_VALUE, advantage)));
+        out.putInt(start);
+        out.put((byte) count);
+        for (int i = 0; i < count; i++) {
+            out.putShort(inputs[i]);
+        }
+        out.flip();
+    }
+
+    /**
+     * @return {@code false} for anything that is not a packet of this session; the fields are
+     * then undefined
+     */
+    boolean read(ByteBuffer in, int expectedTag) {
+        try {
+            if (in.get() != MAGIC || in.get() != VERSION) {
+                return false;
+            }
+            tag = in.getInt();
+            if (tag != expectedTag) {
+                return false;
+            }
+            frame = in.getInt();
+            ack = in.getInt();
+            advantage = in.get();
+            start = in.getInt();
+            count = in.get();
+            if (count < 0 || count > MAX_INPUTS) {
+                return false;
+            }
+            for (int i = 0; i < count; i++) {
+                inputs[i] = in.getShort();
+            }
+            return true;
+        } catch (BufferUnderflowException truncated) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.celestelike.game.net;
+
+import java.nio.ByteBuffer;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process stand-in for {@link UdpTransport}: one end of a link whose datagrams arrive after a
+ * configurable latency (plus jitter, which reorders them) and are dropped at a configurable rate.
+ * Time comes from a caller-supplied nanosecond clock, so a benchmark can run a link on simulated
+ * time and get the same losses on every run. Both ends must be used from one thread.
+ */
+public final class LoopbackTransport implements Transport {
+
+    private record InFlight(byte[] data, long deliverAt, long sequence) implements Comparable<InFlight> {
+        @Override
+        public int compareTo(InFlight other) {
+            int byTime = Long.compare(deliverAt, other.deliverAt);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private final PriorityQueue<InFlight> inbox = new PriorityQueue<>();
+    private final SplittableRandom random;
+    private final LongSupplier clock;
+    private final long latencyNanos;
+    private final long jitterNanos;
+    private final float lossRate;
+    private LoopbackTransport peer;
+    private long sent;
+    private long dropped;
+
+    private LoopbackTransport(long seed, LongSupplier clock, int latencyMillis, int jitterMillis, float lossRate) {
+        this.random = new SplittableRandom(seed);
+        this.clock = clock;
+        this.latencyNanos = latencyMillis * 1_000_000L;
+        this.jitterNanos = jitterMillis * 1_000_000L;
+        this.lossRate = lossRate;
+    }
+
+    /**
+     * Creates both ends of a link with the same one-way latency and loss in each direction.
+     *
+     * @param latencyMillis one-way delay
+     * @param jitterMillis  extra random delay of up to this much per datagram
+     * @param lossRate      fraction of datagrams dropped, 0 to 1
+     * @param seed          seeds which datagrams are dropped and delayed
+     * @param nanoClock     current time in nanoseconds, e.g. {@code System::nanoTime}
+     */
+    public static LoopbackTransport[] pair(
+            int latencyMillis, int jitterMillis, float lossRate, long seed, LongSupplier nanoClock) {
+        LoopbackTransport a = new LoopbackTransport(seed, nanoClock, latencyMillis, jitterMillis, lossRate);
+        LoopbackTransport b = new LoopbackTransport(seed ^ 0x9E3779B97F4A7C15L, nanoClock, latencyMillis, jitterMillis, lossRate);
+        a.peer = b;
+        b.peer = a;
+        return new LoopbackTransport[] {a, b};
+    }
+
+    @Override
+    public void send(ByteBuffer packet) {
+        sent++;
+        if (peer == null || random.nextFloat() < lossRate) {
+            dropped++;
+            packet.position(packet.limit());
+            return;
+        }
+        byte[] data = new byte[packet.remaining()];
+        packet.get(data);
+        long jitter = jitterNanos > 0 ? random.nextLong(jitterNanos + 1) : 0L;
+        peer.inbox.add(new InFlight(data, clock.getAsLong() + latencyNanos + jitter, sent));
+    }
+
+    @Override
+    public boolean receive(ByteBuffer target) {
+        InFlight next = inbox.peek();
+        if (next == null || next.deliverAt() > clock.getAsLong()) {
+            return false;
+        }
+        inbox.poll();
+        target.clear();
+        target.put(next.data());
+        target.flip();
+        return true;
+    }
+
+    public long sentPackets() {
+        return sent;
+    }
+
+    public long droppedPackets() {
+        return dropped;
+    }
+
+    @Override
+    public void close() {
+        inbox.clear();
+        if (peer != null) {
+            peer.peer = null;
+            peer = null;
+        }
+    }
+}
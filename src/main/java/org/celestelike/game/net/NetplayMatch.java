@@ -0,0 +1,200 @@
+package org.celestelike.game.net;
+
+import com.badlogic.gdx.Gdx;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.function.IntSupplier;
+import org.celestelike.game.GameSimulation;
+import org.celestelike.game.config.GameConfig;
+import org.celestelike.game.config.GameConfig.NetplayConfig;
+import org.celestelike.game.entity.samurai.input.SamuraiInputFrame;
+import org.celestelike.game.replay.InputRecording;
+import org.celestelike.game.replay.InputReplayer;
+
+/**
+ * The game's side of a co-op match: the transport from {@link NetplayConfig}, a fresh
+ * {@link RollbackSession} per run and, in loopback mode, the partner instance on the other end
+ * of the simulated link. The partner runs its own copy of the simulation and plays back a
+ * recorded run, or stands still when there is none, so the netcode can be tried alone.
+ */
+public final class NetplayMatch implements AutoCloseable {
+
+    private static final String TAG = "NetplayMatch";
+    private static final long LOOPBACK_SEED = 0x5eedL;
+
+    private final GameSimulation simulation;
+    private final NetplayConfig config;
+    private final Transport transport;
+    private final GameSimulation partner;
+    private final Transport partnerTransport;
+    private final InputRecording partnerInputs;
+    private InputReplayer partnerReplayer;
+    private RollbackSession session;
+    private RollbackSession partnerSession;
+    private int runId;
+
+    private NetplayMatch(
+            GameSimulation simulation,
+            NetplayConfig config,
+            Transport transport,
+            GameSimulation partner,
+            Transport partnerTransport,
+            InputRecording partnerInputs) {
+        this.simulation = simulation;
+        this.config = config;
+        this.transport = transport;
+        this.partner = partner;
+        this.partnerTransport = partnerTransport;
+        this.partnerInputs = partnerInputs;
+    }
+
+    /**
+     * Opens the configured link for a two-player {@code simulation}.
+     *
+     * @param partnerReplay recording the loopback partner plays back; ignored over UDP
+     * @throws IOException if the UDP socket cannot be bound
+     */
+    public static NetplayMatch open(GameConfig gameConfig, GameSimulation simulation, Path partnerReplay)
+            throws IOException {
+        NetplayConfig config = gameConfig.netplay();
+        switch (config.mode()) {
+            case UDP -> {
+                Transport transport = new UdpTransport(config.localPort(),
+                        new InetSocketAddress(config.remoteHost(), config.remotePort()));
+                log("Listening on port " + config.localPort() + " for " + config.remoteHost() + ":" + config.remotePort());
+                return new NetplayMatch(simulation, config, transport, null, null, null);
+            }
+            case LOOPBACK -> {
+                LoopbackTransport[] link = LoopbackTransport.pair(config.latencyMs(), config.jitterMs(),
+                        config.lossPercent() / 100f, LOOPBACK_SEED, System::nanoTime);
+                GameSimulation partner = new GameSimulation(gameConfig, 2);
+                InputRecording inputs = loadPartnerInputs(partnerReplay);
+                log(String.format(Locale.US, "Loopback partner on a %dms (+%dms jitter, %.1f%% loss) link, %s",
+                        config.latencyMs(), config.jitterMs(), config.lossPercent(),
+                        inputs == null ? "standing still" : "replaying " + partnerReplay));
+                return new NetplayMatch(simulation, config, link[0], partner, link[1], inputs);
+            }
+            default -> throw new IllegalStateException("Netplay is off");
+        }
+    }
+
+    /**
+     * Starts the next run on both ends. The remote instance must start its run too, which the
+     * run counter keeps in step: packets of an earlier run are ignored.
+     */
+    public void startRun() {
+        runId++;
+        simulation.startRun();
+        session = new RollbackSession(simulation, transport, config.localPlayer(), config.inputDelay(), runId);
+        if (partner != null) {
+            partner.startRun();
+            partnerSession = new RollbackSession(partner, partnerTransport, 1 - config.localPlayer(),
+                    config.inputDelay(), runId);
+            partnerReplayer = partnerInputs == null ? null : partnerInputs.replayer();
+        }
+    }
+
+    /**
+     * Runs one tick of the match: if the session is ready the local input is consumed and a frame
+     * simulated, otherwise the tick is skipped to let the peer catch up.
+     *
+     * @param localInput supplies this tick's input only when a frame is simulated
+     * @return whether a frame was simulated
+     */
+    public boolean tick(IntSupplier localInput) {
+        boolean advanced = false;
+        if (session.ready()) {
+            session.advance(localInput.getAsInt());
+            advanced = true;
+        }
+        tickPartner();
+        return advanced;
+    }
+
+    /**
+     * Keeps packets flowing while the local game is paused or on an end screen.
+     */
+    public void poll() {
+        if (session != null) {
+            session.poll();
+        }
+        if (partnerSession != null) {
+            partnerSession.poll();
+        }
+    }
+
+    public RollbackSession session() {
+        return session;
+    }
+
+    public int localPlayer() {
+        return config.localPlayer();
+    }
+
+    public boolean isRunOver() {
+        return session != null && session.isConfirmedRunOver();
+    }
+
+    public boolean isCleared() {
+        return session != null && session.isConfirmedCleared();
+    }
+
+    @Override
+    public void close() {
+        closeQuietly(transport);
+        if (partner != null) {
+            closeQuietly(partnerTransport);
+            partner.dispose();
+        }
+    }
+
+    private void tickPartner() {
+        if (partnerSession == null || !partnerSession.ready()) {
+            return;
+        }
+        int input = SamuraiInputFrame.NONE;
+        if (partnerReplayer != null) {
+            if (!partnerReplayer.hasNext()) {
+                partnerReplayer = partnerInputs.replayer();
+            }
+            if (partnerReplayer.hasNext()) {
+                input = partnerReplayer.nextFrame();
+            }
+        }
+        partnerSession.advance(input);
+    }
+
+    private static InputRecording loadPartnerInputs(Path replay) {
+        if (replay == null || !Files.exists(replay)) {
+            return null;
+        }
+        try {
+            InputRecording recording = InputRecording.load(replay);
+            return recording.tickCount() > 0L ? recording : null;
+        } catch (IOException exception) {
+            if (Gdx.app != null) {
+                Gdx.app.error(TAG, "Failed to load " + replay + "; the partner stands still", exception);
+            }
+            return null;
+        }
+    }
+
+    private static void closeQuietly(Transport transport) {
+        try {
+            transport.close();
+        } catch (IOException exception) {
+            if (Gdx.app != null) {
+                Gdx.app.error(TAG, "Failed to close transport", exception);
+            }
+        }
+    }
+
+    private static void log(String message) {
+        if (Gdx.app != null) {
+            Gdx.app.log(TAG, message);
+        }
+    }
+}
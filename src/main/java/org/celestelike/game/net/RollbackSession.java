@@ -0,0 +1,376 @@
+package org.celestelike.game.net;
+
+import com.badlogic.gdx.Gdx;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import org.celestelike.game.GameSimulation;
+import org.celestelike.game.WorldSnapshot;
+import org.celestelike.game.entity.samurai.input.SamuraiInputFrame;
+import org.celestelike.game.metrics.TimeHistogram;
+import org.celestelike.game.replay.InputRecording;
+
+/**
+ * GGPO-style rollback for two-player co-op over a {@link Transport}. Each peer runs the whole
+ * co-op {@link GameSimulation}: its own samurai's input is applied as soon as it is sampled (after
+ * an optional input delay), the other samurai's is predicted, and when the real input arrives and
+ * differs the simulation is put back to the snapshot taken before that frame and re-simulated up
+ * to the present, all inside one call. The peers never wait for each other unless one gets more
+ * than {@value #MAX_ROLLBACK_FRAMES} frames ahead of the inputs it has confirmed.
+ *
+ * <p>A prediction repeats the peer's last confirmed held controls without its one-tick presses:
+ * a held direction usually stays held, a jump press almost never repeats on the next tick.
+ *
+ * <p>Call {@link #ready()} once per tick and {@link #advance} only when it returns {@code true};
+ * both peers must start from the same state, e.g. right after
+ * {@link GameSimulation#startRun()}. The session does not own the transport, so one socket can
+ * serve a new session per run. Not thread-safe.
+ */
+public final class RollbackSession {
+
+    public static final int MAX_ROLLBACK_FRAMES = 8;
+    public static final int MAX_INPUT_DELAY = 8;
+
+    private static final String TAG = "RollbackSession";
+    /** Frames of inputs and snapshots kept; a power of two well above the rollback window. */
+    private static final int RING = 64;
+    private static final int MASK = RING - 1;
+    /** Minimum frames between two time-sync waits, so the peers do not take turns waiting. */
+    private static final int TIME_SYNC_INTERVAL = 30;
+
+    private final GameSimulation simulation;
+    private final Transport transport;
+    private final int localPlayer;
+    private final int inputDelay;
+    private final int tag;
+    private final int[] localInputs = new int[RING];
+    private final int[] remoteInputs = new int[RING];
+    /** The remote input each simulated frame actually used, confirmed or predicted. */
+    private final int[] usedRemote = new int[RING];
+    private final WorldSnapshot[] snapshots = new WorldSnapshot[RING];
+    /** Whether the run was over, or the level cleared, after each simulated frame. */
+    private final boolean[] runOver = new boolean[RING];
+    private final boolean[] cleared = new boolean[RING];
+    private final InputPacket packet = new InputPacket();
+    private final ByteBuffer outgoing = ByteBuffer.allocate(InputPacket.MAX_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private final ByteBuffer incoming = ByteBuffer.allocate(1024).order(ByteOrder.LITTLE_ENDIAN);
+    private final TimeHistogram rollbackTimes = new TimeHistogram();
+
+    /** Next frame to simulate. */
+    private int frame;
+    /** Local inputs are known for frames below this. */
+    private int localQueued;
+    /** The peer has acknowledged our inputs up to this frame. */
+    private int localAcked = -1;
+    /** Peer inputs are known up to this frame, without gaps. */
+    private int remoteConfirmed = -1;
+    private int remoteFrame;
+    private int remoteAdvantage;
+    private int firstMisprediction = Integer.MAX_VALUE;
+    private int lastTimeSyncWait = -TIME_SYNC_INTERVAL;
+
+    private long rollbacks;
+    private long resimulatedFrames;
+    private int maxRollbackDepth;
+    private long stalls;
+    private long timeSyncWaits;
+    private boolean transportFailed;
+    private boolean restartOnRunOver;
+
+    /**
+     * @param simulation  a co-op simulation in the state the peer starts from as well
+     * @param localPlayer which samurai this peer controls, 0 or 1
+     * @param inputDelay  frames between sampling a local input and simulating it, 0 to
+     *                    {@value #MAX_INPUT_DELAY}; each frame of delay hides one frame of latency
+     * @param runId       distinguishes consecutive runs so stale packets of an earlier one are
+     *                    ignored; both peers must agree on it
+     */
+    public RollbackSession(GameSimulation simulation, Transport transport, int localPlayer, int inputDelay, int runId) {
+        if (simulation.playerCount() != 2) {
+            throw new IllegalArgumentException("Rollback needs a two-player simulation");
+        }
+        if (localPlayer < 0 || localPlayer > 1) {
+            throw new IllegalArgumentException("Local player must be 0 or 1, not " + localPlayer);
+        }
+        if (inputDelay < 0 || inputDelay > MAX_INPUT_DELAY) {
+            throw new IllegalArgumentException("Input delay must be 0 to " + MAX_INPUT_DELAY + " frames");
+        }
+        this.simulation = simulation;
+        this.transport = transport;
+        this.localPlayer = localPlayer;
+        this.inputDelay = inputDelay;
+        long fingerprint = InputRecording.fingerprint(simulation.source());
+        this.tag = (int) (fingerprint ^ (fingerprint >>> 32)) * 31 + runId;
+        // The first frames run on no input while the delay fills up.
+        localQueued = inputDelay;
+    }
+
+    /**
+     * Receives the peer's packets and rolls back if they contradict a prediction. Returns
+     * whether a frame may be simulated now; if not, the caller skips this tick (and should not
+     * consume an input for it).
+     */
+    public boolean ready() {
+        receive();
+        boolean tooFarAhead = frame - remoteConfirmed > MAX_ROLLBACK_FRAMES
+                || localQueued - localAcked >= RING - 1;
+        if (tooFarAhead) {
+            stalls++;
+            sendInputs();
+            return false;
+        }
+        if (shouldWaitForPeer()) {
+            timeSyncWaits++;
+            lastTimeSyncWait = frame;
+            sendInputs();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Simulates the next frame with this peer's {@code localInput} (applied
+     * {@code inputDelay} frames from now) and the peer's confirmed or predicted input, then sends
+     * every input the peer has not acknowledged.
+     *
+     * @throws IllegalStateException if {@link #ready()} would have returned {@code false}
+     */
+    public void advance(int localInput) {
+        if (frame - remoteConfirmed > MAX_ROLLBACK_FRAMES) {
+            throw new IllegalStateException("Frame " + frame + " is too far ahead of the peer's inputs");
+        }
+        localInputs[localQueued & MASK] = localInput;
+        localQueued++;
+        save(frame);
+        simulate(frame);
+        frame++;
+        sendInputs();
+    }
+
+    /**
+     * Receives pending packets, rolls back if needed and resends unacknowledged inputs without
+     * simulating a new frame, e.g. while waiting for the peer to finish.
+     */
+    public void poll() {
+        receive();
+        sendInputs();
+    }
+
+    /**
+     * Restarts the run inside the frame once both samurai are down, as
+     * {@link org.celestelike.game.headless.HeadlessRuntime#play} does, for soak tests that outlive
+     * a run. The restart is part of the simulated frame, so both peers make it on the same frame
+     * even when one of them only learns of it by rolling back.
+     */
+    public void setRestartOnRunOver(boolean restartOnRunOver) {
+        this.restartOnRunOver = restartOnRunOver;
+    }
+
+    /**
+     * @return the next frame to simulate, counted from the start of the session
+     */
+    public int frame() {
+        return frame;
+    }
+
+    /**
+     * @return {@code true} once every simulated frame used the peer's real input
+     */
+    public boolean isConfirmed() {
+        return remoteConfirmed >= frame - 1;
+    }
+
+    public int confirmedFrame() {
+        return remoteConfirmed;
+    }
+
+    /**
+     * @return whether both samurai were down after the last frame simulated on real inputs only;
+     * unlike {@link GameSimulation#isRunOver()} this cannot be undone by a rollback, so it is what
+     * a game-over screen should wait for
+     */
+    public boolean isConfirmedRunOver() {
+        int last = lastConfirmedFrame();
+        return last >= 0 && runOver[last & MASK];
+    }
+
+    /**
+     * @return whether the level was cleared after the last frame simulated on real inputs only
+     */
+    public boolean isConfirmedCleared() {
+        int last = lastConfirmedFrame();
+        return last >= 0 && cleared[last & MASK];
+    }
+
+    public int localPlayer() {
+        return localPlayer;
+    }
+
+    public long rollbacks() {
+        return rollbacks;
+    }
+
+    public long resimulatedFrames() {
+        return resimulatedFrames;
+    }
+
+    public int maxRollbackDepth() {
+        return maxRollbackDepth;
+    }
+
+    /**
+     * @return ticks skipped because the peer's inputs were more than the rollback window behind
+     */
+    public long stalls() {
+        return stalls;
+    }
+
+    /**
+     * @return ticks skipped to let a peer that runs behind catch up
+     */
+    public long timeSyncWaits() {
+        return timeSyncWaits;
+    }
+
+    /**
+     * @return wall time of each rollback: the restore plus re-simulating up to the present
+     */
+    public TimeHistogram rollbackTimes() {
+        return rollbackTimes;
+    }
+
+    // -------------------------------------------------------------------------
+    // Internals
+    // -------------------------------------------------------------------------
+
+    private void receive() {
+        try {
+            while (transport.receive(incoming)) {
+                if (packet.read(incoming, tag)) {
+                    accept(packet);
+                }
+            }
+        } catch (IOException exception) {
+            reportTransportFailure(exception);
+        }
+        if (firstMisprediction < frame) {
+            rollback(firstMisprediction);
+        }
+        firstMisprediction = Integer.MAX_VALUE;
+    }
+
+    private void accept(InputPacket received) {
+        localAcked = Math.max(localAcked, Math.min(received.ack, localQueued - 1));
+        if (received.frame >= remoteFrame) {
+            remoteFrame = received.frame;
+            remoteAdvantage = received.advantage;
+        }
+        for (int i = 0; i < received.count; i++) {
+            int inputFrame = received.start + i;
+            if (inputFrame <= remoteConfirmed) {
+                continue;
+            }
+            if (inputFrame != remoteConfirmed + 1 || inputFrame - frame >= RING - MAX_ROLLBACK_FRAMES - 1) {
+                // A gap (an earlier packet is still missing) or further ahead than the ring holds.
+                break;
+            }
+            int input = received.inputs[i] & SamuraiInputFrame.ALL_MASK;
+            remoteInputs[inputFrame & MASK] = input;
+            remoteConfirmed = inputFrame;
+            if (inputFrame < frame && usedRemote[inputFrame & MASK] != input) {
+                firstMisprediction = Math.min(firstMisprediction, inputFrame);
+            }
+        }
+    }
+
+    private void rollback(int from) {
+        long start = System.nanoTime();
+        simulation.restoreState(snapshots[from & MASK]);
+        for (int f = from; f < frame; f++) {
+            if (f != from) {
+                save(f);
+            }
+            simulate(f);
+        }
+        rollbackTimes.record(System.nanoTime() - start);
+        int depth = frame - from;
+        rollbacks++;
+        resimulatedFrames += depth;
+        maxRollbackDepth = Math.max(maxRollbackDepth, depth);
+    }
+
+    private void simulate(int f) {
+        int local = localInputs[f & MASK];
+        int remote = f <= remoteConfirmed ? remoteInputs[f & MASK] : predictRemote();
+        usedRemote[f & MASK] = remote;
+        if (restartOnRunOver && simulation.isRunOver()) {
+            simulation.startRun();
+        }
+        if (localPlayer == 0) {
+            simulation.tick(local, remote);
+        } else {
+            simulation.tick(remote, local);
+        }
+        runOver[f & MASK] = simulation.isRunOver();
+        cleared[f & MASK] = simulation.isCleared();
+    }
+
+    private int lastConfirmedFrame() {
+        return Math.min(remoteConfirmed, frame - 1);
+    }
+
+    private int predictRemote() {
+        if (remoteConfirmed < 0) {
+            return SamuraiInputFrame.NONE;
+        }
+        return remoteInputs[remoteConfirmed & MASK] & SamuraiInputFrame.HELD_MASK;
+    }
+
+    private void save(int f) {
+        WorldSnapshot snapshot = snapshots[f & MASK];
+        if (snapshot == null) {
+            snapshot = new WorldSnapshot();
+            snapshots[f & MASK] = snapshot;
+        }
+        simulation.saveState(snapshot);
+    }
+
+    /**
+     * Both peers see the other's frame one latency late, so each one's advantage is the latency
+     * plus or minus the real lead; half the difference of the two is the lead itself.
+     */
+    private boolean shouldWaitForPeer() {
+        int localAdvantage = frame - remoteFrame;
+        return (localAdvantage - remoteAdvantage) / 2 >= 1 && frame - lastTimeSyncWait >= TIME_SYNC_INTERVAL;
+    }
+
+    private void sendInputs() {
+        int first = localAcked + 1;
+        int count = Math.min(localQueued - first, InputPacket.MAX_INPUTS);
+        packet.tag = tag;
+        packet.frame = frame;
+        packet.ack = remoteConfirmed;
+        packet.advantage = frame - remoteFrame;
+        packet.start = first;
+        packet.count = Math.max(0, count);
+        for (int i = 0; i < packet.count; i++) {
+            packet.inputs[i] = (short) localInputs[(first + i) & MASK];
+        }
+        packet.write(outgoing);
+        try {
+            transport.send(outgoing);
+        } catch (IOException exception) {
+            reportTransportFailure(exception);
+        }
+    }
+
+    /**
+     * Lost datagrams are routine, so a failing transport is only reported once.
+     */
+    private void reportTransportFailure(IOException exception) {
+        if (!transportFailed && Gdx.app != null) {
+            Gdx.app.error(TAG, "Transport failed; treating packets as lost", exception);
+        }
+        transportFailed = true;
+    }
+}
@@ -0,0 +1,29 @@
+package org.celestelike.game.net;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Unreliable, unordered datagrams to one peer, polled from the game thread. Packets may be lost,
+ * duplicated or reordered; {@link RollbackSession} copes with all three by resending every
+ * unacknowledged input in each packet.
+ */
+public interface Transport extends AutoCloseable {
+
+    /**
+     * Sends the bytes between the buffer's position and limit as one datagram. Never blocks; a
+     * datagram that cannot be sent right now is dropped like a lost one.
+     */
+    void send(ByteBuffer packet) throws IOException;
+
+    /**
+     * Receives the next pending datagram into {@code target}, cleared first and flipped for
+     * reading afterwards.
+     *
+     * @return {@code false} if nothing is pending
+     */
+    boolean receive(ByteBuffer target) throws IOException;
+
+    @Override
+    void close() throws IOException;
+}
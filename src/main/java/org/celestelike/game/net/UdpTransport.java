@@ -0,0 +1,54 @@
+package org.celestelike.game.net;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+/**
+ * {@link Transport} over a non-blocking UDP socket. Datagrams from anyone but the configured peer
+ * are ignored.
+ */
+public final class UdpTransport implements Transport {
+
+    private final DatagramChannel channel;
+    private final InetSocketAddress peer;
+
+    public UdpTransport(int localPort, InetSocketAddress peer) throws IOException {
+        this.peer = peer;
+        channel = DatagramChannel.open();
+        try {
+            channel.configureBlocking(false);
+            channel.bind(new InetSocketAddress(localPort));
+        } catch (IOException exception) {
+            channel.close();
+            throw exception;
+        }
+    }
+
+    @Override
+    public void send(ByteBuffer packet) throws IOException {
+        channel.send(packet, peer);
+    }
+
+    @Override
+    public boolean receive(ByteBuffer target) throws IOException {
+        while (true) {
+            target.clear();
+            SocketAddress sender = channel.receive(target);
+            if (sender == null) {
+                return false;
+            }
+            if (sender.equals(peer)) {
+                target.flip();
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
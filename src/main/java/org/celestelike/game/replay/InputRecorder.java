@@ -0,0 +1,54 @@
+package org.celestelike.game.replay;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Accumulates one input frame per simulation tick into an {@link InputRecording}. Consecutive
+ * identical frames collapse into a single run, so recording costs a comparison per tick and a
+ * couple of bytes per input change.
+ */
+public final class InputRecorder {
+
+    private final int ticksPerSecond;
+    private final long worldFingerprint;
+    private final ByteArrayOutputStream runs = new ByteArrayOutputStream(4096);
+    private int currentFrame;
+    private long currentLength;
+    private int runCount;
+    private long tickCount;
+
+    public InputRecorder(int ticksPerSecond, long worldFingerprint) {
+        this.ticksPerSecond = ticksPerSecond;
+        this.worldFingerprint = worldFingerprint;
+    }
+
+    public void record(int frame) {
+        if (currentLength > 0L && frame != currentFrame) {
+            flushRun();
+        }
+        currentFrame = frame;
+        currentLength++;
+        tickCount++;
+    }
+
+    public long tickCount() {
+        return tickCount;
+    }
+
+    /**
+     * @return the recording so far; the recorder can keep recording afterwards
+     */
+    public InputRecording finish() {
+        if (currentLength > 0L) {
+            flushRun();
+        }
+        return new InputRecording(ticksPerSecond, worldFingerprint, tickCount, runCount, runs.toByteArray());
+    }
+
+    private void flushRun() {
+        VarInt.writeUnsigned(runs, currentFrame);
+        VarInt.writeUnsigned(runs, currentLength);
+        runCount++;
+        currentLength = 0L;
+    }
+}
@@ -0,0 +1,159 @@
+package org.celestelike.game.replay;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.celestelike.game.world.AtomicFileWriter;
+import org.celestelike.game.world.chunk.ChunkSource;
+
+/**
+ * One run of per-tick {@link org.celestelike.game.entity.samurai.input.SamuraiInputFrame}s,
+ * run-length encoded as {@code (frame, ticks)} varint pairs. Held controls change rarely, so a
+ * five-minute session is typically a few kilobytes.
+ *
+ * <p>File layout: {@code "CLRP"}, then varints for version, ticks per second, world fingerprint,
+ * tick count, run count and the run bytes length, then the run bytes.
+ */
+public final class InputRecording {
+
+    public static final String FILE_EXTENSION = ".replay";
+
+    private static final int MAGIC = 0x434C5250; // "CLRP"
+    private static final int VERSION = 1;
+
+    private final int ticksPerSecond;
+    private final long worldFingerprint;
+    private final long tickCount;
+    private final int runCount;
+    private final byte[] runs;
+
+    InputRecording(int ticksPerSecond, long worldFingerprint, long tickCount, int runCount, byte[] runs) {
+        this.ticksPerSecond = ticksPerSecond;
+        this.worldFingerprint = worldFingerprint;
+        this.tickCount = tickCount;
+        this.runCount = runCount;
+        this.runs = runs;
+    }
+
+    public int ticksPerSecond() {
+        return ticksPerSecond;
+    }
+
+    /**
+     * @see #fingerprint(ChunkSource)
+     */
+    public long worldFingerprint() {
+        return worldFingerprint;
+    }
+
+    public long tickCount() {
+        return tickCount;
+    }
+
+    public int runCount() {
+        return runCount;
+    }
+
+    public float durationSeconds() {
+        return ticksPerSecond == 0 ? 0f : tickCount / (float) ticksPerSecond;
+    }
+
+    public int encodedBytes() {
+        return runs.length;
+    }
+
+    public InputReplayer replayer() {
+        return new InputReplayer(runs, tickCount);
+    }
+
+    /**
+     * Identifies the world a recording was made in, so a replay against a different level, seed
+     * or edit of the same level is rejected instead of silently diverging. Authored levels are
+     * identified by their tiles, collision masks and spawn positions through
+     * {@link ChunkSource#contentHash()}.
+     */
+    public static long fingerprint(ChunkSource source) {
+        long hash = 0xcbf29ce484222325L;
+        hash = mixIn(hash, source.getClass().getSimpleName().hashCode());
+        hash = mixIn(hash, source.rows());
+        hash = mixIn(hash, source.cols());
+        hash = mixIn(hash, source.enemySpawnCount());
+        hash = mixIn(hash, source.contentHash());
+        return hash;
+    }
+
+    private static long mixIn(long hash, long value) {
+        hash ^= value;
+        hash *= 0x100000001b3L;
+        return hash ^ (hash >>> 29);
+    }
+
+    // -------------------------------------------------------------------------
+    // Persistence
+    // -------------------------------------------------------------------------
+
+    public void save(Path target) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(runs.length + 32);
+        out.write(MAGIC >>> 24);
+        out.write(MAGIC >>> 16);
+        out.write(MAGIC >>> 8);
+        out.write(MAGIC);
+        VarInt.writeUnsigned(out, VERSION);
+        VarInt.writeUnsigned(out, ticksPerSecond);
+        VarInt.writeSigned(out, worldFingerprint);
+        VarInt.writeUnsigned(out, tickCount);
+        VarInt.writeUnsigned(out, runCount);
+        VarInt.writeUnsigned(out, runs.length);
+        out.write(runs, 0, runs.length);
+        byte[] bytes = out.toByteArray();
+        AtomicFileWriter.writeBinary(target, stream -> stream.write(bytes));
+    }
+
+    public static InputRecording load(Path source) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(source))) {
+            return read(in);
+        }
+    }
+
+    public static InputRecording read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not an input recording");
+        }
+        long version = VarInt.readUnsigned(data);
+        if (version != VERSION) {
+            throw new IOException("Unsupported input recording version " + version);
+        }
+        int ticksPerSecond = (int) VarInt.readUnsigned(data);
+        long fingerprint = VarInt.readSigned(data);
+        long tickCount = VarInt.readUnsigned(data);
+        int runCount = (int) VarInt.readUnsigned(data);
+        int length = (int) VarInt.readUnsigned(data);
+        byte[] runs = new byte[length];
+        data.readFully(runs);
+        InputRecording recording = new InputRecording(ticksPerSecond, fingerprint, tickCount, runCount, runs);
+        recording.validate();
+        return recording;
+    }
+
+    /**
+     * Checks that the runs decode and add up to {@link #tickCount()}, so a truncated file fails
+     * on load rather than halfway through a replay.
+     */
+    private void validate() throws IOException {
+        ByteArrayInputStream in = new ByteArrayInputStream(runs);
+        long ticks = 0L;
+        for (int i = 0; i < runCount; i++) {
+            VarInt.readUnsigned(in);
+            ticks += VarInt.readUnsigned(in);
+        }
+        if (ticks != tickCount || in.available() != 0) {
+            throw new IOException("Corrupt input recording: runs cover " + ticks + " of " + tickCount + " ticks");
+        }
+    }
+}
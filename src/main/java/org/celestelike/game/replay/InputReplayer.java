@@ -0,0 +1,57 @@
+package org.celestelike.game.replay;
+
+/**
+ * Walks an {@link InputRecording} one tick at a time, decoding runs in place so playback does
+ * not allocate.
+ */
+public final class InputReplayer {
+
+    private final byte[] runs;
+    private final long tickCount;
+    private int position;
+    private int frame;
+    private long remainingInRun;
+    private long tick;
+
+    InputReplayer(byte[] runs, long tickCount) {
+        this.runs = runs;
+        this.tickCount = tickCount;
+    }
+
+    public boolean hasNext() {
+        return tick < tickCount;
+    }
+
+    /**
+     * @return the input frame for the next tick
+     * @throws IllegalStateException past the end of the recording
+     */
+    public int nextFrame() {
+        if (!hasNext()) {
+            throw new IllegalStateException("Replay finished after " + tickCount + " ticks");
+        }
+        if (remainingInRun == 0L) {
+            frame = (int) readVarInt();
+            remainingInRun = readVarInt();
+        }
+        remainingInRun--;
+        tick++;
+        return frame;
+    }
+
+    public long tick() {
+        return tick;
+    }
+
+    private long readVarInt() {
+        long value = 0L;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = runs[position++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Varint longer than 64 bits");
+    }
+}
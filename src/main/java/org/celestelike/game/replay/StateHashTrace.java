@@ -0,0 +1,282 @@
+package org.celestelike.game.replay;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import org.celestelike.game.GameSimulation;
+import org.celestelike.game.state.StateHasher;
+import org.celestelike.game.state.StateSection;
+import org.celestelike.game.world.AtomicFileWriter;
+
+/**
+ * Per-tick hash of every {@link StateSection} of the simulation state. Two traces of the same
+ * recording must match tick for tick; the first tick where they do not, and the sections that
+ * differ there, point at the subsystem that lost determinism. Recording a tick hashes the state
+ * incrementally through a reused {@link StateHasher} (see {@link GameSimulation#hashState}), so
+ * it writes only what changed since the previous tick and does not allocate once the trace has
+ * grown.
+ *
+ * <p>A trace can hash only every {@code interval}th tick, plus the last one once {@link #finish}
+ * is called, which divides the cost of hashing by the interval. Since hashes depend on which
+ * ticks were hashed, only traces with the same interval can be compared, and a divergence found
+ * on a longer interval is only pinned down to the ticks since the last agreeing hash; tracing
+ * both runs again with an interval of 1 finds the exact tick.
+ */
+public final class StateHashTrace {
+
+    private static final StateSection[] SECTIONS = StateSection.values();
+
+    /**
+     * The first hashed tick at which two traces differ and the sections that differ there.
+     * {@code lastAgreedTick} is the latest tick before it that both hashed and agree on, or -1;
+     * the divergence began somewhere after it.
+     */
+    public record Divergence(long tick, List<StateSection> sections, long lastAgreedTick) {
+
+        /**
+         * @return whether {@link #tick} is known to be the first tick that differs
+         */
+        public boolean exact() {
+            return tick == lastAgreedTick + 1;
+        }
+    }
+
+    private final StateHasher hasher = new StateHasher();
+    private final int interval;
+    private long[] hashes;
+    private long[] sampledTicks;
+    private int samples;
+    private long ticks;
+    private int untilSample;
+
+    public StateHashTrace(int expectedTicks) {
+        this(expectedTicks, 1);
+    }
+
+    /**
+     * @param interval hash every this many ticks; 1 hashes every tick
+     */
+    public StateHashTrace(int expectedTicks, int interval) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Hash interval must be at least 1, got " + interval);
+        }
+        this.interval = interval;
+        untilSample = interval;
+        int expectedSamples = Math.max(1, expectedTicks / interval + 1);
+        hashes = new long[expectedSamples * SECTIONS.length];
+        sampledTicks = new long[expectedSamples];
+    }
+
+    /**
+     * Counts one tick and hashes the state after it if the tick falls on the interval.
+     */
+    public void record(GameSimulation simulation) {
+        long tick = ticks++;
+        if (--untilSample == 0) {
+            untilSample = interval;
+            sample(tick, simulation);
+        }
+    }
+
+    /**
+     * Hashes the state after the last recorded tick if the interval skipped it, so traces of the
+     * same length always end on a tick both hashed.
+     */
+    public void finish(GameSimulation simulation) {
+        if (ticks > 0 && (samples == 0 || sampledTicks[samples - 1] != ticks - 1)) {
+            sample(ticks - 1, simulation);
+        }
+    }
+
+    private void sample(long tick, GameSimulation simulation) {
+        simulation.hashState(hasher);
+        ensureSampleCapacity();
+        int base = samples * SECTIONS.length;
+        for (int i = 0; i < SECTIONS.length; i++) {
+            hashes[base + i] = hasher.hash(SECTIONS[i]);
+        }
+        sampledTicks[samples++] = tick;
+    }
+
+    private void ensureSampleCapacity() {
+        if (samples == sampledTicks.length) {
+            sampledTicks = Arrays.copyOf(sampledTicks, samples * 2);
+            hashes = Arrays.copyOf(hashes, samples * 2 * SECTIONS.length);
+        }
+    }
+
+    public long tickCount() {
+        return ticks;
+    }
+
+    public int interval() {
+        return interval;
+    }
+
+    /**
+     * @return the hash of {@code section} after {@code tick}, which must have been hashed
+     */
+    public long hash(long tick, StateSection section) {
+        return hashes[sampleIndex(tick) * SECTIONS.length + section.ordinal()];
+    }
+
+    /**
+     * @return all sections of one hashed tick folded into a single value, for display
+     */
+    public long combinedHash(long tick) {
+        int base = sampleIndex(tick) * SECTIONS.length;
+        long combined = 0L;
+        for (int i = 0; i < SECTIONS.length; i++) {
+            combined = Long.rotateLeft(combined, 27) * 0x9E3779B185EBCA87L + hashes[base + i];
+        }
+        return combined;
+    }
+
+    private int sampleIndex(long tick) {
+        int index = Arrays.binarySearch(sampledTicks, 0, samples, tick);
+        if (index < 0) {
+            throw new IllegalArgumentException("Tick " + tick + " was not hashed (interval " + interval + ")");
+        }
+        return index;
+    }
+
+    /**
+     * @return the first tick both traces hashed where any section differs, or {@code null} if
+     * they agree on every tick both hashed (compare {@link #tickCount()} separately)
+     */
+    public Divergence firstDivergence(StateHashTrace other) {
+        requireSameInterval(other);
+        long lastAgreed = -1L;
+        int i = 0;
+        int j = 0;
+        while (i < samples && j < other.samples) {
+            long tick = sampledTicks[i];
+            long otherTick = other.sampledTicks[j];
+            if (tick < otherTick) {
+                i++;
+                continue;
+            }
+            if (otherTick < tick) {
+                j++;
+                continue;
+            }
+            List<StateSection> differing = null;
+            for (int s = 0; s < SECTIONS.length; s++) {
+                if (hashes[i * SECTIONS.length + s] != other.hashes[j * SECTIONS.length + s]) {
+                    if (differing == null) {
+                        differing = new ArrayList<>(SECTIONS.length);
+                    }
+                    differing.add(SECTIONS[s]);
+                }
+            }
+            if (differing != null) {
+                return new Divergence(tick, List.copyOf(differing), lastAgreed);
+            }
+            lastAgreed = tick;
+            i++;
+            j++;
+        }
+        return null;
+    }
+
+    /**
+     * @return the first tick both traces hashed where {@code section} differs, or -1
+     */
+    public long firstDivergence(StateHashTrace other, StateSection section) {
+        requireSameInterval(other);
+        int i = 0;
+        int j = 0;
+        while (i < samples && j < other.samples) {
+            long tick = sampledTicks[i];
+            long otherTick = other.sampledTicks[j];
+            if (tick < otherTick) {
+                i++;
+            } else if (otherTick < tick) {
+                j++;
+            } else {
+                if (hashes[i * SECTIONS.length + section.ordinal()]
+                        != other.hashes[j * SECTIONS.length + section.ordinal()]) {
+                    return tick;
+                }
+                i++;
+                j++;
+            }
+        }
+        return -1L;
+    }
+
+    private void requireSameInterval(StateHashTrace other) {
+        if (interval != other.interval) {
+            throw new IllegalArgumentException("Traces hashed every " + interval + " and every "
+                    + other.interval + " ticks cannot be compared");
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Persistence: the interval, a header naming the sections, then one line per hashed tick with
+    // the tick and its hex hashes, so a trace saved by one build can be checked against another.
+    // -------------------------------------------------------------------------
+
+    public void save(Path target) throws IOException {
+        AtomicFileWriter.write(target, this::write);
+    }
+
+    public void write(Writer writer) throws IOException {
+        writer.write("interval," + interval + "\n");
+        StringBuilder header = new StringBuilder("tick");
+        for (StateSection section : SECTIONS) {
+            header.append(',').append(section.name().toLowerCase(Locale.ROOT));
+        }
+        writer.write(header.append('\n').toString());
+        StringBuilder line = new StringBuilder(64);
+        for (int sample = 0; sample < samples; sample++) {
+            line.setLength(0);
+            line.append(sampledTicks[sample]);
+            for (int i = 0; i < SECTIONS.length; i++) {
+                line.append(',').append(Long.toHexString(hashes[sample * SECTIONS.length + i]));
+            }
+            writer.write(line.append('\n').toString());
+        }
+    }
+
+    public static StateHashTrace load(Path source) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(source, StandardCharsets.UTF_8)) {
+            String intervalLine = reader.readLine();
+            if (intervalLine == null || !intervalLine.startsWith("interval,")) {
+                throw new IOException(source + " does not start with its hash interval");
+            }
+            int interval = Integer.parseInt(intervalLine.substring("interval,".length()));
+            StateHashTrace trace = new StateHashTrace(1024, interval);
+            String header = reader.readLine();
+            if (header == null || header.split(",").length != SECTIONS.length + 1) {
+                throw new IOException(source + " is not a hash trace for " + SECTIONS.length + " sections");
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                long tick = Long.parseLong(fields[0]);
+                if (trace.samples > 0 && tick <= trace.sampledTicks[trace.samples - 1]) {
+                    throw new IOException(source + " lists tick " + tick + " out of order");
+                }
+                trace.ensureSampleCapacity();
+                int base = trace.samples * SECTIONS.length;
+                for (int i = 0; i < SECTIONS.length; i++) {
+                    trace.hashes[base + i] = Long.parseUnsignedLong(fields[i + 1], 16);
+                }
+                trace.sampledTicks[trace.samples++] = tick;
+                trace.ticks = tick + 1;
+            }
+            return trace;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package org.celestelike.game.state;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * xxHash64 of each {@link StateSection} of the state, hashed one section at a time. Values are
+ * laid out little-endian in a reused heap array as they are written and the section is hashed
+ * when it ends, so hashing costs one plain array write per field plus xxHash64 over the bytes
+ * written, and allocates nothing once the arrays have grown to fit. Values written outside a
+ * section are not hashed.
+ *
+ * <p>Nothing needs to be written for a section whose owner has not changed since it was last
+ * hashed: {@link #reuse} reports the cached hash instead. Owners of many small parts, such as
+ * the enemies, can likewise hash each part on its own with {@link #beginPart} and write only
+ * the part hashes into the section.
+ */
+public final class StateHasher implements StateWriter {
+
+    private static final VarHandle SHORTS = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INTS = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final long PRIME1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME3 = 0x165667B19E3779F9L;
+    private static final long PRIME4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME5 = 0x27D4EB2F165667C5L;
+    private static final long SEED = 0L;
+
+    private final long[] sectionHashes = new long[StateSection.values().length];
+    private byte[] bytes = new byte[1024];
+    private int position;
+    private int openSection;
+    private StateHasher part;
+
+    /**
+     * Starts writing {@code section} afresh; {@link #endSection()} hashes it.
+     */
+    @Override
+    public void beginSection(StateSection section) {
+        position = 0;
+        openSection = section.ordinal();
+    }
+
+    /**
+     * @return the xxHash64 of what was written since {@link #beginSection}, which is now also
+     * that section's {@link #hash}
+     */
+    public long endSection() {
+        long hash = xxHash64(bytes, 0, position);
+        sectionHashes[openSection] = hash;
+        return hash;
+    }
+
+    /**
+     * Reports {@code hash} for a section that is not written again because nothing in it
+     * changed since it last hashed to that.
+     */
+    public void reuse(StateSection section, long hash) {
+        sectionHashes[section.ordinal()] = hash;
+    }
+
+    /**
+     * @return the hash {@code section} last ended with or was reported as
+     */
+    public long hash(StateSection section) {
+        return sectionHashes[section.ordinal()];
+    }
+
+    /**
+     * Starts hashing one part of a section on its own, in a second buffer so the section can
+     * still be written around it. Write the part to the returned writer, then call
+     * {@link #finishPart()}.
+     */
+    public StateWriter beginPart() {
+        if (part == null) {
+            part = new StateHasher();
+        }
+        part.position = 0;
+        return part;
+    }
+
+    /**
+     * @return the xxHash64 of what was written since {@link #beginPart()}
+     */
+    public long finishPart() {
+        return xxHash64(part.bytes, 0, part.position);
+    }
+
+    @Override
+    public void putByte(int value) {
+        ensure(1);
+        bytes[position++] = (byte) value;
+    }
+
+    @Override
+    public void putShort(int value) {
+        ensure(2);
+        SHORTS.set(bytes, position, (short) value);
+        position += 2;
+    }
+
+    @Override
+    public void putInt(int value) {
+        ensure(4);
+        INTS.set(bytes, position, value);
+        position += 4;
+    }
+
+    @Override
+    public void putLong(long value) {
+        ensure(8);
+        LONGS.set(bytes, position, value);
+        position += 8;
+    }
+
+    @Override
+    public void putFloat(float value) {
+        putInt(Float.floatToRawIntBits(value));
+    }
+
+    private void ensure(int count) {
+        if (position + count > bytes.length) {
+            bytes = Arrays.copyOf(bytes, bytes.length * 2);
+        }
+    }
+
+    static long xxHash64(byte[] input, int offset, int length) {
+        int end = offset + length;
+        int p = offset;
+        long h;
+        if (length >= 32) {
+            long v1 = SEED + PRIME1 + PRIME2;
+            long v2 = SEED + PRIME2;
+            long v3 = SEED;
+            long v4 = SEED - PRIME1;
+            int limit = end - 32;
+            do {
+                v1 = round(v1, (long) LONGS.get(input, p));
+                v2 = round(v2, (long) LONGS.get(input, p + 8));
+                v3 = round(v3, (long) LONGS.get(input, p + 16));
+                v4 = round(v4, (long) LONGS.get(input, p + 24));
+                p += 32;
+            } while (p <= limit);
+            h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            h = merge(h, v1);
+            h = merge(h, v2);
+            h = merge(h, v3);
+            h = merge(h, v4);
+        } else {
+            h = SEED + PRIME5;
+        }
+        h += length;
+        while (p + 8 <= end) {
+            h ^= round(0L, (long) LONGS.get(input, p));
+            h = Long.rotateLeft(h, 27) * PRIME1 + PRIME4;
+            p += 8;
+        }
+        if (p + 4 <= end) {
+            h ^= ((int) INTS.get(input, p) & 0xFFFFFFFFL) * PRIME1;
+            h = Long.rotateLeft(h, 23) * PRIME2 + PRIME3;
+            p += 4;
+        }
+        while (p < end) {
+            h ^= (input[p] & 0xFFL) * PRIME5;
+            h = Long.rotateLeft(h, 11) * PRIME1;
+            p++;
+        }
+        h ^= h >>> 33;
+        h *= PRIME2;
+        h ^= h >>> 29;
+        h *= PRIME3;
+        h ^= h >>> 32;
+        return h;
+    }
+
+    private static long round(long accumulator, long input) {
+        accumulator += input * PRIME2;
+        accumulator = Long.rotateLeft(accumulator, 31);
+        return accumulator * PRIME1;
+    }
+
+    private static long merge(long accumulator, long value) {
+        accumulator ^= round(0L, value);
+        return accumulator * PRIME1 + PRIME4;
+    }
+}
@@ -0,0 +1,14 @@
+package org.celestelike.game.state;
+
+/**
+ * Parts of the simulation state, in the order they are written. Hashed separately, so a
+ * determinism check can say which subsystem diverged.
+ */
+public enum StateSection {
+    /** Tick counter, active chunk rectangle and engaged move commands. */
+    RUN,
+    /** Samurai controller, state machine, timers, health, power-ups and combo. */
+    SAMURAI,
+    /** Active enemies and the defeated-spawn record. */
+    ENEMIES
+}
@@ -0,0 +1,25 @@
+package org.celestelike.game.state;
+
+/**
+ * Sink for the simulation state. Components write their fields through this once, and the same
+ * code fills a snapshot buffer or feeds a hash without an intermediate copy.
+ */
+public interface StateWriter {
+
+    void putByte(int value);
+
+    void putShort(int value);
+
+    void putInt(int value);
+
+    void putLong(long value);
+
+    void putFloat(float value);
+
+    /**
+     * Marks where the next section starts; everything written before the first section is
+     * header, not state. Only hashing cares, so writers that just store bytes ignore it.
+     */
+    default void beginSection(StateSection section) {
+    }
+}
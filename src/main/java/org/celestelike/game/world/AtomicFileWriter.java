@@ -0,0 +1,87 @@
+package org.celestelike.game.world;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes text and binary files through a sibling temp file followed by an atomic rename, so a crash or
+ * power loss mid-write leaves either the previous file or the new one on disk, never a torn mix.
+ */
+public final class AtomicFileWriter {
+
+    private AtomicFileWriter() {
+    }
+
+    /**
+     * Callback that streams the document body into the temp file. Implementations must not close
+     * the writer; it is flushed and synced by {@link AtomicFileWriter} once the body returns.
+     */
+    @FunctionalInterface
+    public interface Body {
+        void write(Writer writer) throws IOException;
+    }
+
+    /**
+     * Binary counterpart of {@link Body}; the same rules apply to the stream.
+     */
+    @FunctionalInterface
+    public interface BinaryBody {
+        void write(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Writes {@code target} atomically using UTF-8.
+     *
+     * @throws IOException if the temp file could not be written or moved into place; the
+     *                     previous contents of {@code target} are left untouched in that case.
+     */
+    public static void write(Path target, Body body) throws IOException {
+        writeBinary(target, out -> {
+            Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            body.write(writer);
+            writer.flush();
+        });
+    }
+
+    /**
+     * Writes {@code target} atomically from raw bytes.
+     *
+     * @throws IOException as for {@link #write(Path, Body)}
+     */
+    public static void writeBinary(Path target, BinaryBody body) throws IOException {
+        Path absolute = target.toAbsolutePath();
+        Path parent = absolute.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            OutputStream out = Channels.newOutputStream(channel);
+            body.write(out);
+            out.flush();
+            // Make sure the bytes hit the disk before the rename publishes them.
+            channel.force(true);
+        } catch (IOException | RuntimeException exception) {
+            Files.deleteIfExists(temp);
+            throw exception;
+        }
+        try {
+            Files.move(temp, absolute, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException unsupported) {
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
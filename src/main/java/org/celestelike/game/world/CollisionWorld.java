@@ -0,0 +1,55 @@
+package org.celestelike.game.world;
+
+/**
+ * Tile-level collision queries used by the samurai controller. Implemented by the whole-level
+ * {@link LevelCollisionMap} and by the chunk-paged world, which only keeps the chunks around the
+ * player in memory.
+ *
+ * <p>Row 0 is the bottom row; rows increase upwards. Cells outside the world are solid and dry.
+ */
+public interface CollisionWorld {
+
+    float tileSize();
+
+    boolean isSolid(int row, int col);
+
+    boolean isWater(int row, int col);
+
+    default boolean overlapsWater(float left, float bottom, float right, float top) {
+        if (left > right || bottom > top) {
+            return false;
+        }
+        int colStart = worldToCol(Math.max(left, 0f));
+        int colEnd = worldToCol(Math.max(right, 0f));
+        int rowStart = worldToRow(Math.max(bottom, 0f));
+        int rowEnd = worldToRow(Math.max(top, 0f));
+        for (int row = Math.min(rowStart, rowEnd); row <= Math.max(rowStart, rowEnd); row++) {
+            for (int col = Math.min(colStart, colEnd); col <= Math.max(colStart, colEnd); col++) {
+                if (isWater(row, col)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    default int worldToCol(float worldX) {
+        return (int) Math.floor(worldX / tileSize());
+    }
+
+    default int worldToRow(float worldY) {
+        return (int) Math.floor(worldY / tileSize());
+    }
+
+    default float colLeft(int col) {
+        return col * tileSize();
+    }
+
+    default float rowBottom(int row) {
+        return row * tileSize();
+    }
+
+    default float rowTop(int row) {
+        return rowBottom(row) + tileSize();
+    }
+}
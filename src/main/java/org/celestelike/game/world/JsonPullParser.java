@@ -0,0 +1,467 @@
+package org.celestelike.game.world;
+
+import com.badlogic.gdx.files.FileHandle;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Token-by-token JSON reader for the level, snapshot and config files. Unlike
+ * {@link com.badlogic.gdx.utils.JsonReader} it never builds a {@code JsonValue} tree: callers walk
+ * the document and copy values straight into their destination arrays, so peak memory is the
+ * output plus a fixed read buffer, and parsing starts as soon as the first chunk is read.
+ *
+ * <p>Accepts the same relaxed input as libGDX's reader for the files we ship: {@code //} and
+ * {@code /* *}{@code /} comments, trailing commas and unquoted names or string values.
+ *
+ * <pre>
+ * try (JsonPullParser parser = JsonPullParser.open(handle)) {
+ *     parser.beginObject();
+ *     while (parser.hasNext()) {
+ *         switch (parser.nextName()) {
+ *             case "rows" -&gt; rows = parser.nextInt();
+ *             default -&gt; parser.skipValue();
+ *         }
+ *     }
+ *     parser.endObject();
+ * }
+ * </pre>
+ */
+public final class JsonPullParser implements Closeable {
+
+    public enum Token {
+        BEGIN_OBJECT,
+        END_OBJECT,
+        BEGIN_ARRAY,
+        END_ARRAY,
+        NAME,
+        STRING,
+        NUMBER,
+        BOOLEAN,
+        NULL,
+        END_DOCUMENT
+    }
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final int NAME_CACHE_SIZE = 16;
+
+    // Scope states kept on the context stack.
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_ARRAY = 2;
+    private static final int NONEMPTY_ARRAY = 3;
+    private static final int EMPTY_OBJECT = 4;
+    private static final int DANGLING_NAME = 5;
+    private static final int NONEMPTY_OBJECT = 6;
+
+    private final Reader in;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int pos;
+    private int limit;
+    private long consumedBefore;
+
+    private int[] stack = new int[32];
+    private int depth;
+
+    private Token peeked;
+    private final StringBuilder text = new StringBuilder(64);
+    private final String[] nameCache = new String[NAME_CACHE_SIZE];
+    private int nameCacheNext;
+    private int[] intScratch = new int[16];
+
+    public JsonPullParser(Reader in) {
+        this.in = in;
+        stack[depth++] = EMPTY_DOCUMENT;
+    }
+
+    public static JsonPullParser open(FileHandle handle) {
+        return new JsonPullParser(handle.reader("UTF-8"));
+    }
+
+    // -------------------------------------------------------------------------
+    // Structure
+    // -------------------------------------------------------------------------
+
+    public Token peek() throws IOException {
+        if (peeked != null) {
+            return peeked;
+        }
+        int scope = stack[depth - 1];
+        int c;
+        switch (scope) {
+            case EMPTY_ARRAY, NONEMPTY_ARRAY -> {
+                stack[depth - 1] = NONEMPTY_ARRAY;
+                c = nextNonWhitespace();
+                if (c == ',' && scope == NONEMPTY_ARRAY) {
+                    c = nextNonWhitespace();
+                }
+                if (c == ']') {
+                    depth--;
+                    return peeked = Token.END_ARRAY;
+                }
+                unread(c);
+                return peeked = readValue();
+            }
+            case EMPTY_OBJECT, NONEMPTY_OBJECT -> {
+                c = nextNonWhitespace();
+                if (c == ',' && scope == NONEMPTY_OBJECT) {
+                    c = nextNonWhitespace();
+                }
+                if (c == '}') {
+                    depth--;
+                    return peeked = Token.END_OBJECT;
+                }
+                if (c == '"') {
+                    readQuoted();
+                } else if (c == -1) {
+                    throw syntaxError("Unterminated object");
+                } else {
+                    unread(c);
+                    readLiteral();
+                }
+                stack[depth - 1] = DANGLING_NAME;
+                return peeked = Token.NAME;
+            }
+            case DANGLING_NAME -> {
+                c = nextNonWhitespace();
+                if (c != ':' && c != '=') {
+                    throw syntaxError("Expected ':'");
+                }
+                stack[depth - 1] = NONEMPTY_OBJECT;
+                return peeked = readValue();
+            }
+            case EMPTY_DOCUMENT -> {
+                stack[depth - 1] = NONEMPTY_DOCUMENT;
+                return peeked = readValue();
+            }
+            default -> {
+                c = nextNonWhitespace();
+                if (c != -1) {
+                    throw syntaxError("Trailing content after document");
+                }
+                return peeked = Token.END_DOCUMENT;
+            }
+        }
+    }
+
+    /**
+     * @return true while the current array or object has more elements.
+     */
+    public boolean hasNext() throws IOException {
+        Token token = peek();
+        return token != Token.END_ARRAY && token != Token.END_OBJECT && token != Token.END_DOCUMENT;
+    }
+
+    public void beginObject() throws IOException {
+        expect(Token.BEGIN_OBJECT);
+    }
+
+    public void endObject() throws IOException {
+        expect(Token.END_OBJECT);
+    }
+
+    public void beginArray() throws IOException {
+        expect(Token.BEGIN_ARRAY);
+    }
+
+    public void endArray() throws IOException {
+        expect(Token.END_ARRAY);
+    }
+
+    /**
+     * Names are looked up in a small cache so the handful of keys repeated in every cell object
+     * do not allocate a new string each time.
+     */
+    public String nextName() throws IOException {
+        expect(Token.NAME);
+        for (String cached : nameCache) {
+            if (cached != null && cached.contentEquals(text)) {
+                return cached;
+            }
+        }
+        String name = text.toString();
+        nameCache[nameCacheNext] = name;
+        nameCacheNext = (nameCacheNext + 1) % NAME_CACHE_SIZE;
+        return name;
+    }
+
+    /**
+     * Skips the next value, including whole nested arrays or objects.
+     */
+    public void skipValue() throws IOException {
+        int nested = 0;
+        do {
+            Token token = peek();
+            peeked = null;
+            if (token == Token.BEGIN_ARRAY || token == Token.BEGIN_OBJECT) {
+                nested++;
+            } else if (token == Token.END_ARRAY || token == Token.END_OBJECT) {
+                nested--;
+            } else if (token == Token.END_DOCUMENT) {
+                throw syntaxError("Unexpected end of document");
+            }
+        } while (nested > 0);
+    }
+
+    // -------------------------------------------------------------------------
+    // Scalars
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns a string value; numbers and booleans are returned as their literal text.
+     */
+    public String nextString() throws IOException {
+        Token token = peek();
+        if (token != Token.STRING && token != Token.NUMBER && token != Token.BOOLEAN) {
+            throw syntaxError("Expected a string but was " + token);
+        }
+        peeked = null;
+        return text.toString();
+    }
+
+    public int nextInt() throws IOException {
+        expect(Token.NUMBER);
+        int length = text.length();
+        boolean negative = length > 0 && text.charAt(0) == '-';
+        int start = negative ? 1 : 0;
+        if (length > start && length - start <= 9) {
+            int value = 0;
+            int i = start;
+            for (; i < length; i++) {
+                char ch = text.charAt(i);
+                if (ch < '0' || ch > '9') {
+                    break;
+                }
+                value = value * 10 + (ch - '0');
+            }
+            if (i == length) {
+                return negative ? -value : value;
+            }
+        }
+        return (int) parseDouble();
+    }
+
+    public float nextFloat() throws IOException {
+        expect(Token.NUMBER);
+        return (float) parseDouble();
+    }
+
+    public boolean nextBoolean() throws IOException {
+        expect(Token.BOOLEAN);
+        return text.charAt(0) == 't';
+    }
+
+    public void nextNull() throws IOException {
+        expect(Token.NULL);
+    }
+
+    /**
+     * Reads an array of integers into a reused scratch buffer and returns an exact-size copy.
+     */
+    public int[] nextIntArray() throws IOException {
+        beginArray();
+        int count = 0;
+        while (hasNext()) {
+            if (count == intScratch.length) {
+                intScratch = Arrays.copyOf(intScratch, count * 2);
+            }
+            intScratch[count++] = nextInt();
+        }
+        endArray();
+        return Arrays.copyOf(intScratch, count);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    // -------------------------------------------------------------------------
+    // Lexing
+    // -------------------------------------------------------------------------
+
+    private void expect(Token expected) throws IOException {
+        Token token = peek();
+        if (token != expected) {
+            throw syntaxError("Expected " + expected + " but was " + token);
+        }
+        peeked = null;
+    }
+
+    private Token readValue() throws IOException {
+        int c = nextNonWhitespace();
+        switch (c) {
+            case '{' -> {
+                push(EMPTY_OBJECT);
+                return Token.BEGIN_OBJECT;
+            }
+            case '[' -> {
+                push(EMPTY_ARRAY);
+                return Token.BEGIN_ARRAY;
+            }
+            case '"' -> {
+                readQuoted();
+                return Token.STRING;
+            }
+            case -1 -> throw syntaxError("Unexpected end of document");
+            default -> {
+                unread(c);
+                readLiteral();
+                if (text.length() == 0) {
+                    throw syntaxError("Unexpected character '" + (char) c + "'");
+                }
+                char first = text.charAt(0);
+                if ((first >= '0' && first <= '9') || first == '-') {
+                    return Token.NUMBER;
+                }
+                if (isLiteral("true") || isLiteral("false")) {
+                    return Token.BOOLEAN;
+                }
+                if (isLiteral("null")) {
+                    return Token.NULL;
+                }
+                return Token.STRING;
+            }
+        }
+    }
+
+    private boolean isLiteral(String literal) {
+        return literal.contentEquals(text);
+    }
+
+    private void push(int scope) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+        }
+        stack[depth++] = scope;
+    }
+
+    private void readQuoted() throws IOException {
+        text.setLength(0);
+        while (true) {
+            int c = read();
+            if (c == '"') {
+                return;
+            }
+            if (c == -1) {
+                throw syntaxError("Unterminated string");
+            }
+            if (c == '\\') {
+                c = read();
+                switch (c) {
+                    case 'n' -> text.append('\n');
+                    case 't' -> text.append('\t');
+                    case 'r' -> text.append('\r');
+                    case 'b' -> text.append('\b');
+                    case 'f' -> text.append('\f');
+                    case 'u' -> {
+                        int value = 0;
+                        for (int i = 0; i < 4; i++) {
+                            int digit = Character.digit(read(), 16);
+                            if (digit < 0) {
+                                throw syntaxError("Invalid \\u escape");
+                            }
+                            value = (value << 4) | digit;
+                        }
+                        text.append((char) value);
+                    }
+                    case -1 -> throw syntaxError("Unterminated escape");
+                    default -> text.append((char) c);
+                }
+            } else {
+                text.append((char) c);
+            }
+        }
+    }
+
+    private void readLiteral() throws IOException {
+        text.setLength(0);
+        while (true) {
+            int c = read();
+            switch (c) {
+                case -1 -> {
+                    return;
+                }
+                case ' ', '\t', '\n', '\r', ',', ':', '=', '[', ']', '{', '}', '"' -> {
+                    unread(c);
+                    return;
+                }
+                default -> text.append((char) c);
+            }
+        }
+    }
+
+    private double parseDouble() throws IOException {
+        try {
+            return Double.parseDouble(text.toString());
+        } catch (NumberFormatException exception) {
+            throw syntaxError("Invalid number '" + text + "'");
+        }
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        while (true) {
+            int c = read();
+            switch (c) {
+                case ' ', '\t', '\n', '\r' -> {
+                    // skip
+                }
+                case '/' -> skipComment();
+                default -> {
+                    return c;
+                }
+            }
+        }
+    }
+
+    private void skipComment() throws IOException {
+        int c = read();
+        if (c == '/') {
+            do {
+                c = read();
+            } while (c != '\n' && c != -1);
+        } else if (c == '*') {
+            int previous = 0;
+            while ((c = read()) != -1) {
+                if (previous == '*' && c == '/') {
+                    return;
+                }
+                previous = c;
+            }
+            throw syntaxError("Unterminated comment");
+        } else {
+            throw syntaxError("Unexpected character '/'");
+        }
+    }
+
+    private int read() throws IOException {
+        if (limit < 0) {
+            return -1;
+        }
+        if (pos == limit) {
+            consumedBefore += limit;
+            pos = 0;
+            limit = in.read(buffer, 0, buffer.length);
+            if (limit <= 0) {
+                limit = -1;
+                return -1;
+            }
+        }
+        return buffer[pos++];
+    }
+
+    /**
+     * Pushes back the character returned by the last {@link #read()}; always possible because a
+     * refill only happens when the buffer is exhausted, leaving that character at {@code pos - 1}.
+     */
+    private void unread(int c) {
+        if (c != -1) {
+            pos--;
+        }
+    }
+
+    private IOException syntaxError(String message) {
+        return new IOException(message + " at offset " + (consumedBefore + Math.max(pos, 0)));
+    }
+}
@@ -2,21 +2,22 @@ package org.celestelike.game.world;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.files.FileHandle;
-import com.badlogic.gdx.utils.JsonReader;
-import com.badlogic.gdx.utils.JsonValue;
+import java.io.IOException;
+import org.celestelike.game.metrics.Tracer;
+import org.celestelike.game.metrics.jfr.LoadStageEvent;
 import org.celestelike.game.world.LevelData.TileBlueprint;
 
 /**
  * Lightweight collision layer derived from the authored tile blueprint (and optional inspector
  * snapshot) so gameplay systems can treat tagged tiles as solid ground or walls.
  */
-public final class LevelCollisionMap {
+public final class LevelCollisionMap implements CollisionWorld {
 
     private static final String SNAPSHOT_PATH = "inspector_snapshot.json";
     private static final float DEFAULT_TILE_SIZE = org.celestelike.game.world.LevelData.TILE_SIZE;
 
-    private final boolean[][] solid;
-    private final boolean[][] water;
+    private final TileMask solid;
+    private final TileMask water;
     private final int rows;
     private final int cols;
     private final float tileSize;
@@ -24,11 +25,14 @@ public final class LevelCollisionMap {
     private boolean waterMaskLoaded;
 
     public LevelCollisionMap(TileBlueprint[][] blueprint, float tileWorldSize) {
+        LoadStageEvent event = new LoadStageEvent();
+        event.begin();
+        Tracer.begin("load", "LevelCollisionMap");
         this.rows = blueprint.length;
         this.cols = blueprint[0].length;
         this.tileSize = tileWorldSize <= 0f ? DEFAULT_TILE_SIZE : tileWorldSize;
-        this.solid = new boolean[rows][cols];
-        this.water = new boolean[rows][cols];
+        this.solid = new TileMask(rows, cols);
+        this.water = new TileMask(rows, cols);
 
         solidMaskLoaded = false;
         waterMaskLoaded = false;
@@ -44,12 +48,19 @@ public final class LevelCollisionMap {
         if (loadedSnapshot) {
             logInfo("Collision map loaded from snapshot " + SNAPSHOT_PATH);
         }
+        Tracer.end("load", "LevelCollisionMap");
+        event.stage = "LevelCollisionMap";
+        event.source = SNAPSHOT_PATH;
+        event.items = rows * cols;
+        event.commit();
     }
 
+    @Override
     public float tileSize() {
         return tileSize;
     }
 
+    @Override
     public boolean isSolid(int row, int col) {
         if (col < 0 || col >= cols) {
             return true;
@@ -60,9 +71,10 @@ public final class LevelCollisionMap {
         if (row >= rows) {
             return true;
         }
-        return solid[row][col];
+        return solid.get(row, col);
     }
 
+    @Override
     public boolean isWater(int row, int col) {
         if (col < 0 || col >= cols) {
             return false;
@@ -70,53 +82,22 @@ public final class LevelCollisionMap {
         if (row < 0 || row >= rows) {
             return false;
         }
-        return water[row][col];
+        return water.get(row, col);
     }
 
-    public boolean overlapsWater(float left, float bottom, float right, float top) {
-        if (left > right || bottom > top) {
-            return false;
-        }
-        int colStart = worldToCol(Math.max(left, 0f));
-        int colEnd = worldToCol(Math.max(right, 0f));
-        int rowStart = worldToRow(Math.max(bottom, 0f));
-        int rowEnd = worldToRow(Math.max(top, 0f));
-        for (int row = Math.min(rowStart, rowEnd); row <= Math.max(rowStart, rowEnd); row++) {
-            for (int col = Math.min(colStart, colEnd); col <= Math.max(colStart, colEnd); col++) {
-                if (isWater(row, col)) {
-                    return true;
-                }
-            }
-        }
-        return false;
-    }
-
-    public int worldToCol(float worldX) {
-        return (int) Math.floor(worldX / tileSize);
-    }
-
-    public int worldToRow(float worldY) {
-        // Row 0 is the bottom row; rows increase upwards.
-        return (int) Math.floor(worldY / tileSize);
-    }
-
-    public float colLeft(int col) {
-        return col * tileSize;
+    public int rows() {
+        return rows;
     }
 
-    public float rowBottom(int row) {
-        return row * tileSize;
-    }
-
-    public float rowTop(int row) {
-        return rowBottom(row) + tileSize;
+    public int cols() {
+        return cols;
     }
 
     private void populateFromBlueprint(TileBlueprint[][] blueprint) {
         for (int row = 0; row < rows; row++) {
             for (int col = 0; col < cols; col++) {
                 TileBlueprint cell = blueprint[row][col];
-                solid[row][col] = cell != null && cell.frames().length > 0;
+                solid.set(row, col, cell != null && cell.frames().length > 0);
             }
         }
         logInfo("Collision map populated from blueprint (no snapshot found)");
@@ -127,7 +108,7 @@ public final class LevelCollisionMap {
         for (int row = 0; row < rows; row++) {
             for (int col = 0; col < cols; col++) {
                 TileBlueprint cell = blueprint[row][col];
-                water[row][col] = containsFrame(cell, waterTileIndex);
+                water.set(row, col, containsFrame(cell, waterTileIndex));
             }
         }
     }
@@ -145,32 +126,56 @@ public final class LevelCollisionMap {
     }
 
     private boolean loadMasksFromSnapshot() {
-        try {
-            FileHandle file = locateSnapshot();
-            if (file == null) {
-                return false;
-            }
-            JsonValue root = new JsonReader().parse(file);
-            boolean loadedAnything = false;
-            JsonValue solidArray = root.get("solid");
-            if (solidArray != null && solidArray.size > 0) {
-                applySolidEntries(solidArray);
-                solidMaskLoaded = true;
-                loadedAnything = true;
-            }
-            JsonValue waterArray = root.get("water");
-            if (waterArray != null && waterArray.size > 0) {
-                applyWaterEntries(waterArray);
-                waterMaskLoaded = true;
-                loadedAnything = true;
-            }
-            return loadedAnything;
+        FileHandle file = locateSnapshot();
+        if (file == null) {
+            return false;
+        }
+        try (JsonPullParser parser = JsonPullParser.open(file)) {
+            readSnapshot(parser);
+            solidMaskLoaded = !solid.isEmpty();
+            waterMaskLoaded = !water.isEmpty();
+            return solidMaskLoaded || waterMaskLoaded;
         } catch (Exception exception) {
             logError("Failed to parse inspector snapshot for collisions", exception);
             return false;
         }
     }
 
+    /**
+     * Streams the snapshot straight into the masks. A packed {@code solidMask}/{@code waterMask}
+     * wins over the legacy entry list regardless of which one appears first.
+     */
+    private void readSnapshot(JsonPullParser parser) throws IOException {
+        boolean solidPacked = false;
+        boolean waterPacked = false;
+        parser.beginObject();
+        while (parser.hasNext()) {
+            switch (parser.nextName()) {
+                case "solidMask" -> {
+                    solid.clear();
+                    solidPacked = solid.read(parser);
+                }
+                case "waterMask" -> {
+                    water.clear();
+                    waterPacked = water.read(parser);
+                }
+                case "solid" -> readLegacyLayer(parser, solid, solidPacked);
+                case "water" -> readLegacyLayer(parser, water, waterPacked);
+                default -> parser.skipValue();
+            }
+        }
+        parser.endObject();
+    }
+
+    private static void readLegacyLayer(JsonPullParser parser, TileMask mask, boolean packedLoaded)
+            throws IOException {
+        if (packedLoaded || parser.peek() != JsonPullParser.Token.BEGIN_ARRAY) {
+            parser.skipValue();
+        } else {
+            mask.applyLegacyEntries(parser);
+        }
+    }
+
     private FileHandle locateSnapshot() {
         if (Gdx.files == null) {
             return null;
@@ -186,76 +191,6 @@ public final class LevelCollisionMap {
         return null;
     }
 
-    private void applySolidEntries(JsonValue array) {
-        JsonValue entry = array.child;
-        while (entry != null) {
-            if (entry.isArray()) {
-                if (entry.size >= 2) {
-                    markSolid(entry.getInt(0), entry.getInt(1));
-                }
-                entry = entry.next;
-            } else if (entry.isObject()) {
-                JsonValue rowValue = entry.get("row");
-                JsonValue colValue = entry.get("col");
-                if (rowValue != null && colValue != null) {
-                    markSolid(rowValue.asInt(), colValue.asInt());
-                }
-                entry = entry.next;
-            } else if (entry.isNumber()) {
-                JsonValue colValue = entry.next;
-                if (colValue == null || !colValue.isNumber()) {
-                    break;
-                }
-                markSolid(entry.asInt(), colValue.asInt());
-                entry = colValue.next;
-            } else {
-                entry = entry.next;
-            }
-        }
-    }
-
-    private void applyWaterEntries(JsonValue array) {
-        JsonValue entry = array.child;
-        while (entry != null) {
-            if (entry.isArray()) {
-                if (entry.size >= 2) {
-                    markWater(entry.getInt(0), entry.getInt(1));
-                }
-                entry = entry.next;
-            } else if (entry.isObject()) {
-                JsonValue rowValue = entry.get("row");
-                JsonValue colValue = entry.get("col");
-                if (rowValue != null && colValue != null) {
-                    markWater(rowValue.asInt(), colValue.asInt());
-                }
-                entry = entry.next;
-            } else if (entry.isNumber()) {
-                JsonValue colValue = entry.next;
-                if (colValue == null || !colValue.isNumber()) {
-                    break;
-                }
-                markWater(entry.asInt(), colValue.asInt());
-                entry = colValue.next;
-            } else {
-                entry = entry.next;
-            }
-        }
-    }
-
-    private void markSolid(int row, int col) {
-        if (row < 0 || row >= rows || col < 0 || col >= cols) {
-            return;
-        }
-        solid[row][col] = true;
-    }
-
-    private void markWater(int row, int col) {
-        if (row < 0 || row >= rows || col < 0 || col >= cols) {
-            return;
-        }
-        water[row][col] = true;
-    }
-
     private static void logInfo(String message) {
         if (Gdx.app != null) {
             Gdx.app.log("LevelCollisionMap", message);
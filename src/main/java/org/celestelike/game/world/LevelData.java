@@ -2,11 +2,13 @@ package org.celestelike.game.world;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.files.FileHandle;
-import com.badlogic.gdx.utils.JsonReader;
 import com.badlogic.gdx.utils.JsonValue;
 import com.badlogic.gdx.utils.JsonWriter;
 import java.io.IOException;
 import java.io.Writer;
+import java.util.Arrays;
+import org.celestelike.game.metrics.Tracer;
+import org.celestelike.game.metrics.jfr.LoadStageEvent;
 
 /**
  * Holds the initial tile blueprint used by the in-game editor.
@@ -66,7 +68,8 @@ public final class LevelData {
 
     /**
      * Persists the provided blueprint to {@value BLUEPRINT_EXPORT_PATH} so the game/editor/inspector
-     * reload the same layout next launch.
+     * reload the same layout next launch. The file is replaced atomically, and the method is safe to
+     * call from a background thread as long as the caller no longer mutates {@code blueprint}.
      */
     public static synchronized boolean saveBlueprint(TileBlueprint[][] blueprint) {
         if (blueprint == null || blueprint.length == 0) {
@@ -77,38 +80,8 @@ public final class LevelData {
             return false;
         }
         FileHandle handle = Gdx.files.local(BLUEPRINT_EXPORT_PATH);
-        if (handle.file().getParentFile() != null) {
-            // Ensure parent directories exist when running from unusual working dirs.
-            handle.file().getParentFile().mkdirs();
-        }
-        try (Writer writer = handle.writer(false, "UTF-8")) {
-            JsonWriter json = new JsonWriter(writer);
-            json.setOutputType(JsonWriter.OutputType.json);
-            json.object();
-            json.name("rows").value(blueprint.length);
-            json.name("cols").value(blueprint[0].length);
-            json.name("cells");
-            json.array();
-            for (TileBlueprint[] row : blueprint) {
-                json.array();
-                for (TileBlueprint cell : row) {
-                    TileBlueprint safe = cell == null ? TileBlueprint.air() : cell;
-                    json.object();
-                    json.name("duration").value(safe.frameDuration());
-                    json.name("frames");
-                    json.array();
-                    int[] frames = safe.frames();
-                    for (int frame : frames) {
-                        json.value(frame);
-                    }
-                    json.pop(); // frames array
-                    json.pop(); // cell object
-                }
-                json.pop(); // row array
-            }
-            json.pop(); // cells array
-            json.pop(); // root object
-            json.close();
+        try {
+            AtomicFileWriter.write(handle.file().toPath(), writer -> writeBlueprint(writer, blueprint));
             cachedBlueprint = deepCopy(blueprint);
             logInfo("Saved blueprint override to " + handle.file().getAbsolutePath());
             return true;
@@ -118,6 +91,46 @@ public final class LevelData {
         }
     }
 
+    /**
+     * Streams {@code blueprint} in the {@value BLUEPRINT_EXPORT_PATH} format. The writer is flushed
+     * but left open.
+     */
+    public static void writeBlueprint(Writer writer, TileBlueprint[][] blueprint) throws IOException {
+        JsonWriter json = new JsonWriter(writer);
+        json.setOutputType(JsonWriter.OutputType.json);
+        json.object();
+        json.name("rows").value(blueprint.length);
+        json.name("cols").value(blueprint[0].length);
+        json.name("cells");
+        json.array();
+        for (TileBlueprint[] row : blueprint) {
+            json.array();
+            for (TileBlueprint cell : row) {
+                writeCell(json, cell);
+            }
+            json.pop(); // row array
+        }
+        json.pop(); // cells array
+        json.pop(); // root object
+        json.flush();
+    }
+
+    /**
+     * Writes one cell object ({@code duration} + {@code frames}) at the writer's current position.
+     */
+    public static void writeCell(JsonWriter json, TileBlueprint cell) throws IOException {
+        TileBlueprint safe = cell == null ? TileBlueprint.air() : cell;
+        json.object();
+        json.name("duration").value(safe.frameDuration());
+        json.name("frames");
+        json.array();
+        for (int frame : safe.frames()) {
+            json.value(frame);
+        }
+        json.pop(); // frames array
+        json.pop(); // cell object
+    }
+
     public static String blueprintExportPath() {
         return BLUEPRINT_EXPORT_PATH;
     }
@@ -151,6 +164,19 @@ public final class LevelData {
     }
 
     private static TileBlueprint[][] loadBlueprintFromDisk() {
+        LoadStageEvent event = new LoadStageEvent();
+        event.begin();
+        Tracer.begin("load", "LevelData.loadBlueprint");
+        TileBlueprint[][] blueprint = readBlueprintFromDisk();
+        Tracer.end("load", "LevelData.loadBlueprint");
+        event.stage = "LevelData";
+        event.source = BLUEPRINT_EXPORT_PATH;
+        event.items = blueprint.length * blueprint[0].length;
+        event.commit();
+        return blueprint;
+    }
+
+    private static TileBlueprint[][] readBlueprintFromDisk() {
         TileBlueprint[][] fallback = deepCopy(DEFAULT_BLUEPRINT);
         if (!isFileIOAvailable()) {
             return fallback;
@@ -159,22 +185,12 @@ public final class LevelData {
         if (!handle.exists()) {
             return fallback;
         }
-        try {
-            JsonValue root = new JsonReader().parse(handle);
-            JsonValue cellsNode = root.get("cells");
-            if (cellsNode == null || cellsNode.size == 0) {
+        try (JsonPullParser parser = JsonPullParser.open(handle)) {
+            TileBlueprint[][] map = readBlueprint(parser);
+            if (map == null || map.length == 0) {
                 logError("Blueprint override missing 'cells' array", null);
                 return fallback;
             }
-            TileBlueprint[][] map = new TileBlueprint[cellsNode.size][];
-            int rowIndex = 0;
-            for (JsonValue rowNode = cellsNode.child; rowNode != null; rowNode = rowNode.next, rowIndex++) {
-                map[rowIndex] = new TileBlueprint[rowNode.size];
-                int colIndex = 0;
-                for (JsonValue cellNode = rowNode.child; cellNode != null; cellNode = cellNode.next, colIndex++) {
-                    map[rowIndex][colIndex] = parseCell(cellNode);
-                }
-            }
             logInfo("Loaded blueprint override from " + handle.file().getAbsolutePath());
             return map;
         } catch (Exception exception) {
@@ -183,7 +199,84 @@ public final class LevelData {
         }
     }
 
-    private static TileBlueprint parseCell(JsonValue node) {
+    /**
+     * Streams a {@value BLUEPRINT_EXPORT_PATH} document. The optional {@code rows}/{@code cols}
+     * header written by {@link #writeBlueprint} sizes the arrays up front; without it rows grow as
+     * they are read.
+     *
+     * @return the cell grid, or {@code null} if the document has no {@code cells} array
+     */
+    public static TileBlueprint[][] readBlueprint(JsonPullParser parser) throws IOException {
+        int rowsHint = 0;
+        int colsHint = 0;
+        TileBlueprint[][] map = null;
+        parser.beginObject();
+        while (parser.hasNext()) {
+            switch (parser.nextName()) {
+                case "rows" -> rowsHint = parser.nextInt();
+                case "cols" -> colsHint = parser.nextInt();
+                case "cells" -> map = readCells(parser, rowsHint, colsHint);
+                default -> parser.skipValue();
+            }
+        }
+        parser.endObject();
+        return map;
+    }
+
+    private static TileBlueprint[][] readCells(JsonPullParser parser, int rowsHint, int colsHint)
+            throws IOException {
+        TileBlueprint[][] map = new TileBlueprint[Math.max(rowsHint, 1)][];
+        int rowCount = 0;
+        parser.beginArray();
+        while (parser.hasNext()) {
+            TileBlueprint[] row = new TileBlueprint[Math.max(colsHint, 1)];
+            int colCount = 0;
+            parser.beginArray();
+            while (parser.hasNext()) {
+                if (colCount == row.length) {
+                    row = Arrays.copyOf(row, colCount * 2);
+                }
+                row[colCount++] = readCell(parser);
+            }
+            parser.endArray();
+            if (rowCount == map.length) {
+                map = Arrays.copyOf(map, rowCount * 2);
+            }
+            map[rowCount++] = colCount == row.length ? row : Arrays.copyOf(row, colCount);
+        }
+        parser.endArray();
+        return rowCount == map.length ? map : Arrays.copyOf(map, rowCount);
+    }
+
+    /**
+     * Streaming counterpart of {@link #parseCell(JsonValue)}.
+     */
+    public static TileBlueprint readCell(JsonPullParser parser) throws IOException {
+        if (parser.peek() != JsonPullParser.Token.BEGIN_OBJECT) {
+            parser.skipValue();
+            return TileBlueprint.air();
+        }
+        int[] frames = null;
+        float duration = DEFAULT_FRAME_DURATION;
+        parser.beginObject();
+        while (parser.hasNext()) {
+            switch (parser.nextName()) {
+                case "frames" -> frames = parser.nextIntArray();
+                case "duration" -> duration = parser.nextFloat();
+                default -> parser.skipValue();
+            }
+        }
+        parser.endObject();
+        if (frames == null || frames.length == 0) {
+            return TileBlueprint.air();
+        }
+        return new TileBlueprint(frames, duration);
+    }
+
+    /**
+     * Parses one cell object in the {@value BLUEPRINT_EXPORT_PATH} format.
+     */
+    public static TileBlueprint parseCell(JsonValue node) {
         if (node == null) {
             return TileBlueprint.air();
         }
@@ -0,0 +1,462 @@
+package org.celestelike.game.world;
+
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.JsonWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Packed per-tile boolean layer (solid, water, ...) stored as a row-major bitset.
+ * Row 0 is the bottom row, matching {@link LevelCollisionMap}.
+ *
+ * <p>Snapshot encoding ({@code inspector_snapshot.json}):
+ * <pre>
+ * "solidMask": {"encoding": "bitset", "rows": R, "cols": C, "data": "&lt;base64&gt;"}
+ * "solidMask": {"encoding": "rle",    "rows": R, "cols": C, "runs": [[row, start, length, start, length, ...], ...]}
+ * </pre>
+ * {@code bitset} is the little-endian byte image of the bit array; {@code rle} lists the set runs of
+ * each non-empty row. Writers pick whichever is smaller. The legacy {@code "solid": [[row, col], ...]}
+ * entry list is still accepted through {@link #applyLegacyEntries(JsonValue)}. Both forms can be
+ * read from a {@link JsonValue} tree or streamed from a {@link JsonPullParser}.
+ */
+public final class TileMask {
+
+    public static final String ENCODING_BITSET = "bitset";
+    public static final String ENCODING_RLE = "rle";
+
+    private final int rows;
+    private final int cols;
+    private final long[] words;
+
+    public TileMask(int rows, int cols) {
+        this.rows = Math.max(0, rows);
+        this.cols = Math.max(0, cols);
+        this.words = new long[wordCount(this.rows * this.cols)];
+    }
+
+    private static int wordCount(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int cols() {
+        return cols;
+    }
+
+    public boolean inBounds(int row, int col) {
+        return row >= 0 && row < rows && col >= 0 && col < cols;
+    }
+
+    /**
+     * @return the bit at {@code (row, col)}; out-of-bounds cells read as {@code false}.
+     */
+    public boolean get(int row, int col) {
+        if (!inBounds(row, col)) {
+            return false;
+        }
+        int bit = row * cols + col;
+        return (words[bit >>> 6] & (1L << bit)) != 0L;
+    }
+
+    public void set(int row, int col, boolean value) {
+        if (!inBounds(row, col)) {
+            return;
+        }
+        int bit = row * cols + col;
+        if (value) {
+            words[bit >>> 6] |= 1L << bit;
+        } else {
+            words[bit >>> 6] &= ~(1L << bit);
+        }
+    }
+
+    public void toggle(int row, int col) {
+        if (inBounds(row, col)) {
+            int bit = row * cols + col;
+            words[bit >>> 6] ^= 1L << bit;
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(words, 0L);
+    }
+
+    public int cardinality() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * @return a hash of the size and the set bits
+     */
+    public long contentHash() {
+        long hash = 31L * rows + cols;
+        for (long word : words) {
+            hash = 31L * hash + word;
+        }
+        return hash;
+    }
+
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0L) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copies the window {@code [row0, row0 + windowRows) x [col0, col0 + windowCols)} into a new
+     * mask whose cell {@code (0, 0)} is {@code (row0, col0)}.
+     */
+    public TileMask copyWindow(int row0, int col0, int windowRows, int windowCols) {
+        TileMask copy = new TileMask(windowRows, windowCols);
+        for (int r = 0; r < windowRows; r++) {
+            for (int c = 0; c < windowCols; c++) {
+                if (get(row0 + r, col0 + c)) {
+                    copy.set(r, c, true);
+                }
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Overwrites the cells covered by {@code source} placed at {@code (row0, col0)}.
+     */
+    public void paste(TileMask source, int row0, int col0) {
+        for (int r = 0; r < source.rows; r++) {
+            for (int c = 0; c < source.cols; c++) {
+                set(row0 + r, col0 + c, source.get(r, c));
+            }
+        }
+    }
+
+    public void clearWindow(int row0, int col0, int windowRows, int windowCols) {
+        for (int r = row0; r < row0 + windowRows; r++) {
+            for (int c = col0; c < col0 + windowCols; c++) {
+                set(r, c, false);
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Encoding
+    // -------------------------------------------------------------------------
+
+    public String toBase64() {
+        int byteLength = (rows * cols + 7) >>> 3;
+        ByteBuffer buffer = ByteBuffer.allocate(words.length * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asLongBuffer().put(words);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), byteLength));
+    }
+
+    /**
+     * Replaces the contents with a {@link #toBase64()} image of a mask with the same dimensions.
+     */
+    public void readBase64(String data) {
+        byte[] bytes = Base64.getDecoder().decode(data);
+        ByteBuffer buffer = ByteBuffer.allocate(words.length * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(bytes, 0, Math.min(bytes.length, buffer.capacity()));
+        buffer.flip();
+        buffer.limit(buffer.capacity());
+        buffer.asLongBuffer().get(words);
+        clearTail();
+    }
+
+    private void clearTail() {
+        int bits = rows * cols;
+        if ((bits & 63) != 0 && words.length > 0) {
+            words[words.length - 1] &= (1L << bits) - 1L;
+        }
+    }
+
+    /**
+     * @return number of set runs across all rows (the {@code rle} payload is two ints per run).
+     */
+    public int runCount() {
+        int runs = 0;
+        for (int row = 0; row < rows; row++) {
+            boolean previous = false;
+            for (int col = 0; col < cols; col++) {
+                boolean current = get(row, col);
+                if (current && !previous) {
+                    runs++;
+                }
+                previous = current;
+            }
+        }
+        return runs;
+    }
+
+    /**
+     * @return {@link #ENCODING_RLE} when the run list is expected to be smaller than the base64
+     *         bitset, otherwise {@link #ENCODING_BITSET}.
+     */
+    public String preferredEncoding() {
+        long bitsetChars = ((rows * (long) cols + 7) / 8 + 2) / 3 * 4;
+        // Roughly "123,45," per run plus a row prefix; good enough to pick the smaller form.
+        long rleChars = runCount() * 10L + rows * 4L;
+        return rleChars < bitsetChars ? ENCODING_RLE : ENCODING_BITSET;
+    }
+
+    /**
+     * Writes {@code "name": {...}} using {@link #preferredEncoding()}.
+     */
+    public void writeJson(JsonWriter json, String name) throws IOException {
+        writeJson(json, name, preferredEncoding());
+    }
+
+    public void writeJson(JsonWriter json, String name, String encoding) throws IOException {
+        json.name(name).object();
+        json.name("encoding").value(encoding);
+        json.name("rows").value(rows);
+        json.name("cols").value(cols);
+        if (ENCODING_RLE.equals(encoding)) {
+            json.name("runs").array();
+            for (int row = 0; row < rows; row++) {
+                boolean open = false;
+                int col = 0;
+                while (col < cols) {
+                    if (!get(row, col)) {
+                        col++;
+                        continue;
+                    }
+                    int start = col;
+                    while (col < cols && get(row, col)) {
+                        col++;
+                    }
+                    if (!open) {
+                        json.array().value(row);
+                        open = true;
+                    }
+                    json.value(start).value(col - start);
+                }
+                if (open) {
+                    json.pop();
+                }
+            }
+            json.pop(); // runs
+        } else {
+            json.name("data").value(toBase64());
+        }
+        json.pop();
+    }
+
+    /**
+     * Decodes an encoded mask object into this mask. Cells outside this mask are ignored, so a
+     * snapshot authored for a different map size still loads what overlaps.
+     *
+     * @return false if the node is not a recognised mask object
+     */
+    public boolean readJson(JsonValue node) {
+        if (node == null || !node.isObject()) {
+            return false;
+        }
+        String encoding = node.getString("encoding", ENCODING_BITSET);
+        int sourceRows = node.getInt("rows", rows);
+        int sourceCols = node.getInt("cols", cols);
+        if (ENCODING_RLE.equals(encoding)) {
+            JsonValue runs = node.get("runs");
+            for (JsonValue rowNode = runs == null ? null : runs.child; rowNode != null; rowNode = rowNode.next) {
+                JsonValue value = rowNode.child;
+                if (value == null) {
+                    continue;
+                }
+                int row = value.asInt();
+                for (value = value.next; value != null && value.next != null; value = value.next.next) {
+                    setRun(row, value.asInt(), value.next.asInt());
+                }
+            }
+            return true;
+        }
+        String data = node.getString("data", null);
+        if (data == null) {
+            return false;
+        }
+        if (sourceRows == rows && sourceCols == cols) {
+            readBase64(data);
+        } else {
+            TileMask source = new TileMask(sourceRows, sourceCols);
+            source.readBase64(data);
+            paste(source.copyWindow(0, 0, Math.min(rows, sourceRows), Math.min(cols, sourceCols)), 0, 0);
+        }
+        return true;
+    }
+
+    /**
+     * Streaming counterpart of {@link #readJson(JsonValue)}: runs are applied as they are read and
+     * a bitset payload is decoded once the object ends, whatever the key order.
+     *
+     * @return false if the object held neither {@code data} nor {@code runs}
+     */
+    public boolean read(JsonPullParser parser) throws IOException {
+        int sourceRows = rows;
+        int sourceCols = cols;
+        String data = null;
+        boolean sawRuns = false;
+        parser.beginObject();
+        while (parser.hasNext()) {
+            switch (parser.nextName()) {
+                case "rows" -> sourceRows = parser.nextInt();
+                case "cols" -> sourceCols = parser.nextInt();
+                case "data" -> data = parser.nextString();
+                case "runs" -> {
+                    sawRuns = true;
+                    parser.beginArray();
+                    while (parser.hasNext()) {
+                        parser.beginArray();
+                        int row = parser.nextInt();
+                        while (parser.hasNext()) {
+                            int start = parser.nextInt();
+                            if (!parser.hasNext()) {
+                                break;
+                            }
+                            setRun(row, start, parser.nextInt());
+                        }
+                        parser.endArray();
+                    }
+                    parser.endArray();
+                }
+                default -> parser.skipValue();
+            }
+        }
+        parser.endObject();
+        if (data == null) {
+            return sawRuns;
+        }
+        if (sourceRows == rows && sourceCols == cols) {
+            readBase64(data);
+        } else {
+            TileMask source = new TileMask(sourceRows, sourceCols);
+            source.readBase64(data);
+            paste(source.copyWindow(0, 0, Math.min(rows, sourceRows), Math.min(cols, sourceCols)), 0, 0);
+        }
+        return true;
+    }
+
+    /**
+     * Sets {@code length} cells of {@code row} starting at {@code start}, clipped to the mask.
+     */
+    public void setRun(int row, int start, int length) {
+        if (row < 0 || row >= rows) {
+            return;
+        }
+        int from = Math.max(0, start);
+        int to = Math.min(cols, start + length);
+        for (int col = from; col < to; col++) {
+            int bit = row * cols + col;
+            words[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    /**
+     * Applies the legacy per-cell entry list. Accepts {@code [row, col]} pairs,
+     * {@code {"row": r, "col": c}} objects and a flat {@code [r0, c0, r1, c1, ...]} list.
+     */
+    public void applyLegacyEntries(JsonValue array) {
+        JsonValue entry = array == null ? null : array.child;
+        while (entry != null) {
+            if (entry.isArray()) {
+                if (entry.size >= 2) {
+                    set(entry.getInt(0), entry.getInt(1), true);
+                }
+                entry = entry.next;
+            } else if (entry.isObject()) {
+                JsonValue rowValue = entry.get("row");
+                JsonValue colValue = entry.get("col");
+                if (rowValue != null && colValue != null) {
+                    set(rowValue.asInt(), colValue.asInt(), true);
+                }
+                entry = entry.next;
+            } else if (entry.isNumber()) {
+                JsonValue colValue = entry.next;
+                if (colValue == null || !colValue.isNumber()) {
+                    break;
+                }
+                set(entry.asInt(), colValue.asInt(), true);
+                entry = colValue.next;
+            } else {
+                entry = entry.next;
+            }
+        }
+    }
+
+    /**
+     * Streaming counterpart of {@link #applyLegacyEntries(JsonValue)}; the parser must be positioned
+     * on the entry array.
+     */
+    public void applyLegacyEntries(JsonPullParser parser) throws IOException {
+        parser.beginArray();
+        while (parser.hasNext()) {
+            switch (parser.peek()) {
+                case BEGIN_ARRAY -> {
+                    parser.beginArray();
+                    if (parser.hasNext()) {
+                        int row = parser.nextInt();
+                        if (parser.hasNext()) {
+                            set(row, parser.nextInt(), true);
+                        }
+                    }
+                    while (parser.hasNext()) {
+                        parser.skipValue();
+                    }
+                    parser.endArray();
+                }
+                case BEGIN_OBJECT -> {
+                    int row = -1;
+                    int col = -1;
+                    parser.beginObject();
+                    while (parser.hasNext()) {
+                        switch (parser.nextName()) {
+                            case "row" -> row = parser.nextInt();
+                            case "col" -> col = parser.nextInt();
+                            default -> parser.skipValue();
+                        }
+                    }
+                    parser.endObject();
+                    set(row, col, true);
+                }
+                case NUMBER -> {
+                    int row = parser.nextInt();
+                    if (!parser.hasNext() || parser.peek() != JsonPullParser.Token.NUMBER) {
+                        break;
+                    }
+                    set(row, parser.nextInt(), true);
+                }
+                default -> parser.skipValue();
+            }
+        }
+        parser.endArray();
+    }
+
+    /**
+     * Loads the layer called {@code name} from a snapshot root, preferring the packed
+     * {@code nameMask} object over the legacy {@code name} entry list.
+     *
+     * @return true if either form was present and non-empty, matching the legacy loader where an
+     *         empty list meant "not authored"
+     */
+    public boolean readSnapshotLayer(JsonValue root, String name) {
+        JsonValue packed = root.get(name + "Mask");
+        if (packed != null && readJson(packed)) {
+            return !isEmpty();
+        }
+        JsonValue legacy = root.get(name);
+        if (legacy != null && legacy.size > 0) {
+            applyLegacyEntries(legacy);
+            return true;
+        }
+        return false;
+    }
+}
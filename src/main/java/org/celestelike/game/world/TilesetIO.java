@@ -7,6 +7,8 @@ import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.utils.XmlReader;
 import java.util.ArrayList;
 import java.util.List;
+import org.celestelike.game.metrics.Tracer;
+import org.celestelike.game.metrics.jfr.LoadStageEvent;
 
 /**
  * Utility loader that keeps TSX parsing logic in one place so the runtime,
@@ -37,6 +39,19 @@ public final class TilesetIO {
      * Parses a TSX file and slices the referenced image into {@link TextureRegion}s.
      */
     public static TilesetData loadFromTsx(FileHandle tsxHandle) {
+        LoadStageEvent event = new LoadStageEvent();
+        event.begin();
+        Tracer.begin("load", "TilesetIO.loadFromTsx");
+        TilesetData data = readTsx(tsxHandle);
+        Tracer.end("load", "TilesetIO.loadFromTsx");
+        event.stage = "TilesetIO";
+        event.source = tsxHandle.path();
+        event.items = data.regions().size();
+        event.commit();
+        return data;
+    }
+
+    private static TilesetData readTsx(FileHandle tsxHandle) {
         List<Texture> textures = new ArrayList<>();
         List<TextureRegion> regions = new ArrayList<>();
         try {
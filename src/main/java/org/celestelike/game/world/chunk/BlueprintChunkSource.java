@@ -0,0 +1,111 @@
+package org.celestelike.game.world.chunk;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.celestelike.game.entity.enemy.EnemyRegistry;
+import org.celestelike.game.entity.enemy.EnemySpawn;
+import org.celestelike.game.world.CollisionWorld;
+import org.celestelike.game.world.LevelData.TileBlueprint;
+import org.celestelike.game.world.TileMask;
+
+/**
+ * Serves chunks sliced out of a level that is already fully in memory: the authored
+ * {@code editor_blueprint.json} plus its collision map and enemy spawns. Lets small hand-made
+ * levels run through the same paging, rendering and spawning path as large chunked worlds.
+ */
+public final class BlueprintChunkSource implements ChunkSource {
+
+    private final TileBlueprint[][] blueprint;
+    private final CollisionWorld collisionMap;
+    private final List<EnemySpawn> spawns;
+    private final int rows;
+    private final int cols;
+    private final int knownSpawnCount;
+    private final long contentHash;
+
+    /**
+     * @param registry decides which spawns count towards clearing the level
+     */
+    public BlueprintChunkSource(
+            TileBlueprint[][] blueprint,
+            CollisionWorld collisionMap,
+            List<EnemySpawn> spawns,
+            EnemyRegistry registry) {
+        this.blueprint = blueprint;
+        this.collisionMap = collisionMap;
+        this.spawns = List.copyOf(spawns);
+        this.rows = blueprint.length;
+        this.cols = rows == 0 ? 0 : blueprint[0].length;
+        int known = 0;
+        for (EnemySpawn spawn : this.spawns) {
+            if (registry.definition(spawn.id()) != null) {
+                known++;
+            }
+        }
+        this.knownSpawnCount = known;
+        this.contentHash = hashChunks();
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public int cols() {
+        return cols;
+    }
+
+    @Override
+    public int enemySpawnCount() {
+        return knownSpawnCount;
+    }
+
+    @Override
+    public long contentHash() {
+        return contentHash;
+    }
+
+    private long hashChunks() {
+        int chunkRows = (rows + WorldChunk.SIZE - 1) / WorldChunk.SIZE;
+        int chunkCols = (cols + WorldChunk.SIZE - 1) / WorldChunk.SIZE;
+        long sum = 0L;
+        for (int chunkRow = 0; chunkRow < chunkRows; chunkRow++) {
+            for (int chunkCol = 0; chunkCol < chunkCols; chunkCol++) {
+                sum += load(chunkRow, chunkCol).contentHash();
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    public WorldChunk load(int chunkRow, int chunkCol) {
+        int row0 = chunkRow * WorldChunk.SIZE;
+        int col0 = chunkCol * WorldChunk.SIZE;
+        TileBlueprint[] cells = new TileBlueprint[WorldChunk.SIZE * WorldChunk.SIZE];
+        TileMask solid = new TileMask(WorldChunk.SIZE, WorldChunk.SIZE);
+        TileMask water = new TileMask(WorldChunk.SIZE, WorldChunk.SIZE);
+        for (int r = 0; r < WorldChunk.SIZE; r++) {
+            int row = row0 + r;
+            if (row < 0 || row >= rows) {
+                continue;
+            }
+            for (int c = 0; c < WorldChunk.SIZE; c++) {
+                int col = col0 + c;
+                if (col < 0 || col >= cols) {
+                    continue;
+                }
+                cells[r * WorldChunk.SIZE + c] = blueprint[row][col];
+                solid.set(r, c, collisionMap.isSolid(row, col));
+                water.set(r, c, collisionMap.isWater(row, col));
+            }
+        }
+        List<EnemySpawn> chunkSpawns = new ArrayList<>();
+        for (EnemySpawn spawn : spawns) {
+            if (WorldChunk.chunkIndex(spawn.row()) == chunkRow && WorldChunk.chunkIndex(spawn.col()) == chunkCol) {
+                chunkSpawns.add(spawn);
+            }
+        }
+        return new WorldChunk(chunkRow, chunkCol, cells, solid, water, chunkSpawns);
+    }
+}
@@ -0,0 +1,244 @@
+package org.celestelike.game.world.chunk;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.JsonWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import org.celestelike.game.entity.enemy.EnemySpawn;
+import org.celestelike.game.world.JsonPullParser;
+import org.celestelike.game.world.LevelData;
+import org.celestelike.game.world.LevelData.TileBlueprint;
+import org.celestelike.game.world.TileMask;
+
+/**
+ * Reads a world stored as one JSON file per chunk, so only the chunks near the player are ever
+ * decoded. Layout:
+ * <pre>
+ * world.json          {"rows": R, "cols": C, "chunkSize": 32, "enemySpawnCount": N, "contentHash": "&lt;hex&gt;"}
+ * chunk_&lt;row&gt;_&lt;col&gt;.json {"cells": [[cell, ...], ...], "solidMask": {...}, "waterMask": {...},
+ *                      "enemies": [{"name": id, "row": r, "col": c}, ...]}
+ * </pre>
+ * Cell rows and masks are chunk-local with row 0 at the bottom; enemy coordinates are absolute.
+ * A missing chunk file is an empty chunk. {@code WorldChunkExporter} writes this layout from the
+ * authored level. Worlds exported before the header carried {@code contentHash} have it worked
+ * out by reading every chunk once when they are opened.
+ */
+public final class ChunkDirectorySource implements ChunkSource {
+
+    public static final String HEADER_FILE = "world.json";
+
+    private final FileHandle directory;
+    private final int rows;
+    private final int cols;
+    private final int enemySpawnCount;
+    private final long contentHash;
+
+    public ChunkDirectorySource(FileHandle directory) throws IOException {
+        this.directory = directory;
+        int headerRows = 0;
+        int headerCols = 0;
+        int chunkSize = WorldChunk.SIZE;
+        int spawnCount = 0;
+        String headerHash = null;
+        try (JsonPullParser parser = JsonPullParser.open(directory.child(HEADER_FILE))) {
+            parser.beginObject();
+            while (parser.hasNext()) {
+                switch (parser.nextName()) {
+                    case "rows" -> headerRows = parser.nextInt();
+                    case "cols" -> headerCols = parser.nextInt();
+                    case "chunkSize" -> chunkSize = parser.nextInt();
+                    case "enemySpawnCount" -> spawnCount = parser.nextInt();
+                    case "contentHash" -> headerHash = parser.nextString();
+                    default -> parser.skipValue();
+                }
+            }
+            parser.endObject();
+        }
+        if (chunkSize != WorldChunk.SIZE) {
+            throw new IOException("Unsupported chunk size " + chunkSize + " in " + directory.path()
+                    + " (expected " + WorldChunk.SIZE + ")");
+        }
+        if (headerRows <= 0 || headerCols <= 0) {
+            throw new IOException("World header in " + directory.path() + " has no size");
+        }
+        this.rows = headerRows;
+        this.cols = headerCols;
+        this.enemySpawnCount = spawnCount;
+        this.contentHash = headerHash != null ? parseHash(headerHash, directory) : hashChunks();
+    }
+
+    private static long parseHash(String hex, FileHandle directory) throws IOException {
+        try {
+            return Long.parseUnsignedLong(hex, 16);
+        } catch (NumberFormatException exception) {
+            throw new IOException("Bad content hash " + hex + " in " + directory.path(), exception);
+        }
+    }
+
+    private long hashChunks() throws IOException {
+        int chunkRows = (rows + WorldChunk.SIZE - 1) / WorldChunk.SIZE;
+        int chunkCols = (cols + WorldChunk.SIZE - 1) / WorldChunk.SIZE;
+        long sum = 0L;
+        for (int chunkRow = 0; chunkRow < chunkRows; chunkRow++) {
+            for (int chunkCol = 0; chunkCol < chunkCols; chunkCol++) {
+                sum += load(chunkRow, chunkCol).contentHash();
+            }
+        }
+        return sum;
+    }
+
+    public static String chunkFileName(int chunkRow, int chunkCol) {
+        return "chunk_" + chunkRow + "_" + chunkCol + ".json";
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public int cols() {
+        return cols;
+    }
+
+    @Override
+    public int enemySpawnCount() {
+        return enemySpawnCount;
+    }
+
+    @Override
+    public long contentHash() {
+        return contentHash;
+    }
+
+    @Override
+    public WorldChunk load(int chunkRow, int chunkCol) throws IOException {
+        FileHandle file = directory.child(chunkFileName(chunkRow, chunkCol));
+        if (!file.exists()) {
+            return WorldChunk.empty(chunkRow, chunkCol);
+        }
+        TileBlueprint[] cells = new TileBlueprint[WorldChunk.SIZE * WorldChunk.SIZE];
+        TileMask solid = new TileMask(WorldChunk.SIZE, WorldChunk.SIZE);
+        TileMask water = new TileMask(WorldChunk.SIZE, WorldChunk.SIZE);
+        List<EnemySpawn> spawns = new ArrayList<>();
+        try (JsonPullParser parser = JsonPullParser.open(file)) {
+            parser.beginObject();
+            while (parser.hasNext()) {
+                switch (parser.nextName()) {
+                    case "cells" -> readCells(parser, cells);
+                    case "solidMask" -> solid.read(parser);
+                    case "waterMask" -> water.read(parser);
+                    case "enemies" -> readEnemies(parser, spawns);
+                    default -> parser.skipValue();
+                }
+            }
+            parser.endObject();
+        }
+        return new WorldChunk(chunkRow, chunkCol, cells, solid, water, spawns);
+    }
+
+    private static void readCells(JsonPullParser parser, TileBlueprint[] cells) throws IOException {
+        parser.beginArray();
+        for (int r = 0; parser.hasNext(); r++) {
+            parser.beginArray();
+            for (int c = 0; parser.hasNext(); c++) {
+                TileBlueprint cell = LevelData.readCell(parser);
+                if (r < WorldChunk.SIZE && c < WorldChunk.SIZE) {
+                    cells[r * WorldChunk.SIZE + c] = cell;
+                }
+            }
+            parser.endArray();
+        }
+        parser.endArray();
+    }
+
+    private static void readEnemies(JsonPullParser parser, List<EnemySpawn> spawns) throws IOException {
+        parser.beginArray();
+        while (parser.hasNext()) {
+            String name = null;
+            int row = 0;
+            int col = 0;
+            parser.beginObject();
+            while (parser.hasNext()) {
+                switch (parser.nextName()) {
+                    case "name" -> name = parser.nextString();
+                    case "row" -> row = parser.nextInt();
+                    case "col" -> col = parser.nextInt();
+                    default -> parser.skipValue();
+                }
+            }
+            parser.endObject();
+            if (name != null) {
+                spawns.add(new EnemySpawn(name, row, col));
+            }
+        }
+        parser.endArray();
+    }
+
+    // -------------------------------------------------------------------------
+    // Writing
+    // -------------------------------------------------------------------------
+
+    public static void writeHeader(Writer writer, int rows, int cols, int enemySpawnCount, long contentHash)
+            throws IOException {
+        JsonWriter json = new JsonWriter(writer);
+        json.setOutputType(JsonWriter.OutputType.json);
+        json.object();
+        json.name("rows").value(rows);
+        json.name("cols").value(cols);
+        json.name("chunkSize").value(WorldChunk.SIZE);
+        json.name("enemySpawnCount").value(enemySpawnCount);
+        json.name("contentHash").value(Long.toHexString(contentHash));
+        json.pop();
+        json.flush();
+    }
+
+    public static void writeChunk(Writer writer, WorldChunk chunk) throws IOException {
+        JsonWriter json = new JsonWriter(writer);
+        json.setOutputType(JsonWriter.OutputType.json);
+        json.object();
+        json.name("cells").array();
+        for (int r = 0; r < WorldChunk.SIZE; r++) {
+            json.array();
+            for (int c = 0; c < WorldChunk.SIZE; c++) {
+                LevelData.writeCell(json, chunk.cell(r, c));
+            }
+            json.pop(); // row array
+        }
+        json.pop(); // cells array
+        chunk.solidMask().writeJson(json, "solidMask");
+        chunk.waterMask().writeJson(json, "waterMask");
+        json.name("enemies").array();
+        for (EnemySpawn spawn : chunk.spawns()) {
+            json.object();
+            json.name("name").value(spawn.id());
+            json.name("row").value(spawn.row());
+            json.name("col").value(spawn.col());
+            json.pop();
+        }
+        json.pop(); // enemies array
+        json.pop(); // root object
+        json.flush();
+    }
+
+    /**
+     * @return true if every cell of the chunk is air with no collision or spawns, in which case
+     *         the exporter can skip writing it.
+     */
+    public static boolean isEmpty(WorldChunk chunk) {
+        if (!chunk.solidMask().isEmpty() || !chunk.waterMask().isEmpty() || !chunk.spawns().isEmpty()) {
+            return false;
+        }
+        for (int r = 0; r < WorldChunk.SIZE; r++) {
+            for (int c = 0; c < WorldChunk.SIZE; c++) {
+                TileBlueprint cell = chunk.cell(r, c);
+                if (cell != null && cell.frames().length > 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,296 @@
+package org.celestelike.game.world.chunk;
+
+import com.badlogic.gdx.Gdx;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the chunks around a focus rectangle (the camera view plus a prefetch margin) resident.
+ * Missing chunks are decoded on background loader threads; finished loads are adopted on the
+ * render thread in {@link #update}, and least-recently-used chunks outside the focus are evicted
+ * once the resident set exceeds the memory budget. Memory therefore tracks the view size, not
+ * the level length.
+ *
+ * <p>All methods except the loader tasks run on the render thread.
+ */
+public final class ChunkPager {
+
+    /**
+     * Residency changes, delivered on the render thread.
+     */
+    public interface Listener {
+        void onChunkLoaded(WorldChunk chunk);
+
+        void onChunkEvicted(WorldChunk chunk);
+    }
+
+    private static final String TAG = "ChunkPager";
+
+    private final ChunkSource source;
+    private final long budgetBytes;
+    private final int prefetchMargin;
+    private final int chunkRows;
+    private final int chunkCols;
+    private final ExecutorService loader;
+    /** Access-ordered, so iteration starts at the least recently used chunk. */
+    private final LinkedHashMap<Long, WorldChunk> resident = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<Long, CompletableFuture<WorldChunk>> pending = new HashMap<>();
+    private final List<Long> requestScratch = new ArrayList<>();
+    private Listener listener;
+    private long residentBytes;
+    private int stalls;
+    private boolean warnedOverBudget;
+
+    private int focusRowMin;
+    private int focusRowMax = -1;
+    private int focusColMin;
+    private int focusColMax = -1;
+
+    /**
+     * @param budgetBytes    resident-set size above which non-focus chunks are evicted
+     * @param prefetchMargin chunks loaded beyond each edge of the focus rectangle
+     * @param loaderThreads  background decode threads
+     */
+    public ChunkPager(ChunkSource source, long budgetBytes, int prefetchMargin, int loaderThreads) {
+        this.source = source;
+        this.budgetBytes = Math.max(0L, budgetBytes);
+        this.prefetchMargin = Math.max(0, prefetchMargin);
+        this.chunkRows = (source.rows() + WorldChunk.SIZE - 1) / WorldChunk.SIZE;
+        this.chunkCols = (source.cols() + WorldChunk.SIZE - 1) / WorldChunk.SIZE;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.loader = Executors.newFixedThreadPool(Math.max(1, loaderThreads), runnable -> {
+            Thread thread = new Thread(runnable, "chunk-loader-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public ChunkSource source() {
+        return source;
+    }
+
+    public int chunkRows() {
+        return chunkRows;
+    }
+
+    public int chunkCols() {
+        return chunkCols;
+    }
+
+    /**
+     * Moves the focus to the tile rectangle {@code [rowMin, rowMax] x [colMin, colMax]}, adopts
+     * finished loads, queues missing chunks nearest-first and evicts over budget.
+     */
+    public void update(int rowMin, int colMin, int rowMax, int colMax) {
+        focusRowMin = clamp(WorldChunk.chunkIndex(rowMin) - prefetchMargin, chunkRows);
+        focusRowMax = clamp(WorldChunk.chunkIndex(rowMax) + prefetchMargin, chunkRows);
+        focusColMin = clamp(WorldChunk.chunkIndex(colMin) - prefetchMargin, chunkCols);
+        focusColMax = clamp(WorldChunk.chunkIndex(colMax) + prefetchMargin, chunkCols);
+
+        adoptFinishedLoads();
+        requestFocus();
+        evictOverBudget();
+    }
+
+    /**
+     * @return the chunk if it is resident, otherwise {@code null}; never blocks.
+     */
+    public WorldChunk peek(int chunkRow, int chunkCol) {
+        return resident.get(WorldChunk.key(chunkRow, chunkCol));
+    }
+
+    /**
+     * Returns the chunk, loading it on the calling thread if the prefetch has not delivered it
+     * yet. Gameplay uses this for collision so the player never falls through an unloaded chunk;
+     * each such wait is counted in {@link #stallCount()}.
+     */
+    public WorldChunk require(int chunkRow, int chunkCol) {
+        long key = WorldChunk.key(chunkRow, chunkCol);
+        WorldChunk chunk = resident.get(key);
+        if (chunk != null) {
+            return chunk;
+        }
+        CompletableFuture<WorldChunk> future = pending.remove(key);
+        if (future == null || !future.isDone()) {
+            stalls++;
+        }
+        chunk = future != null ? join(future, chunkRow, chunkCol) : loadSafely(chunkRow, chunkCol);
+        adopt(chunk);
+        return chunk;
+    }
+
+    public void forEachResident(Consumer<WorldChunk> consumer) {
+        for (WorldChunk chunk : resident.values()) {
+            consumer.accept(chunk);
+        }
+    }
+
+    public int residentCount() {
+        return resident.size();
+    }
+
+    public long residentBytes() {
+        return residentBytes;
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    public int stallCount() {
+        return stalls;
+    }
+
+    public void dispose() {
+        loader.shutdownNow();
+        try {
+            loader.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        pending.clear();
+        resident.clear();
+        residentBytes = 0L;
+    }
+
+    // -------------------------------------------------------------------------
+    // Internals
+    // -------------------------------------------------------------------------
+
+    private static int clamp(int index, int count) {
+        return Math.max(0, Math.min(count - 1, index));
+    }
+
+    private boolean inFocus(WorldChunk chunk) {
+        return chunk.chunkRow() >= focusRowMin && chunk.chunkRow() <= focusRowMax
+                && chunk.chunkCol() >= focusColMin && chunk.chunkCol() <= focusColMax;
+    }
+
+    private void adoptFinishedLoads() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        for (Iterator<Map.Entry<Long, CompletableFuture<WorldChunk>>> iterator = pending.entrySet().iterator();
+                iterator.hasNext(); ) {
+            Map.Entry<Long, CompletableFuture<WorldChunk>> entry = iterator.next();
+            CompletableFuture<WorldChunk> future = entry.getValue();
+            if (!future.isDone()) {
+                continue;
+            }
+            iterator.remove();
+            long key = entry.getKey();
+            adopt(join(future, (int) (key >> 32), (int) key));
+        }
+    }
+
+    private void requestFocus() {
+        float centerRow = (focusRowMin + focusRowMax) * 0.5f;
+        float centerCol = (focusColMin + focusColMax) * 0.5f;
+        requestScratch.clear();
+        for (int row = focusRowMin; row <= focusRowMax; row++) {
+            for (int col = focusColMin; col <= focusColMax; col++) {
+                long key = WorldChunk.key(row, col);
+                if (!resident.containsKey(key) && !pending.containsKey(key)) {
+                    requestScratch.add(key);
+                }
+            }
+        }
+        if (requestScratch.isEmpty()) {
+            return;
+        }
+        requestScratch.sort((a, b) -> Float.compare(
+                distance2(a, centerRow, centerCol), distance2(b, centerRow, centerCol)));
+        for (long key : requestScratch) {
+            int row = (int) (key >> 32);
+            int col = (int) key;
+            pending.put(key, CompletableFuture.supplyAsync(() -> loadSafely(row, col), loader));
+        }
+    }
+
+    private static float distance2(long key, float centerRow, float centerCol) {
+        float dr = (int) (key >> 32) - centerRow;
+        float dc = (int) key - centerCol;
+        return dr * dr + dc * dc;
+    }
+
+    private void adopt(WorldChunk chunk) {
+        WorldChunk previous = resident.put(chunk.key(), chunk);
+        if (previous != null) {
+            residentBytes -= previous.estimatedBytes();
+        }
+        residentBytes += chunk.estimatedBytes();
+        if (previous == null && listener != null) {
+            listener.onChunkLoaded(chunk);
+        }
+    }
+
+    private void evictOverBudget() {
+        if (residentBytes <= budgetBytes) {
+            return;
+        }
+        for (Iterator<WorldChunk> iterator = resident.values().iterator();
+                iterator.hasNext() && residentBytes > budgetBytes; ) {
+            WorldChunk chunk = iterator.next();
+            if (inFocus(chunk)) {
+                continue;
+            }
+            iterator.remove();
+            residentBytes -= chunk.estimatedBytes();
+            if (listener != null) {
+                listener.onChunkEvicted(chunk);
+            }
+        }
+        if (residentBytes > budgetBytes && !warnedOverBudget) {
+            warnedOverBudget = true;
+            logInfo("Focus area alone needs " + residentBytes + " bytes, above the " + budgetBytes
+                    + " byte chunk budget");
+        }
+    }
+
+    private WorldChunk loadSafely(int chunkRow, int chunkCol) {
+        try {
+            return source.load(chunkRow, chunkCol);
+        } catch (Exception exception) {
+            logError("Failed to load chunk " + chunkRow + "," + chunkCol + "; using an empty chunk", exception);
+            return WorldChunk.empty(chunkRow, chunkCol);
+        }
+    }
+
+    private static WorldChunk join(CompletableFuture<WorldChunk> future, int chunkRow, int chunkCol) {
+        try {
+            return future.join();
+        } catch (CompletionException exception) {
+            logError("Chunk loader failed for " + chunkRow + "," + chunkCol, exception);
+            return WorldChunk.empty(chunkRow, chunkCol);
+        }
+    }
+
+    private static void logInfo(String message) {
+        if (Gdx.app != null) {
+            Gdx.app.log(TAG, message);
+        }
+    }
+
+    private static void logError(String message, Exception exception) {
+        if (Gdx.app != null) {
+            Gdx.app.error(TAG, message, exception);
+        } else if (exception != null) {
+            exception.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.celestelike.game.world.chunk;
+
+import java.io.IOException;
+
+/**
+ * Supplies {@link WorldChunk}s on demand. {@link #load} is called from the pager's loader threads,
+ * possibly for several chunks at once, so implementations must be thread-safe.
+ */
+public interface ChunkSource {
+
+    /**
+     * @return world height in tiles
+     */
+    int rows();
+
+    /**
+     * @return world width in tiles
+     */
+    int cols();
+
+    /**
+     * Number of enemy spawns in the whole world, used to decide when a run is cleared without
+     * loading every chunk.
+     */
+    int enemySpawnCount();
+
+    /**
+     * Hash of what the world plays like: the sum of {@link WorldChunk#contentHash()} over every
+     * chunk, or for a generated world whatever its chunks are a pure function of. Replays compare
+     * it to reject a level that was edited after they were recorded. Cheap to call; sources work
+     * it out once.
+     */
+    long contentHash();
+
+    /**
+     * Builds the chunk at {@code (chunkRow, chunkCol)}. Chunks without authored data come back
+     * empty rather than {@code null}.
+     */
+    WorldChunk load(int chunkRow, int chunkCol) throws IOException;
+}
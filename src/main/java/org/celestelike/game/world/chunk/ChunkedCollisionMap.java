@@ -0,0 +1,61 @@
+package org.celestelike.game.world.chunk;
+
+import org.celestelike.game.world.CollisionWorld;
+
+/**
+ * {@link CollisionWorld} backed by the chunk pager. Queries resolve to the owning chunk, loading
+ * it synchronously if the prefetch has not caught up, so collision never depends on timing.
+ */
+public final class ChunkedCollisionMap implements CollisionWorld {
+
+    private final ChunkPager pager;
+    private final float tileSize;
+    private final int rows;
+    private final int cols;
+
+    // The controller probes a handful of neighbouring tiles per step; remembering the last chunk
+    // skips the map lookup for nearly all of them. Chunks are immutable, so a stale reference to
+    // an evicted chunk still answers correctly.
+    private int lastChunkRow = Integer.MIN_VALUE;
+    private int lastChunkCol = Integer.MIN_VALUE;
+    private WorldChunk lastChunk;
+
+    public ChunkedCollisionMap(ChunkPager pager, float tileWorldSize) {
+        this.pager = pager;
+        this.tileSize = tileWorldSize;
+        this.rows = pager.source().rows();
+        this.cols = pager.source().cols();
+    }
+
+    @Override
+    public float tileSize() {
+        return tileSize;
+    }
+
+    @Override
+    public boolean isSolid(int row, int col) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols) {
+            return true;
+        }
+        return chunkFor(row, col).isSolid(row - lastChunk.row0(), col - lastChunk.col0());
+    }
+
+    @Override
+    public boolean isWater(int row, int col) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols) {
+            return false;
+        }
+        return chunkFor(row, col).isWater(row - lastChunk.row0(), col - lastChunk.col0());
+    }
+
+    private WorldChunk chunkFor(int row, int col) {
+        int chunkRow = WorldChunk.chunkIndex(row);
+        int chunkCol = WorldChunk.chunkIndex(col);
+        if (chunkRow != lastChunkRow || chunkCol != lastChunkCol || lastChunk == null) {
+            lastChunk = pager.require(chunkRow, chunkCol);
+            lastChunkRow = chunkRow;
+            lastChunkCol = chunkCol;
+        }
+        return lastChunk;
+    }
+}
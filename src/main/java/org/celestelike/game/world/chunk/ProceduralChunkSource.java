@@ -0,0 +1,281 @@
+package org.celestelike.game.world.chunk;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import org.celestelike.game.entity.enemy.EnemySpawn;
+import org.celestelike.game.world.LevelData;
+import org.celestelike.game.world.LevelData.TileBlueprint;
+import org.celestelike.game.world.TileMask;
+
+/**
+ * Generates a long side-scrolling stage from a seed, one chunk at a time, so the pager's loader
+ * threads can build the world ahead of the player instead of reading it from disk.
+ *
+ * <p>Follows the {@link org.celestelike.game.world.LevelCollisionMap} conventions: row 0 is the
+ * bottom row, ground tiles are solid and pits are flooded with the animated
+ * {@link LevelData#waterTileIndex() water tile}. Every decision is a pure function of the seed
+ * and absolute tile/chunk coordinates, never of load order or thread, so the same seed always
+ * produces the same chunk bytes and neighbouring chunks line up at their seams.
+ */
+public final class ProceduralChunkSource implements ChunkSource {
+
+    /** Ground and platform art; the block the authored level is mostly built from. */
+    private static final int GROUND_TILE = 1293;
+    private static final float FRAME_DURATION = 0.15f;
+
+    /** Columns between ground-height control points; larger values give gentler hills. */
+    private static final int HILL_SPACING = 16;
+    /** Pits are decided per segment so one pit never straddles two decisions. */
+    private static final int PIT_SEGMENT = 16;
+    private static final int PIT_OFFSET = 5;
+    private static final int PIT_MIN_WIDTH = 2;
+    private static final int PIT_MAX_WIDTH = 4;
+    private static final double PIT_CHANCE = 0.25;
+    /** Minimum water depth; pits flood up to just below the flat starting ground. */
+    private static final int WATER_DEPTH = 2;
+    /** Leading columns kept flat and pit-free so the player never spawns over water. */
+    private static final int SAFE_COLUMNS = 2 * WorldChunk.SIZE;
+    /** Rows kept free above the highest ground so there is always room to jump. */
+    private static final int HEADROOM = 10;
+
+    private static final int MAX_PLATFORMS_PER_CHUNK = 3;
+    private static final int MAX_ENEMIES_PER_CHUNK = 2;
+
+    // Distinct salts keep the terrain, pit, platform and enemy streams independent of each other.
+    private static final long SALT_HILLS = 0x68696c6cL;
+    private static final long SALT_PITS = 0x70697473L;
+    private static final long SALT_PLATFORMS = 0x706c6174L;
+    private static final long SALT_ENEMIES = 0x656e656dL;
+
+    private final long seed;
+    private final int rows;
+    private final int cols;
+    private final List<String> enemyIds;
+    private final int baseGround;
+    private final int hillAmplitude;
+    private final int enemySpawnCount;
+    private final TileBlueprint ground;
+    private final TileBlueprint water;
+
+    private final AtomicLong generatedChunks = new AtomicLong();
+    private final AtomicLong generationNanos = new AtomicLong();
+
+    /**
+     * @param rows         world height in tiles
+     * @param lengthChunks world length in chunks
+     * @param enemyIds     enemy variants to place; order matters for determinism
+     */
+    public ProceduralChunkSource(long seed, int rows, int lengthChunks, List<String> enemyIds) {
+        if (rows < HEADROOM + WATER_DEPTH + 2) {
+            throw new IllegalArgumentException("Generated worlds need at least " + (HEADROOM + WATER_DEPTH + 2) + " rows");
+        }
+        this.seed = seed;
+        this.rows = rows;
+        this.cols = Math.max(1, Math.min(lengthChunks, Integer.MAX_VALUE / WorldChunk.SIZE - 1)) * WorldChunk.SIZE;
+        this.enemyIds = List.copyOf(enemyIds);
+        this.baseGround = Math.max(WATER_DEPTH + 1, rows / 6);
+        this.hillAmplitude = Math.max(0, Math.min(rows / 4, rows - HEADROOM - baseGround - 1));
+        this.ground = new TileBlueprint(new int[]{GROUND_TILE}, FRAME_DURATION);
+        int[] waterFrames = new int[LevelData.waterFrameCount()];
+        for (int i = 0; i < waterFrames.length; i++) {
+            waterFrames[i] = LevelData.waterTileIndex() + i;
+        }
+        this.water = new TileBlueprint(waterFrames, FRAME_DURATION);
+
+        int spawnCount = 0;
+        int chunkCols = cols / WorldChunk.SIZE;
+        for (int chunkCol = 0; chunkCol < chunkCols; chunkCol++) {
+            spawnCount += enemySpawns(chunkCol).size();
+        }
+        this.enemySpawnCount = spawnCount;
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public int cols() {
+        return cols;
+    }
+
+    @Override
+    public int enemySpawnCount() {
+        return enemySpawnCount;
+    }
+
+    public long seed() {
+        return seed;
+    }
+
+    /**
+     * Chunks are a pure function of the seed, the size and the enemy variants, so those are all
+     * that is hashed; nothing is generated for it.
+     */
+    @Override
+    public long contentHash() {
+        return seed * 31L + enemyIds.hashCode();
+    }
+
+    /**
+     * Chunks built since construction, across all loader threads.
+     */
+    public long generatedChunks() {
+        return generatedChunks.get();
+    }
+
+    /**
+     * Generation throughput measured over the time spent inside {@link #load}, summed across
+     * threads; with several loaders the wall-clock rate is correspondingly higher.
+     */
+    public double chunksPerSecond() {
+        long nanos = generationNanos.get();
+        return nanos == 0L ? 0.0 : generatedChunks.get() * 1e9 / nanos;
+    }
+
+    /**
+     * Highest solid row at {@code col}; inside a pit that is the bed under the water.
+     */
+    public int surfaceRow(int col) {
+        if (isPit(col)) {
+            return 0;
+        }
+        if (col < SAFE_COLUMNS) {
+            return baseGround;
+        }
+        int lattice = Math.floorDiv(col, HILL_SPACING);
+        float t = (col - lattice * HILL_SPACING) / (float) HILL_SPACING;
+        t = t * t * (3f - 2f * t);
+        float a = unit(mix(seed, SALT_HILLS, lattice));
+        float b = unit(mix(seed, SALT_HILLS, lattice + 1));
+        return baseGround + Math.round((a + (b - a) * t) * hillAmplitude);
+    }
+
+    @Override
+    public WorldChunk load(int chunkRow, int chunkCol) {
+        long start = System.nanoTime();
+        int row0 = chunkRow * WorldChunk.SIZE;
+        int col0 = chunkCol * WorldChunk.SIZE;
+        TileBlueprint[] cells = new TileBlueprint[WorldChunk.SIZE * WorldChunk.SIZE];
+        TileMask solid = new TileMask(WorldChunk.SIZE, WorldChunk.SIZE);
+        TileMask flooded = new TileMask(WorldChunk.SIZE, WorldChunk.SIZE);
+
+        for (int c = 0; c < WorldChunk.SIZE; c++) {
+            int col = col0 + c;
+            if (col < 0 || col >= cols) {
+                continue;
+            }
+            boolean pit = isPit(col);
+            int top = surfaceRow(col);
+            for (int r = 0; r < WorldChunk.SIZE; r++) {
+                int row = row0 + r;
+                if (row < 0 || row >= rows) {
+                    continue;
+                }
+                if (row <= top) {
+                    cells[r * WorldChunk.SIZE + c] = ground;
+                    solid.set(r, c, true);
+                } else if (pit && row < baseGround) {
+                    cells[r * WorldChunk.SIZE + c] = water;
+                    flooded.set(r, c, true);
+                }
+            }
+        }
+        placePlatforms(chunkCol, row0, col0, cells, solid);
+
+        List<EnemySpawn> spawns = new ArrayList<>();
+        for (EnemySpawn spawn : enemySpawns(chunkCol)) {
+            if (WorldChunk.chunkIndex(spawn.row()) == chunkRow) {
+                spawns.add(spawn);
+            }
+        }
+        WorldChunk chunk = new WorldChunk(chunkRow, chunkCol, cells, solid, flooded, spawns);
+        generationNanos.addAndGet(System.nanoTime() - start);
+        generatedChunks.incrementAndGet();
+        return chunk;
+    }
+
+    // -------------------------------------------------------------------------
+    // Internals
+    // -------------------------------------------------------------------------
+
+    private boolean isPit(int col) {
+        if (col < SAFE_COLUMNS) {
+            return false;
+        }
+        int segment = Math.floorDiv(col, PIT_SEGMENT);
+        long hash = mix(seed, SALT_PITS, segment);
+        if (unit(hash) >= PIT_CHANCE) {
+            return false;
+        }
+        int width = PIT_MIN_WIDTH + (int) ((hash >>> 8) & 0xffL) % (PIT_MAX_WIDTH - PIT_MIN_WIDTH + 1);
+        int offset = col - segment * PIT_SEGMENT - PIT_OFFSET;
+        return offset >= 0 && offset < width;
+    }
+
+    /**
+     * Floating platforms are decided per chunk column and clipped to each chunk row, so a chunk's
+     * contents never depend on which of its vertical neighbours was generated first.
+     */
+    private void placePlatforms(int chunkCol, int row0, int col0, TileBlueprint[] cells, TileMask solid) {
+        if (col0 < SAFE_COLUMNS) {
+            return;
+        }
+        SplittableRandom random = new SplittableRandom(mix(seed, SALT_PLATFORMS, chunkCol));
+        int count = random.nextInt(MAX_PLATFORMS_PER_CHUNK + 1);
+        for (int i = 0; i < count; i++) {
+            int length = random.nextInt(3, 7);
+            int start = random.nextInt(WorldChunk.SIZE - length);
+            int lift = random.nextInt(3, 6);
+            int highest = 0;
+            for (int c = start; c < start + length; c++) {
+                highest = Math.max(highest, surfaceRow(col0 + c));
+            }
+            int row = highest + lift;
+            int r = row - row0;
+            if (row >= rows - 2 || r < 0 || r >= WorldChunk.SIZE) {
+                continue;
+            }
+            for (int c = start; c < start + length && col0 + c < cols; c++) {
+                cells[r * WorldChunk.SIZE + c] = ground;
+                solid.set(r, c, true);
+            }
+        }
+    }
+
+    private List<EnemySpawn> enemySpawns(int chunkCol) {
+        int col0 = chunkCol * WorldChunk.SIZE;
+        if (enemyIds.isEmpty() || col0 < SAFE_COLUMNS) {
+            return List.of();
+        }
+        SplittableRandom random = new SplittableRandom(mix(seed, SALT_ENEMIES, chunkCol));
+        int count = random.nextInt(MAX_ENEMIES_PER_CHUNK + 1);
+        List<EnemySpawn> spawns = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String id = enemyIds.get(random.nextInt(enemyIds.size()));
+            int col = col0 + random.nextInt(WorldChunk.SIZE);
+            if (col >= cols || isPit(col)) {
+                continue;
+            }
+            spawns.add(new EnemySpawn(id, surfaceRow(col) + 1, col));
+        }
+        return spawns;
+    }
+
+    /**
+     * SplitMix64-style finaliser over the seed and two coordinates.
+     */
+    private static long mix(long seed, long salt, long index) {
+        long z = seed + salt * 0x9E3779B97F4A7C15L + index * 0xC2B2AE3D27D4EB4FL;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static float unit(long hash) {
+        return (hash >>> 40) * 0x1.0p-24f;
+    }
+}
@@ -0,0 +1,172 @@
+package org.celestelike.game.world.chunk;
+
+import java.util.List;
+import org.celestelike.game.entity.enemy.EnemySpawn;
+import org.celestelike.game.world.LevelData.TileBlueprint;
+import org.celestelike.game.world.TileMask;
+
+/**
+ * One {@value #SIZE}x{@value #SIZE} tile block of the world: tile art, collision masks and the
+ * enemy spawns that live inside it. Chunks are immutable once built, so a loader thread can
+ * construct them while the render thread reads others.
+ *
+ * <p>Cells are addressed in chunk-local coordinates; {@link #row0()}/{@link #col0()} give the
+ * absolute position of local {@code (0, 0)}. Enemy spawns keep absolute coordinates.
+ */
+public final class WorldChunk {
+
+    public static final int SIZE = 32;
+
+    // Rough per-object overheads used for the memory budget; exactness does not matter, only
+    // that the estimate scales with what the chunk actually holds.
+    private static final int OBJECT_OVERHEAD = 16;
+    private static final int REFERENCE_SIZE = 8;
+    private static final long HASH_OFFSET = 0xcbf29ce484222325L;
+    private static final long HASH_PRIME = 0x100000001b3L;
+
+    private final int chunkRow;
+    private final int chunkCol;
+    private final TileBlueprint[] cells;
+    private final TileMask solid;
+    private final TileMask water;
+    private final List<EnemySpawn> spawns;
+    private final long estimatedBytes;
+
+    /**
+     * @param cells row-major, {@code SIZE * SIZE} entries; {@code null} entries are treated as air
+     */
+    public WorldChunk(
+            int chunkRow,
+            int chunkCol,
+            TileBlueprint[] cells,
+            TileMask solid,
+            TileMask water,
+            List<EnemySpawn> spawns) {
+        if (cells.length != SIZE * SIZE || solid.rows() != SIZE || water.rows() != SIZE) {
+            throw new IllegalArgumentException("Chunk data must be " + SIZE + "x" + SIZE);
+        }
+        this.chunkRow = chunkRow;
+        this.chunkCol = chunkCol;
+        this.cells = cells;
+        this.solid = solid;
+        this.water = water;
+        this.spawns = List.copyOf(spawns);
+        this.estimatedBytes = estimateBytes();
+    }
+
+    /**
+     * All-air chunk with no collision or spawns; used for unauthored space and failed loads.
+     */
+    public static WorldChunk empty(int chunkRow, int chunkCol) {
+        return new WorldChunk(
+                chunkRow,
+                chunkCol,
+                new TileBlueprint[SIZE * SIZE],
+                new TileMask(SIZE, SIZE),
+                new TileMask(SIZE, SIZE),
+                List.of());
+    }
+
+    public static long key(int chunkRow, int chunkCol) {
+        return ((long) chunkRow << 32) | (chunkCol & 0xffffffffL);
+    }
+
+    /**
+     * Chunk index containing tile {@code index}, rounding towards negative infinity.
+     */
+    public static int chunkIndex(int index) {
+        return Math.floorDiv(index, SIZE);
+    }
+
+    public long key() {
+        return key(chunkRow, chunkCol);
+    }
+
+    public int chunkRow() {
+        return chunkRow;
+    }
+
+    public int chunkCol() {
+        return chunkCol;
+    }
+
+    public int row0() {
+        return chunkRow * SIZE;
+    }
+
+    public int col0() {
+        return chunkCol * SIZE;
+    }
+
+    public TileBlueprint cell(int localRow, int localCol) {
+        return cells[localRow * SIZE + localCol];
+    }
+
+    public boolean isSolid(int localRow, int localCol) {
+        return solid.get(localRow, localCol);
+    }
+
+    public boolean isWater(int localRow, int localCol) {
+        return water.get(localRow, localCol);
+    }
+
+    public TileMask solidMask() {
+        return solid;
+    }
+
+    public TileMask waterMask() {
+        return water;
+    }
+
+    public List<EnemySpawn> spawns() {
+        return spawns;
+    }
+
+    public long estimatedBytes() {
+        return estimatedBytes;
+    }
+
+    /**
+     * Hash of the chunk's position, tile art, collision masks and spawns. Air cells hash alike
+     * whether they are {@code null} or an empty blueprint.
+     */
+    public long contentHash() {
+        long hash = mix(HASH_OFFSET, key());
+        for (TileBlueprint cell : cells) {
+            int frameCount = cell == null ? 0 : cell.frames().length;
+            hash = mix(hash, frameCount);
+            if (frameCount > 0) {
+                for (int frame : cell.frames()) {
+                    hash = mix(hash, frame);
+                }
+                hash = mix(hash, Float.floatToIntBits(cell.frameDuration()));
+            }
+        }
+        hash = mix(hash, solid.contentHash());
+        hash = mix(hash, water.contentHash());
+        for (EnemySpawn spawn : spawns) {
+            hash = mix(hash, spawn.id().hashCode());
+            hash = mix(hash, spawn.row());
+            hash = mix(hash, spawn.col());
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        hash ^= value;
+        hash *= HASH_PRIME;
+        return hash ^ (hash >>> 29);
+    }
+
+    private long estimateBytes() {
+        long bytes = OBJECT_OVERHEAD * 4L + (long) cells.length * REFERENCE_SIZE;
+        for (TileBlueprint cell : cells) {
+            if (cell != null) {
+                bytes += OBJECT_OVERHEAD * 2L + 4L * cell.frames().length;
+            }
+        }
+        bytes += 2L * (OBJECT_OVERHEAD + SIZE * SIZE / 8);
+        bytes += spawns.size() * (OBJECT_OVERHEAD * 2L + 24L);
+        return bytes;
+    }
+}
@@ -0,0 +1,147 @@
+package org.celestelike.tools;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Gdx;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import org.celestelike.game.GameSimulation;
+import org.celestelike.game.config.GameConfig;
+import org.celestelike.game.headless.HeadlessRuntime;
+import org.celestelike.game.metrics.ThreadAllocations;
+import org.celestelike.game.replay.InputRecording;
+import org.celestelike.tools.bench.ReplayBenchmark;
+
+/**
+ * Replays a recording headless and measures the bytes every tick allocates on the game thread,
+ * failing when steady-state gameplay allocates more per tick than a budget. The recording is
+ * played once to warm up the JIT, pools and caches, then again measured; ticks that start a new
+ * run are reported apart, since restarting is allowed to allocate.
+ *
+ * <p>Usage: {@code AllocationChecker [replay] [--config file.json] [--budget bytes]
+ * [--synthesize seconds]}. The replay defaults to {@code replays/last_run.replay};
+ * {@code --synthesize} plays a scripted session instead, without saving it. The budget is the
+ * mean bytes per steady tick and defaults to {@value #DEFAULT_BUDGET_BYTES}.
+ */
+public final class AllocationChecker {
+
+    /** State transitions still format a game log line; every other steady tick allocates nothing. */
+    private static final long DEFAULT_BUDGET_BYTES = 128L;
+    private static final int WORST_TICKS = 5;
+
+    private AllocationChecker() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path replay = Path.of("replays", "last_run" + InputRecording.FILE_EXTENSION);
+        String config = null;
+        long budget = DEFAULT_BUDGET_BYTES;
+        int synthesizeSeconds = 0;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--config" -> config = args[++i];
+                case "--budget" -> budget = Long.parseLong(args[++i]);
+                case "--synthesize" -> synthesizeSeconds = Integer.parseInt(args[++i]);
+                default -> replay = Path.of(args[i]);
+            }
+        }
+        if (!ThreadAllocations.isSupported()) {
+            System.err.println("This JVM does not count thread allocations");
+            System.exit(2);
+        }
+
+        HeadlessRuntime.install(Application.LOG_ERROR);
+        GameConfig gameConfig = config == null ? GameConfig.load() : GameConfig.load(Gdx.files.local(config));
+        HeadlessRuntime runtime = new HeadlessRuntime(gameConfig);
+        String source;
+        long[] tickBytes;
+        boolean[] restarts;
+        try {
+            InputRecording recording;
+            if (synthesizeSeconds > 0) {
+                recording = ReplayBenchmark.synthesize(synthesizeSeconds * GameSimulation.TICKS_PER_SECOND,
+                        InputRecording.fingerprint(runtime.simulation().source()));
+                source = "scripted session";
+            } else if (Files.exists(replay)) {
+                recording = InputRecording.load(replay);
+                source = replay.toString();
+            } else {
+                System.err.println("No recording at " + replay + "; play a run first or pass --synthesize <seconds>");
+                System.exit(2);
+                return;
+            }
+            tickBytes = new long[(int) recording.tickCount()];
+            restarts = new boolean[tickBytes.length];
+            runtime.play(recording, null);
+            measure(runtime, recording, tickBytes, restarts);
+        } finally {
+            runtime.dispose();
+        }
+
+        long steadyTicks = 0L;
+        long steadyBytes = 0L;
+        long allocatingTicks = 0L;
+        long restartTicks = 0L;
+        long restartBytes = 0L;
+        for (int tick = 0; tick < tickBytes.length; tick++) {
+            if (restarts[tick]) {
+                restartTicks++;
+                restartBytes += tickBytes[tick];
+            } else {
+                steadyTicks++;
+                steadyBytes += tickBytes[tick];
+                if (tickBytes[tick] > 0L) {
+                    allocatingTicks++;
+                }
+            }
+        }
+        double bytesPerTick = steadyTicks == 0L ? 0.0 : (double) steadyBytes / steadyTicks;
+        System.out.printf(Locale.US, "Replay:   %s (%d ticks)%n", source, tickBytes.length);
+        System.out.printf(Locale.US, "Steady:   %.1f B/tick over %d ticks, %d of them allocating (%d B in total)%n",
+                bytesPerTick, steadyTicks, allocatingTicks, steadyBytes);
+        System.out.printf(Locale.US, "Restarts: %d B over %d run starts%n", restartBytes, restartTicks);
+        printWorstTicks(tickBytes, restarts);
+        if (bytesPerTick > budget) {
+            System.out.printf(Locale.US, "Result:   OVER BUDGET, %.1f B/tick against %d B/tick%n", bytesPerTick, budget);
+            System.exit(1);
+        }
+        System.out.printf(Locale.US, "Result:   within budget of %d B/tick%n", budget);
+    }
+
+    /**
+     * Stores the bytes allocated from one tick's listener call to the next, which covers the tick
+     * itself and the work the runtime posts after it. The listener only writes into the arrays.
+     */
+    private static void measure(HeadlessRuntime runtime, InputRecording recording, long[] tickBytes, boolean[] restarts) {
+        long[] last = {ThreadAllocations.currentThreadBytes()};
+        runtime.play(recording, null, (index, simulation) -> {
+            long now = ThreadAllocations.currentThreadBytes();
+            if (index < tickBytes.length) {
+                tickBytes[(int) index] = now - last[0];
+                restarts[(int) index] = simulation.tickCount() == 1L;
+            }
+            last[0] = ThreadAllocations.currentThreadBytes();
+        });
+    }
+
+    private static void printWorstTicks(long[] tickBytes, boolean[] restarts) {
+        Integer[] order = new Integer[tickBytes.length];
+        for (int tick = 0; tick < order.length; tick++) {
+            order[tick] = tick;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(tickBytes[b], tickBytes[a]));
+        int shown = 0;
+        for (int tick : order) {
+            if (shown == WORST_TICKS || tickBytes[tick] == 0L) {
+                break;
+            }
+            if (restarts[tick]) {
+                continue;
+            }
+            System.out.printf(Locale.US, "          tick %6d (%.2fs): %d B%n",
+                    tick, tick / (double) GameSimulation.TICKS_PER_SECOND, tickBytes[tick]);
+            shown++;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package org.celestelike.tools;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Gdx;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.celestelike.game.GameSimulation;
+import org.celestelike.game.config.GameConfig;
+import org.celestelike.game.headless.HeadlessRuntime;
+import org.celestelike.game.metrics.TimeHistogram;
+import org.celestelike.game.replay.InputRecording;
+import org.celestelike.game.replay.StateHashTrace;
+import org.celestelike.game.replay.StateHashTrace.Divergence;
+import org.celestelike.game.state.StateSection;
+import org.celestelike.tools.bench.ReplayBenchmark;
+
+/**
+ * Replays a recording headless twice, hashing every section of the state after each tick, and
+ * reports the first tick where the two runs diverge and in which subsystem. The second run can use
+ * another configuration (for instance one loader thread against four) or be replaced by a trace
+ * saved from another build.
+ *
+ * <p>Usage: {@code DeterminismChecker [replay] [--config a.json] [--config b.json]
+ * [--save trace.csv] [--against trace.csv] [--interval ticks] [--synthesize seconds]}. The
+ * replay defaults to {@code replays/last_run.replay}; {@code --synthesize} writes a scripted
+ * session there first.
+ *
+ * <p>The state is hashed every {@code --interval} ticks (default {@value #DEFAULT_INTERVAL}) and
+ * after the last one. Hashing is incremental, only writing what changed since the last hash; the
+ * timing line reports what it adds to the tick, net of reading the clock. Runs
+ * with a longer interval are compared on the hashed ticks, and when they disagree both are
+ * replayed again hashing every tick to report the first tick that differs. A saved trace fixes
+ * the interval of the run checked against it, and cannot be replayed, so against a trace saved
+ * with a longer interval a divergence is only narrowed down to the ticks since the last agreeing
+ * hash.
+ */
+public final class DeterminismChecker {
+
+    private static final int DEFAULT_INTERVAL = 1;
+    // Passes played before the timed one: at least the minimum, then until the JIT has compiled
+    // nothing for a few passes in a row, since on few cores a compile running during the timed
+    // pass would be charged to the tick or hash it interrupts.
+    private static final int MIN_WARM_UP_PASSES = 20;
+    private static final int MAX_WARM_UP_PASSES = 400;
+    private static final int QUIET_PASSES = 5;
+
+    private DeterminismChecker() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path replay = Path.of("replays", "last_run" + InputRecording.FILE_EXTENSION);
+        List<String> configs = new ArrayList<>(2);
+        Path save = null;
+        Path against = null;
+        int synthesizeSeconds = 0;
+        int interval = DEFAULT_INTERVAL;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--config" -> configs.add(args[++i]);
+                case "--save" -> save = Path.of(args[++i]);
+                case "--against" -> against = Path.of(args[++i]);
+                case "--interval" -> interval = Math.max(1, Integer.parseInt(args[++i]));
+                case "--synthesize" -> synthesizeSeconds = Integer.parseInt(args[++i]);
+                default -> replay = Path.of(args[i]);
+            }
+        }
+
+        HeadlessRuntime.install(Application.LOG_ERROR);
+        GameConfig configA = configs.isEmpty() ? GameConfig.load() : GameConfig.load(Gdx.files.local(configs.get(0)));
+        GameConfig configB = configs.size() < 2 ? configA : GameConfig.load(Gdx.files.local(configs.get(1)));
+        String labelA = configs.isEmpty() ? "default config" : configs.get(0);
+        String labelB = against != null ? against.toString() : configs.size() < 2 ? labelA + " (again)" : configs.get(1);
+
+        HeadlessRuntime runtime = new HeadlessRuntime(configA);
+        InputRecording recording;
+        TimeHistogram tickTimes = new TimeHistogram();
+        TimeHistogram hashTimes = new TimeHistogram();
+        TimeHistogram clockTimes = new TimeHistogram();
+        StateHashTrace traceB = against != null ? StateHashTrace.load(against) : null;
+        if (traceB != null) {
+            interval = traceB.interval();
+        }
+        StateHashTrace traceA;
+        try {
+            if (synthesizeSeconds > 0) {
+                ReplayBenchmark.synthesize(synthesizeSeconds * GameSimulation.TICKS_PER_SECOND,
+                        InputRecording.fingerprint(runtime.simulation().source())).save(replay);
+            } else if (!Files.exists(replay)) {
+                System.err.println("No recording at " + replay + "; play a run first or pass --synthesize <seconds>");
+                System.exit(2);
+            }
+            recording = InputRecording.load(replay);
+            // Warm-up passes so the JIT has compiled ticking and hashing before either is timed.
+            // They hash every tick, or a long interval would leave hashing too few calls to compile,
+            // and time it, so the timed pass runs the code the JIT compiled for them.
+            CompilationMXBean jit = ManagementFactory.getCompilationMXBean();
+            long compiledMillis = jit.getTotalCompilationTime();
+            int quietPasses = 0;
+            for (int pass = 0; pass < MAX_WARM_UP_PASSES
+                    && (pass < MIN_WARM_UP_PASSES || quietPasses < QUIET_PASSES); pass++) {
+                trace(runtime, recording, 1, tickTimes, hashTimes, clockTimes);
+                long millis = jit.getTotalCompilationTime();
+                quietPasses = millis == compiledMillis ? quietPasses + 1 : 0;
+                compiledMillis = millis;
+            }
+            tickTimes.reset();
+            hashTimes.reset();
+            clockTimes.reset();
+            traceA = trace(runtime, recording, interval, tickTimes, hashTimes, clockTimes);
+        } finally {
+            runtime.dispose();
+        }
+
+        if (traceB == null) {
+            traceB = trace(configB, recording, interval);
+        }
+        if (save != null) {
+            traceA.save(save);
+        }
+
+        // Both timings include one clock reading; take off what a reading cost after a tick.
+        double clockMean = clockTimes.meanNanos();
+        double tickMean = Math.max(0.0, tickTimes.meanNanos() - clockMean);
+        double hashMean = Math.max(0.0, hashTimes.meanNanos() - clockMean);
+        double hashPerTick = tickTimes.count() == 0L ? 0.0 : hashMean * hashTimes.count() / tickTimes.count();
+        System.out.printf(Locale.US, "Replay:   %s (%d ticks)%n", replay, recording.tickCount());
+        System.out.println("A:        " + labelA);
+        System.out.println("B:        " + labelB);
+        System.out.printf(Locale.US,
+                "Hashing:  every %d ticks, %.3fus per hash, %.3fus per tick against %.2fus tick mean"
+                        + " (%.2f%% overhead, %.0fns clock reading taken off each)%n",
+                interval, hashMean / 1e3, hashPerTick / 1e3, tickMean / 1e3,
+                tickMean == 0 ? 0.0 : hashPerTick / tickMean * 100.0, clockMean);
+        if (save != null) {
+            System.out.println("Saved A's trace to " + save);
+        }
+
+        Divergence divergence = traceA.firstDivergence(traceB);
+        if (divergence == null && traceA.tickCount() == traceB.tickCount()) {
+            System.out.printf("Result:   identical for %d ticks (final state %016x)%n",
+                    traceA.tickCount(), traceA.combinedHash(traceA.tickCount() - 1));
+            return;
+        }
+        if (divergence == null) {
+            System.out.println("Result:   identical while both ran, but A has " + traceA.tickCount()
+                    + " ticks and B " + traceB.tickCount());
+            System.exit(1);
+        }
+        if (!divergence.exact() && against == null) {
+            // Only the hashed ticks were compared; trace both runs again tick by tick.
+            traceA = trace(configA, recording, 1);
+            traceB = trace(configB, recording, 1);
+            Divergence exact = traceA.firstDivergence(traceB);
+            divergence = exact != null ? exact : divergence;
+        }
+        if (divergence.exact()) {
+            System.out.println("Result:   DIVERGED at tick " + divergence.tick() + " in " + divergence.sections());
+        } else {
+            System.out.println("Result:   DIVERGED between ticks " + (divergence.lastAgreedTick() + 1) + " and "
+                    + divergence.tick() + " in " + divergence.sections() + "; save the trace with --interval 1"
+                    + " for the exact tick");
+        }
+        String prefix = divergence.exact() ? "first differs at tick " : "first differs by tick ";
+        for (StateSection section : StateSection.values()) {
+            long first = traceA.firstDivergence(traceB, section);
+            System.out.printf("          %-8s %s%n", section.name().toLowerCase(Locale.ROOT),
+                    first < 0 ? "never diverges" : prefix + first);
+        }
+        System.exit(1);
+    }
+
+    private static StateHashTrace trace(GameConfig config, InputRecording recording, int interval) {
+        HeadlessRuntime runtime = new HeadlessRuntime(config);
+        try {
+            return trace(runtime, recording, interval, null, null, null);
+        } finally {
+            runtime.dispose();
+        }
+    }
+
+    private static StateHashTrace trace(
+            HeadlessRuntime runtime,
+            InputRecording recording,
+            int interval,
+            TimeHistogram tickTimes,
+            TimeHistogram hashTimes,
+            TimeHistogram clockTimes) {
+        StateHashTrace trace = new StateHashTrace((int) recording.tickCount(), interval);
+        long lastTick = recording.tickCount() - 1;
+        runtime.play(recording, tickTimes, (index, simulation) -> {
+            // Only hashed ticks are timed. The clock is read once more just before, so what one
+            // reading costs right after a tick is measured too and can be taken off both times.
+            boolean timed = hashTimes != null && ((index + 1) % interval == 0 || index == lastTick);
+            long before = timed ? System.nanoTime() : 0L;
+            long start = timed ? System.nanoTime() : 0L;
+            trace.record(simulation);
+            if (index == lastTick) {
+                trace.finish(simulation);
+            }
+            if (timed) {
+                long end = System.nanoTime();
+                clockTimes.record(start - before);
+                hashTimes.record(end - start);
+            }
+        });
+        return trace;
+    }
+}
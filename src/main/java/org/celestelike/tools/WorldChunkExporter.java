@@ -0,0 +1,99 @@
+package org.celestelike.tools;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.lwjgl3.Lwjgl3Files;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.celestelike.game.entity.enemy.EnemyRegistry;
+import org.celestelike.game.entity.enemy.EnemySpawn;
+import org.celestelike.game.entity.enemy.EnemySpawnLoader;
+import org.celestelike.game.world.AtomicFileWriter;
+import org.celestelike.game.world.CollisionWorld;
+import org.celestelike.game.world.LevelCollisionMap;
+import org.celestelike.game.world.LevelData;
+import org.celestelike.game.world.LevelData.TileBlueprint;
+import org.celestelike.game.world.chunk.BlueprintChunkSource;
+import org.celestelike.game.world.chunk.ChunkDirectorySource;
+import org.celestelike.game.world.chunk.WorldChunk;
+
+/**
+ * Splits the authored level ({@code editor_blueprint.json}, {@code inspector_snapshot.json},
+ * {@code enemy_spawns.json}) into the chunk directory layout read by {@link ChunkDirectorySource}.
+ *
+ * <p>Usage: {@code WorldChunkExporter [output-dir] [repeat]}. {@code repeat} lays the level out
+ * that many times side by side, which is handy for checking that paging keeps memory flat on a
+ * long level. Point {@code world.chunkDirectory} in {@code assets/game_config.json} at the output.
+ */
+public final class WorldChunkExporter {
+
+    private WorldChunkExporter() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        String outputDir = args.length > 0 ? args[0] : "world_chunks";
+        int repeat = args.length > 1 ? Math.max(1, Integer.parseInt(args[1])) : 1;
+        if (Gdx.files == null) {
+            Gdx.files = new Lwjgl3Files();
+        }
+
+        TileBlueprint[][] authored = LevelData.copyBlueprint();
+        LevelCollisionMap authoredCollision = new LevelCollisionMap(authored, LevelData.TILE_SIZE);
+        int rows = authored.length;
+        int authoredCols = authored[0].length;
+        int cols = authoredCols * repeat;
+
+        TileBlueprint[][] blueprint = new TileBlueprint[rows][cols];
+        for (int row = 0; row < rows; row++) {
+            for (int copy = 0; copy < repeat; copy++) {
+                System.arraycopy(authored[row], 0, blueprint[row], copy * authoredCols, authoredCols);
+            }
+        }
+        List<EnemySpawn> spawns = new ArrayList<>();
+        for (EnemySpawn spawn : EnemySpawnLoader.load()) {
+            for (int copy = 0; copy < repeat; copy++) {
+                spawns.add(new EnemySpawn(spawn.id(), spawn.row(), spawn.col() + copy * authoredCols));
+            }
+        }
+        CollisionWorld repeatedCollision = new CollisionWorld() {
+            @Override
+            public float tileSize() {
+                return authoredCollision.tileSize();
+            }
+
+            @Override
+            public boolean isSolid(int row, int col) {
+                return authoredCollision.isSolid(row, Math.floorMod(col, authoredCols));
+            }
+
+            @Override
+            public boolean isWater(int row, int col) {
+                return authoredCollision.isWater(row, Math.floorMod(col, authoredCols));
+            }
+        };
+        BlueprintChunkSource source = new BlueprintChunkSource(blueprint, repeatedCollision, spawns, EnemyRegistry.defaults());
+
+        Path directory = Path.of(outputDir);
+        int chunkRows = (rows + WorldChunk.SIZE - 1) / WorldChunk.SIZE;
+        int chunkCols = (cols + WorldChunk.SIZE - 1) / WorldChunk.SIZE;
+        int written = 0;
+        for (int chunkRow = 0; chunkRow < chunkRows; chunkRow++) {
+            for (int chunkCol = 0; chunkCol < chunkCols; chunkCol++) {
+                WorldChunk chunk = source.load(chunkRow, chunkCol);
+                if (ChunkDirectorySource.isEmpty(chunk)) {
+                    continue;
+                }
+                Path target = directory.resolve(ChunkDirectorySource.chunkFileName(chunkRow, chunkCol));
+                AtomicFileWriter.write(target, writer -> ChunkDirectorySource.writeChunk(writer, chunk));
+                written++;
+            }
+        }
+        AtomicFileWriter.write(directory.resolve(ChunkDirectorySource.HEADER_FILE),
+                writer -> ChunkDirectorySource.writeHeader(writer, rows, cols, source.enemySpawnCount(),
+                        source.contentHash()));
+
+        System.out.println("World:  " + rows + "x" + cols + " tiles (" + chunkRows + "x" + chunkCols + " chunks)");
+        System.out.println("Wrote:  " + written + " non-empty chunks to " + directory.toAbsolutePath());
+    }
+}
@@ -0,0 +1,150 @@
+package org.celestelike.tools.bench;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.celestelike.game.GameSimulation;
+import org.celestelike.game.entity.enemy.EnemyRegistry;
+import org.celestelike.game.entity.samurai.SamuraiCharacter;
+import org.celestelike.game.world.chunk.ChunkDirectorySource;
+import org.celestelike.game.world.chunk.ProceduralChunkSource;
+import org.celestelike.game.world.chunk.WorldChunk;
+
+/**
+ * Measures {@link ProceduralChunkSource} throughput against the rate a dashing player consumes
+ * chunks, and checks determinism: the serialized bytes of every chunk must match between a
+ * sequential pass and a shuffled multi-threaded pass over a fresh source, and must change with
+ * the seed.
+ *
+ * <p>Usage: {@code ChunkGenerationBenchmark [chunks] [threads] [seed] [rows]}
+ * (defaults 2000, available processors, 42, 32).
+ */
+public final class ChunkGenerationBenchmark {
+
+    private ChunkGenerationBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int length = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42L;
+        int rows = args.length > 3 ? Integer.parseInt(args[3]) : 32;
+
+        List<String> enemyIds = EnemyRegistry.defaults().ids();
+        int chunkRows = (rows + WorldChunk.SIZE - 1) / WorldChunk.SIZE;
+        int total = chunkRows * length;
+
+        System.out.println("World:   " + rows + "x" + length * WorldChunk.SIZE + " tiles, " + total
+                + " chunks, seed " + seed);
+
+        // Warm-up so the JIT has compiled the generator before anything is timed.
+        ProceduralChunkSource warmup = new ProceduralChunkSource(seed + 1, rows, Math.min(length, 500), enemyIds);
+        digestAll(warmup, chunkRows, Math.min(length, 500));
+
+        ProceduralChunkSource sequential = new ProceduralChunkSource(seed, rows, length, enemyIds);
+        long[] latencies = new long[total];
+        byte[][] expected = new byte[total][];
+        long start = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            long chunkStart = System.nanoTime();
+            WorldChunk chunk = sequential.load(i % chunkRows, i / chunkRows);
+            latencies[i] = System.nanoTime() - chunkStart;
+            expected[i] = digest(chunk);
+        }
+        double sequentialSeconds = (System.nanoTime() - start) / 1e9;
+
+        ProceduralChunkSource parallel = new ProceduralChunkSource(seed, rows, length, enemyIds);
+        List<Integer> order = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            order.add(i);
+        }
+        Collections.shuffle(order, new Random(seed));
+        byte[][] actual = new byte[total][];
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+        start = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>(total);
+            for (int index : order) {
+                futures.add(pool.submit(() -> {
+                    actual[index] = digest(parallel.load(index % chunkRows, index / chunkRows));
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        double parallelSeconds = (System.nanoTime() - start) / 1e9;
+
+        // Serialization dominates both timed passes equally, so the rates are conservative.
+        double requiredRate = SamuraiCharacter.dashSpeed() / (WorldChunk.SIZE * GameSimulation.TILE_WORLD_SIZE) * chunkRows;
+        double leadSeconds = WorldChunk.SIZE * GameSimulation.TILE_WORLD_SIZE / SamuraiCharacter.dashSpeed();
+        Arrays.sort(latencies);
+        double p50 = latencies[total / 2] / 1e6;
+        double p99 = latencies[Math.min(total - 1, (int) (total * 0.99))] / 1e6;
+
+        System.out.println();
+        System.out.printf("%-22s %12.0f chunks/s%n", "1 thread", total / sequentialSeconds);
+        System.out.printf("%-22s %12.0f chunks/s%n", threads + " threads", total / parallelSeconds);
+        System.out.printf("%-22s %12.0f chunks/s%n", "generator only", sequential.chunksPerSecond());
+        System.out.printf("%-22s %12.2f chunks/s%n", "needed at dash speed", requiredRate);
+        System.out.printf("%-22s %12.0fx%n", "headroom (1 thread)", total / sequentialSeconds / requiredRate);
+        System.out.printf("%-22s %9.3f ms p50, %.3f ms p99 (one chunk of prefetch = %.0f ms of dash)%n",
+                "chunk latency", p50, p99, leadSeconds * 1000);
+        System.out.println();
+
+        boolean matches = Arrays.deepEquals(expected, actual);
+        String digest = combined(expected);
+        String otherSeed = combined(digestAll(new ProceduralChunkSource(seed + 1, rows, length, enemyIds),
+                chunkRows, length));
+        System.out.println("Digest:  " + digest);
+        System.out.println("Shuffled " + threads + "-thread pass " + (matches ? "matches" : "DIFFERS"));
+        System.out.println("Seed " + (seed + 1) + " " + (otherSeed.equals(digest) ? "COLLIDES" : "differs"));
+        if (!matches || otherSeed.equals(digest)) {
+            System.exit(1);
+        }
+    }
+
+    private static byte[][] digestAll(ProceduralChunkSource source, int chunkRows, int length) throws IOException {
+        byte[][] digests = new byte[chunkRows * length][];
+        for (int i = 0; i < digests.length; i++) {
+            digests[i] = digest(source.load(i % chunkRows, i / chunkRows));
+        }
+        return digests;
+    }
+
+    private static byte[] digest(WorldChunk chunk) throws IOException {
+        StringWriter writer = new StringWriter();
+        ChunkDirectorySource.writeChunk(writer, chunk);
+        return sha256().digest(writer.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String combined(byte[][] digests) {
+        MessageDigest combined = sha256();
+        for (byte[] digest : digests) {
+            combined.update(digest);
+        }
+        return HexFormat.of().formatHex(combined.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package org.celestelike.tools.bench;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import org.celestelike.game.GameSimulation;
+import org.celestelike.game.config.GameConfig;
+import org.celestelike.game.entity.samurai.input.SamuraiInputFrame;
+import org.celestelike.game.headless.GymEnvironment;
+
+/**
+ * Drives {@link GymEnvironment} with seeded random actions and reports steps per second on one
+ * thread, plus the bytes allocated per observation, which must be zero.
+ *
+ * <p>Usage: {@code GymBenchmark [steps=200000] [maxEpisodeSeconds=60]}.
+ */
+public final class GymBenchmark {
+
+    private static final int[] ACTIONS = {
+            SamuraiInputFrame.NONE,
+            SamuraiInputFrame.RIGHT,
+            SamuraiInputFrame.RIGHT | SamuraiInputFrame.JUMP,
+            SamuraiInputFrame.RIGHT | SamuraiInputFrame.ATTACK,
+            SamuraiInputFrame.RIGHT | SamuraiInputFrame.DASH,
+            SamuraiInputFrame.LEFT,
+            SamuraiInputFrame.ATTACK,
+            SamuraiInputFrame.DEFEND,
+    };
+
+    private GymBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int steps = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int episodeSeconds = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().threadId();
+        try (GymEnvironment environment = new GymEnvironment(GameConfig.load(),
+                (long) episodeSeconds * GameSimulation.TICKS_PER_SECOND)) {
+            FloatBuffer floats = ByteBuffer.allocateDirect(GymEnvironment.OBSERVATION_BYTES)
+                    .order(ByteOrder.nativeOrder()).asFloatBuffer();
+            ByteBuffer bytes = ByteBuffer.allocateDirect(GymEnvironment.OBSERVATION_BYTES).order(ByteOrder.nativeOrder());
+
+            // Warm-up so the JIT has compiled stepping and observing before anything is timed.
+            run(environment, floats, Math.min(steps, 50_000), 1L);
+
+            long observeBytes = threads.getThreadAllocatedBytes(thread);
+            for (int i = 0; i < 10_000; i++) {
+                floats.clear();
+                environment.observe(floats);
+                bytes.clear();
+                environment.observe(bytes);
+            }
+            observeBytes = threads.getThreadAllocatedBytes(thread) - observeBytes;
+
+            long allocated = threads.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            Totals totals = run(environment, floats, steps, 2L);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            allocated = threads.getThreadAllocatedBytes(thread) - allocated;
+
+            System.out.printf(Locale.US, "Observation: %d floats (%d bytes), %.1f bytes allocated per observe%n",
+                    GymEnvironment.OBSERVATION_FLOATS, GymEnvironment.OBSERVATION_BYTES, observeBytes / 20_000.0);
+            System.out.printf(Locale.US, "Steps:       %d in %.2fs = %.0f steps/s on one thread (step + observe)%n",
+                    steps, seconds, steps / seconds);
+            System.out.printf(Locale.US, "Episodes:    %d (mean reward %.2f), %.0f bytes allocated per step by the simulation%n",
+                    totals.episodes, totals.episodes == 0 ? 0.0 : totals.reward / totals.episodes,
+                    allocated / (double) steps);
+            if (observeBytes != 0L) {
+                System.out.println("Observing allocates; it must not");
+                System.exit(1);
+            }
+        }
+    }
+
+    private record Totals(int episodes, double reward) {
+    }
+
+    private static Totals run(GymEnvironment environment, FloatBuffer observation, int steps, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        environment.reset(seed);
+        int episodes = 0;
+        double reward = 0.0;
+        int action = SamuraiInputFrame.NONE;
+        for (int i = 0; i < steps; i++) {
+            if (environment.isDone()) {
+                episodes++;
+                environment.reset(random.nextLong());
+            }
+            // Hold each action for a few ticks, as a player would.
+            if ((i & 7) == 0) {
+                action = ACTIONS[random.nextInt(ACTIONS.length)];
+            }
+            reward += environment.step(action);
+            observation.clear();
+            environment.observe(observation);
+        }
+        return new Totals(episodes, reward);
+    }
+}
@@ -0,0 +1,148 @@
+package org.celestelike.tools.bench;
+
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.JsonWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import org.celestelike.game.world.JsonPullParser;
+import org.celestelike.game.world.TileMask;
+
+/**
+ * Compares the legacy {@code [row, col]} entry list against the packed {@link TileMask} encodings
+ * for a synthetic level: serialized size and the time to parse the snapshot into a mask, both via a
+ * {@link JsonReader} tree and streamed through {@link JsonPullParser}.
+ *
+ * <p>Usage: {@code MaskEncodingBenchmark [size] [iterations] [seed]} (defaults 1000, 7, 42).
+ */
+public final class MaskEncodingBenchmark {
+
+    private MaskEncodingBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 7;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42L;
+
+        TileMask source = generateTerrain(size, size, seed);
+        System.out.println("Map:        " + size + "x" + size + ", " + source.cardinality()
+                + " solid tiles, " + source.runCount() + " runs");
+        System.out.println("Iterations: " + iterations + " (median reported)");
+        System.out.println();
+        System.out.printf("%-8s %14s %14s %14s%n", "format", "bytes", "tree ms", "stream ms");
+
+        run("legacy", legacyDocument(source), source, iterations);
+        run(TileMask.ENCODING_BITSET, packedDocument(source, TileMask.ENCODING_BITSET), source, iterations);
+        run(TileMask.ENCODING_RLE, packedDocument(source, TileMask.ENCODING_RLE), source, iterations);
+        System.out.println();
+        System.out.println("Editor would write: " + source.preferredEncoding());
+    }
+
+    private static void run(String label, String document, TileMask expected, int iterations) throws IOException {
+        long[] treeSamples = new long[iterations];
+        long[] streamSamples = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            JsonValue root = new JsonReader().parse(document);
+            TileMask decoded = new TileMask(expected.rows(), expected.cols());
+            decoded.readSnapshotLayer(root, "solid");
+            treeSamples[i] = System.nanoTime() - start;
+            verify(label + " tree", decoded, expected);
+
+            start = System.nanoTime();
+            decoded = new TileMask(expected.rows(), expected.cols());
+            try (JsonPullParser parser = new JsonPullParser(new StringReader(document))) {
+                parser.beginObject();
+                while (parser.hasNext()) {
+                    switch (parser.nextName()) {
+                        case "solidMask" -> decoded.read(parser);
+                        case "solid" -> decoded.applyLegacyEntries(parser);
+                        default -> parser.skipValue();
+                    }
+                }
+                parser.endObject();
+            }
+            streamSamples[i] = System.nanoTime() - start;
+            verify(label + " stream", decoded, expected);
+        }
+        int bytes = document.getBytes(StandardCharsets.UTF_8).length;
+        System.out.printf("%-8s %14d %14.2f %14.2f%n", label, bytes, median(treeSamples), median(streamSamples));
+    }
+
+    private static void verify(String label, TileMask decoded, TileMask expected) {
+        if (!decoded.toBase64().equals(expected.toBase64())) {
+            throw new IllegalStateException(label + " round-trip does not match the source mask");
+        }
+    }
+
+    private static double median(long[] samples) {
+        Arrays.sort(samples);
+        return samples[samples.length / 2] / 1_000_000.0;
+    }
+
+    private static String legacyDocument(TileMask mask) throws IOException {
+        StringWriter out = new StringWriter();
+        JsonWriter json = new JsonWriter(out);
+        json.setOutputType(JsonWriter.OutputType.json);
+        json.object();
+        json.name("solid").array();
+        for (int r = 0; r < mask.rows(); r++) {
+            for (int c = 0; c < mask.cols(); c++) {
+                if (mask.get(r, c)) {
+                    json.array().value(r).value(c).pop();
+                }
+            }
+        }
+        json.pop();
+        json.pop();
+        json.flush();
+        return out.toString();
+    }
+
+    private static String packedDocument(TileMask mask, String encoding) throws IOException {
+        StringWriter out = new StringWriter();
+        JsonWriter json = new JsonWriter(out);
+        json.setOutputType(JsonWriter.OutputType.json);
+        json.object();
+        mask.writeJson(json, "solidMask", encoding);
+        json.pop();
+        json.flush();
+        return out.toString();
+    }
+
+    /**
+     * Ground band with a noisy surface, floating platforms and some pillars: long horizontal runs
+     * like an authored level rather than uniform noise.
+     */
+    private static TileMask generateTerrain(int rows, int cols, long seed) {
+        Random random = new Random(seed);
+        TileMask mask = new TileMask(rows, cols);
+        int height = rows / 6;
+        for (int c = 0; c < cols; c++) {
+            height = Math.max(2, Math.min(rows / 3, height + random.nextInt(3) - 1));
+            for (int r = 0; r < height; r++) {
+                mask.set(r, c, true);
+            }
+        }
+        int platforms = rows * cols / 400;
+        for (int i = 0; i < platforms; i++) {
+            int row = rows / 4 + random.nextInt(Math.max(1, rows - rows / 4));
+            mask.setRun(row, random.nextInt(cols), 3 + random.nextInt(24));
+        }
+        int pillars = cols / 20;
+        for (int i = 0; i < pillars; i++) {
+            int col = random.nextInt(cols);
+            int bottom = random.nextInt(rows);
+            int top = Math.min(rows, bottom + 4 + random.nextInt(20));
+            for (int r = bottom; r < top; r++) {
+                mask.set(r, col, true);
+            }
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,150 @@
+package org.celestelike.tools.bench;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import org.celestelike.game.GameSimulation;
+import org.celestelike.game.config.GameConfig;
+import org.celestelike.game.entity.samurai.input.SamuraiInputFrame;
+import org.celestelike.game.headless.HeadlessRuntime;
+import org.celestelike.game.headless.HeadlessRuntime.PlaybackResult;
+import org.celestelike.game.metrics.TimeHistogram;
+import org.celestelike.game.replay.InputRecorder;
+import org.celestelike.game.replay.InputRecording;
+
+/**
+ * Replays an input recording headless and reports the tick-time histogram, optionally saving it
+ * or comparing it against a histogram saved by another build. Every loop must end in the same
+ * state, which doubles as a determinism check.
+ *
+ * <p>Usage: {@code ReplayBenchmark [replay] [--loops N] [--save hist.csv] [--baseline hist.csv]
+ * [--synthesize seconds]}. The replay defaults to {@code replays/last_run.replay}, which the game
+ * writes at the end of every run; {@code --synthesize} writes a scripted session there first for
+ * machines without a recorded one.
+ */
+public final class ReplayBenchmark {
+
+    private ReplayBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path replay = Path.of("replays", "last_run" + InputRecording.FILE_EXTENSION);
+        int loops = 3;
+        Path save = null;
+        Path baseline = null;
+        int synthesizeSeconds = 0;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--loops" -> loops = Integer.parseInt(args[++i]);
+                case "--save" -> save = Path.of(args[++i]);
+                case "--baseline" -> baseline = Path.of(args[++i]);
+                case "--synthesize" -> synthesizeSeconds = Integer.parseInt(args[++i]);
+                default -> replay = Path.of(args[i]);
+            }
+        }
+
+        HeadlessRuntime runtime = new HeadlessRuntime(GameConfig.load());
+        try {
+            if (synthesizeSeconds > 0) {
+                InputRecording synthetic = synthesize(
+                        synthesizeSeconds * GameSimulation.TICKS_PER_SECOND,
+                        InputRecording.fingerprint(runtime.simulation().source()));
+                synthetic.save(replay);
+                System.out.println("Wrote scripted " + synthesizeSeconds + "s session to " + replay);
+            } else if (!Files.exists(replay)) {
+                System.err.println("No recording at " + replay + "; play a run first or pass --synthesize <seconds>");
+                System.exit(2);
+            }
+            InputRecording recording = InputRecording.load(replay);
+            System.out.printf(Locale.US, "Replay:   %s (%.1fs, %d ticks, %d runs, %d bytes)%n",
+                    replay, recording.durationSeconds(), recording.tickCount(), recording.runCount(),
+                    recording.encodedBytes());
+
+            // One unmeasured pass so class loading and JIT warm-up stay out of the histogram.
+            PlaybackResult expected = runtime.play(recording, null);
+            TimeHistogram ticks = new TimeHistogram();
+            boolean deterministic = true;
+            long start = System.nanoTime();
+            for (int loop = 0; loop < loops; loop++) {
+                PlaybackResult result = runtime.play(recording, ticks);
+                deterministic &= result.equals(expected);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.printf(Locale.US, "Loops:    %d in %.2fs (%.0fx real time)%n",
+                    loops, seconds, loops * recording.durationSeconds() / seconds);
+            System.out.println("Ticks:    " + ticks.summary());
+            System.out.println("End:      " + expected);
+            System.out.println("Repeat:   " + (deterministic ? "identical end state every loop" : "END STATE DIFFERS between loops"));
+            if (save != null) {
+                ticks.save(save);
+                System.out.println("Saved histogram to " + save);
+            }
+            if (baseline != null) {
+                compare(TimeHistogram.load(baseline), ticks);
+            }
+            if (!deterministic) {
+                System.exit(1);
+            }
+        } finally {
+            runtime.dispose();
+        }
+    }
+
+    private static void compare(TimeHistogram baseline, TimeHistogram current) {
+        System.out.println();
+        System.out.printf("%-8s %12s %12s %9s%n", "", "baseline us", "current us", "change");
+        row("mean", baseline.meanNanos(), current.meanNanos());
+        for (double percentile : new double[]{50, 90, 99, 99.9}) {
+            row("p" + (percentile == Math.rint(percentile) ? String.valueOf((int) percentile) : String.valueOf(percentile)),
+                    baseline.percentileNanos(percentile), current.percentileNanos(percentile));
+        }
+        row("max", baseline.maxNanos(), current.maxNanos());
+    }
+
+    private static void row(String label, double baselineNanos, double currentNanos) {
+        double change = baselineNanos == 0 ? 0 : (currentNanos - baselineNanos) / baselineNanos * 100.0;
+        System.out.printf(Locale.US, "%-8s %12.1f %12.1f %+8.1f%%%n", label, baselineNanos / 1e3, currentNanos / 1e3, change);
+    }
+
+    /**
+     * A scripted session: mostly running right with jumps, dashes and attacks mixed in, and the
+     * occasional turn back. Seeded, so every machine synthesizes the same recording.
+     */
+    public static InputRecording synthesize(int ticks, long worldFingerprint) {
+        return synthesize(ticks, worldFingerprint, 0x5eedL);
+    }
+
+    /**
+     * As {@link #synthesize(int, long)} with another script, e.g. for a second player.
+     */
+    public static InputRecording synthesize(int ticks, long worldFingerprint, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        InputRecorder recorder = new InputRecorder(GameSimulation.TICKS_PER_SECOND, worldFingerprint);
+        int held = SamuraiInputFrame.RIGHT;
+        int holdTicks = 0;
+        for (int tick = 0; tick < ticks; tick++) {
+            if (holdTicks-- <= 0) {
+                held = random.nextInt(5) == 0 ? SamuraiInputFrame.LEFT : SamuraiInputFrame.RIGHT;
+                if (random.nextInt(8) == 0) {
+                    held |= SamuraiInputFrame.DEFEND;
+                }
+                holdTicks = random.nextInt(20, 120);
+            }
+            int frame = held;
+            int action = random.nextInt(100);
+            if (action < 3) {
+                frame |= SamuraiInputFrame.JUMP;
+            } else if (action < 4) {
+                frame |= SamuraiInputFrame.DASH;
+            } else if (action < 6) {
+                frame |= SamuraiInputFrame.ATTACK;
+            } else if (action == 6 && random.nextInt(10) == 0) {
+                frame |= SamuraiInputFrame.SPECIAL;
+            }
+            recorder.record(frame);
+        }
+        return recorder.finish();
+    }
+}
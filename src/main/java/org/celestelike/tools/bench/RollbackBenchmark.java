@@ -0,0 +1,189 @@
+package org.celestelike.tools.bench;
+
+import java.util.Locale;
+import org.celestelike.game.GameSimulation;
+import org.celestelike.game.WorldSnapshot;
+import org.celestelike.game.config.GameConfig;
+import org.celestelike.game.headless.HeadlessRuntime;
+import org.celestelike.game.metrics.TimeHistogram;
+import org.celestelike.game.net.LoopbackTransport;
+import org.celestelike.game.net.RollbackSession;
+import org.celestelike.game.replay.InputRecording;
+import org.celestelike.game.replay.InputReplayer;
+
+/**
+ * Plays two co-op peers against each other in one process over a {@link LoopbackTransport} with
+ * latency, jitter and loss, on a simulated clock so every run drops the same packets. Checks that
+ * both peers end in exactly the state a single simulation reaches with the same inputs, reports
+ * how often and how deep they rolled back, and times forced {@value RollbackSession#MAX_ROLLBACK_FRAMES}-frame
+ * rollbacks against the 16 ms frame budget.
+ *
+ * <p>Usage: {@code RollbackBenchmark [seconds] [latencyMs] [lossPercent] [inputDelay] [jitterMs]}
+ * (defaults 60, 60, 5, 2, 10).
+ */
+public final class RollbackBenchmark {
+
+    private static final long TICK_NANOS = 1_000_000_000L / GameSimulation.TICKS_PER_SECOND;
+    private static final long FRAME_BUDGET_NANOS = 16_000_000L;
+    private static final int DRAIN_TICKS = 600;
+
+    private RollbackBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 60;
+        int latencyMs = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+        float loss = (args.length > 2 ? Float.parseFloat(args[2]) : 5f) / 100f;
+        int inputDelay = args.length > 3 ? Integer.parseInt(args[3]) : 2;
+        int jitterMs = args.length > 4 ? Integer.parseInt(args[4]) : 10;
+        int ticks = seconds * GameSimulation.TICKS_PER_SECOND;
+
+        GameConfig config = GameConfig.load();
+        HeadlessRuntime hostRuntime = new HeadlessRuntime(config, 2);
+        HeadlessRuntime guestRuntime = new HeadlessRuntime(config, 2);
+        HeadlessRuntime referenceRuntime = new HeadlessRuntime(config, 2);
+        long[] clock = {0L};
+        LoopbackTransport[] link = LoopbackTransport.pair(latencyMs, jitterMs, loss, 0x10bbL, () -> clock[0]);
+        try {
+            GameSimulation host = hostRuntime.simulation();
+            GameSimulation guest = guestRuntime.simulation();
+            long fingerprint = InputRecording.fingerprint(host.source());
+            int[] hostInputs = frames(ReplayBenchmark.synthesize(ticks, fingerprint));
+            int[] guestInputs = frames(ReplayBenchmark.synthesize(ticks, fingerprint, 0xc0093L));
+
+            host.startRun();
+            guest.startRun();
+            RollbackSession hostSession = new RollbackSession(host, link[0], 0, inputDelay, 1);
+            RollbackSession guestSession = new RollbackSession(guest, link[1], 1, inputDelay, 1);
+            hostSession.setRestartOnRunOver(true);
+            guestSession.setRestartOnRunOver(true);
+
+            TimeHistogram frameTimes = new TimeHistogram();
+            int hostTaken = 0;
+            int guestTaken = 0;
+            long steps = 0L;
+            while ((hostTaken < ticks || guestTaken < ticks) && steps < 4L * ticks) {
+                clock[0] += TICK_NANOS;
+                steps++;
+                hostTaken = step(hostSession, hostInputs, hostTaken, frameTimes);
+                guestTaken = step(guestSession, guestInputs, guestTaken, frameTimes);
+            }
+            for (int i = 0; i < DRAIN_TICKS && !(hostSession.isConfirmed() && guestSession.isConfirmed()); i++) {
+                clock[0] += TICK_NANOS;
+                hostSession.poll();
+                guestSession.poll();
+            }
+
+            GameSimulation reference = referenceRuntime.simulation();
+            reference.startRun();
+            for (int f = 0; f < hostSession.frame(); f++) {
+                int hostInput = f < inputDelay ? 0 : hostInputs[f - inputDelay];
+                int guestInput = f < inputDelay ? 0 : guestInputs[f - inputDelay];
+                if (reference.isRunOver()) {
+                    reference.startRun();
+                }
+                reference.tick(hostInput, guestInput);
+            }
+            WorldSnapshot hostState = new WorldSnapshot();
+            WorldSnapshot guestState = new WorldSnapshot();
+            WorldSnapshot referenceState = new WorldSnapshot();
+            host.saveState(hostState);
+            guest.saveState(guestState);
+            reference.saveState(referenceState);
+            boolean confirmed = hostSession.isConfirmed() && guestSession.isConfirmed()
+                    && hostSession.frame() == guestSession.frame();
+            boolean exact = confirmed && hostState.sameState(referenceState) && guestState.sameState(referenceState);
+
+            TimeHistogram forced = forcedRollbacks(reference, hostInputs, guestInputs, ticks);
+
+            System.out.printf(Locale.US, "Link:     %dms one-way (+%dms jitter), %.1f%% loss, input delay %d frames%n",
+                    latencyMs, jitterMs, loss * 100f, inputDelay);
+            System.out.printf(Locale.US, "Packets:  %d sent, %d dropped%n",
+                    link[0].sentPackets() + link[1].sentPackets(), link[0].droppedPackets() + link[1].droppedPackets());
+            report("Host:", hostSession, steps);
+            report("Guest:", guestSession, steps);
+            System.out.println("Frame:    " + frameTimes.summary() + " (advance incl. rollbacks)");
+            System.out.println("Rollback: " + merged(hostSession, guestSession).summary());
+            System.out.println("Forced " + RollbackSession.MAX_ROLLBACK_FRAMES + ": " + forced.summary());
+            boolean withinBudget = forced.percentileNanos(99.0) <= FRAME_BUDGET_NANOS;
+            System.out.printf(Locale.US, "Budget:   %d-frame rollback p99 %.2fms, max %.2fms against %dms: %s%n",
+                    RollbackSession.MAX_ROLLBACK_FRAMES, forced.percentileNanos(99.0) / 1e6, forced.maxNanos() / 1e6,
+                    FRAME_BUDGET_NANOS / 1_000_000L, withinBudget ? "ok" : "OVER");
+            System.out.println("Exact:    " + (exact
+                    ? "both peers match a straight simulation of the same inputs after " + hostSession.frame() + " frames"
+                    : confirmed ? "MISMATCH between peers and the straight simulation" : "peers never confirmed every input"));
+            if (!exact || !withinBudget) {
+                System.exit(1);
+            }
+        } finally {
+            hostRuntime.dispose();
+            guestRuntime.dispose();
+            referenceRuntime.dispose();
+        }
+    }
+
+    private static int step(RollbackSession session, int[] inputs, int taken, TimeHistogram frameTimes) {
+        if (taken >= inputs.length) {
+            session.poll();
+            return taken;
+        }
+        if (!session.ready()) {
+            return taken;
+        }
+        long start = System.nanoTime();
+        session.advance(inputs[taken]);
+        frameTimes.record(System.nanoTime() - start);
+        return taken + 1;
+    }
+
+    /**
+     * Replays the session once more from a fresh run, and every {@value RollbackSession#MAX_ROLLBACK_FRAMES}
+     * frames restores the window's first frame and re-simulates the whole window, as a
+     * worst-case rollback would.
+     */
+    private static TimeHistogram forcedRollbacks(GameSimulation simulation, int[] hostInputs, int[] guestInputs, int ticks) {
+        int window = RollbackSession.MAX_ROLLBACK_FRAMES;
+        TimeHistogram times = new TimeHistogram();
+        WorldSnapshot windowStart = new WorldSnapshot();
+        simulation.startRun();
+        for (int start = 0; start + window <= ticks; start += window) {
+            if (simulation.isRunOver()) {
+                simulation.startRun();
+            }
+            simulation.saveState(windowStart);
+            for (int f = start; f < start + window; f++) {
+                simulation.tick(hostInputs[f], guestInputs[f]);
+            }
+            long begin = System.nanoTime();
+            simulation.restoreState(windowStart);
+            for (int f = start; f < start + window; f++) {
+                simulation.tick(hostInputs[f], guestInputs[f]);
+            }
+            times.record(System.nanoTime() - begin);
+        }
+        return times;
+    }
+
+    private static void report(String label, RollbackSession session, long steps) {
+        double perRollback = session.rollbacks() == 0 ? 0 : session.resimulatedFrames() / (double) session.rollbacks();
+        System.out.printf(Locale.US, "%-9s %d frames in %d ticks, %d rollbacks (%.1f frames avg, %d max), %d stalls, %d time-sync waits%n",
+                label, session.frame(), steps, session.rollbacks(), perRollback, session.maxRollbackDepth(),
+                session.stalls(), session.timeSyncWaits());
+    }
+
+    private static TimeHistogram merged(RollbackSession a, RollbackSession b) {
+        TimeHistogram both = new TimeHistogram();
+        both.add(a.rollbackTimes());
+        both.add(b.rollbackTimes());
+        return both;
+    }
+
+    private static int[] frames(InputRecording recording) {
+        int[] frames = new int[(int) recording.tickCount()];
+        InputReplayer replayer = recording.replayer();
+        for (int i = 0; i < frames.length; i++) {
+            frames[i] = replayer.nextFrame();
+        }
+        return frames;
+    }
+}
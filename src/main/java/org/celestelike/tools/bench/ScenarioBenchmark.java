@@ -0,0 +1,715 @@
+package org.celestelike.tools.bench;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.graphics.profiling.GLProfiler;
+import com.badlogic.gdx.utils.JsonWriter;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.ToDoubleFunction;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import org.celestelike.game.GameSimulation;
+import org.celestelike.game.WorldRenderer;
+import org.celestelike.game.config.GameConfig;
+import org.celestelike.game.entity.enemy.EnemyRegistry;
+import org.celestelike.game.entity.enemy.EnemySpawn;
+import org.celestelike.game.entity.samurai.SamuraiCharacter;
+import org.celestelike.game.entity.samurai.input.SamuraiInputFrame;
+import org.celestelike.game.headless.HeadlessRuntime;
+import org.celestelike.game.logging.GameLogger;
+import org.celestelike.game.metrics.CountingSpriteBatch;
+import org.celestelike.game.metrics.FrameProfiler.Phase;
+import org.celestelike.game.metrics.RenderStats;
+import org.celestelike.game.metrics.RenderStats.Counter;
+import org.celestelike.game.metrics.TimeHistogram;
+import org.celestelike.game.replay.InputRecorder;
+import org.celestelike.game.replay.InputRecording;
+import org.celestelike.game.world.JsonPullParser;
+import org.celestelike.game.world.chunk.ProceduralChunkSource;
+
+/**
+ * Plays fixed stress scenarios headless and gates them against a checked-in baseline. Each
+ * update does what {@code CelesteGame.runTicks} does minus the keyboard: restart the run when
+ * asked, record the input frame and tick the simulation. Per scenario it reports the p50/p99/max
+ * update time, the bytes allocated by the update thread and the GC pauses, as a table and as CSV
+ * and JSON.
+ *
+ * <p>One more pass per scenario draws the world after every update as {@code CelesteGame} does,
+ * through the headless stub GL with a {@link GLProfiler} installed, and reports the GL draw
+ * calls, texture binds, batch flushes and flushing texture switches per update. The stub's calls
+ * are slow and allocate, so that pass is not timed; its counts do not depend on the machine, so
+ * one pass is enough and they catch batching regressions anywhere.
+ *
+ * <p>Usage: {@code ScenarioBenchmark [--out dir] [--repeats n] [--save baseline.json]
+ * [--baseline baseline.json] [--threshold percent] [--no-gate-timings] [scenario...]}. Each
+ * scenario runs {@code n} times (default 3) in a fresh world and every metric is the median over
+ * the repeats, which keeps one noisy pass from failing the gate. With {@code --baseline}, the run
+ * fails when a scenario's p50 or p99 update time, allocation, draw calls or texture switches per
+ * update is more than {@code threshold} percent (default 30) above the baseline, and also above
+ * it by more than a floor per metric ({@value #MIN_REGRESSION_MICROS}us for times), so that tiny
+ * numbers do not fail on noise. A metric whose baseline is 0 fails on the floor alone.
+ *
+ * <p>The checked-in baseline was saved on the reference machine with the Java 21 toolchain; its
+ * header names both. The counts do not depend on the machine, but the times do, so
+ * {@code --no-gate-timings} still shows them and only gates the counts, for runs elsewhere.
+ */
+public final class ScenarioBenchmark {
+
+    private static final Path DEFAULT_OUT = Path.of("build", "benchmarks");
+    private static final int DEFAULT_REPEATS = 3;
+    private static final double DEFAULT_THRESHOLD_PERCENT = 30.0;
+    /** Changes smaller than this are noise however large they are relative to the baseline. */
+    private static final double MIN_REGRESSION_MICROS = 20.0;
+    private static final double MIN_REGRESSION_BYTES = 64.0;
+    private static final double MIN_REGRESSION_CALLS = 1.0;
+
+    /**
+     * One stress case: the world it runs in, how it is set up and the inputs it feeds.
+     */
+    private enum Scenario {
+        /**
+         * 500 skeletons spread over the stretch a samurai dashes back and forth along, on the flat
+         * start of a generated stage. Skeletons neither fall nor climb, so they are placed on the
+         * row he lands on, where they reach him.
+         */
+        SWARM("swarm", "benchmarks/swarm_arena.json", 600, 3600) {
+            private static final int SKELETONS = 500;
+            private static final int PATROL_COLUMNS = 12;
+            private static final int MAX_FALL_TICKS = 120;
+
+            private float homeX;
+
+            @Override
+            void setUp(GameSimulation simulation) {
+                SamuraiCharacter samurai = simulation.samurai();
+                for (int i = 0; i < MAX_FALL_TICKS && !samurai.isGrounded(); i++) {
+                    simulation.tick(SamuraiInputFrame.NONE);
+                }
+                homeX = samurai.getPosition().x;
+                int col = (int) (samurai.getColliderCenterX() / simulation.tileWorldSize());
+                int row = Math.max(0, Math.round(samurai.getPosition().y / simulation.tileWorldSize()));
+                SplittableRandom random = new SplittableRandom(0x5eedL);
+                List<EnemySpawn> spawns = new ArrayList<>(SKELETONS);
+                for (int i = 0; i < SKELETONS; i++) {
+                    spawns.add(new EnemySpawn("skeletonEnemie", row, col + random.nextInt(PATROL_COLUMNS)));
+                }
+                simulation.enemies().spawnAll(spawns, simulation.source().rows(), simulation.tileWorldSize());
+            }
+
+            @Override
+            boolean prepare(GameSimulation simulation, long tick) {
+                // Enemies placed without a chunk cannot be restored over, so instead of a new run
+                // the samurai gets back up where he fell and the swarm stays at full size.
+                SamuraiCharacter samurai = simulation.samurai();
+                if (samurai.isDead()) {
+                    samurai.reviveAt(samurai.getPosition().x, samurai.getPosition().y);
+                }
+                return false;
+            }
+
+            @Override
+            int frame(GameSimulation simulation, long tick) {
+                SamuraiCharacter samurai = simulation.samurai();
+                float x = samurai.getPosition().x;
+                float farX = homeX + PATROL_COLUMNS * simulation.tileWorldSize();
+                boolean right = samurai.isFacingRight() ? x < farX : x < homeX;
+                int frame = right ? SamuraiInputFrame.RIGHT : SamuraiInputFrame.LEFT;
+                if (tick % 30 == 0) {
+                    frame |= SamuraiInputFrame.DASH;
+                } else if (tick % 30 == 15) {
+                    frame |= SamuraiInputFrame.ATTACK;
+                }
+                return frame;
+            }
+        },
+
+        /**
+         * Runs, jumps and dashes right across a generated 1000-row, 32-chunk (1024-column) stage.
+         * Generated terrain stops a scripted runner now and then, so after half a second without
+         * progress the samurai is moved onto the surface a little further on, and back to the
+         * start at the far end; either way the pager sees a continuous sweep of new chunks.
+         */
+        TRAVERSAL("traversal", "benchmarks/traversal_1000x1000.json", 600, 7200) {
+            private static final int STALL_TICKS = 30;
+            private static final int SKIP_COLUMNS = 16;
+
+            private float furthestX;
+            private int stalledTicks;
+
+            @Override
+            void setUp(GameSimulation simulation) {
+                furthestX = simulation.samurai().getPosition().x;
+                stalledTicks = 0;
+            }
+
+            @Override
+            boolean prepare(GameSimulation simulation, long tick) {
+                if (simulation.isRunOver()) {
+                    furthestX = 0f;
+                    stalledTicks = 0;
+                    return true;
+                }
+                SamuraiCharacter samurai = simulation.samurai();
+                float x = samurai.getPosition().x;
+                if (x > furthestX) {
+                    furthestX = x;
+                    stalledTicks = 0;
+                } else if (++stalledTicks >= STALL_TICKS) {
+                    ProceduralChunkSource world = (ProceduralChunkSource) simulation.source();
+                    float tile = simulation.tileWorldSize();
+                    int col = (int) (x / tile) + SKIP_COLUMNS;
+                    if (col >= world.cols() - SKIP_COLUMNS) {
+                        col = SKIP_COLUMNS;
+                    }
+                    samurai.reviveAt(col * tile, (world.surfaceRow(col) + 1) * tile);
+                    furthestX = col * tile;
+                    stalledTicks = 0;
+                }
+                return false;
+            }
+
+            @Override
+            int frame(GameSimulation simulation, long tick) {
+                int frame = SamuraiInputFrame.RIGHT;
+                if (tick % 20 == 0) {
+                    frame |= SamuraiInputFrame.JUMP;
+                } else if (tick % 20 == 6) {
+                    frame |= SamuraiInputFrame.DASH | SamuraiInputFrame.UP;
+                }
+                return frame;
+            }
+        },
+
+        /** 100 runs started in quick succession, one every 36 updates, as retry-spamming does. */
+        RESTARTS("restarts", null, 360, 3600) {
+            private static final int UPDATES_PER_RUN = 36;
+
+            @Override
+            boolean prepare(GameSimulation simulation, long tick) {
+                return tick % UPDATES_PER_RUN == 0 || simulation.isRunOver();
+            }
+
+            @Override
+            int frame(GameSimulation simulation, long tick) {
+                return tick % UPDATES_PER_RUN < UPDATES_PER_RUN / 2 ? SamuraiInputFrame.RIGHT : SamuraiInputFrame.LEFT;
+            }
+        };
+
+        final String label;
+        final String configPath;
+        final int warmupTicks;
+        final int ticks;
+
+        Scenario(String label, String configPath, int warmupTicks, int ticks) {
+            this.label = label;
+            this.configPath = configPath;
+            this.warmupTicks = warmupTicks;
+            this.ticks = ticks;
+        }
+
+        GameConfig config() {
+            return configPath == null ? GameConfig.load() : GameConfig.load(new FileHandle(configPath));
+        }
+
+        /**
+         * Called once, right after the first run has started. Scenarios run one at a time, so a
+         * scenario may keep its per-run state in fields reset here.
+         */
+        void setUp(GameSimulation simulation) {
+        }
+
+        /**
+         * Called before every update but the first, and may adjust the world.
+         *
+         * @return whether to start a new run first; by default when the samurai died
+         */
+        boolean prepare(GameSimulation simulation, long tick) {
+            return simulation.isRunOver();
+        }
+
+        abstract int frame(GameSimulation simulation, long tick);
+    }
+
+    /**
+     * The measurements of one scenario; the field names double as the CSV columns and JSON keys.
+     */
+    private record Result(
+            String name,
+            long updates,
+            int runs,
+            double meanMicros,
+            double p50Micros,
+            double p99Micros,
+            double maxMicros,
+            double allocatedBytesPerUpdate,
+            double allocatedMbPerSecond,
+            long gcCount,
+            double gcPauseMillis,
+            double gcMaxPauseMillis,
+            double drawCallsPerUpdate,
+            double textureBindsPerUpdate,
+            double batchFlushesPerUpdate,
+            double textureSwitchesPerUpdate,
+            int maxSpritesInBatch) {
+
+        static final String[] COLUMNS = {
+                "name", "updates", "runs", "meanMicros", "p50Micros", "p99Micros", "maxMicros",
+                "allocatedBytesPerUpdate", "allocatedMbPerSecond", "gcCount", "gcPauseMillis", "gcMaxPauseMillis",
+                "drawCallsPerUpdate", "textureBindsPerUpdate", "batchFlushesPerUpdate", "textureSwitchesPerUpdate",
+                "maxSpritesInBatch"};
+
+        Result withRenderCounts(Result drawn) {
+            return new Result(name, updates, runs, meanMicros, p50Micros, p99Micros, maxMicros,
+                    allocatedBytesPerUpdate, allocatedMbPerSecond, gcCount, gcPauseMillis, gcMaxPauseMillis,
+                    drawn.drawCallsPerUpdate, drawn.textureBindsPerUpdate, drawn.batchFlushesPerUpdate,
+                    drawn.textureSwitchesPerUpdate, drawn.maxSpritesInBatch);
+        }
+
+        Object[] values() {
+            return new Object[]{name, updates, runs, meanMicros, p50Micros, p99Micros, maxMicros,
+                    allocatedBytesPerUpdate, allocatedMbPerSecond, gcCount, gcPauseMillis, gcMaxPauseMillis,
+                    drawCallsPerUpdate, textureBindsPerUpdate, batchFlushesPerUpdate, textureSwitchesPerUpdate,
+                    maxSpritesInBatch};
+        }
+    }
+
+    private ScenarioBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path out = DEFAULT_OUT;
+        Path save = null;
+        Path baseline = null;
+        int repeats = DEFAULT_REPEATS;
+        double threshold = DEFAULT_THRESHOLD_PERCENT;
+        boolean gateTimings = true;
+        List<Scenario> scenarios = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--out" -> out = Path.of(args[++i]);
+                case "--repeats" -> repeats = Math.max(1, Integer.parseInt(args[++i]));
+                case "--save" -> save = Path.of(args[++i]);
+                case "--baseline" -> baseline = Path.of(args[++i]);
+                case "--threshold" -> threshold = Double.parseDouble(args[++i]);
+                case "--no-gate-timings" -> gateTimings = false;
+                default -> scenarios.add(Scenario.valueOf(args[i].toUpperCase(Locale.ROOT)));
+            }
+        }
+        if (scenarios.isEmpty()) {
+            scenarios.addAll(List.of(Scenario.values()));
+        }
+
+        HeadlessRuntime.install(Application.LOG_ERROR);
+        GcPauses gc = new GcPauses();
+        List<Result> results = new ArrayList<>(scenarios.size());
+        for (Scenario scenario : scenarios) {
+            List<Result> passes = new ArrayList<>(repeats);
+            for (int i = 0; i < repeats; i++) {
+                passes.add(run(scenario, gc, false));
+            }
+            Result result = median(passes).withRenderCounts(run(scenario, gc, true));
+            results.add(result);
+            System.out.printf(Locale.US,
+                    "%-10s %6d updates %4d runs  p50 %8.1fus  p99 %8.1fus  max %9.1fus  %9.0f B/update %7.1f MB/s  GC %d (%.1fms, max %.1fms)"
+                            + "  draws %.1f binds %.1f flushes %.1f switches %.1f max sprites %d%n",
+                    result.name(), result.updates(), result.runs(), result.p50Micros(), result.p99Micros(),
+                    result.maxMicros(), result.allocatedBytesPerUpdate(), result.allocatedMbPerSecond(),
+                    result.gcCount(), result.gcPauseMillis(), result.gcMaxPauseMillis(),
+                    result.drawCallsPerUpdate(), result.textureBindsPerUpdate(), result.batchFlushesPerUpdate(),
+                    result.textureSwitchesPerUpdate(), result.maxSpritesInBatch());
+        }
+        gc.close();
+
+        Files.createDirectories(out);
+        writeCsv(out.resolve("scenarios.csv"), results);
+        writeJson(out.resolve("scenarios.json"), results);
+        System.out.println("Wrote " + out.resolve("scenarios.csv") + " and " + out.resolve("scenarios.json"));
+        if (save != null) {
+            if (save.getParent() != null) {
+                Files.createDirectories(save.getParent());
+            }
+            writeJson(save, results);
+            System.out.println("Saved baseline to " + save);
+        }
+        if (baseline != null && !compare(readJson(baseline), results, threshold, gateTimings)) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @param draw whether to draw after every update and count render calls; the timings of such
+     *             a pass mean nothing
+     */
+    private static Result run(Scenario scenario, GcPauses gc, boolean draw) {
+        GameSimulation simulation = new GameSimulation(scenario.config(), 1, EnemyRegistry.defaults(),
+                GameLogger.discarding());
+        HeadlessView view = draw ? new HeadlessView(simulation) : null;
+        try {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            long fingerprint = InputRecording.fingerprint(simulation.source());
+            simulation.startRun();
+            InputRecorder recorder = new InputRecorder(GameSimulation.TICKS_PER_SECOND, fingerprint);
+            scenario.setUp(simulation);
+            TimeHistogram updates = new TimeHistogram();
+            int runs = 0;
+            long allocated = 0L;
+            long elapsed = 0L;
+            RenderStats renderStats = draw ? view.newStats() : null;
+            int total = scenario.warmupTicks + scenario.ticks;
+            for (int tick = 0; tick < total; tick++) {
+                if (tick == scenario.warmupTicks) {
+                    gc.reset();
+                    runs = 0;
+                    renderStats = draw ? view.newStats() : null;
+                    allocated = threads.getCurrentThreadAllocatedBytes();
+                    elapsed = System.nanoTime();
+                }
+                long start = System.nanoTime();
+                if (tick > 0 && scenario.prepare(simulation, tick)) {
+                    simulation.startRun();
+                    recorder = new InputRecorder(GameSimulation.TICKS_PER_SECOND, fingerprint);
+                    runs++;
+                }
+                int frame = scenario.frame(simulation, tick);
+                recorder.record(frame);
+                simulation.tick(frame);
+                if (tick >= scenario.warmupTicks) {
+                    updates.record(System.nanoTime() - start);
+                }
+                if (draw) {
+                    view.draw(renderStats, tick * GameSimulation.TICK_SECONDS);
+                }
+            }
+            allocated = threads.getCurrentThreadAllocatedBytes() - allocated;
+            double seconds = (System.nanoTime() - elapsed) / 1e9;
+            return new Result(
+                    scenario.label,
+                    updates.count(),
+                    runs,
+                    updates.meanNanos() / 1e3,
+                    updates.percentileNanos(50) / 1e3,
+                    updates.percentileNanos(99) / 1e3,
+                    updates.maxNanos() / 1e3,
+                    (double) allocated / scenario.ticks,
+                    allocated / seconds / (1024.0 * 1024.0),
+                    gc.count(),
+                    gc.totalMillis(),
+                    gc.maxMillis(),
+                    draw ? renderStats.averagePerFrame(Counter.DRAW_CALLS) : 0.0,
+                    draw ? renderStats.averagePerFrame(Counter.TEXTURE_BINDS) : 0.0,
+                    draw ? renderStats.averagePerFrame(Counter.BATCH_FLUSHES) : 0.0,
+                    draw ? renderStats.averagePerFrame(Counter.TEXTURE_SWITCHES) : 0.0,
+                    draw ? renderStats.maxSpritesInBatch() : 0);
+        } finally {
+            if (view != null) {
+                view.dispose();
+            }
+            simulation.dispose();
+        }
+    }
+
+    private static Result median(List<Result> passes) {
+        Result first = passes.get(0);
+        return new Result(
+                first.name(),
+                first.updates(),
+                first.runs(),
+                median(passes, Result::meanMicros),
+                median(passes, Result::p50Micros),
+                median(passes, Result::p99Micros),
+                median(passes, Result::maxMicros),
+                median(passes, Result::allocatedBytesPerUpdate),
+                median(passes, Result::allocatedMbPerSecond),
+                (long) median(passes, Result::gcCount),
+                median(passes, Result::gcPauseMillis),
+                median(passes, Result::gcMaxPauseMillis),
+                first.drawCallsPerUpdate(),
+                first.textureBindsPerUpdate(),
+                first.batchFlushesPerUpdate(),
+                first.textureSwitchesPerUpdate(),
+                first.maxSpritesInBatch());
+    }
+
+    private static double median(List<Result> passes, ToDoubleFunction<Result> metric) {
+        double[] values = new double[passes.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = metric.applyAsDouble(passes.get(i));
+        }
+        Arrays.sort(values);
+        return values[values.length / 2];
+    }
+
+    /**
+     * @param gateTimings whether update times fail the gate or are only shown
+     * @return {@code false} if any gated metric regressed past {@code thresholdPercent}
+     */
+    private static boolean compare(Map<String, Map<String, Double>> baseline, List<Result> results,
+            double thresholdPercent, boolean gateTimings) {
+        System.out.println();
+        System.out.printf("%-10s %-24s %12s %12s %9s%n", "", "", "baseline", "current", "change");
+        boolean passed = true;
+        for (Result result : results) {
+            Map<String, Double> expected = baseline.get(result.name());
+            if (expected == null) {
+                System.out.printf("%-10s not in the baseline%n", result.name());
+                continue;
+            }
+            passed &= gate(result.name(), "p50Micros", expected, result.p50Micros(), MIN_REGRESSION_MICROS,
+                    thresholdPercent, gateTimings);
+            passed &= gate(result.name(), "p99Micros", expected, result.p99Micros(), MIN_REGRESSION_MICROS,
+                    thresholdPercent, gateTimings);
+            passed &= gate(result.name(), "allocatedBytesPerUpdate", expected, result.allocatedBytesPerUpdate(),
+                    MIN_REGRESSION_BYTES, thresholdPercent, true);
+            passed &= gate(result.name(), "drawCallsPerUpdate", expected, result.drawCallsPerUpdate(),
+                    MIN_REGRESSION_CALLS, thresholdPercent, true);
+            passed &= gate(result.name(), "textureSwitchesPerUpdate", expected, result.textureSwitchesPerUpdate(),
+                    MIN_REGRESSION_CALLS, thresholdPercent, true);
+        }
+        System.out.println(passed
+                ? "No regression beyond " + thresholdPercent + "%"
+                : "REGRESSION beyond " + thresholdPercent + "% of the baseline");
+        return passed;
+    }
+
+    /**
+     * @param enforced whether a regression fails the gate; otherwise it is only marked
+     */
+    private static boolean gate(String scenario, String metric, Map<String, Double> baseline, double current,
+            double minDifference, double thresholdPercent, boolean enforced) {
+        Double expected = baseline.get(metric);
+        if (expected == null) {
+            return true;
+        }
+        boolean regressed = current - expected > minDifference;
+        String change = "n/a";
+        if (expected != 0.0) {
+            double percent = (current - expected) / expected * 100.0;
+            regressed &= percent > thresholdPercent;
+            change = String.format(Locale.US, "%+.1f%%", percent);
+        }
+        System.out.printf(Locale.US, "%-10s %-24s %12.1f %12.1f %9s%s%n",
+                scenario, metric, expected, current, change,
+                regressed ? (enforced ? "  REGRESSED" : "  slower (not gated)") : "");
+        return !regressed || !enforced;
+    }
+
+    private static void writeCsv(Path target, List<Result> results) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(target)) {
+            writer.write(String.join(",", Result.COLUMNS));
+            writer.write('\n');
+            for (Result result : results) {
+                Object[] values = result.values();
+                for (int i = 0; i < values.length; i++) {
+                    if (i > 0) {
+                        writer.write(',');
+                    }
+                    writer.write(format(values[i]));
+                }
+                writer.write('\n');
+            }
+        }
+    }
+
+    private static void writeJson(Path target, List<Result> results) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(target)) {
+            JsonWriter json = new JsonWriter(writer);
+            json.setOutputType(JsonWriter.OutputType.json);
+            json.object();
+            json.name("java").value(System.getProperty("java.version"));
+            json.name("cores").value(Runtime.getRuntime().availableProcessors());
+            json.name("scenarios");
+            json.array();
+            for (Result result : results) {
+                json.object();
+                Object[] values = result.values();
+                for (int i = 0; i < values.length; i++) {
+                    json.name(Result.COLUMNS[i]).value(values[i] instanceof Double ? Double.valueOf(format(values[i])) : values[i]);
+                }
+                json.pop();
+            }
+            json.pop(); // scenarios array
+            json.pop(); // root object
+            json.flush();
+        }
+    }
+
+    /**
+     * @return the numeric fields of every scenario in a file written by {@link #writeJson}, by name
+     */
+    private static Map<String, Map<String, Double>> readJson(Path source) throws IOException {
+        Map<String, Map<String, Double>> scenarios = new LinkedHashMap<>();
+        try (JsonPullParser parser = new JsonPullParser(Files.newBufferedReader(source))) {
+            parser.beginObject();
+            while (parser.hasNext()) {
+                if (!parser.nextName().equals("scenarios")) {
+                    parser.skipValue();
+                    continue;
+                }
+                parser.beginArray();
+                while (parser.hasNext()) {
+                    String name = null;
+                    Map<String, Double> metrics = new LinkedHashMap<>();
+                    parser.beginObject();
+                    while (parser.hasNext()) {
+                        String key = parser.nextName();
+                        if (key.equals("name")) {
+                            name = parser.nextString();
+                        } else if (parser.peek() == JsonPullParser.Token.NUMBER) {
+                            metrics.put(key, (double) parser.nextFloat());
+                        } else {
+                            parser.skipValue();
+                        }
+                    }
+                    parser.endObject();
+                    if (name != null) {
+                        scenarios.put(name, metrics);
+                    }
+                }
+                parser.endArray();
+            }
+            parser.endObject();
+        }
+        return scenarios;
+    }
+
+    private static String format(Object value) {
+        return value instanceof Double number ? String.format(Locale.US, "%.2f", number) : String.valueOf(value);
+    }
+
+    /**
+     * Draws a simulation the way {@code CelesteGame} does, phase by phase, with the camera on the
+     * simulation's view. Headless, every GL call lands in the stub and is only counted.
+     */
+    private static final class HeadlessView {
+        private final GameSimulation simulation;
+        private final WorldRenderer renderer;
+        private final CountingSpriteBatch batch = new CountingSpriteBatch();
+        private final ShapeRenderer shapes = new ShapeRenderer();
+        private final GLProfiler gl = new GLProfiler(Gdx.graphics);
+        private final OrthographicCamera camera;
+
+        HeadlessView(GameSimulation simulation) {
+            this.simulation = simulation;
+            renderer = new WorldRenderer(simulation);
+            camera = new OrthographicCamera(simulation.viewWidth(), simulation.viewHeight());
+            gl.enable();
+        }
+
+        RenderStats newStats() {
+            return new RenderStats(gl, batch);
+        }
+
+        void draw(RenderStats stats, float time) {
+            camera.position.set(simulation.viewCenterX(), simulation.viewCenterY(), 0f);
+            camera.update();
+            batch.setProjectionMatrix(camera.combined);
+            stats.beginFrame();
+            stats.begin(Phase.TILES);
+            batch.begin();
+            renderer.drawTiles(batch, camera, time);
+            stats.end(Phase.TILES);
+            stats.begin(Phase.ENEMIES);
+            renderer.indexEnemies();
+            renderer.prepareEnemies(camera);
+            renderer.drawEnemies(batch);
+            stats.end(Phase.ENEMIES);
+            stats.begin(Phase.SAMURAI);
+            renderer.drawPlayers(batch, simulation.samurai());
+            batch.end();
+            stats.end(Phase.SAMURAI);
+            stats.begin(Phase.HEALTH_BARS);
+            renderer.drawHealthBars(shapes, camera);
+            stats.end(Phase.HEALTH_BARS);
+            stats.endFrame();
+        }
+
+        void dispose() {
+            gl.disable();
+            renderer.dispose();
+            batch.dispose();
+            shapes.dispose();
+        }
+    }
+
+    /**
+     * Collects the pause of every stop-the-world collection from the JVM's GC notifications.
+     * Concurrent cycles run beside the game and are left out.
+     */
+    private static final class GcPauses implements NotificationListener {
+        private long count;
+        private long totalMillis;
+        private long maxMillis;
+
+        GcPauses() {
+            for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+                if (bean instanceof NotificationEmitter emitter) {
+                    emitter.addNotificationListener(this, null, null);
+                }
+            }
+        }
+
+        @Override
+        public synchronized void handleNotification(Notification notification, Object handback) {
+            if (!notification.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
+                return;
+            }
+            GarbageCollectionNotificationInfo info =
+                    GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            if (info.getGcName().contains("Concurrent") || info.getGcName().contains("Cycles")) {
+                return;
+            }
+            long millis = info.getGcInfo().getDuration();
+            count++;
+            totalMillis += millis;
+            maxMillis = Math.max(maxMillis, millis);
+        }
+
+        synchronized void reset() {
+            count = 0L;
+            totalMillis = 0L;
+            maxMillis = 0L;
+        }
+
+        synchronized long count() {
+            return count;
+        }
+
+        synchronized double totalMillis() {
+            return totalMillis;
+        }
+
+        synchronized double maxMillis() {
+            return maxMillis;
+        }
+
+        void close() {
+            for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+                if (bean instanceof NotificationEmitter emitter) {
+                    try {
+                        emitter.removeNotificationListener(this);
+                    } catch (javax.management.ListenerNotFoundException ignored) {
+                        // Never registered on this collector.
+                    }
+                }
+            }
+        }
+    }
+}
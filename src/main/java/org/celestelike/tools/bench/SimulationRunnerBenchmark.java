@@ -0,0 +1,85 @@
+package org.celestelike.tools.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.celestelike.game.GameSimulation;
+import org.celestelike.game.config.GameConfig;
+import org.celestelike.game.entity.enemy.EnemyRegistry;
+import org.celestelike.game.headless.SimulationRunner;
+import org.celestelike.game.headless.SimulationRunner.Controller;
+import org.celestelike.game.headless.SimulationRunner.Result;
+import org.celestelike.game.headless.SimulationRunner.Task;
+import org.celestelike.game.logging.GameLogger;
+import org.celestelike.game.replay.InputRecording;
+
+/**
+ * Measures how {@link SimulationRunner} throughput scales with threads: the same batch of worlds,
+ * each playing the same scripted session, is run with 1, 2, 4... threads up to the core count.
+ * Every world must end in the same state as a world run alone, which checks that concurrent
+ * worlds really share nothing.
+ *
+ * <p>Usage: {@code SimulationRunnerBenchmark [worlds=16] [seconds=60] [maxThreads=cores]}.
+ */
+public final class SimulationRunnerBenchmark {
+
+    private SimulationRunnerBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int worlds = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+        int maxThreads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        GameConfig config;
+        Controller controller;
+        long ticks = (long) seconds * GameSimulation.TICKS_PER_SECOND;
+        try (SimulationRunner warmup = new SimulationRunner(1)) {
+            config = GameConfig.load();
+            GameSimulation probe = new GameSimulation(config, 1, EnemyRegistry.defaults(), GameLogger.discarding());
+            long fingerprint = InputRecording.fingerprint(probe.source());
+            probe.dispose();
+            controller = Controller.replaying(ReplayBenchmark.synthesize((int) ticks, fingerprint));
+            // One world alone: the reference end state, and JIT warm-up for the timed batches.
+            Result reference = warmup.run(List.of(new Task("reference", config, null, controller, ticks))).get(0);
+            System.out.printf(Locale.US, "Worlds:   %d x %ds scripted session (%d ticks each), %d cores%n",
+                    worlds, seconds, ticks, Runtime.getRuntime().availableProcessors());
+            System.out.printf(Locale.US, "Alone:    %.0f ticks/s, end state %016x%n",
+                    reference.ticksPerSecond(), reference.stateHash());
+
+            List<Task> tasks = new ArrayList<>(worlds);
+            for (int i = 0; i < worlds; i++) {
+                tasks.add(new Task("world-" + i, config, null, controller, ticks));
+            }
+            double baseline = 0.0;
+            boolean identical = true;
+            for (int threads = 1; ; threads = Math.min(threads * 2, maxThreads)) {
+                try (SimulationRunner runner = new SimulationRunner(threads)) {
+                    long start = System.nanoTime();
+                    List<Result> results = runner.run(tasks);
+                    double wall = (System.nanoTime() - start) / 1e9;
+                    double throughput = worlds * ticks / wall;
+                    if (threads == 1) {
+                        baseline = throughput;
+                    }
+                    for (Result result : results) {
+                        identical &= result.stateHash() == reference.stateHash();
+                    }
+                    double speedup = throughput / baseline;
+                    System.out.printf(Locale.US,
+                            "Threads %2d: %10.0f world-ticks/s in %6.2fs, %.2fx over one thread (%.0f%% efficiency)%n",
+                            threads, throughput, wall, speedup, speedup / threads * 100.0);
+                }
+                if (threads >= maxThreads) {
+                    break;
+                }
+            }
+            System.out.println("Isolation: " + (identical
+                    ? "every world ended in the reference state"
+                    : "WORLDS DIVERGED from the reference state"));
+            if (!identical) {
+                System.exit(1);
+            }
+        }
+    }
+}
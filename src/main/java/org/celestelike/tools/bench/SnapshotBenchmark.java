@@ -0,0 +1,160 @@
+package org.celestelike.tools.bench;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Locale;
+import org.celestelike.game.GameSimulation;
+import org.celestelike.game.WorldSnapshot;
+import org.celestelike.game.config.GameConfig;
+import org.celestelike.game.headless.HeadlessRuntime;
+import org.celestelike.game.metrics.TimeHistogram;
+import org.celestelike.game.replay.InputRecording;
+import org.celestelike.game.replay.InputReplayer;
+
+/**
+ * Times {@link GameSimulation#saveState} and {@link GameSimulation#restoreState} over a scripted
+ * session and checks that restores are exact: a restored state must save back byte-identical,
+ * and re-simulating a rollback window from it must land on the state originally saved at the
+ * end of the window. Also compares a full {@link GameSimulation#resetRun} with the checkpoint
+ * restore {@link GameSimulation#startRun} now does.
+ *
+ * <p>Usage: {@code SnapshotBenchmark [seconds] [window]} (defaults 60, 8 ticks).
+ */
+public final class SnapshotBenchmark {
+
+    private static final int ALLOCATION_PROBE_SAVES = 10_000;
+    private static final int RESTART_SAMPLES = 50;
+
+    private SnapshotBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 60;
+        int window = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+
+        HeadlessRuntime runtime = new HeadlessRuntime(GameConfig.load());
+        try {
+            GameSimulation simulation = runtime.simulation();
+            int ticks = seconds * GameSimulation.TICKS_PER_SECOND;
+            int[] frames = frames(ReplayBenchmark.synthesize(ticks, InputRecording.fingerprint(simulation.source())));
+
+            // Warm-up pass so the JIT has compiled save/restore before anything is timed.
+            WorldSnapshot[] history = new WorldSnapshot[ticks + 1];
+            record(simulation, frames, history, null);
+
+            TimeHistogram saves = new TimeHistogram();
+            record(simulation, frames, history, saves);
+            int size = history[ticks].sizeBytes();
+
+            WorldSnapshot working = new WorldSnapshot();
+            long allocated = allocatedBytes();
+            for (int i = 0; i < ALLOCATION_PROBE_SAVES; i++) {
+                simulation.saveState(working);
+            }
+            long bytesPerSave = (allocatedBytes() - allocated) / ALLOCATION_PROBE_SAVES;
+
+            TimeHistogram restores = new TimeHistogram();
+            int roundTripMismatches = 0;
+            int rollbackMismatches = 0;
+            int rollbacks = 0;
+            for (int start = 0; start + window <= ticks; start += window) {
+                long begin = System.nanoTime();
+                simulation.restoreState(history[start]);
+                restores.record(System.nanoTime() - begin);
+                simulation.saveState(working);
+                if (!working.sameState(history[start])) {
+                    roundTripMismatches++;
+                }
+                for (int t = start; t < start + window; t++) {
+                    advance(simulation, frames[t]);
+                }
+                simulation.saveState(working);
+                if (!working.sameState(history[start + window])) {
+                    rollbackMismatches++;
+                }
+                rollbacks++;
+            }
+
+            long[] restartSamples = new long[RESTART_SAMPLES];
+            long[] checkpointSamples = new long[RESTART_SAMPLES];
+            for (int i = 0; i < RESTART_SAMPLES; i++) {
+                simulation.restoreState(history[ticks / 2]);
+                long begin = System.nanoTime();
+                simulation.resetRun();
+                restartSamples[i] = System.nanoTime() - begin;
+                simulation.restoreState(history[ticks / 2]);
+                begin = System.nanoTime();
+                simulation.startRun();
+                checkpointSamples[i] = System.nanoTime() - begin;
+            }
+
+            System.out.printf(Locale.US, "Session:  %ds scripted, %d ticks, snapshot %d bytes (capacity %d)%n",
+                    seconds, ticks, size, history[ticks].capacityBytes());
+            System.out.println("Save:     " + saves.summary());
+            System.out.println("Restore:  " + restores.summary());
+            System.out.println("          (tail = restores across a despawn or kill, which rebuild enemies)");
+            System.out.println("Alloc:    " + bytesPerSave + " bytes per save (" + ALLOCATION_PROBE_SAVES + " saves)");
+            System.out.printf(Locale.US, "Restart:  full reset %.1fus vs checkpoint restore %.1fus (median of %d)%n",
+                    median(restartSamples) / 1e3, median(checkpointSamples) / 1e3, RESTART_SAMPLES);
+            System.out.println("Exact:    " + rollbacks + " rollbacks of " + window + " ticks, "
+                    + roundTripMismatches + " round-trip and " + rollbackMismatches + " re-simulation mismatches");
+            if (roundTripMismatches > 0 || rollbackMismatches > 0) {
+                System.exit(1);
+            }
+        } finally {
+            runtime.dispose();
+        }
+    }
+
+    /**
+     * Plays the session from a fresh run, saving the state before every tick into
+     * {@code history} (and once more at the end).
+     */
+    private static void record(GameSimulation simulation, int[] frames, WorldSnapshot[] history, TimeHistogram saves) {
+        simulation.startRun();
+        WorldSnapshot working = new WorldSnapshot();
+        for (int t = 0; t <= frames.length; t++) {
+            long begin = System.nanoTime();
+            simulation.saveState(working);
+            if (saves != null) {
+                saves.record(System.nanoTime() - begin);
+            }
+            if (history[t] == null) {
+                history[t] = new WorldSnapshot();
+            }
+            working.copyTo(history[t]);
+            if (t < frames.length) {
+                advance(simulation, frames[t]);
+            }
+        }
+    }
+
+    /**
+     * One tick; a dead samurai retries first, as in {@link HeadlessRuntime#play}.
+     */
+    private static void advance(GameSimulation simulation, int frame) {
+        if (simulation.samurai().isDead()) {
+            simulation.startRun();
+        }
+        simulation.tick(frame);
+    }
+
+    private static int[] frames(InputRecording recording) {
+        int[] frames = new int[(int) recording.tickCount()];
+        InputReplayer replayer = recording.replayer();
+        for (int i = 0; i < frames.length; i++) {
+            frames[i] = replayer.nextFrame();
+        }
+        return frames;
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    private static long median(long[] samples) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,88 @@
+package org.celestelike.tools.editor;
+
+import java.util.Arrays;
+
+/**
+ * Tracks which fixed-size map regions were edited since they were last persisted, so periodic
+ * autosaves only serialize the parts of the map that actually changed.
+ */
+final class DirtyRegionTracker {
+
+    static final int REGION_SIZE = 32;
+
+    private final int regionRows;
+    private final int regionCols;
+    private final boolean[] dirty;
+    private int dirtyCount;
+
+    DirtyRegionTracker(int rows, int cols) {
+        this.regionRows = Math.max(1, (rows + REGION_SIZE - 1) / REGION_SIZE);
+        this.regionCols = Math.max(1, (cols + REGION_SIZE - 1) / REGION_SIZE);
+        this.dirty = new boolean[regionRows * regionCols];
+    }
+
+    int regionRows() {
+        return regionRows;
+    }
+
+    int regionCols() {
+        return regionCols;
+    }
+
+    void markCell(int row, int col) {
+        markRegion(row / REGION_SIZE, col / REGION_SIZE);
+    }
+
+    void markRegion(int regionRow, int regionCol) {
+        if (regionRow < 0 || regionRow >= regionRows || regionCol < 0 || regionCol >= regionCols) {
+            return;
+        }
+        int index = regionRow * regionCols + regionCol;
+        if (!dirty[index]) {
+            dirty[index] = true;
+            dirtyCount++;
+        }
+    }
+
+    boolean isDirty(int regionRow, int regionCol) {
+        return dirty[regionRow * regionCols + regionCol];
+    }
+
+    boolean hasDirty() {
+        return dirtyCount > 0;
+    }
+
+    void clear(int regionRow, int regionCol) {
+        int index = regionRow * regionCols + regionCol;
+        if (dirty[index]) {
+            dirty[index] = false;
+            dirtyCount--;
+        }
+    }
+
+    /**
+     * Clears every region and returns which were dirty, for {@link #markAll} to restore if the
+     * save they were taken for fails.
+     */
+    boolean[] takeAll() {
+        boolean[] taken = dirty.clone();
+        Arrays.fill(dirty, false);
+        dirtyCount = 0;
+        return taken;
+    }
+
+    /**
+     * Marks the regions {@link #takeAll()} returned; ignored if they came from a map of another
+     * size.
+     */
+    void markAll(boolean[] regions) {
+        if (regions.length != dirty.length) {
+            return;
+        }
+        for (int index = 0; index < regions.length; index++) {
+            if (regions[index]) {
+                markRegion(index / regionCols, index % regionCols);
+            }
+        }
+    }
+}
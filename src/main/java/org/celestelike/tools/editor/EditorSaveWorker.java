@@ -0,0 +1,261 @@
+package org.celestelike.tools.editor;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.JsonWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.celestelike.game.logging.GameLogger;
+import org.celestelike.game.metrics.Tracer;
+import org.celestelike.game.world.AtomicFileWriter;
+import org.celestelike.game.world.LevelData;
+import org.celestelike.tools.editor.MapEditorApp.Cell;
+import org.celestelike.tools.editor.MapEditorApp.DoorInfo;
+import org.celestelike.tools.editor.MapEditorApp.KeyInfo;
+
+/**
+ * Serializes editor saves on a single background thread. Every file is written through
+ * {@link AtomicFileWriter}, so the render thread never blocks on disk and an interrupted save
+ * never leaves a half-written level behind.
+ *
+ * <p>Full saves and region autosaves run in submission order, so a region captured before a full
+ * save is always on disk before that save deletes the autosaves, and never written after it. A
+ * full save that a newer one is already queued behind is skipped, since the newer state covers
+ * it; the dirty regions it took are handed on to the newer save, to be restored if that fails.
+ */
+final class EditorSaveWorker {
+
+    static final String AUTOSAVE_DIR = "autosave";
+
+    /**
+     * Save outcomes, delivered on the render thread.
+     */
+    interface Listener {
+        /**
+         * @param regions the dirty regions the save took (see {@link DirtyRegionTracker#takeAll()}),
+         *                including those of saves it superseded
+         */
+        void onFullSaveFinished(boolean blueprintOk, boolean snapshotOk, boolean enemiesOk, boolean[] regions);
+
+        void onRegionSaveFailed(int regionRow, int regionCol);
+    }
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "editor-save");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /** The newest full save submitted; older ones still queued skip themselves. */
+    private final AtomicReference<FullSave> newestFull = new AtomicReference<>();
+    private final Path snapshotPath;
+    private final Path enemySpawnsPath;
+    private final Path autosaveDir;
+    private final Listener listener;
+
+    EditorSaveWorker(String snapshotPath, String enemySpawnsPath, Listener listener) {
+        this.snapshotPath = localPath(snapshotPath);
+        this.enemySpawnsPath = localPath(enemySpawnsPath);
+        this.autosaveDir = localPath(AUTOSAVE_DIR);
+        this.listener = listener;
+    }
+
+    static Path localPath(String path) {
+        return Gdx.files.local(path).file().toPath();
+    }
+
+    static String regionFileName(int regionRow, int regionCol) {
+        return "region_" + regionRow + "_" + regionCol + ".json";
+    }
+
+    /**
+     * @param regions the dirty regions cleared for this save, handed back when it finishes
+     */
+    void submitFullSave(EditorState state, boolean[] regions) {
+        FullSave save = new FullSave(state, regions);
+        newestFull.set(save);
+        executor.execute(() -> runFullSave(save));
+    }
+
+    void submitRegionSave(int regionRow, int regionCol, EditorState region) {
+        executor.execute(() -> {
+            Path target = autosaveDir.resolve(regionFileName(regionRow, regionCol));
+            Tracer.begin("save", "editor region autosave");
+            try {
+                AtomicFileWriter.write(target, writer -> writeRegion(writer, regionRow, regionCol, region));
+            } catch (IOException exception) {
+                Gdx.app.error("MapEditor", "Autosave failed for " + target, exception);
+                Gdx.app.postRunnable(() -> listener.onRegionSaveFailed(regionRow, regionCol));
+            } finally {
+                Tracer.end("save", "editor region autosave");
+            }
+        });
+    }
+
+    /**
+     * Waits for queued saves to hit the disk; called when the editor closes.
+     */
+    void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                Gdx.app.error("MapEditor", "Timed out waiting for pending saves");
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runFullSave(FullSave save) {
+        FullSave newest = newestFull.get();
+        if (newest != save) {
+            // The newer save is queued behind this one and writes all it holds; nothing else
+            // touches its regions until it runs.
+            for (int index = 0; index < save.regions().length; index++) {
+                newest.regions()[index] |= save.regions()[index];
+            }
+            return;
+        }
+        EditorState state = save.state();
+        Tracer.begin("save", "editor full save");
+        boolean blueprintOk = LevelData.saveBlueprint(state.blueprint());
+        boolean snapshotOk = writeAtomically(snapshotPath, writer -> writeSnapshot(writer, state));
+        boolean enemiesOk = writeAtomically(enemySpawnsPath, writer -> writeEnemySpawns(writer, state.enemies()));
+        if (blueprintOk && snapshotOk && enemiesOk) {
+            // Everything the autosave regions held is now part of the main files.
+            deleteAutosaves();
+        }
+        Tracer.end("save", "editor full save");
+        GameLogger.shared().info("Editor save: blueprint=" + blueprintOk
+                + " snapshot=" + snapshotOk
+                + " enemies=" + enemiesOk);
+        Gdx.app.postRunnable(() -> listener.onFullSaveFinished(blueprintOk, snapshotOk, enemiesOk, save.regions()));
+    }
+
+    private static boolean writeAtomically(Path target, AtomicFileWriter.Body body) {
+        try {
+            AtomicFileWriter.write(target, body);
+            return true;
+        } catch (IOException exception) {
+            Gdx.app.error("MapEditor", "Failed to save " + target, exception);
+            return false;
+        }
+    }
+
+    private void deleteAutosaves() {
+        File[] files = autosaveDir.toFile().listFiles((dir, name) -> name.startsWith("region_"));
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            try {
+                Files.deleteIfExists(file.toPath());
+            } catch (IOException exception) {
+                Gdx.app.error("MapEditor", "Failed to delete stale autosave " + file, exception);
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Serialization
+    // -------------------------------------------------------------------------
+
+    private static void writeSnapshot(Writer writer, EditorState state) throws IOException {
+        JsonWriter json = new JsonWriter(writer);
+        json.setOutputType(JsonWriter.OutputType.json);
+        json.object();
+        state.solid().writeJson(json, "solidMask");
+        state.water().writeJson(json, "waterMask");
+        writeMetadata(json, state);
+        json.pop(); // root object
+        json.flush();
+    }
+
+    private static void writeEnemySpawns(Writer writer, Map<Cell, String> enemies) throws IOException {
+        JsonWriter json = new JsonWriter(writer);
+        json.setOutputType(JsonWriter.OutputType.json);
+        json.array();
+        writeEnemyObjects(json, enemies);
+        json.pop(); // root array
+        json.flush();
+    }
+
+    private static void writeRegion(Writer writer, int regionRow, int regionCol, EditorState region)
+            throws IOException {
+        JsonWriter json = new JsonWriter(writer);
+        json.setOutputType(JsonWriter.OutputType.json);
+        json.object();
+        json.name("regionRow").value(regionRow);
+        json.name("regionCol").value(regionCol);
+        json.name("row0").value(region.rowOffset());
+        json.name("col0").value(region.colOffset());
+        json.name("rows").value(region.rows());
+        json.name("cols").value(region.cols());
+        json.name("cells").array();
+        for (int r = 0; r < region.rows(); r++) {
+            json.array();
+            for (int c = 0; c < region.cols(); c++) {
+                LevelData.writeCell(json, region.blueprint()[r][c]);
+            }
+            json.pop(); // row array
+        }
+        json.pop(); // cells array
+        region.solid().writeJson(json, "solidMask");
+        region.water().writeJson(json, "waterMask");
+        writeMetadata(json, region);
+        json.pop(); // root object
+        json.flush();
+    }
+
+    private static void writeMetadata(JsonWriter json, EditorState state) throws IOException {
+        json.name("doors").array();
+        for (Map.Entry<Cell, DoorInfo> entry : state.doors().entrySet()) {
+            Cell cell = entry.getKey();
+            json.object();
+            json.name("row").value(cell.row());
+            json.name("col").value(cell.col());
+            json.name("channel").value(entry.getValue().channel());
+            json.pop();
+        }
+        json.pop(); // doors array
+
+        json.name("keys").array();
+        for (Map.Entry<Cell, KeyInfo> entry : state.keys().entrySet()) {
+            Cell cell = entry.getKey();
+            json.object();
+            json.name("row").value(cell.row());
+            json.name("col").value(cell.col());
+            json.name("channel").value(entry.getValue().channel());
+            json.pop();
+        }
+        json.pop(); // keys array
+
+        // enemies – keep for backwards compatibility
+        json.name("enemies").array();
+        writeEnemyObjects(json, state.enemies());
+        json.pop(); // enemies array
+    }
+
+    private static void writeEnemyObjects(JsonWriter json, Map<Cell, String> enemies) throws IOException {
+        for (Map.Entry<Cell, String> entry : enemies.entrySet()) {
+            Cell cell = entry.getKey();
+            json.object();
+            json.name("name").value(entry.getValue());
+            json.name("row").value(cell.row());
+            json.name("col").value(cell.col());
+            json.pop();
+        }
+    }
+
+    /**
+     * A captured document and the dirty regions cleared for it.
+     */
+    private record FullSave(EditorState state, boolean[] regions) {
+    }
+}
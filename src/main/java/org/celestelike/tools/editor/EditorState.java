@@ -0,0 +1,81 @@
+package org.celestelike.tools.editor;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.celestelike.game.world.LevelData.TileBlueprint;
+import org.celestelike.game.world.TileMask;
+import org.celestelike.tools.editor.MapEditorApp.Cell;
+import org.celestelike.tools.editor.MapEditorApp.DoorInfo;
+import org.celestelike.tools.editor.MapEditorApp.KeyInfo;
+
+/**
+ * Immutable copy of (part of) the editor document, captured on the render thread and handed to
+ * {@link EditorSaveWorker} so serialization never races with further edits.
+ *
+ * <p>{@code rowOffset}/{@code colOffset} locate the captured window inside the full map; a full
+ * save uses {@code 0,0} and the whole grid, an autosave region uses its
+ * {@link DirtyRegionTracker#REGION_SIZE}-aligned window. Masks are window-local; metadata keys
+ * always use absolute map coordinates.
+ */
+record EditorState(
+        int rowOffset,
+        int colOffset,
+        TileBlueprint[][] blueprint,
+        TileMask solid,
+        TileMask water,
+        Map<Cell, DoorInfo> doors,
+        Map<Cell, KeyInfo> keys,
+        Map<Cell, String> enemies) {
+
+    int rows() {
+        return blueprint.length;
+    }
+
+    int cols() {
+        return blueprint.length == 0 ? 0 : blueprint[0].length;
+    }
+
+    /**
+     * Copies the window {@code [row0, row0 + rows) x [col0, col0 + cols)} of the live editor data.
+     * {@link TileBlueprint} instances are shared because the editor replaces cells rather than
+     * mutating them.
+     */
+    static EditorState capture(
+            int row0,
+            int col0,
+            int rows,
+            int cols,
+            TileBlueprint[][] blueprint,
+            TileMask solid,
+            TileMask water,
+            Map<Cell, DoorInfo> doors,
+            Map<Cell, KeyInfo> keys,
+            Map<Cell, String> enemies) {
+        TileBlueprint[][] cellCopy = new TileBlueprint[rows][];
+        for (int r = 0; r < rows; r++) {
+            cellCopy[r] = new TileBlueprint[cols];
+            System.arraycopy(blueprint[row0 + r], col0, cellCopy[r], 0, cols);
+        }
+        return new EditorState(
+                row0,
+                col0,
+                cellCopy,
+                solid.copyWindow(row0, col0, rows, cols),
+                water.copyWindow(row0, col0, rows, cols),
+                window(doors, row0, col0, rows, cols),
+                window(keys, row0, col0, rows, cols),
+                window(enemies, row0, col0, rows, cols));
+    }
+
+    private static <V> Map<Cell, V> window(Map<Cell, V> source, int row0, int col0, int rows, int cols) {
+        Map<Cell, V> copy = new HashMap<>();
+        for (Map.Entry<Cell, V> entry : source.entrySet()) {
+            Cell cell = entry.getKey();
+            if (cell.row() >= row0 && cell.row() < row0 + rows
+                    && cell.col() >= col0 && cell.col() < col0 + cols) {
+                copy.put(cell, entry.getValue());
+            }
+        }
+        return Map.copyOf(copy);
+    }
+}
@@ -15,16 +15,17 @@ import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.utils.JsonReader;
 import com.badlogic.gdx.utils.JsonValue;
-import com.badlogic.gdx.utils.JsonWriter;
-import java.io.IOException;
-import java.io.Writer;
+import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import org.celestelike.game.logging.GameLogger;
+import org.celestelike.game.metrics.Tracer;
 import org.celestelike.game.world.LevelData;
 import org.celestelike.game.world.LevelData.TileBlueprint;
+import org.celestelike.game.world.TileMask;
 import org.celestelike.game.world.TilesetIO;
 import org.celestelike.game.world.TilesetIO.TilesetData;
 
@@ -46,7 +47,8 @@ import org.celestelike.game.world.TilesetIO.TilesetData;
  *   <li>Key 3: toggle DOOR at the selected cell (door channel cycles 1..8).</li>
  *   <li>Key 4: toggle KEY at the selected cell (associated with the current door channel).</li>
  *   <li>Key 5: cycle ENEMY type for the selected cell (redDeon, skeletonEnemie).</li>
- *   <li>Ctrl+S: save blueprint + collision + enemies to JSON files read by the game.</li>
+ *   <li>Ctrl+S: save blueprint + collision + enemies to JSON files read by the game (in the
+ *       background; files are replaced atomically).</li>
  *   <li>Ctrl+C: clear all metadata (solid/water/door/key/enemy) for the selected cell.</li>
  *   <li>ESC: quit editor.</li>
  * </ul>
@@ -56,12 +58,15 @@ import org.celestelike.game.world.TilesetIO.TilesetData;
  *   <li>{@code editor_blueprint.json} – maintained via {@link LevelData#saveBlueprint(TileBlueprint[][])}.</li>
  *   <li>{@code inspector_snapshot.json} – contains solid/water/doors/keys/enemies for collision & metadata.</li>
  *   <li>{@code enemy_spawns.json} – flat array of enemy spawn objects preferred by {@code EnemySpawnLoader}.</li>
+ *   <li>{@code autosave/region_R_C.json} – periodic autosave of edited {@value DirtyRegionTracker#REGION_SIZE}x{@value DirtyRegionTracker#REGION_SIZE}
+ *       regions; replayed on the next launch and removed after a successful Ctrl+S.</li>
  * </ul>
  */
 public final class MapEditorApp extends ApplicationAdapter {
 
     private static final String SNAPSHOT_PATH = "inspector_snapshot.json";
     private static final String ENEMY_SPAWNS_PATH = "enemy_spawns.json";
+    private static final float AUTOSAVE_INTERVAL_SECONDS = 30f;
 
     private static final String[] ENEMY_TYPES = {
             "redDeon",
@@ -78,8 +83,8 @@ public final class MapEditorApp extends ApplicationAdapter {
     private TileBlueprint[][] blueprint;
 
     // collision & metadata masks
-    private boolean[][] solidMask;
-    private boolean[][] waterMask;
+    private TileMask solidMask;
+    private TileMask waterMask;
 
     private final Map<Cell, DoorInfo> doors = new HashMap<>();
     private final Map<Cell, KeyInfo> keys = new HashMap<>();
@@ -105,6 +110,12 @@ public final class MapEditorApp extends ApplicationAdapter {
     private int selectedPaletteIndex = -1;
     private int currentDoorChannel = 1;
 
+    // saving
+    private DirtyRegionTracker dirtyRegions;
+    private EditorSaveWorker saveWorker;
+    private float autosaveTimer;
+    private String saveStatus = "not saved";
+
     public MapEditorApp(String tsxPath) {
         this.tsxPath = tsxPath;
     }
@@ -120,11 +131,30 @@ public final class MapEditorApp extends ApplicationAdapter {
         loadBlueprint();
         loadSnapshot();
         loadEnemies();
+        recoverAutosaves();
         loadTileset();
+        saveWorker = new EditorSaveWorker(SNAPSHOT_PATH, ENEMY_SPAWNS_PATH, new EditorSaveWorker.Listener() {
+            @Override
+            public void onFullSaveFinished(boolean blueprintOk, boolean snapshotOk, boolean enemiesOk,
+                                           boolean[] regions) {
+                if (blueprintOk && snapshotOk && enemiesOk) {
+                    saveStatus = "saved";
+                } else {
+                    // The edits are in neither the main files nor an autosave yet.
+                    dirtyRegions.markAll(regions);
+                    saveStatus = "SAVE FAILED";
+                }
+            }
+
+            @Override
+            public void onRegionSaveFailed(int regionRow, int regionCol) {
+                dirtyRegions.markRegion(regionRow, regionCol);
+            }
+        });
 
         resize(Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
 
-        GameLogger.info("MapEditor started with TSX: " + tsxPath);
+        GameLogger.shared().info("MapEditor started with TSX: " + tsxPath);
     }
 
     @Override
@@ -158,6 +188,7 @@ public final class MapEditorApp extends ApplicationAdapter {
     @Override
     public void render() {
         handleInput();
+        tickAutosave(Gdx.graphics.getDeltaTime());
 
         Gdx.gl.glClearColor(0.06f, 0.06f, 0.09f, 1f);
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
@@ -172,6 +203,10 @@ public final class MapEditorApp extends ApplicationAdapter {
 
     @Override
     public void dispose() {
+        if (saveWorker != null) {
+            autosaveDirtyRegions();
+            saveWorker.shutdown();
+        }
         batch.dispose();
         shapes.dispose();
         font.dispose();
@@ -180,7 +215,7 @@ public final class MapEditorApp extends ApplicationAdapter {
                 texture.dispose();
             }
         }
-        GameLogger.info("MapEditor terminated");
+        GameLogger.shared().info("MapEditor terminated");
     }
 
     // -------------------------------------------------------------------------
@@ -191,8 +226,9 @@ public final class MapEditorApp extends ApplicationAdapter {
         blueprint = LevelData.copyBlueprint();
         rows = blueprint.length;
         cols = blueprint[0].length;
-        solidMask = new boolean[rows][cols];
-        waterMask = new boolean[rows][cols];
+        solidMask = new TileMask(rows, cols);
+        waterMask = new TileMask(rows, cols);
+        dirtyRegions = new DirtyRegionTracker(rows, cols);
     }
 
     private void loadSnapshot() {
@@ -205,76 +241,139 @@ public final class MapEditorApp extends ApplicationAdapter {
         }
         try {
             JsonValue root = new JsonReader().parse(handle);
-            JsonValue solidArray = root.get("solid");
-            if (solidArray != null) {
-                for (JsonValue entry : solidArray) {
-                    if (entry.isArray() && entry.size >= 2) {
-                        int r = entry.getInt(0);
-                        int c = entry.getInt(1);
-                        if (withinBounds(r, c)) {
-                            solidMask[r][c] = true;
-                        }
-                    }
+            solidMask.readSnapshotLayer(root, "solid");
+            waterMask.readSnapshotLayer(root, "water");
+            applyMetadata(root);
+        } catch (Exception exception) {
+            Gdx.app.error("MapEditor", "Failed to parse " + SNAPSHOT_PATH, exception);
+        }
+    }
+
+    /**
+     * Region autosaves store their masks window-local; older ones used absolute {@code [row, col]}
+     * entries, which {@link TileMask#readSnapshotLayer} still understands.
+     */
+    private static void applyRegionMask(JsonValue root, String name, TileMask target,
+            int row0, int col0, int windowRows, int windowCols) {
+        JsonValue packed = root.get(name + "Mask");
+        if (packed != null) {
+            TileMask window = new TileMask(windowRows, windowCols);
+            if (window.readJson(packed)) {
+                target.paste(window, row0, col0);
+            }
+            return;
+        }
+        target.applyLegacyEntries(root.get(name));
+    }
+
+    private void applyMetadata(JsonValue root) {
+        JsonValue doorsArray = root.get("doors");
+        if (doorsArray != null) {
+            for (JsonValue entry : doorsArray) {
+                if (!entry.isObject()) {
+                    continue;
+                }
+                int r = entry.getInt("row", -1);
+                int c = entry.getInt("col", -1);
+                int channel = entry.getInt("channel", 1);
+                if (withinBounds(r, c)) {
+                    doors.put(new Cell(r, c), new DoorInfo(channel));
+                    currentDoorChannel = Math.max(currentDoorChannel, channel);
                 }
             }
-            JsonValue waterArray = root.get("water");
-            if (waterArray != null) {
-                for (JsonValue entry : waterArray) {
-                    if (entry.isArray() && entry.size >= 2) {
-                        int r = entry.getInt(0);
-                        int c = entry.getInt(1);
-                        if (withinBounds(r, c)) {
-                            waterMask[r][c] = true;
-                        }
-                    }
+        }
+        JsonValue keysArray = root.get("keys");
+        if (keysArray != null) {
+            for (JsonValue entry : keysArray) {
+                if (!entry.isObject()) {
+                    continue;
+                }
+                int r = entry.getInt("row", -1);
+                int c = entry.getInt("col", -1);
+                int channel = entry.getInt("channel", 1);
+                if (withinBounds(r, c)) {
+                    keys.put(new Cell(r, c), new KeyInfo(channel));
+                    currentDoorChannel = Math.max(currentDoorChannel, channel);
                 }
             }
-            JsonValue doorsArray = root.get("doors");
-            if (doorsArray != null) {
-                for (JsonValue entry : doorsArray) {
-                    if (!entry.isObject()) {
-                        continue;
-                    }
-                    int r = entry.getInt("row", -1);
-                    int c = entry.getInt("col", -1);
-                    int channel = entry.getInt("channel", 1);
-                    if (withinBounds(r, c)) {
-                        doors.put(new Cell(r, c), new DoorInfo(channel));
-                        currentDoorChannel = Math.max(currentDoorChannel, channel);
-                    }
+        }
+        JsonValue enemiesArray = root.get("enemies");
+        if (enemiesArray != null) {
+            for (JsonValue enemyValue : enemiesArray) {
+                if (!enemyValue.isObject()) {
+                    continue;
+                }
+                String name = enemyValue.getString("name", null);
+                int r = enemyValue.getInt("row", -1);
+                int c = enemyValue.getInt("col", -1);
+                if (name != null && withinBounds(r, c)) {
+                    enemies.put(new Cell(r, c), name);
                 }
             }
-            JsonValue keysArray = root.get("keys");
-            if (keysArray != null) {
-                for (JsonValue entry : keysArray) {
-                    if (!entry.isObject()) {
-                        continue;
-                    }
-                    int r = entry.getInt("row", -1);
-                    int c = entry.getInt("col", -1);
-                    int channel = entry.getInt("channel", 1);
-                    if (withinBounds(r, c)) {
-                        keys.put(new Cell(r, c), new KeyInfo(channel));
-                        currentDoorChannel = Math.max(currentDoorChannel, channel);
+        }
+    }
+
+    /**
+     * Replays autosaved regions left behind by a session that ended without a successful Ctrl+S.
+     * The regions stay marked dirty so the next save folds them into the main files.
+     */
+    private void recoverAutosaves() {
+        if (Gdx.files == null) {
+            return;
+        }
+        File directory = Gdx.files.local(EditorSaveWorker.AUTOSAVE_DIR).file();
+        File[] files = directory.listFiles((dir, name) -> name.startsWith("region_") && name.endsWith(".json"));
+        if (files == null || files.length == 0) {
+            return;
+        }
+        Arrays.sort(files);
+        int recovered = 0;
+        for (File file : files) {
+            try {
+                JsonValue root = new JsonReader().parse(Gdx.files.absolute(file.getAbsolutePath()));
+                int row0 = root.getInt("row0");
+                int col0 = root.getInt("col0");
+                int regionRows = root.getInt("rows");
+                int regionCols = root.getInt("cols");
+                clearWindow(row0, col0, regionRows, regionCols);
+                JsonValue cellsNode = root.get("cells");
+                int r = row0;
+                for (JsonValue rowNode = cellsNode == null ? null : cellsNode.child; rowNode != null; rowNode = rowNode.next, r++) {
+                    int c = col0;
+                    for (JsonValue cellNode = rowNode.child; cellNode != null; cellNode = cellNode.next, c++) {
+                        if (withinBounds(r, c)) {
+                            blueprint[r][c] = LevelData.parseCell(cellNode);
+                        }
                     }
                 }
+                applyRegionMask(root, "solid", solidMask, row0, col0, regionRows, regionCols);
+                applyRegionMask(root, "water", waterMask, row0, col0, regionRows, regionCols);
+                applyMetadata(root);
+                dirtyRegions.markRegion(root.getInt("regionRow"), root.getInt("regionCol"));
+                recovered++;
+            } catch (Exception exception) {
+                Gdx.app.error("MapEditor", "Ignoring unreadable autosave " + file, exception);
             }
-            JsonValue enemiesArray = root.get("enemies");
-            if (enemiesArray != null) {
-                for (JsonValue enemyValue : enemiesArray) {
-                    if (!enemyValue.isObject()) {
-                        continue;
-                    }
-                    String name = enemyValue.getString("name", null);
-                    int r = enemyValue.getInt("row", -1);
-                    int c = enemyValue.getInt("col", -1);
-                    if (name != null && withinBounds(r, c)) {
-                        enemies.put(new Cell(r, c), name);
-                    }
+        }
+        if (recovered > 0) {
+            saveStatus = "recovered " + recovered + " autosaved region(s) - Ctrl+S to keep";
+            GameLogger.shared().info("MapEditor recovered " + recovered + " autosaved region(s)");
+        }
+    }
+
+    private void clearWindow(int row0, int col0, int windowRows, int windowCols) {
+        solidMask.clearWindow(row0, col0, windowRows, windowCols);
+        waterMask.clearWindow(row0, col0, windowRows, windowCols);
+        for (int r = row0; r < row0 + windowRows; r++) {
+            for (int c = col0; c < col0 + windowCols; c++) {
+                if (!withinBounds(r, c)) {
+                    continue;
                 }
+                Cell cell = new Cell(r, c);
+                doors.remove(cell);
+                keys.remove(cell);
+                enemies.remove(cell);
             }
-        } catch (Exception exception) {
-            Gdx.app.error("MapEditor", "Failed to parse " + SNAPSHOT_PATH, exception);
         }
     }
 
@@ -391,7 +490,7 @@ public final class MapEditorApp extends ApplicationAdapter {
                 selectedRow = row;
                 selectedCol = col;
                 paintTileIfSelected(row, col);
-                GameLogger.info("Selected map cell row=" + row + " col=" + col);
+                GameLogger.shared().info("Selected map cell row=" + row + " col=" + col);
             }
         } else {
             // click inside palette
@@ -404,7 +503,7 @@ public final class MapEditorApp extends ApplicationAdapter {
             int paletteIndex = logicalRow * paletteCols + col;
             if (paletteIndex >= 0 && paletteIndex < tilesetRegions.size()) {
                 selectedPaletteIndex = paletteIndex;
-                GameLogger.info("Selected palette index=" + paletteIndex);
+                GameLogger.shared().info("Selected palette index=" + paletteIndex);
             }
         }
     }
@@ -414,24 +513,28 @@ public final class MapEditorApp extends ApplicationAdapter {
             return;
         }
         blueprint[row][col] = new TileBlueprint(new int[] {selectedPaletteIndex}, 0.15f);
+        dirtyRegions.markCell(row, col);
     }
 
     private void toggleSolid(int row, int col) {
-        solidMask[row][col] = !solidMask[row][col];
-        GameLogger.info("Cell (" + row + "," + col + ") solid=" + solidMask[row][col]);
+        solidMask.toggle(row, col);
+        dirtyRegions.markCell(row, col);
+        GameLogger.shared().info("Cell (" + row + "," + col + ") solid=" + solidMask.get(row, col));
     }
 
     private void toggleWater(int row, int col) {
-        waterMask[row][col] = !waterMask[row][col];
-        GameLogger.info("Cell (" + row + "," + col + ") water=" + waterMask[row][col]);
+        waterMask.toggle(row, col);
+        dirtyRegions.markCell(row, col);
+        GameLogger.shared().info("Cell (" + row + "," + col + ") water=" + waterMask.get(row, col));
     }
 
     private void toggleDoor(int row, int col) {
+        dirtyRegions.markCell(row, col);
         Cell key = new Cell(row, col);
         DoorInfo existing = doors.get(key);
         if (existing != null) {
             doors.remove(key);
-            GameLogger.info("Removed door at (" + row + "," + col + ")");
+            GameLogger.shared().info("Removed door at (" + row + "," + col + ")");
             return;
         }
         currentDoorChannel++;
@@ -440,32 +543,34 @@ public final class MapEditorApp extends ApplicationAdapter {
         }
         DoorInfo door = new DoorInfo(currentDoorChannel);
         doors.put(key, door);
-        GameLogger.info(
+        GameLogger.shared().info(
                 "Placed door at (" + row + "," + col + ") channel=" + door.channel());
     }
 
     private void toggleKey(int row, int col) {
+        dirtyRegions.markCell(row, col);
         Cell keyCell = new Cell(row, col);
         KeyInfo existing = keys.get(keyCell);
         if (existing != null) {
             keys.remove(keyCell);
-            GameLogger.info("Removed key at (" + row + "," + col + ")");
+            GameLogger.shared().info("Removed key at (" + row + "," + col + ")");
             return;
         }
         // Associate with current door channel
         int channel = MathUtils.clamp(currentDoorChannel, 1, 8);
         KeyInfo info = new KeyInfo(channel);
         keys.put(keyCell, info);
-        GameLogger.info(
+        GameLogger.shared().info(
                 "Placed key at (" + row + "," + col + ") channel=" + info.channel());
     }
 
     private void cycleEnemy(int row, int col) {
+        dirtyRegions.markCell(row, col);
         Cell cell = new Cell(row, col);
         String current = enemies.get(cell);
         if (current == null) {
             enemies.put(cell, ENEMY_TYPES[0]);
-            GameLogger.info("Placed enemy " + ENEMY_TYPES[0] + " at (" + row + "," + col + ")");
+            GameLogger.shared().info("Placed enemy " + ENEMY_TYPES[0] + " at (" + row + "," + col + ")");
             return;
         }
         int index = 0;
@@ -478,138 +583,75 @@ public final class MapEditorApp extends ApplicationAdapter {
         int nextIndex = (index + 1) % ENEMY_TYPES.length;
         String next = ENEMY_TYPES[nextIndex];
         enemies.put(cell, next);
-        GameLogger.info("Changed enemy at (" + row + "," + col + ") to " + next);
+        GameLogger.shared().info("Changed enemy at (" + row + "," + col + ") to " + next);
     }
 
     private void clearSelectionMetadata() {
         if (!withinBounds(selectedRow, selectedCol)) {
             return;
         }
-        solidMask[selectedRow][selectedCol] = false;
-        waterMask[selectedRow][selectedCol] = false;
+        solidMask.set(selectedRow, selectedCol, false);
+        waterMask.set(selectedRow, selectedCol, false);
         doors.remove(new Cell(selectedRow, selectedCol));
         keys.remove(new Cell(selectedRow, selectedCol));
         enemies.remove(new Cell(selectedRow, selectedCol));
         blueprint[selectedRow][selectedCol] = TileBlueprint.air();
-        GameLogger.info("Cleared cell (" + selectedRow + "," + selectedCol + ")");
+        dirtyRegions.markCell(selectedRow, selectedCol);
+        GameLogger.shared().info("Cleared cell (" + selectedRow + "," + selectedCol + ")");
     }
 
     // -------------------------------------------------------------------------
     // Saving
     // -------------------------------------------------------------------------
 
+    /**
+     * Captures the whole document and hands it to the save worker; the render thread only pays
+     * for the array copies.
+     */
     private void saveAll() {
-        boolean blueprintOk = LevelData.saveBlueprint(blueprint);
-        boolean snapshotOk = saveSnapshot();
-        boolean enemiesOk = saveEnemySpawns();
-        GameLogger.info("Editor save: blueprint=" + blueprintOk
-                + " snapshot=" + snapshotOk
-                + " enemies=" + enemiesOk);
+        if (saveWorker == null) {
+            return;
+        }
+        Tracer.begin("save", "editor capture");
+        EditorState state = EditorState.capture(0, 0, rows, cols,
+                blueprint, solidMask, waterMask, doors, keys, enemies);
+        Tracer.end("save", "editor capture");
+        autosaveTimer = 0f;
+        saveStatus = "saving...";
+        saveWorker.submitFullSave(state, dirtyRegions.takeAll());
     }
 
-    private boolean saveSnapshot() {
-        if (Gdx.files == null) {
-            return false;
-        }
-        FileHandle handle = Gdx.files.local(SNAPSHOT_PATH);
-        try (Writer writer = handle.writer(false, "UTF-8")) {
-            JsonWriter json = new JsonWriter(writer);
-            json.setOutputType(JsonWriter.OutputType.json);
-            json.object();
-
-            // solid cells
-            json.name("solid").array();
-            for (int r = 0; r < rows; r++) {
-                for (int c = 0; c < cols; c++) {
-                    if (solidMask[r][c]) {
-                        json.array().value(r).value(c).pop();
-                    }
-                }
-            }
-            json.pop(); // solid array
-
-            // water cells
-            json.name("water").array();
-            for (int r = 0; r < rows; r++) {
-                for (int c = 0; c < cols; c++) {
-                    if (waterMask[r][c]) {
-                        json.array().value(r).value(c).pop();
-                    }
-                }
-            }
-            json.pop(); // water array
-
-            // doors
-            json.name("doors").array();
-            for (Map.Entry<Cell, DoorInfo> entry : doors.entrySet()) {
-                Cell cell = entry.getKey();
-                DoorInfo door = entry.getValue();
-                json.object();
-                json.name("row").value(cell.row());
-                json.name("col").value(cell.col());
-                json.name("channel").value(door.channel());
-                json.pop();
-            }
-            json.pop(); // doors array
-
-            // keys
-            json.name("keys").array();
-            for (Map.Entry<Cell, KeyInfo> entry : keys.entrySet()) {
-                Cell cell = entry.getKey();
-                KeyInfo info = entry.getValue();
-                json.object();
-                json.name("row").value(cell.row());
-                json.name("col").value(cell.col());
-                json.name("channel").value(info.channel());
-                json.pop();
-            }
-            json.pop(); // keys array
-
-            // enemies – keep for backwards compatibility
-            json.name("enemies").array();
-            for (Map.Entry<Cell, String> entry : enemies.entrySet()) {
-                Cell cell = entry.getKey();
-                json.object();
-                json.name("name").value(entry.getValue());
-                json.name("row").value(cell.row());
-                json.name("col").value(cell.col());
-                json.pop();
-            }
-            json.pop(); // enemies array
-
-            json.pop(); // root object
-            json.close();
-            return true;
-        } catch (IOException exception) {
-            Gdx.app.error("MapEditor", "Failed to save " + SNAPSHOT_PATH, exception);
-            return false;
+    private void tickAutosave(float delta) {
+        autosaveTimer += delta;
+        if (autosaveTimer < AUTOSAVE_INTERVAL_SECONDS) {
+            return;
         }
+        autosaveTimer = 0f;
+        autosaveDirtyRegions();
     }
 
-    private boolean saveEnemySpawns() {
-        if (Gdx.files == null) {
-            return false;
-        }
-        FileHandle handle = Gdx.files.local(ENEMY_SPAWNS_PATH);
-        try (Writer writer = handle.writer(false, "UTF-8")) {
-            JsonWriter json = new JsonWriter(writer);
-            json.setOutputType(JsonWriter.OutputType.json);
-            json.array();
-            for (Map.Entry<Cell, String> entry : enemies.entrySet()) {
-                Cell cell = entry.getKey();
-                json.object();
-                json.name("name").value(entry.getValue());
-                json.name("row").value(cell.row());
-                json.name("col").value(cell.col());
-                json.pop();
+    private void autosaveDirtyRegions() {
+        if (saveWorker == null || !dirtyRegions.hasDirty()) {
+            return;
+        }
+        int size = DirtyRegionTracker.REGION_SIZE;
+        int written = 0;
+        for (int regionRow = 0; regionRow < dirtyRegions.regionRows(); regionRow++) {
+            for (int regionCol = 0; regionCol < dirtyRegions.regionCols(); regionCol++) {
+                if (!dirtyRegions.isDirty(regionRow, regionCol)) {
+                    continue;
+                }
+                int row0 = regionRow * size;
+                int col0 = regionCol * size;
+                EditorState region = EditorState.capture(row0, col0,
+                        Math.min(size, rows - row0), Math.min(size, cols - col0),
+                        blueprint, solidMask, waterMask, doors, keys, enemies);
+                dirtyRegions.clear(regionRow, regionCol);
+                saveWorker.submitRegionSave(regionRow, regionCol, region);
+                written++;
             }
-            json.pop(); // root array
-            json.close();
-            return true;
-        } catch (IOException exception) {
-            Gdx.app.error("MapEditor", "Failed to save " + ENEMY_SPAWNS_PATH, exception);
-            return false;
         }
+        GameLogger.shared().info("Editor autosave: " + written + " region(s) queued");
     }
 
     // -------------------------------------------------------------------------
@@ -659,11 +701,11 @@ public final class MapEditorApp extends ApplicationAdapter {
                 float y = r * tileSizePx;
                 Cell cell = new Cell(r, c);
 
-                if (solidMask[r][c]) {
+                if (solidMask.get(r, c)) {
                     shapes.setColor(0f, 1f, 0f, 0.75f);
                     shapes.rect(x + 1, y + 1, tileSizePx - 2, tileSizePx - 2);
                 }
-                if (waterMask[r][c]) {
+                if (waterMask.get(r, c)) {
                     shapes.setColor(0f, 0.5f, 1f, 0.75f);
                     shapes.rect(x + 4, y + 4, tileSizePx - 8, tileSizePx - 8);
                 }
@@ -752,7 +794,8 @@ public final class MapEditorApp extends ApplicationAdapter {
                     : "none")
                 + " | Selected tile index: "
                 + (selectedPaletteIndex >= 0 ? selectedPaletteIndex : "none")
-                + " | Door channel: " + currentDoorChannel;
+                + " | Door channel: " + currentDoorChannel
+                + " | Save: " + saveStatus;
         font.draw(batch, status, 8, screenHeight - 8);
 
         String help = "Mouse: LMB select/paint  |  1=solid  2=water  3=door  4=key  5=enemy cycle"
@@ -770,11 +813,11 @@ public final class MapEditorApp extends ApplicationAdapter {
         return row >= 0 && row < rows && col >= 0 && col < cols;
     }
 
-    private record Cell(int row, int col) {}
+    record Cell(int row, int col) {}
 
-    private record DoorInfo(int channel) {}
+    record DoorInfo(int channel) {}
 
-    private record KeyInfo(int channel) {}
+    record KeyInfo(int channel) {}
 }
 
 